@@ -0,0 +1,254 @@
+package org.hisp.dhis.common;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Immutable composite key of dimension item identifiers, where the position
+ * of each item corresponds to the index of the dimension in a query. Replaces
+ * keys made of identifiers concatenated by {@link DimensionalObject#DIMENSION_SEP}
+ * in analytics value maps, which avoids building and splitting strings for
+ * every value. The item identifiers are interned and the hash code is computed
+ * once, at construction.
+ */
+public final class DimensionKey
+    implements Serializable
+{
+    private static final long serialVersionUID = 3164876508612396145L;
+
+    private static final Interner<String> ITEM_INTERNER = Interners.newWeakInterner();
+
+    private static final DimensionKey EMPTY = new DimensionKey( new String[0] );
+
+    /**
+     * The dimension item identifiers.
+     */
+    private final String[] items;
+
+    /**
+     * The cached hash code.
+     */
+    private final int hash;
+
+    private DimensionKey( String[] items )
+    {
+        this.items = items;
+        this.hash = Arrays.hashCode( items );
+    }
+
+    // -------------------------------------------------------------------------
+    // Factory methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Creates a key of the given dimension item identifiers.
+     *
+     * @param items the dimension item identifiers.
+     * @return a {@link DimensionKey}.
+     */
+    public static DimensionKey of( String... items )
+    {
+        if ( items == null || items.length == 0 )
+        {
+            return EMPTY;
+        }
+
+        String[] internedItems = new String[items.length];
+
+        for ( int i = 0; i < items.length; i++ )
+        {
+            internedItems[i] = intern( items[i] );
+        }
+
+        return new DimensionKey( internedItems );
+    }
+
+    /**
+     * Creates a key of the given dimension item identifiers.
+     *
+     * @param items the dimension item identifiers.
+     * @return a {@link DimensionKey}.
+     */
+    public static DimensionKey of( List<String> items )
+    {
+        return items != null ? of( items.toArray( new String[items.size()] ) ) : EMPTY;
+    }
+
+    /**
+     * Creates a key from the given string of dimension item identifiers
+     * separated by {@link DimensionalObject#DIMENSION_SEP}.
+     *
+     * @param key the string key.
+     * @return a {@link DimensionKey}.
+     */
+    public static DimensionKey fromString( String key )
+    {
+        return StringUtils.isEmpty( key ) ? EMPTY : of( key.split( DimensionalObject.DIMENSION_SEP ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the number of dimension items in this key.
+     */
+    public int size()
+    {
+        return items.length;
+    }
+
+    /**
+     * Returns the dimension item identifier at the given index.
+     *
+     * @param index the index.
+     * @return the dimension item identifier.
+     */
+    public String get( int index )
+    {
+        return items[index];
+    }
+
+    /**
+     * Returns a copy of the dimension item identifiers of this key.
+     */
+    public String[] getItems()
+    {
+        return items.clone();
+    }
+
+    /**
+     * Returns a new key where the item at the given index is replaced by the
+     * given item.
+     *
+     * @param index the index.
+     * @param item the dimension item identifier.
+     * @return a {@link DimensionKey}.
+     */
+    public DimensionKey withItem( int index, String item )
+    {
+        String[] newItems = items.clone();
+        newItems[index] = intern( item );
+        return new DimensionKey( newItems );
+    }
+
+    /**
+     * Returns a new key where the item at the given index is removed.
+     *
+     * @param index the index.
+     * @return a {@link DimensionKey}.
+     */
+    public DimensionKey withoutItem( int index )
+    {
+        String[] newItems = new String[items.length - 1];
+        System.arraycopy( items, 0, newItems, 0, index );
+        System.arraycopy( items, index + 1, newItems, index, items.length - index - 1 );
+        return newItems.length == 0 ? EMPTY : new DimensionKey( newItems );
+    }
+
+    /**
+     * Returns a new key where the given item is inserted at the given index.
+     *
+     * @param index the index.
+     * @param item the dimension item identifier.
+     * @return a {@link DimensionKey}.
+     */
+    public DimensionKey withItemAt( int index, String item )
+    {
+        String[] newItems = new String[items.length + 1];
+        System.arraycopy( items, 0, newItems, 0, index );
+        newItems[index] = intern( item );
+        System.arraycopy( items, index, newItems, index + 1, items.length - index );
+        return new DimensionKey( newItems );
+    }
+
+    /**
+     * Returns the dimension item identifiers of this key separated by
+     * {@link DimensionalObject#DIMENSION_SEP}.
+     */
+    public String asString()
+    {
+        return StringUtils.join( items, DimensionalObject.DIMENSION_SEP );
+    }
+
+    private static String intern( String item )
+    {
+        return item != null ? ITEM_INTERNER.intern( item ) : null;
+    }
+
+    /**
+     * Interns the item identifiers of keys read from a serialized form.
+     */
+    private Object readResolve()
+    {
+        return of( items );
+    }
+
+    // -------------------------------------------------------------------------
+    // hashCode, equals and toString
+    // -------------------------------------------------------------------------
+
+    @Override
+    public int hashCode()
+    {
+        return hash;
+    }
+
+    @Override
+    public boolean equals( Object object )
+    {
+        if ( this == object )
+        {
+            return true;
+        }
+
+        if ( object == null || getClass() != object.getClass() )
+        {
+            return false;
+        }
+
+        DimensionKey other = (DimensionKey) object;
+
+        return hash == other.hash && Arrays.equals( items, other.items );
+    }
+
+    @Override
+    public String toString()
+    {
+        return asString();
+    }
+}
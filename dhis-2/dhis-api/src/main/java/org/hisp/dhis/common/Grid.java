@@ -437,6 +437,14 @@ public interface Grid
      */
     <T> Map<String, T> getAsMap( int valueIndex, String keySeparator );
 
+    /**
+     * Returns a map of each row in the grid, where the key is a {@link DimensionKey}
+     * of the values of all columns except the value column.
+     *
+     * @param valueIndex the index of the column to use as map values.
+     */
+    <T> Map<DimensionKey, T> getAsKeyMap( int valueIndex );
+
     /**
      * Adds a set of headers based on the column names of the given SQL result set.
      *
@@ -0,0 +1,123 @@
+package org.hisp.dhis.common;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Opaque cursor for keyset paging over objects ordered by last updated and
+ * identifier, both descending. The next page holds the objects which sort
+ * after the last object of the previous page. The token is the URL-safe
+ * base64 encoding of the last updated timestamp with microsecond precision
+ * and the identifier.
+ */
+public class PageToken
+{
+    private static final String SEPARATOR = "|";
+
+    private final Timestamp lastUpdated;
+
+    private final int id;
+
+    public PageToken( Date lastUpdated, int id )
+    {
+        this.lastUpdated = lastUpdated instanceof Timestamp ? (Timestamp) lastUpdated : new Timestamp( lastUpdated.getTime() );
+        this.id = id;
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Decodes the given page token.
+     *
+     * @param token the encoded token.
+     * @return a {@link PageToken}.
+     * @throws IllegalQueryException if the token is not valid.
+     */
+    public static PageToken decode( String token )
+    {
+        try
+        {
+            String decoded = new String( Base64.getUrlDecoder().decode( token ), StandardCharsets.UTF_8 );
+
+            int separator = decoded.lastIndexOf( SEPARATOR );
+
+            return new PageToken( Timestamp.valueOf( decoded.substring( 0, separator ) ),
+                Integer.parseInt( decoded.substring( separator + 1 ) ) );
+        }
+        catch ( IllegalArgumentException | IndexOutOfBoundsException ex )
+        {
+            throw new IllegalQueryException( "Page token is not valid: " + token );
+        }
+    }
+
+    /**
+     * Returns the URL-safe encoded form of this token.
+     */
+    public String encode()
+    {
+        String value = getLastUpdatedString() + SEPARATOR + id;
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString( value.getBytes( StandardCharsets.UTF_8 ) );
+    }
+
+    /**
+     * Returns the last updated timestamp in SQL timestamp format, with
+     * fractional seconds.
+     */
+    public String getLastUpdatedString()
+    {
+        return lastUpdated.toString();
+    }
+
+    // -------------------------------------------------------------------------
+    // Get methods
+    // -------------------------------------------------------------------------
+
+    public Timestamp getLastUpdated()
+    {
+        return lastUpdated;
+    }
+
+    public int getId()
+    {
+        return id;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[Last updated: " + getLastUpdatedString() + ", id: " + id + "]";
+    }
+}
@@ -50,6 +50,8 @@ public class Pager
 
     private String prevPage;
 
+    private String nextPageToken;
+
     public Pager()
     {
 
@@ -178,4 +180,22 @@ public class Pager
     {
         this.prevPage = prevPage;
     }
+
+    /**
+     * Opaque token for fetching the next page with keyset paging, null if
+     * keyset paging is not used or there are no more pages.
+     *
+     * @return the next page token.
+     */
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public String getNextPageToken()
+    {
+        return nextPageToken;
+    }
+
+    public void setNextPageToken( String nextPageToken )
+    {
+        this.nextPageToken = nextPageToken;
+    }
 }
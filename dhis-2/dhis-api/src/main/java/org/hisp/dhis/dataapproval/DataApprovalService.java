@@ -33,8 +33,10 @@ import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.period.Period;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * @author Jim Grace
@@ -144,6 +146,20 @@ public interface DataApprovalService
     boolean isApproved( DataApprovalWorkflow workflow, Period period,
         OrganisationUnit organisationUnit, CategoryOptionCombo attributeOptionCombo );
 
+    /**
+     * Returns the organisation units among the given ones for which data is
+     * approved (and therefore locked by approval.) The approvals are looked up
+     * in bulk.
+     *
+     * @param workflow workflow to check for approval.
+     * @param period Period to check for approval.
+     * @param organisationUnits OrganisationUnits to check for approval.
+     * @param attributeOptionCombo CategoryOptionCombo (if any) for approval.
+     * @return the OrganisationUnits for which data is approved.
+     */
+    Set<OrganisationUnit> getApprovedOrganisationUnits( DataApprovalWorkflow workflow, Period period,
+        Collection<OrganisationUnit> organisationUnits, CategoryOptionCombo attributeOptionCombo );
+
     /**
      * Returns a map showing each data approval status for a list of
      * data approval objects.
@@ -35,6 +35,7 @@ import org.hisp.dhis.period.Period;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -110,6 +111,17 @@ public interface DataApprovalStore
      */
     boolean dataApprovalExists( DataApproval dataApproval );
 
+    /**
+     * Indicates whether persisted instances of the given data approval objects
+     * exist. Data approvals which are not cached are looked up in a single
+     * query.
+     *
+     * @param dataApprovals the data approvals to check.
+     * @return a map from each data approval to whether a persisted data
+     *         approval exists.
+     */
+    Map<DataApproval, Boolean> dataApprovalsExist( Collection<DataApproval> dataApprovals );
+
     /**
      * Returns DataApproval objects (if any) for given collections of approval
      * level, workflow, period, organisation unit, and attribute option combo.
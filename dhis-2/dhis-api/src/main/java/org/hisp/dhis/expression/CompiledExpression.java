@@ -0,0 +1,58 @@
+package org.hisp.dhis.expression;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.Map;
+
+import org.hisp.dhis.common.DimensionalItemObject;
+
+/**
+ * An expression which has been parsed once and can be evaluated repeatedly
+ * against different values, without building and parsing a new expression
+ * string for each evaluation. Implementations are immutable and thread-safe.
+ */
+public interface CompiledExpression
+{
+    /**
+     * Evaluates the expression. Missing item values, constants and
+     * organisation unit counts are treated as zero.
+     *
+     * @param valueMap the mapping between dimensional items and values.
+     * @param constantMap the mapping between constant uid and value, can be null.
+     * @param orgUnitCountMap the mapping between organisation unit group uid
+     *        and count of organisation units, can be null.
+     * @param days the number of days, can be null.
+     * @param missingValueStrategy the strategy for missing item values, can
+     *        be null which implies {@link MissingValueStrategy#NEVER_SKIP}.
+     * @return the value, or null if the value should be skipped according to
+     *         the missing value strategy.
+     */
+    Double getValue( Map<? extends DimensionalItemObject, Double> valueMap, Map<String, Double> constantMap,
+        Map<String, Integer> orgUnitCountMap, Integer days, MissingValueStrategy missingValueStrategy );
+}
@@ -268,6 +268,18 @@ public interface ExpressionService
         Map<String, Double> constantMap, Map<String, Integer> orgUnitCountMap, Integer days,
         ListMap<String, Double> aggregateMap );
 
+    /**
+     * Returns the compiled form of the given expression, which can be
+     * evaluated repeatedly without substituting values into the expression
+     * string. Compiled expressions are cached.
+     *
+     * @param expression the expression string.
+     * @return the {@link CompiledExpression}, or null if the expression is
+     *         null, invalid or uses functions which are not supported by the
+     *         compiler, such as aggregate functions and isNull.
+     */
+    CompiledExpression getCompiledExpression( String expression );
+
     /**
      * Returns all data elements included in the given expression string.
      * Returns an empty set if the given expression is null.
@@ -0,0 +1,317 @@
+package org.hisp.dhis.organisationunit;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable index of the organisation unit hierarchy. Each organisation unit
+ * is assigned its position in a pre-order traversal of the hierarchy together
+ * with the position of the last unit in its sub-hierarchy, which makes
+ * ancestor checks, level lookups and sub-hierarchy scans constant time
+ * operations. Instances are safe for concurrent use and are replaced as a
+ * whole when the hierarchy changes.
+ *
+ * Units which are not reachable from a root, e.g. due to cycles in the
+ * parent relationships, are not part of the index.
+ */
+public final class OrganisationUnitHierarchyIndex
+{
+    /**
+     * Mapping between organisation unit identifier and pre-order position.
+     */
+    private final Map<Integer, Integer> positions;
+
+    /**
+     * Organisation unit identifiers in pre-order.
+     */
+    private final int[] ids;
+
+    /**
+     * Pre-order position of the last unit in the sub-hierarchy of each position.
+     */
+    private final int[] ends;
+
+    /**
+     * Hierarchy level of each position, where roots are at level 1.
+     */
+    private final int[] levels;
+
+    /**
+     * Value which identifies the state of the hierarchy this index was built from.
+     */
+    private final long version;
+
+    private final long created;
+
+    // -------------------------------------------------------------------------
+    // Constructor
+    // -------------------------------------------------------------------------
+
+    /**
+     * Builds an index. Relationships with a parent identifier which does not
+     * refer to another organisation unit, like 0 for root units, denote roots.
+     *
+     * @param relationships the parent-child relationships.
+     * @param version value which identifies the state of the hierarchy.
+     */
+    public OrganisationUnitHierarchyIndex( Collection<OrganisationUnitRelationship> relationships, long version )
+    {
+        Map<Integer, List<Integer>> children = new HashMap<>();
+        Set<Integer> units = new HashSet<>();
+
+        for ( OrganisationUnitRelationship relationship : relationships )
+        {
+            units.add( relationship.getChildId() );
+
+            if ( relationship.getParentId() != relationship.getChildId() )
+            {
+                children.computeIfAbsent( relationship.getParentId(), p -> new ArrayList<>() ).add( relationship.getChildId() );
+            }
+        }
+
+        List<Integer> roots = new ArrayList<>();
+
+        for ( OrganisationUnitRelationship relationship : relationships )
+        {
+            if ( !units.contains( relationship.getParentId() ) || relationship.getParentId() == relationship.getChildId() )
+            {
+                roots.add( relationship.getChildId() );
+            }
+        }
+
+        this.positions = new HashMap<>( (int) ( units.size() / 0.75f ) + 1 );
+        this.ids = new int[units.size()];
+        this.ends = new int[units.size()];
+        this.levels = new int[units.size()];
+        this.version = version;
+        this.created = System.currentTimeMillis();
+
+        int position = 0;
+
+        for ( Integer root : roots )
+        {
+            position = traverse( root, position, children );
+        }
+    }
+
+    /**
+     * Assigns pre-order positions to the given root and its sub-hierarchy.
+     * Uses an explicit stack to be independent of the depth of the hierarchy.
+     * Units which have already been assigned a position are skipped.
+     *
+     * @return the next available position.
+     */
+    private int traverse( Integer root, int position, Map<Integer, List<Integer>> children )
+    {
+        if ( positions.containsKey( root ) )
+        {
+            return position;
+        }
+
+        Deque<Integer> stack = new ArrayDeque<>();
+        Deque<Integer> open = new ArrayDeque<>();
+
+        stack.push( root );
+
+        while ( !stack.isEmpty() )
+        {
+            Integer unit = stack.pop();
+
+            if ( unit < 0 )
+            {
+                ends[open.pop()] = position - 1;
+                continue;
+            }
+
+            if ( positions.containsKey( unit ) )
+            {
+                continue;
+            }
+
+            positions.put( unit, position );
+            ids[position] = unit;
+            levels[position] = open.size() + 1;
+            open.push( position );
+            position++;
+
+            stack.push( -1 );
+
+            for ( Integer child : children.getOrDefault( unit, Collections.emptyList() ) )
+            {
+                stack.push( child );
+            }
+        }
+
+        return position;
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Indicates whether the organisation unit with the given identifier is
+     * part of this index.
+     */
+    public boolean contains( int id )
+    {
+        return positions.containsKey( id );
+    }
+
+    /**
+     * Indicates whether the organisation unit with the given identifier is
+     * equal to or a descendant of the given ancestor. Returns false if any
+     * of the units is not part of the index.
+     *
+     * @param id the organisation unit identifier.
+     * @param ancestorId the ancestor organisation unit identifier.
+     */
+    public boolean isDescendant( int id, int ancestorId )
+    {
+        Integer position = positions.get( id );
+        Integer ancestor = positions.get( ancestorId );
+
+        return position != null && ancestor != null && isWithin( position, ancestor );
+    }
+
+    /**
+     * Indicates whether the organisation unit with the given identifier is
+     * equal to or a descendant of any of the given ancestors. Returns false
+     * if the unit is not part of the index.
+     *
+     * @param id the organisation unit identifier.
+     * @param ancestorIds the ancestor organisation unit identifiers.
+     */
+    public boolean isDescendant( int id, Collection<Integer> ancestorIds )
+    {
+        Integer position = positions.get( id );
+
+        if ( position == null || ancestorIds == null )
+        {
+            return false;
+        }
+
+        for ( Integer ancestorId : ancestorIds )
+        {
+            Integer ancestor = positions.get( ancestorId );
+
+            if ( ancestor != null && isWithin( position, ancestor ) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the hierarchy level of the organisation unit with the given
+     * identifier, where roots are at level 1, or 0 if the unit is not part
+     * of the index.
+     */
+    public int getLevel( int id )
+    {
+        Integer position = positions.get( id );
+
+        return position != null ? levels[position] : 0;
+    }
+
+    /**
+     * Returns the identifiers of the organisation unit with the given identifier
+     * and all units in its sub-hierarchy, in pre-order. Returns an empty list if
+     * the unit is not part of the index.
+     */
+    public List<Integer> getSubHierarchy( int id )
+    {
+        Integer position = positions.get( id );
+
+        if ( position == null )
+        {
+            return new ArrayList<>();
+        }
+
+        List<Integer> subHierarchy = new ArrayList<>( ends[position] - position + 1 );
+
+        for ( int i = position; i <= ends[position]; i++ )
+        {
+            subHierarchy.add( ids[i] );
+        }
+
+        return subHierarchy;
+    }
+
+    /**
+     * Returns the number of organisation units in the sub-hierarchy of the unit
+     * with the given identifier, including the unit itself, or 0 if the unit is
+     * not part of the index.
+     */
+    public int getSubHierarchySize( int id )
+    {
+        Integer position = positions.get( id );
+
+        return position != null ? ends[position] - position + 1 : 0;
+    }
+
+    /**
+     * Returns the number of organisation units in this index.
+     */
+    public int size()
+    {
+        return positions.size();
+    }
+
+    public long getVersion()
+    {
+        return version;
+    }
+
+    public long getCreated()
+    {
+        return created;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private boolean isWithin( int position, int ancestor )
+    {
+        return ancestor <= position && position <= ends[ancestor];
+    }
+}
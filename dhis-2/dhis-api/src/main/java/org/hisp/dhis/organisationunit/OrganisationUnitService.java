@@ -372,9 +372,9 @@ public interface OrganisationUnitService
     boolean isInUserHierarchy( OrganisationUnit organisationUnit );
 
     /**
-     * Equal to {@link OrganisationUnitService#isInUserHierarchy(OrganisationUnit)}
-     * except adds a caching layer on top. Use this method when performance is
-     * imperative and the risk of a stale result is tolerable.
+     * Equal to {@link OrganisationUnitService#isInUserHierarchy(OrganisationUnit)}.
+     * Ancestor checks are served by the organisation unit hierarchy index,
+     * see {@link OrganisationUnitService#getOrganisationUnitHierarchyIndex()}.
      *
      * @param organisationUnit the organisation unit.
      * @return true if the given organisation unit is part of the hierarchy.
@@ -405,6 +405,28 @@ public interface OrganisationUnitService
      */
     OrganisationUnitHierarchy getOrganisationUnitHierarchy();
 
+    /**
+     * Returns the in-memory index of the committed organisation unit hierarchy.
+     * The index is rebuilt on first access after the hierarchy has changed.
+     * Changes made in the current transaction are not reflected.
+     *
+     * @return the OrganisationUnitHierarchyIndex.
+     */
+    OrganisationUnitHierarchyIndex getOrganisationUnitHierarchyIndex();
+
+    /**
+     * Indicates whether the given organisation unit is equal to or a descendant
+     * of any of the given ancestors. Uses the organisation unit hierarchy index
+     * when all organisation units are part of it and falls back to traversing
+     * the parents of the organisation unit otherwise.
+     *
+     * @param organisationUnit the organisation unit.
+     * @param ancestors the ancestor organisation units.
+     * @return true if the organisation unit is equal to or a descendant of
+     *         any of the ancestors.
+     */
+    boolean isDescendant( OrganisationUnit organisationUnit, Collection<OrganisationUnit> ancestors );
+
     /**
      * Updates the parent id of the organisation unit with the given id.
      *
@@ -133,6 +133,14 @@ public interface OrganisationUnitStore
      */
     OrganisationUnitHierarchy getOrganisationUnitHierarchy();
 
+    /**
+     * Get the parent-child relationships of all OrganisationUnits. Root
+     * OrganisationUnits have a parent identifier of 0.
+     *
+     * @return a List of OrganisationUnitRelationships.
+     */
+    List<OrganisationUnitRelationship> getOrganisationUnitRelationships();
+
     /**
      * Updates the parent id of the organisation unit with the given id.
      *
@@ -140,6 +140,16 @@ public interface PeriodStore
      */
     Period reloadPeriod( Period period );
 
+    /**
+     * Checks if the given periods are associated with the current session and
+     * loads them if not. Periods which are not cached are looked up in a
+     * single query. Null is returned in place of periods which do not exist.
+     *
+     * @param periods the list of Periods.
+     * @return the list of Periods, in the order of the given list.
+     */
+    List<Period> reloadPeriods( List<Period> periods );
+
     /**
      * Checks if the given period is associated with the current session and loads
      * it if not. The period is persisted if it does not exist. The persisted Period
@@ -150,6 +160,15 @@ public interface PeriodStore
      */
     Period reloadForceAddPeriod( Period period );
 
+    /**
+     * Checks if the given periods are associated with the current session and
+     * loads them if not. Periods which do not exist are persisted.
+     *
+     * @param periods the list of Periods.
+     * @return the list of persisted Periods, in the order of the given list.
+     */
+    List<Period> reloadForceAddPeriods( List<Period> periods );
+
     // -------------------------------------------------------------------------
     // PeriodType
     // -------------------------------------------------------------------------
@@ -67,8 +67,17 @@ public abstract class PeriodType
         .expireAfterAccess( 1, TimeUnit.SECONDS )
         .initialCapacity( 10000 )
         .maximumSize( 30000 )
+        .recordStats()
         .build();
 
+    /**
+     * Returns the period lookup cache, for registration with the cache registry.
+     */
+    public static Cache<String, Period> getPeriodCache()
+    {
+        return PERIOD_CACHE;
+    }
+
     private String getCacheKey( Date date )
     {
         return getCalendar().name() + getName() + date.getTime();
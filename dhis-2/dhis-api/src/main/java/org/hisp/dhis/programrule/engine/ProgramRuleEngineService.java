@@ -32,7 +32,9 @@ import org.hisp.dhis.program.ProgramInstance;
 import org.hisp.dhis.program.ProgramStageInstance;
 import org.hisp.dhis.rules.models.RuleEffect;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Created by zubair@dhis2.org on 23.10.17.
@@ -42,4 +44,15 @@ public interface ProgramRuleEngineService
     List<RuleEffect> evaluate( ProgramInstance enrollment );
 
     List<RuleEffect> evaluate( ProgramStageInstance event );
+
+    /**
+     * Evaluates the program rules for the given events in batch. The rule
+     * engine context is built once per program and the events are evaluated
+     * concurrently. Rule actions are implemented after the current transaction
+     * has been committed.
+     *
+     * @param events the events.
+     * @return a mapping of event identifier and rule effects.
+     */
+    Map<String, List<RuleEffect>> evaluateEvents( Collection<ProgramStageInstance> events );
 }
@@ -34,6 +34,7 @@ import org.hisp.dhis.common.CodeGenerator;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * @author Lars Helge Overland
@@ -98,6 +99,19 @@ public abstract class ResourceTable<T>
         return "alter table " + getTempTableName() + " rename to " + getTableName() + ";";
     }
     
+    /**
+     * Provides content for the temporary resource table as a stream of object
+     * arrays. Override in order to produce the content lazily, so that the
+     * table can be populated without holding all rows in memory. Defaults to
+     * the content provided by {@link #getPopulateTempTableContent()}.
+     * 
+     * @return content for the temporary resource table.
+     */
+    public Optional<Stream<Object[]>> getPopulateTempTableContentStream()
+    {
+        return getPopulateTempTableContent().map( List::stream );
+    }
+    
     // -------------------------------------------------------------------------
     // Protected methods
     // -------------------------------------------------------------------------
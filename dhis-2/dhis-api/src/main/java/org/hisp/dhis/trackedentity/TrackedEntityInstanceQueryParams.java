@@ -30,6 +30,7 @@ package org.hisp.dhis.trackedentity;
 
 import org.apache.commons.lang.time.DateUtils;
 import org.hisp.dhis.common.OrganisationUnitSelectionMode;
+import org.hisp.dhis.common.PageToken;
 import org.hisp.dhis.common.QueryFilter;
 import org.hisp.dhis.common.QueryItem;
 import org.hisp.dhis.event.EventStatus;
@@ -187,6 +188,21 @@ public class TrackedEntityInstanceQueryParams
      */
     private boolean skipPaging;
 
+    /**
+     * Indicates whether to page with page tokens instead of offsets.
+     */
+    private boolean keysetPaging;
+
+    /**
+     * Token of the page to fetch with keyset paging, null for the first page.
+     */
+    private PageToken pageToken;
+
+    /**
+     * Token of the next page, set when the current page has been fetched.
+     */
+    private PageToken nextPageToken;
+
     /**
      * Indicates whether to include soft-deleted elements
      */
@@ -624,6 +640,31 @@ public class TrackedEntityInstanceQueryParams
         return (getPageWithDefault() - 1) * getPageSizeWithDefault();
     }
 
+    /**
+     * Indicates whether keyset paging should be used, either explicitly or
+     * through a page token.
+     */
+    public boolean isKeysetPaging()
+    {
+        return keysetPaging || pageToken != null;
+    }
+
+    /**
+     * Indicates whether a page token is specified.
+     */
+    public boolean hasPageToken()
+    {
+        return pageToken != null;
+    }
+
+    /**
+     * Indicates whether a next page token is set.
+     */
+    public boolean hasNextPageToken()
+    {
+        return nextPageToken != null;
+    }
+
     /**
      * Sets paging properties to default values.
      */
@@ -907,6 +948,34 @@ public class TrackedEntityInstanceQueryParams
         return this;
     }
 
+    public TrackedEntityInstanceQueryParams setKeysetPaging( boolean keysetPaging )
+    {
+        this.keysetPaging = keysetPaging;
+        return this;
+    }
+
+    public PageToken getPageToken()
+    {
+        return pageToken;
+    }
+
+    public TrackedEntityInstanceQueryParams setPageToken( PageToken pageToken )
+    {
+        this.pageToken = pageToken;
+        return this;
+    }
+
+    public PageToken getNextPageToken()
+    {
+        return nextPageToken;
+    }
+
+    public TrackedEntityInstanceQueryParams setNextPageToken( PageToken nextPageToken )
+    {
+        this.nextPageToken = nextPageToken;
+        return this;
+    }
+
     public boolean isIncludeDeleted()
     {
         return includeDeleted;
@@ -0,0 +1,104 @@
+package org.hisp.dhis.trackedentityattributevalue;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.Map;
+import java.util.Set;
+
+import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
+
+/**
+ * Searchable index of tracked entity attribute values. Values are kept
+ * lower-cased and tokenized in a dedicated table which is maintained on
+ * attribute value writes, and values of unique attributes are in addition
+ * held in an in-process lookup index.
+ */
+public interface TrackedEntityAttributeSearchIndex
+{
+    String SEARCH_TABLE = "trackedentityattributesearch";
+
+    String SEARCH_FILTER = "filter";
+
+    String SEARCH_QUERY = "query";
+
+    String SEARCH_UNIQUE = "unique";
+
+    String SEARCH_SCAN_SUFFIX = "_scan";
+
+    /**
+     * Indicates whether the search table is available and should be used
+     * for attribute filters and queries.
+     *
+     * @return true if the search table is available.
+     */
+    boolean isEnabled();
+
+    /**
+     * Adds or updates the given attribute value in the index. Values of
+     * confidential attributes are not indexed.
+     *
+     * @param attributeValue the {@link TrackedEntityAttributeValue}.
+     */
+    void index( TrackedEntityAttributeValue attributeValue );
+
+    /**
+     * Removes the given attribute value from the index.
+     *
+     * @param attributeValue the {@link TrackedEntityAttributeValue}.
+     */
+    void remove( TrackedEntityAttributeValue attributeValue );
+
+    /**
+     * Returns the identifiers of tracked entity instances which may have the
+     * given value for the given unique attribute, using the in-process index.
+     * The result is a superset of the actual matches, and callers must still
+     * verify the value. Returns null if the in-process index is not available
+     * for the attribute.
+     *
+     * @param attribute the unique {@link TrackedEntityAttribute}.
+     * @param value the value, case-insensitive.
+     * @return a set of tracked entity instance identifiers, or null.
+     */
+    Set<Integer> getUniqueCandidates( TrackedEntityAttribute attribute, String value );
+
+    /**
+     * Records the execution time for a search of the given type.
+     *
+     * @param searchType the search type.
+     * @param execution the execution time in milliseconds.
+     */
+    void recordSearch( String searchType, long execution );
+
+    /**
+     * Returns search statistics mapped by search type.
+     *
+     * @return a mapping of search type and {@link TrackedEntityAttributeSearchStats}.
+     */
+    Map<String, TrackedEntityAttributeSearchStats> getStatistics();
+}
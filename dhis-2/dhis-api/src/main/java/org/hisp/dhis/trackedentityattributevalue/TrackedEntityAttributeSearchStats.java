@@ -0,0 +1,93 @@
+package org.hisp.dhis.trackedentityattributevalue;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Execution time statistics for tracked entity attribute searches of a
+ * given type. Values are in milliseconds.
+ */
+public class TrackedEntityAttributeSearchStats
+{
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder totalExecution = new LongAdder();
+
+    private final AtomicLong maxExecution = new AtomicLong();
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Records the given execution time for a search.
+     *
+     * @param execution the time the search spent executing.
+     */
+    public void record( long execution )
+    {
+        count.increment();
+        totalExecution.add( execution );
+        maxExecution.accumulateAndGet( execution, Math::max );
+    }
+
+    // -------------------------------------------------------------------------
+    // Get methods
+    // -------------------------------------------------------------------------
+
+    @JsonProperty
+    public long getCount()
+    {
+        return count.sum();
+    }
+
+    @JsonProperty
+    public long getAverageExecution()
+    {
+        long searches = count.sum();
+        return searches > 0 ? totalExecution.sum() / searches : 0;
+    }
+
+    @JsonProperty
+    public long getMaxExecution()
+    {
+        return maxExecution.get();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[Count: " + getCount() + ", average execution: " + getAverageExecution() +
+            ", max execution: " + getMaxExecution() + "]";
+    }
+}
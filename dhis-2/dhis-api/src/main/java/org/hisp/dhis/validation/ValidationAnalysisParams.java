@@ -32,6 +32,7 @@ import com.google.common.collect.ImmutableSet;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.period.Period;
+import org.hisp.dhis.scheduling.JobConfiguration;
 
 import java.util.Collection;
 
@@ -73,6 +74,10 @@ public final class ValidationAnalysisParams
 
     private int dayInPeriod = -1;
 
+    private int orgUnitsPerTask = 0;
+
+    private JobConfiguration jobConfiguration;
+
     /**
      * Gets the rules selected for analysis
      *
@@ -168,6 +173,28 @@ public final class ValidationAnalysisParams
         return maxResults;
     }
 
+    /**
+     * Gets the max number of organisation units evaluated by each validation
+     * task.
+     *
+     * @return the number of organisation units per task, or 0 for the default.
+     */
+    public int getOrgUnitsPerTask()
+    {
+        return orgUnitsPerTask;
+    }
+
+    /**
+     * Gets the job configuration of the job running the analysis, if any, used
+     * to report progress of the analysis.
+     *
+     * @return the job configuration, or null if not run as a job.
+     */
+    public JobConfiguration getJobConfiguration()
+    {
+        return jobConfiguration;
+    }
+
     public static class Builder
     {
         private ValidationAnalysisParams params;
@@ -255,6 +282,30 @@ public final class ValidationAnalysisParams
             return this;
         }
 
+        /**
+         * The max number of organisation units evaluated by each validation task.
+         *
+         * @param orgUnitsPerTask the number of organisation units, 0 for the default
+         * @return the updated builder object
+         */
+        public Builder withOrgUnitsPerTask( int orgUnitsPerTask )
+        {
+            this.params.orgUnitsPerTask = orgUnitsPerTask;
+            return this;
+        }
+
+        /**
+         * The job configuration of the job running the analysis, used to report progress.
+         *
+         * @param jobConfiguration the job configuration
+         * @return the updated builder object
+         */
+        public Builder withJobConfiguration( JobConfiguration jobConfiguration )
+        {
+            this.params.jobConfiguration = jobConfiguration;
+            return this;
+        }
+
         /**
          * Returns the params object
          * @return the final ValidationAnalysisParams object.
@@ -0,0 +1,101 @@
+package org.hisp.dhis.common;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class DimensionKeyTest
+{
+    @Test
+    public void testEquals()
+    {
+        DimensionKey keyA = DimensionKey.of( "dxA", "peA", "ouA" );
+        DimensionKey keyB = DimensionKey.of( Lists.newArrayList( "dxA", "peA", "ouA" ) );
+        DimensionKey keyC = DimensionKey.fromString( "dxA-peA-ouA" );
+        DimensionKey keyD = DimensionKey.of( "dxA", "ouA", "peA" );
+
+        assertEquals( keyA, keyB );
+        assertEquals( keyA, keyC );
+        assertEquals( keyA.hashCode(), keyB.hashCode() );
+        assertNotEquals( keyA, keyD );
+    }
+
+    @Test
+    public void testGetItems()
+    {
+        DimensionKey key = DimensionKey.of( "dxA", "peA", "ouA" );
+
+        assertEquals( 3, key.size() );
+        assertEquals( "peA", key.get( 1 ) );
+        assertArrayEquals( new String[] { "dxA", "peA", "ouA" }, key.getItems() );
+        assertEquals( "dxA-peA-ouA", key.asString() );
+    }
+
+    @Test
+    public void testWithItem()
+    {
+        DimensionKey key = DimensionKey.of( "dxA", "peA", "ouA" );
+
+        assertEquals( DimensionKey.of( "dxA", "peB", "ouA" ), key.withItem( 1, "peB" ) );
+        assertEquals( DimensionKey.of( "peA", "ouA" ), key.withoutItem( 0 ) );
+        assertEquals( DimensionKey.of( "dxA", "peA" ), key.withoutItem( 2 ) );
+        assertEquals( DimensionKey.of( "dxA", "coA", "peA", "ouA" ), key.withItemAt( 1, "coA" ) );
+        assertEquals( DimensionKey.of( "dxA", "peA", "ouA" ), key );
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        DimensionKey key = DimensionKey.of( "dxA" ).withoutItem( 0 );
+
+        assertEquals( 0, key.size() );
+        assertEquals( DimensionKey.fromString( "" ), key );
+        assertEquals( DimensionKey.of(), key );
+        assertEquals( "", key.asString() );
+    }
+
+    @Test
+    public void testSerialization()
+    {
+        DimensionKey key = DimensionKey.of( "dxA", "peA", "ouA" );
+
+        DimensionKey copy = SerializationUtils.roundtrip( key );
+
+        assertEquals( key, copy );
+        assertEquals( key.hashCode(), copy.hashCode() );
+        assertEquals( "dxA-peA-ouA", copy.asString() );
+    }
+}
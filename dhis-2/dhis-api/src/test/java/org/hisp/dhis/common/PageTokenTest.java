@@ -0,0 +1,66 @@
+package org.hisp.dhis.common;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+
+import org.junit.Test;
+
+public class PageTokenTest
+{
+    @Test
+    public void testEncodeDecode()
+    {
+        Timestamp lastUpdated = Timestamp.valueOf( "2019-03-14 10:22:31.123456" );
+
+        PageToken token = PageToken.decode( new PageToken( lastUpdated, 4721 ).encode() );
+
+        assertEquals( lastUpdated, token.getLastUpdated() );
+        assertEquals( "2019-03-14 10:22:31.123456", token.getLastUpdatedString() );
+        assertEquals( 4721, token.getId() );
+    }
+
+    @Test( expected = IllegalQueryException.class )
+    public void testDecodeInvalidToken()
+    {
+        PageToken.decode( "not-a-valid-token" );
+    }
+
+    @Test( expected = IllegalQueryException.class )
+    public void testDecodeInjectedToken()
+    {
+        String value = "2019-03-14 10:22:31') or (1=1|1";
+
+        PageToken.decode( Base64.getUrlEncoder().encodeToString( value.getBytes( StandardCharsets.UTF_8 ) ) );
+    }
+}
@@ -0,0 +1,157 @@
+package org.hisp.dhis.organisationunit;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class OrganisationUnitHierarchyIndexTest
+{
+    private OrganisationUnitHierarchyIndex index;
+
+    /**
+     * Hierarchy:
+     *
+     * 1
+     * - 2
+     *   - 4
+     *   - 5
+     * - 3
+     *   - 6
+     * 7
+     * - 8
+     */
+    @Before
+    public void before()
+    {
+        List<OrganisationUnitRelationship> relationships = new ArrayList<>();
+
+        relationships.add( new OrganisationUnitRelationship( 0, 1 ) );
+        relationships.add( new OrganisationUnitRelationship( 1, 2 ) );
+        relationships.add( new OrganisationUnitRelationship( 1, 3 ) );
+        relationships.add( new OrganisationUnitRelationship( 2, 4 ) );
+        relationships.add( new OrganisationUnitRelationship( 2, 5 ) );
+        relationships.add( new OrganisationUnitRelationship( 3, 6 ) );
+        relationships.add( new OrganisationUnitRelationship( 0, 7 ) );
+        relationships.add( new OrganisationUnitRelationship( 7, 8 ) );
+
+        index = new OrganisationUnitHierarchyIndex( relationships, 1L );
+    }
+
+    @Test
+    public void testContains()
+    {
+        assertEquals( 8, index.size() );
+        assertEquals( 1L, index.getVersion() );
+
+        assertTrue( index.contains( 1 ) );
+        assertTrue( index.contains( 8 ) );
+        assertFalse( index.contains( 0 ) );
+        assertFalse( index.contains( 9 ) );
+    }
+
+    @Test
+    public void testIsDescendant()
+    {
+        assertTrue( index.isDescendant( 1, 1 ) );
+        assertTrue( index.isDescendant( 2, 1 ) );
+        assertTrue( index.isDescendant( 5, 1 ) );
+        assertTrue( index.isDescendant( 6, 3 ) );
+        assertTrue( index.isDescendant( 8, 7 ) );
+
+        assertFalse( index.isDescendant( 1, 2 ) );
+        assertFalse( index.isDescendant( 6, 2 ) );
+        assertFalse( index.isDescendant( 4, 5 ) );
+        assertFalse( index.isDescendant( 8, 1 ) );
+        assertFalse( index.isDescendant( 9, 1 ) );
+    }
+
+    @Test
+    public void testIsDescendantCollection()
+    {
+        assertTrue( index.isDescendant( 4, Lists.newArrayList( 3, 2 ) ) );
+        assertTrue( index.isDescendant( 8, Lists.newArrayList( 9, 7 ) ) );
+
+        assertFalse( index.isDescendant( 4, Lists.newArrayList( 3, 7 ) ) );
+        assertFalse( index.isDescendant( 4, new ArrayList<>() ) );
+    }
+
+    @Test
+    public void testGetLevel()
+    {
+        assertEquals( 1, index.getLevel( 1 ) );
+        assertEquals( 2, index.getLevel( 3 ) );
+        assertEquals( 3, index.getLevel( 5 ) );
+        assertEquals( 1, index.getLevel( 7 ) );
+        assertEquals( 2, index.getLevel( 8 ) );
+        assertEquals( 0, index.getLevel( 9 ) );
+    }
+
+    @Test
+    public void testGetSubHierarchy()
+    {
+        List<Integer> subHierarchy = index.getSubHierarchy( 2 );
+
+        assertEquals( 3, subHierarchy.size() );
+        assertEquals( Integer.valueOf( 2 ), subHierarchy.get( 0 ) );
+        assertTrue( subHierarchy.containsAll( Lists.newArrayList( 2, 4, 5 ) ) );
+
+        assertEquals( 6, index.getSubHierarchy( 1 ).size() );
+        assertEquals( 1, index.getSubHierarchy( 6 ).size() );
+        assertTrue( index.getSubHierarchy( 9 ).isEmpty() );
+
+        assertEquals( 6, index.getSubHierarchySize( 1 ) );
+        assertEquals( 2, index.getSubHierarchySize( 7 ) );
+        assertEquals( 0, index.getSubHierarchySize( 9 ) );
+    }
+
+    @Test
+    public void testCycle()
+    {
+        List<OrganisationUnitRelationship> relationships = new ArrayList<>();
+
+        relationships.add( new OrganisationUnitRelationship( 0, 1 ) );
+        relationships.add( new OrganisationUnitRelationship( 1, 2 ) );
+        relationships.add( new OrganisationUnitRelationship( 4, 3 ) );
+        relationships.add( new OrganisationUnitRelationship( 3, 4 ) );
+
+        OrganisationUnitHierarchyIndex cyclic = new OrganisationUnitHierarchyIndex( relationships, 1L );
+
+        assertEquals( 2, cyclic.size() );
+        assertTrue( cyclic.isDescendant( 2, 1 ) );
+        assertFalse( cyclic.contains( 3 ) );
+        assertFalse( cyclic.contains( 4 ) );
+    }
+}
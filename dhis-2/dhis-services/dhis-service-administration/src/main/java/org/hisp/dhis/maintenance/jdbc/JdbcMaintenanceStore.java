@@ -124,8 +124,8 @@ public class JdbcMaintenanceStore
 
         /*
          * Delete event values, event audits, event comments, events, enrollment
-         * comments, enrollments, tei attribtue values, tei attribtue value
-         * audits, teis
+         * comments, enrollments, tei attribtue values, tei attribute search
+         * values, tei attribtue value audits, teis
          * 
          */
         String[] sqlStmts = new String[] {
@@ -137,6 +137,7 @@ public class JdbcMaintenanceStore
             "delete from trackedentitycomment where trackedentitycommentid not in (select trackedentitycommentid from programstageinstancecomments union all select trackedentitycommentid from programinstancecomments)",
             "delete from programinstance where programinstanceid in " + piSelect,
             "delete from trackedentityattributevalue where trackedentityinstanceid in " + teiSelect,
+            "delete from trackedentityattributesearch where trackedentityinstanceid in " + teiSelect,
             "delete from trackedentityattributevalueaudit where trackedentityinstanceid in " + teiSelect,
             "delete from trackedentityinstance where deleted is true" };
 
@@ -28,8 +28,13 @@ package org.hisp.dhis.resourcetable.jdbc;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -38,10 +43,12 @@ import org.hisp.dhis.analytics.AnalyticsTableHookService;
 import org.hisp.dhis.analytics.AnalyticsTablePhase;
 import org.hisp.dhis.dbms.DbmsManager;
 import org.hisp.dhis.jdbc.StatementBuilder;
+import org.hisp.dhis.jdbc.copy.CopyWriter;
 import org.hisp.dhis.resourcetable.ResourceTable;
 import org.hisp.dhis.resourcetable.ResourceTableStore;
 import org.hisp.dhis.system.util.Clock;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 /**
@@ -52,6 +59,8 @@ public class JdbcResourceTableStore
 {
     private static final Log log = LogFactory.getLog( JdbcResourceTableStore.class );
 
+    private static final int BATCH_SIZE = 5000;
+
     // -------------------------------------------------------------------------
     // Dependencies
     // -------------------------------------------------------------------------
@@ -84,7 +93,7 @@ public class JdbcResourceTableStore
         final Clock clock = new Clock().startClock();
         final String createTableSql = resourceTable.getCreateTempTableStatement();
         final Optional<String> populateTableSql = resourceTable.getPopulateTempTableStatement();
-        final Optional<List<Object[]>> populateTableContent = resourceTable.getPopulateTempTableContent();
+        final Optional<Stream<Object[]>> populateTableContent = resourceTable.getPopulateTempTableContentStream();
         final List<String> createIndexSql = resourceTable.getCreateIndexStatements();
         final String analyzeTableSql = statementBuilder.getAnalyze( resourceTable.getTableName() );
 
@@ -106,7 +115,7 @@ public class JdbcResourceTableStore
         jdbcTemplate.execute( createTableSql );
 
         // ---------------------------------------------------------------------
-        // Populate temporary table through SQL or object batch update
+        // Populate temporary table through SQL or streamed object content
         // ---------------------------------------------------------------------
 
         if ( populateTableSql.isPresent() )
@@ -117,15 +126,11 @@ public class JdbcResourceTableStore
         }
         else if ( populateTableContent.isPresent() )
         {
-            List<Object[]> content = populateTableContent.get();
-
-            log.debug( String.format( "Populate table content rows: '%d'", content.size() ) );
-
-            if ( content.size() > 0 )
+            try ( Stream<Object[]> content = populateTableContent.get() )
             {
-                int columns = content.get( 0 ).length;
+                long rows = populateTable( resourceTable.getTempTableName(), content );
 
-                batchUpdate( columns, resourceTable.getTempTableName(), content );
+                log.debug( String.format( "Populate table content rows: '%d'", rows ) );
             }
         }
 
@@ -202,4 +207,66 @@ public class JdbcResourceTableStore
 
         jdbcTemplate.batchUpdate( builder.toString(), batchArgs );
     }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Populates the given table with the given content. Uses COPY if supported
+     * by the database, and otherwise batch updates of limited size, so that
+     * the content is never held in memory as a whole.
+     *
+     * @param tableName the table name.
+     * @param content the content.
+     * @return the number of rows written.
+     */
+    private long populateTable( String tableName, Stream<Object[]> content )
+    {
+        final Iterator<Object[]> rows = content.iterator();
+
+        if ( jdbcTemplate.execute( (ConnectionCallback<Boolean>) CopyWriter::isSupported ) )
+        {
+            return jdbcTemplate.execute( (ConnectionCallback<Long>) connection -> copyTable( connection, tableName, rows ) );
+        }
+
+        return batchUpdateTable( tableName, rows );
+    }
+
+    private long copyTable( Connection connection, String tableName, Iterator<Object[]> rows )
+        throws SQLException
+    {
+        try ( CopyWriter writer = new CopyWriter( connection, tableName ) )
+        {
+            while ( rows.hasNext() )
+            {
+                writer.write( rows.next() );
+            }
+
+            return writer.finish();
+        }
+    }
+
+    private long batchUpdateTable( String tableName, Iterator<Object[]> rows )
+    {
+        List<Object[]> batch = new ArrayList<>( BATCH_SIZE );
+
+        long count = 0;
+
+        while ( rows.hasNext() )
+        {
+            batch.add( rows.next() );
+
+            if ( batch.size() == BATCH_SIZE || !rows.hasNext() )
+            {
+                batchUpdate( batch.get( 0 ).length, tableName, batch );
+
+                count += batch.size();
+
+                batch.clear();
+            }
+        }
+
+        return count;
+    }
 }
@@ -34,6 +34,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.hisp.dhis.api.util.DateUtils;
 import org.hisp.dhis.category.CategoryCombo;
@@ -91,54 +92,67 @@ public class DataSetOrganisationUnitCategoryResourceTable
     @Override
     public Optional<List<Object[]>> getPopulateTempTableContent()
     {
-        List<Object[]> batchArgs = new ArrayList<>();
+        return getPopulateTempTableContentStream().map( stream -> stream.collect( Collectors.toList() ) );
+    }
+
+    /**
+     * Produces the rows lazily, one data set and organisation unit at a time.
+     */
+    @Override
+    public Optional<Stream<Object[]>> getPopulateTempTableContentStream()
+    {
+        return Optional.of( objects.stream()
+            .flatMap( dataSet -> dataSet.getSources().stream()
+                .flatMap( orgUnit -> getRows( dataSet, orgUnit ).stream() ) ) );
+    }
+
+    @Override
+    public List<String> getCreateIndexStatements()
+    {
+        String sql = "create unique index in_" + getTableName() + "_" + getRandomSuffix() + " on " + 
+            getTempTableName() + "(datasetid, organisationunitid, attributeoptioncomboid)";
         
-        for ( DataSet dataSet : objects )
+        return Lists.newArrayList( sql );
+    }
+
+    /**
+     * Returns the rows for the given data set and organisation unit.
+     */
+    private List<Object[]> getRows( DataSet dataSet, OrganisationUnit orgUnit )
+    {
+        List<Object[]> batchArgs = new ArrayList<>();
+
+        CategoryCombo categoryCombo = dataSet.getCategoryCombo();
+
+        if ( !categoryCombo.isDefault() )
         {
-            CategoryCombo categoryCombo = dataSet.getCategoryCombo();
-            
-            for ( OrganisationUnit orgUnit : dataSet.getSources() )
+            if ( orgUnit.hasCategoryOptions() )
             {
-                if ( !categoryCombo.isDefault() )
+                Set<CategoryOption> orgUnitOptions = orgUnit.getCategoryOptions();
+                
+                for ( CategoryOptionCombo optionCombo : categoryCombo.getOptionCombos() )
                 {
-                    if ( orgUnit.hasCategoryOptions() )
+                    Set<CategoryOption> optionComboOptions = optionCombo.getCategoryOptions();
+                    
+                    if ( orgUnitOptions.containsAll( optionComboOptions ) )
                     {
-                        Set<CategoryOption> orgUnitOptions = orgUnit.getCategoryOptions();
+                        Date startDate = DateUtils.min( optionComboOptions.stream().map( co -> co.getStartDate() ).collect( Collectors.toSet() ) );
+                        Date endDate = DateUtils.max( optionComboOptions.stream().map( co -> co.getEndDate() ).collect( Collectors.toSet() ) );
+                        
+                        List<Object> values = Lists.newArrayList( dataSet.getId(), orgUnit.getId(), optionCombo.getId(), startDate, endDate );
                         
-                        for ( CategoryOptionCombo optionCombo : categoryCombo.getOptionCombos() )
-                        {
-                            Set<CategoryOption> optionComboOptions = optionCombo.getCategoryOptions();
-                            
-                            if ( orgUnitOptions.containsAll( optionComboOptions ) )
-                            {
-                                Date startDate = DateUtils.min( optionComboOptions.stream().map( co -> co.getStartDate() ).collect( Collectors.toSet() ) );
-                                Date endDate = DateUtils.max( optionComboOptions.stream().map( co -> co.getEndDate() ).collect( Collectors.toSet() ) );
-                                
-                                List<Object> values = Lists.newArrayList( dataSet.getId(), orgUnit.getId(), optionCombo.getId(), startDate, endDate );
-                                
-                                batchArgs.add( values.toArray() );
-                            }
-                        }
+                        batchArgs.add( values.toArray() );
                     }
                 }
-                else
-                {
-                    List<Object> values = Lists.newArrayList( dataSet.getId(), orgUnit.getId(), defaultOptionCombo.getId(), null, null );
-                    
-                    batchArgs.add( values.toArray() );
-                }
             }
         }
-        
-        return Optional.of( batchArgs );
-    }
+        else
+        {
+            List<Object> values = Lists.newArrayList( dataSet.getId(), orgUnit.getId(), defaultOptionCombo.getId(), null, null );
+            
+            batchArgs.add( values.toArray() );
+        }
 
-    @Override
-    public List<String> getCreateIndexStatements()
-    {
-        String sql = "create unique index in_" + getTableName() + "_" + getRandomSuffix() + " on " + 
-            getTempTableName() + "(datasetid, organisationunitid, attributeoptioncomboid)";
-        
-        return Lists.newArrayList( sql );
+        return batchArgs;
     }
 }
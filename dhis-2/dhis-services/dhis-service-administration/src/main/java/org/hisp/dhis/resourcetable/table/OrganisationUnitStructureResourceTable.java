@@ -29,11 +29,13 @@ package org.hisp.dhis.resourcetable.table;
  */
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
@@ -95,47 +97,18 @@ public class OrganisationUnitStructureResourceTable
     @Override
     public Optional<List<Object[]>> getPopulateTempTableContent()
     {
-        List<Object[]> batchArgs = new ArrayList<>();
-
-        for ( int i = 0; i < organisationUnitLevels; i++ )
-        {
-            int level = i + 1;
-
-            Collection<OrganisationUnit> units = organisationUnitService.getOrganisationUnitsAtLevel( level );
-
-            for ( OrganisationUnit unit : units )
-            {
-                List<Object> values = new ArrayList<>();
-
-                values.add( unit.getId() );
-                values.add( unit.getUid() );
-                values.add( level );
-
-                Map<Integer, Integer> identifiers = new HashMap<>();
-                Map<Integer, String> uids = new HashMap<>();
-                Map<Integer, String> names = new HashMap<>();
-
-                for ( int j = level; j > 0; j-- )
-                {
-                    identifiers.put( j, unit.getId() );
-                    uids.put( j, unit.getUid() );
-                    names.put( j, unit.getName() );
-
-                    unit = unit.getParent();
-                }
-
-                for ( int k = 1; k <= organisationUnitLevels; k++ )
-                {
-                    values.add( identifiers.get( k ) != null ? identifiers.get( k ) : null );
-                    values.add( uids.get( k ) );
-                    values.add( names.get( k ) );
-                }
+        return getPopulateTempTableContentStream().map( stream -> stream.collect( Collectors.toList() ) );
+    }
 
-                batchArgs.add( values.toArray() );
-            }
-        }
-        
-        return Optional.of( batchArgs );
+    /**
+     * Produces the rows lazily, one organisation unit level at a time.
+     */
+    @Override
+    public Optional<Stream<Object[]>> getPopulateTempTableContentStream()
+    {
+        return Optional.of( IntStream.rangeClosed( 1, organisationUnitLevels ).boxed()
+            .flatMap( level -> organisationUnitService.getOrganisationUnitsAtLevel( level ).stream()
+                .map( unit -> getRow( unit, level ) ) ) );
     }
 
     @Override
@@ -147,4 +120,40 @@ public class OrganisationUnitStructureResourceTable
         
         return Lists.newArrayList( sql );
     }
+
+    /**
+     * Returns a row for the given organisation unit at the given level.
+     */
+    private Object[] getRow( OrganisationUnit orgUnit, int level )
+    {
+        OrganisationUnit unit = orgUnit;
+
+        List<Object> values = new ArrayList<>();
+
+        values.add( unit.getId() );
+        values.add( unit.getUid() );
+        values.add( level );
+
+        Map<Integer, Integer> identifiers = new HashMap<>();
+        Map<Integer, String> uids = new HashMap<>();
+        Map<Integer, String> names = new HashMap<>();
+
+        for ( int j = level; j > 0; j-- )
+        {
+            identifiers.put( j, unit.getId() );
+            uids.put( j, unit.getUid() );
+            names.put( j, unit.getName() );
+
+            unit = unit.getParent();
+        }
+
+        for ( int k = 1; k <= organisationUnitLevels; k++ )
+        {
+            values.add( identifiers.get( k ) != null ? identifiers.get( k ) : null );
+            values.add( uids.get( k ) );
+            values.add( names.get( k ) );
+        }
+
+        return values.toArray();
+    }
 }
@@ -29,8 +29,8 @@ package org.hisp.dhis.analytics;
  */
 
 import java.util.Map;
-import java.util.concurrent.Future;
 
+import org.hisp.dhis.common.DimensionKey;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.IllegalQueryException;
 import org.hisp.dhis.common.ListMap;
@@ -44,9 +44,10 @@ public interface AnalyticsManager
 {
     /**
      * Retrieves aggregated data values for the given query. The data is returned
-     * as a mapping where the key is concatenated from the dimension options for
-     * all dimensions separated by "-", and the value is the data value. This
-     * method is invoked asynchronously. The value class can be Double or String.
+     * as a mapping where the key is a {@link DimensionKey} of the dimension options
+     * for all dimensions, and the value is the data value. This method is invoked
+     * through the {@link AnalyticsQueryScheduler}. The value class can be Double
+     * or String.
      *
      * @param params the query to retrieve aggregated data for.
      * @param tableType the {@link AnalyticsTableType}.
@@ -54,7 +55,7 @@ public interface AnalyticsManager
      * @return a map.
      * @throws IllegalQueryException if query result set exceeds the max limit.
      */
-    Future<Map<String, Object>> getAggregatedDataValues( DataQueryParams params, AnalyticsTableType tableType, int maxLimit );
+    Map<DimensionKey, Object> getAggregatedDataValues( DataQueryParams params, AnalyticsTableType tableType, int maxLimit );
 
     /**
      * Inserts entries for the aggregation periods mapped to each data period
@@ -65,6 +66,6 @@ public interface AnalyticsManager
      * @param dataPeriodAggregationPeriodMap the mapping between data periods and
      *        aggregation periods for this query.
      */
-    void replaceDataPeriodsWithAggregationPeriods( Map<String, Object> dataValueMap,
+    void replaceDataPeriodsWithAggregationPeriods( Map<DimensionKey, Object> dataValueMap,
         DataQueryParams params, ListMap<DimensionalItemObject, DimensionalItemObject> dataPeriodAggregationPeriodMap );
 }
@@ -0,0 +1,63 @@
+package org.hisp.dhis.analytics;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+/**
+ * Scheduler for analytics sub-queries. Limits the number of sub-queries which
+ * are executed concurrently across all requests, and queues pending
+ * sub-queries per user so that users are served in turn rather than in order
+ * of arrival. The global limit is configured through the
+ * {@code analytics.query.max_concurrency} property in {@code dhis.conf}.
+ */
+public interface AnalyticsQueryScheduler
+{
+    /**
+     * Submits the given query for execution. The query is queued for the
+     * current user and executed when a slot is available. Cancelling the
+     * returned future removes the query from the queue if not yet started.
+     *
+     * @param params the {@link DataQueryParams} of the query.
+     * @param tableType the {@link AnalyticsTableType} of the query.
+     * @param query the query to execute.
+     * @return a future holding the result of the query.
+     */
+    <T> Future<T> submit( DataQueryParams params, AnalyticsTableType tableType, Callable<T> query );
+
+    /**
+     * Returns query statistics, i.e. queue wait and execution times, for each
+     * table or combination of table partitions queried so far.
+     *
+     * @return a mapping between table partition names and statistics.
+     */
+    Map<String, AnalyticsQueryStats> getStatistics();
+}
@@ -30,6 +30,7 @@ package org.hisp.dhis.analytics;
 
 import org.hisp.dhis.common.AnalyticalObject;
 import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridRowSink;
 import org.hisp.dhis.dxf2.datavalueset.DataValueSet;
 
 import java.util.List;
@@ -131,6 +132,17 @@ public interface AnalyticsService
      */
     Grid getRawDataValues( DataQueryParams params );
 
+    /**
+     * Generates raw data for the given query and passes it to the given sink.
+     * The sink is first given a grid with headers and meta data, then each
+     * row as it is read from the database. Rows are not held in memory, which
+     * makes this method suitable for large exports.
+     *
+     * @param params the data query parameters.
+     * @param sink the {@link GridRowSink}.
+     */
+    void streamRawDataValues( DataQueryParams params, GridRowSink sink );
+
     /**
      * Generates a data value set for the given query. The query must contain
      * a data, period and organisation unit dimension.
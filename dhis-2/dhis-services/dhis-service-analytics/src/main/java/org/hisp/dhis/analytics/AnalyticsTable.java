@@ -110,6 +110,20 @@ public class AnalyticsTable
         return this;
     }
 
+    /**
+     * Adds the latest analytics partition table to this master table. The
+     * latest partition holds data which was changed since the last full
+     * update and is not constrained to a year.
+     *
+     * @return this analytics table.
+     */
+    public AnalyticsTable addLatestPartitionTable()
+    {
+        AnalyticsTablePartition partitionTable = new AnalyticsTablePartition( this, PartitionUtils.LATEST_PARTITION, null, null, false );
+        this.partitionTables.add( partitionTable );
+        return this;
+    }
+
     public String getTableName()
     {
         String name = baseName;
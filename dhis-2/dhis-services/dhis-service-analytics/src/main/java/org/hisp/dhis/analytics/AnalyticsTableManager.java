@@ -59,6 +59,18 @@ public interface AnalyticsTableManager
      */
     List<AnalyticsTable> getAnalyticsTables( Date earliest );
 
+    /**
+     * Returns a list of {@link AnalyticsTable} with a single latest
+     * {@link AnalyticsTablePartition} each, representing data which was changed
+     * since the last successful full or latest update. Returns an empty list if
+     * latest updates are not supported for this table type, if no full update
+     * has been done or if no data was changed.
+     *
+     * @param params the {@link AnalyticsTableUpdateParams}.
+     * @return a list of analytics tables with a latest partition.
+     */
+    List<AnalyticsTable> getLatestAnalyticsTables( AnalyticsTableUpdateParams params );
+
     /**
      * Returns a list of existing analytics database table names.
      *
@@ -85,6 +97,24 @@ public interface AnalyticsTableManager
      */
     void createTable( AnalyticsTable table );
 
+    /**
+     * Creates the given latest partition table unless it already exists. The
+     * latest partition inherits the real master table.
+     *
+     * @param partition the latest {@link AnalyticsTablePartition}.
+     * @return true if the partition table was created, false if it existed.
+     */
+    boolean createLatestPartition( AnalyticsTablePartition partition );
+
+    /**
+     * Removes data which was changed or deleted since the last successful full
+     * or latest update from the given analytics tables, including partitions.
+     *
+     * @param params the {@link AnalyticsTableUpdateParams}.
+     * @param tables the list of {@link AnalyticsTable}.
+     */
+    void removeUpdatedData( AnalyticsTableUpdateParams params, List<AnalyticsTable> tables );
+
     /**
      * Creates single indexes on the given columns of the analytics table with
      * the given name.
@@ -100,13 +130,24 @@ public interface AnalyticsTableManager
      * <p>
      * If this is a partial update and the master table currently exists, the master
      * table is not swapped and instead the inheritance of the partitions are set to
-     * the existing master table.
+     * the existing master table. Data for the updated years is removed from the
+     * latest partition. If this is a full update, the latest partition is dropped.
      *
      * @param params the {@link AnalyticsTableUpdateParams}.
      * @param table the analytics table.
      */
     void swapTable( AnalyticsTableUpdateParams params, AnalyticsTable table );
 
+    /**
+     * Records the start time of the given update as the time of last update
+     * of the given partitions. The time of last update is used to invalidate
+     * cached query results for the partitions.
+     *
+     * @param params the {@link AnalyticsTableUpdateParams}.
+     * @param partitions the list of {@link AnalyticsTablePartition}.
+     */
+    void setLastUpdated( AnalyticsTableUpdateParams params, List<AnalyticsTablePartition> partitions );
+
     /**
      * Copies and denormalizes rows from data value table into analytics table.
      * The data range is based on the start date of the data value row.
@@ -45,7 +45,8 @@ public class AnalyticsTablePartition
     private AnalyticsTable masterTable;
     
     /**
-     * The year for which this partition may contain data.
+     * The year for which this partition may contain data, or
+     * {@link PartitionUtils#LATEST_PARTITION} for the latest partition.
      */
     private Integer year;
     
@@ -83,7 +84,7 @@ public class AnalyticsTablePartition
 
         if ( year != null )
         {
-            name += PartitionUtils.SEP + year;
+            name = PartitionUtils.getPartitionName( name, year );
         }
 
         if ( masterTable.getProgram() != null )
@@ -94,8 +95,17 @@ public class AnalyticsTablePartition
         return name;
     }
     
+    /**
+     * Returns the temporary table name. The latest partition is updated in
+     * place and has no temporary table, so the table name is returned.
+     */
     public String getTempTableName()
     {
+        if ( isLatestPartition() )
+        {
+            return getTableName();
+        }
+
         String name = masterTable.getBaseName() + AnalyticsTableManager.TABLE_TEMP_SUFFIX;
 
         if ( year != null )
@@ -111,6 +121,15 @@ public class AnalyticsTablePartition
         return name;
     }
     
+    /**
+     * Indicates whether this partition is the latest partition, which holds
+     * data changed since the last full update across all years.
+     */
+    public boolean isLatestPartition()
+    {
+        return PartitionUtils.isLatestPartition( year );
+    }
+
     public AnalyticsTable getMasterTable()
     {
         return masterTable;
@@ -46,6 +46,12 @@ public class AnalyticsTableUpdateParams
      */
     private Integer lastYears;
 
+    /**
+     * Indicates whether to only update the latest partition with data which
+     * was changed since the last successful update.
+     */
+    private boolean latestUpdate;
+
     /**
      * Indicates whether to skip update of resource tables.
      */
@@ -80,6 +86,11 @@ public class AnalyticsTableUpdateParams
         return lastYears;
     }
 
+    public boolean isLatestUpdate()
+    {
+        return latestUpdate;
+    }
+
     public boolean isSkipResourceTables()
     {
         return skipResourceTables;
@@ -119,6 +130,7 @@ public class AnalyticsTableUpdateParams
     {
         return MoreObjects.toStringHelper( this )
             .add( "last years", lastYears )
+            .add( "latest update", latestUpdate )
             .add( "skip resource tables", skipResourceTables )
             .add( "skip table types", skipTableTypes )
             .add( "start time", startTime )
@@ -152,6 +164,12 @@ public class AnalyticsTableUpdateParams
             return this;
         }
 
+        public Builder withLatestUpdate( boolean latestUpdate )
+        {
+            this.params.latestUpdate = latestUpdate;
+            return this;
+        }
+
         public Builder withSkipResourceTables( boolean skipResourceTables )
         {
             this.params.skipResourceTables = skipResourceTables;
@@ -37,7 +37,6 @@ import static org.hisp.dhis.common.DimensionType.PERIOD;
 import static org.hisp.dhis.common.DimensionalObject.ATTRIBUTEOPTIONCOMBO_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.CATEGORYOPTIONCOMBO_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.DATA_X_DIM_ID;
-import static org.hisp.dhis.common.DimensionalObject.DIMENSION_SEP;
 import static org.hisp.dhis.common.DimensionalObject.ORGUNIT_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.PERIOD_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObjectUtils.asList;
@@ -66,6 +65,7 @@ import org.hisp.dhis.common.BaseDimensionalObject;
 import org.hisp.dhis.common.CombinationGenerator;
 import org.hisp.dhis.common.DataDimensionItemType;
 import org.hisp.dhis.common.DhisApiVersion;
+import org.hisp.dhis.common.DimensionKey;
 import org.hisp.dhis.common.DimensionType;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.DimensionalObject;
@@ -1698,25 +1698,19 @@ public class DataQueryParams
      * @return a mapping of permutation keys and mappings of data element operands
      *         and values.
      */
-    public static MapMap<String, DimensionalItemObject, Double> getPermutationDimensionalItemValueMap( Map<String, Double> aggregatedDataMap )
+    public static MapMap<DimensionKey, DimensionalItemObject, Double> getPermutationDimensionalItemValueMap( Map<DimensionKey, Double> aggregatedDataMap )
     {
-        MapMap<String, DimensionalItemObject, Double> permutationMap = new MapMap<>();
+        MapMap<DimensionKey, DimensionalItemObject, Double> permutationMap = new MapMap<>();
 
-        for ( String key : aggregatedDataMap.keySet() )
+        for ( Map.Entry<DimensionKey, Double> entry : aggregatedDataMap.entrySet() )
         {
-            List<String> keys = Lists.newArrayList( key.split( DIMENSION_SEP ) );
+            DimensionKey key = entry.getKey();
 
-            String dimItem = keys.get( DX_INDEX );
+            BaseDimensionalItemObject dimItemObject = new BaseDimensionalItemObject( key.get( DX_INDEX ) );
 
-            keys.remove( DX_INDEX );
+            DimensionKey permKey = key.withoutItem( DX_INDEX );
 
-            BaseDimensionalItemObject dimItemObject = new BaseDimensionalItemObject( dimItem );
-
-            String permKey = StringUtils.join( keys, DIMENSION_SEP );
-
-            Double value = aggregatedDataMap.get( key );
-
-            permutationMap.putEntry( permKey, dimItemObject, value );
+            permutationMap.putEntry( permKey, dimItemObject, entry.getValue() );
         }
 
         return permutationMap;
@@ -1727,25 +1721,23 @@ public class DataQueryParams
      * of org unit group and counts, based on the given mapping of dimension option
      * keys and counts.
      */
-    public static Map<String, Map<String, Integer>> getPermutationOrgUnitGroupCountMap( Map<String, Double> orgUnitCountMap )
+    public static Map<String, Map<String, Integer>> getPermutationOrgUnitGroupCountMap( Map<DimensionKey, Double> orgUnitCountMap )
     {
         MapMap<String, String, Integer> countMap = new MapMap<>();
 
-        for ( String key : orgUnitCountMap.keySet() )
+        for ( Map.Entry<DimensionKey, Double> entry : orgUnitCountMap.entrySet() )
         {
-            List<String> keys = Lists.newArrayList( key.split( DIMENSION_SEP ) );
+            DimensionKey key = entry.getKey();
 
             // Org unit group always at last index, org unit potentially at first
 
-            int ougInx = keys.size() - 1;
-
-            String oug = keys.get( ougInx );
+            int ougInx = key.size() - 1;
 
-            ListUtils.removeAll( keys, ougInx );
+            String oug = key.get( ougInx );
 
-            String permKey = StringUtils.trimToNull( StringUtils.join( keys, DIMENSION_SEP ) );
+            String permKey = StringUtils.trimToNull( key.withoutItem( ougInx ).asString() );
 
-            Integer count = orgUnitCountMap.get( key ).intValue();
+            Integer count = entry.getValue().intValue();
 
             countMap.putEntry( permKey, oug, count );
         }
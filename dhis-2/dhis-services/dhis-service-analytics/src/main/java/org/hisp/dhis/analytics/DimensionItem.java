@@ -34,6 +34,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hisp.dhis.common.DimensionKey;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.DimensionalObject;
 import org.hisp.dhis.commons.collection.CollectionUtils;
@@ -108,6 +109,18 @@ public class DimensionItem
         return builder.toString();
     }
 
+    /**
+     * Returns a {@link DimensionKey} based on the dimension item identifiers
+     * of the given list of dimension items.
+     *
+     * @param items the list of dimension items.
+     * @return a {@link DimensionKey}.
+     */
+    public static DimensionKey asDimensionKey( List<DimensionItem> items )
+    {
+        return DimensionKey.of( getItemIdentifiers( items ) );
+    }
+
     /**
      * Returns an array of identifiers of the dimension items in the given list.
      * If no items are given or items are null, an empty array is returned.
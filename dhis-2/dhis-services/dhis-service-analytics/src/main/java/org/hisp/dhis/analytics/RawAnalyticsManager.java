@@ -29,6 +29,7 @@ package org.hisp.dhis.analytics;
  */
 
 import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridRowSink;
 
 /**
  * Manager for queries for retrieval of raw analytics data.
@@ -44,5 +45,15 @@ public interface RawAnalyticsManager
      * @param grid the grid.
      * @return a grid with data.
      */
-    Grid getRawDataValues( DataQueryParams params, Grid grid );    
+    Grid getRawDataValues( DataQueryParams params, Grid grid );
+
+    /**
+     * Passes raw analytics data based on the given query to the given sink
+     * one row at a time, as the rows are read from the database. The rows
+     * are not held in memory.
+     *
+     * @param params the query.
+     * @param sink the {@link GridRowSink}.
+     */
+    void streamRawDataValues( DataQueryParams params, GridRowSink sink );
 }
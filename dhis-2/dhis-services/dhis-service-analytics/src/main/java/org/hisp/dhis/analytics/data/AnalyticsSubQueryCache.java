@@ -0,0 +1,160 @@
+package org.hisp.dhis.analytics.data;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.QueryKey;
+import org.hisp.dhis.analytics.partition.PartitionManager;
+import org.hisp.dhis.analytics.table.PartitionUtils;
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.common.DimensionKey;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Cache for the results of planned analytics sub-queries. The cache key is
+ * made of the query SQL, which reflects all query parameters which affect the
+ * result, and the time of last update of each queried table partition. Cached
+ * results are hence not used once a partition they were read from has been
+ * updated, while results for other partitions remain valid. Results are not
+ * cached if the time of last update of any queried table is unknown.
+ *
+ * The times of last update are cached by the {@link PartitionManager} per
+ * analytics table update, so lookups do not query the database catalog.
+ */
+public class AnalyticsSubQueryCache
+{
+    private final Cache<SubQueryResult> cache;
+
+    private final PartitionManager partitionManager;
+
+    /**
+     * @param cache the underlying cache, which should be bounded by weight
+     *        using {@link SubQueryResult#getWeight()}.
+     * @param partitionManager the {@link PartitionManager}.
+     */
+    public AnalyticsSubQueryCache( Cache<SubQueryResult> cache, PartitionManager partitionManager )
+    {
+        checkNotNull( cache );
+        checkNotNull( partitionManager );
+
+        this.cache = cache;
+        this.partitionManager = partitionManager;
+    }
+
+    /**
+     * Returns the result of the given query from the cache, or executes the
+     * query and caches the result if not cached. A copy of the cached map is
+     * returned as callers may modify it.
+     *
+     * @param params the {@link DataQueryParams}.
+     * @param sql the query SQL.
+     * @param maxLimit the max number of records to return.
+     * @param query the query, executed on cache miss.
+     * @return a mapping of dimension keys and values.
+     */
+    public Map<DimensionKey, Object> get( DataQueryParams params, String sql, int maxLimit, Supplier<Map<DimensionKey, Object>> query )
+    {
+        List<String> tables = getQueryTables( params );
+
+        Map<String, Date> lastUpdated = partitionManager.getLastUpdated( tables );
+
+        if ( !lastUpdated.keySet().containsAll( tables ) )
+        {
+            return query.get();
+        }
+
+        QueryKey key = new QueryKey()
+            .add( sql )
+            .add( params.getDataType() )
+            .add( maxLimit );
+
+        params.getDimensions().forEach( dim -> key.add( dim.getDimensionName() ) );
+        tables.forEach( table -> key.add( table ).add( lastUpdated.get( table ).getTime() ) );
+
+        SubQueryResult result = cache.get( key.build(), k -> new SubQueryResult( query.get() ) ).get();
+
+        return new HashMap<>( result.getValues() );
+    }
+
+    /**
+     * Returns the names of the tables read by the query, which is either the
+     * partition tables, sorted, or the master table.
+     */
+    private List<String> getQueryTables( DataQueryParams params )
+    {
+        if ( !params.isSkipPartitioning() && params.hasPartitions() )
+        {
+            return params.getPartitions().getPartitions().stream()
+                .sorted()
+                .map( partition -> PartitionUtils.getPartitionName( params.getTableName(), partition ) )
+                .collect( Collectors.toList() );
+        }
+
+        return Lists.newArrayList( params.getTableName() );
+    }
+
+    /**
+     * Cached result of a sub-query.
+     */
+    public static final class SubQueryResult
+        implements Serializable
+    {
+        private final HashMap<DimensionKey, Object> values;
+
+        public SubQueryResult( Map<DimensionKey, Object> values )
+        {
+            this.values = new HashMap<>( values );
+        }
+
+        public Map<DimensionKey, Object> getValues()
+        {
+            return values;
+        }
+
+        /**
+         * Returns the weight of this result for bounding the cache, which is
+         * the number of values plus one so that empty results are counted.
+         */
+        public int getWeight()
+        {
+            return values.size() + 1;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package org.hisp.dhis.analytics.data;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.analytics.AnalyticsQueryScheduler;
+import org.hisp.dhis.analytics.AnalyticsQueryStats;
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.table.PartitionUtils;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.user.CurrentUserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Analytics query scheduler which executes queries on a fixed number of
+ * threads. Pending queries are held in one queue per user, and the queues
+ * are served in round-robin order, so that a user submitting many queries
+ * does not delay the queries of other users.
+ */
+public class DefaultAnalyticsQueryScheduler
+    implements AnalyticsQueryScheduler
+{
+    private static final Log log = LogFactory.getLog( DefaultAnalyticsQueryScheduler.class );
+
+    private static final String UNKNOWN_USER = "unknown";
+
+    private static final long SLOW_QUEUE_WAIT_MILLIS = 10000;
+
+    private final CurrentUserService currentUserService;
+
+    private final int maxConcurrency;
+
+    private final ExecutorService executor;
+
+    /**
+     * Pending queries for each user. Guarded by this.
+     */
+    private final Map<String, Queue<QueryTask<?>>> userQueues = new HashMap<>();
+
+    /**
+     * Users with pending queries in the order they will be served. Guarded by this.
+     */
+    private final Queue<String> userOrder = new ArrayDeque<>();
+
+    /**
+     * Number of queries currently executing. Guarded by this.
+     */
+    private int running = 0;
+
+    private final Map<String, AnalyticsQueryStats> statistics = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DefaultAnalyticsQueryScheduler( DhisConfigurationProvider dhisConfig, CurrentUserService currentUserService )
+    {
+        checkNotNull( dhisConfig );
+        checkNotNull( currentUserService );
+
+        this.currentUserService = currentUserService;
+        this.maxConcurrency = Math.max( 1, Integer.parseInt( dhisConfig.getProperty( ConfigurationKey.ANALYTICS_QUERY_MAX_CONCURRENCY ) ) );
+        this.executor = Executors.newFixedThreadPool( maxConcurrency, new CustomizableThreadFactory( "analytics-query-" ) );
+
+        log.info( String.format( "Analytics query scheduler max concurrency: %d", maxConcurrency ) );
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
+    // -------------------------------------------------------------------------
+    // AnalyticsQueryScheduler implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public <T> Future<T> submit( DataQueryParams params, AnalyticsTableType tableType, Callable<T> query )
+    {
+        String user = StringUtils.defaultIfEmpty( currentUserService.getCurrentUsername(), UNKNOWN_USER );
+
+        QueryTask<T> task = new QueryTask<>( query, getStatisticsKey( params, tableType ) );
+
+        synchronized ( this )
+        {
+            userQueues.computeIfAbsent( user, key -> {
+                userOrder.add( key );
+                return new ArrayDeque<>();
+            } ).add( task );
+
+            dispatch();
+        }
+
+        return task;
+    }
+
+    @Override
+    public Map<String, AnalyticsQueryStats> getStatistics()
+    {
+        return Collections.unmodifiableMap( statistics );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Starts pending queries, taking one query from each user in turn, until
+     * the max concurrency is reached or no queries are pending. Queries which
+     * were cancelled while pending are discarded.
+     */
+    private synchronized void dispatch()
+    {
+        while ( running < maxConcurrency && !userOrder.isEmpty() )
+        {
+            String user = userOrder.poll();
+            Queue<QueryTask<?>> queue = userQueues.get( user );
+            QueryTask<?> task = queue.poll();
+
+            if ( queue.isEmpty() )
+            {
+                userQueues.remove( user );
+            }
+            else
+            {
+                userOrder.add( user );
+            }
+
+            if ( !task.isCancelled() )
+            {
+                running++;
+                executor.execute( task );
+            }
+        }
+    }
+
+    /**
+     * Invoked when a query has completed, successfully or not.
+     */
+    private synchronized void completed()
+    {
+        running--;
+        dispatch();
+    }
+
+    /**
+     * Returns the statistics key for the given query, which is the name of the
+     * table partitions of the query, or the table name if the query has no
+     * partitions.
+     *
+     * @param params the {@link DataQueryParams}.
+     * @param tableType the {@link AnalyticsTableType}.
+     * @return a statistics key.
+     */
+    private String getStatisticsKey( DataQueryParams params, AnalyticsTableType tableType )
+    {
+        if ( !params.hasPartitions() )
+        {
+            return tableType.getTableName();
+        }
+
+        return params.getPartitions().getPartitions().stream()
+            .sorted()
+            .map( partition -> PartitionUtils.getPartitionName( tableType.getTableName(), partition ) )
+            .collect( Collectors.joining( "," ) );
+    }
+
+    /**
+     * Query task which records queue wait and execution time on completion.
+     */
+    private class QueryTask<T>
+        extends FutureTask<T>
+    {
+        private final String statisticsKey;
+
+        private final long submitted = System.nanoTime();
+
+        QueryTask( Callable<T> query, String statisticsKey )
+        {
+            super( query );
+            this.statisticsKey = statisticsKey;
+        }
+
+        @Override
+        public void run()
+        {
+            long started = System.nanoTime();
+
+            try
+            {
+                super.run();
+            }
+            finally
+            {
+                long queueWait = TimeUnit.NANOSECONDS.toMillis( started - submitted );
+                long execution = TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - started );
+
+                statistics.computeIfAbsent( statisticsKey, key -> new AnalyticsQueryStats() ).record( queueWait, execution );
+
+                if ( queueWait > SLOW_QUEUE_WAIT_MILLIS )
+                {
+                    log.warn( String.format( "Analytics query for: %s waited %d ms in queue", statisticsKey, queueWait ) );
+                }
+
+                log.debug( String.format( "Analytics query for: %s waited %d ms, executed in %d ms", statisticsKey, queueWait, execution ) );
+
+                completed();
+            }
+        }
+    }
+}
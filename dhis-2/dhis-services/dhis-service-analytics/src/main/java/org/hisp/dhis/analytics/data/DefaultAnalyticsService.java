@@ -36,7 +36,6 @@ import static org.hisp.dhis.common.DataDimensionItemType.PROGRAM_INDICATOR;
 import static org.hisp.dhis.common.DimensionalObject.ATTRIBUTEOPTIONCOMBO_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.CATEGORYOPTIONCOMBO_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.DATA_X_DIM_ID;
-import static org.hisp.dhis.common.DimensionalObject.DIMENSION_SEP;
 import static org.hisp.dhis.common.DimensionalObject.ORGUNIT_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.PERIOD_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObjectUtils.asTypedList;
@@ -72,6 +71,7 @@ import org.apache.commons.logging.LogFactory;
 import org.hisp.dhis.analytics.AnalyticsAggregationType;
 import org.hisp.dhis.analytics.AnalyticsManager;
 import org.hisp.dhis.analytics.AnalyticsMetaDataKey;
+import org.hisp.dhis.analytics.AnalyticsQueryScheduler;
 import org.hisp.dhis.analytics.AnalyticsSecurityManager;
 import org.hisp.dhis.analytics.AnalyticsService;
 import org.hisp.dhis.analytics.AnalyticsTableType;
@@ -97,11 +97,13 @@ import org.hisp.dhis.common.BaseDimensionalObject;
 import org.hisp.dhis.common.CombinationGenerator;
 import org.hisp.dhis.common.DataDimensionItemType;
 import org.hisp.dhis.common.DimensionType;
+import org.hisp.dhis.common.DimensionKey;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.DimensionalObject;
 import org.hisp.dhis.common.DimensionalObjectUtils;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.GridRowSink;
 import org.hisp.dhis.common.IdentifiableObjectUtils;
 import org.hisp.dhis.common.ReportingRateMetric;
 import org.hisp.dhis.common.ValueType;
@@ -149,6 +151,8 @@ public class DefaultAnalyticsService
 
     private AnalyticsManager analyticsManager;
 
+    private AnalyticsQueryScheduler queryScheduler;
+
     private RawAnalyticsManager rawAnalyticsManager;
 
     private AnalyticsSecurityManager securityManager;
@@ -188,13 +192,14 @@ public class DefaultAnalyticsService
         boolean enabled = expiration > 0 && !SystemUtils.isTestRun( this.environment.getActiveProfiles() );
 
         queryCache = cacheProvider.newCacheBuilder( Grid.class ).forRegion( CACHE_REGION )
-            .expireAfterWrite( expiration, TimeUnit.SECONDS ).withMaximumSize( enabled ? MAX_CACHE_ENTRIES : 0 ).build();
+            .expireAfterWrite( expiration, TimeUnit.SECONDS ).withMaximumSize( enabled ? MAX_CACHE_ENTRIES : 0 )
+            .withNearCache().invalidateOnMetadataChange().build();
 
         log.info( String.format( "Analytics server-side cache is enabled: %b with expiration: %d s", enabled, expiration ) );
     }
 
     @Autowired
-    public DefaultAnalyticsService( AnalyticsManager analyticsManager, RawAnalyticsManager rawAnalyticsManager,
+    public DefaultAnalyticsService( AnalyticsManager analyticsManager, AnalyticsQueryScheduler queryScheduler, RawAnalyticsManager rawAnalyticsManager,
         AnalyticsSecurityManager securityManager, QueryPlanner queryPlanner, QueryValidator queryValidator,
         ExpressionParserService expressionParserService, ConstantService constantService,
         OrganisationUnitService organisationUnitService, SystemSettingManager systemSettingManager,
@@ -202,6 +207,7 @@ public class DefaultAnalyticsService
         DhisConfigurationProvider dhisConfig, CacheProvider cacheProvider, Environment environment)
     {
         checkNotNull( analyticsManager );
+        checkNotNull( queryScheduler );
         checkNotNull( rawAnalyticsManager );
         checkNotNull( securityManager );
         checkNotNull( queryPlanner );
@@ -217,6 +223,7 @@ public class DefaultAnalyticsService
         checkNotNull( environment );
 
         this.analyticsManager = analyticsManager;
+        this.queryScheduler = queryScheduler;
         this.rawAnalyticsManager = rawAnalyticsManager;
         this.securityManager = securityManager;
         this.queryPlanner = queryPlanner;
@@ -276,6 +283,41 @@ public class DefaultAnalyticsService
         return getRawDataGrid( params );
     }
 
+    @Override
+    public void streamRawDataValues( DataQueryParams params, GridRowSink sink )
+    {
+        securityManager.decideAccess( params );
+
+        params = securityManager.withDataApprovalConstraints( params );
+        params = securityManager.withDimensionConstraints( params );
+
+        queryValidator.validate( params );
+
+        params = preHandleRawDataQuery( params );
+
+        Grid grid = new ListGrid();
+
+        addHeaders( params, grid );
+
+        addMetaData( params, grid );
+
+        GridRowSink rowSink = withIdScheme( params, grid, sink );
+
+        sink.start( grid );
+
+        if ( !params.isSkipData() )
+        {
+            QueryPlannerParams plannerParams = QueryPlannerParams.newBuilder()
+                .withTableName( AnalyticsTableType.DATA_VALUE.getTableName() ).build();
+
+            params = queryPlanner.withTableNameAndPartitions( params, plannerParams );
+
+            rawAnalyticsManager.streamRawDataValues( params, rowSink );
+        }
+
+        sink.finish();
+    }
+
     @Override
     public DataValueSet getAggregatedDataValueSet( DataQueryParams params )
     {
@@ -488,7 +530,7 @@ public class DefaultAnalyticsService
 
             List<List<DimensionItem>> dimensionItemPermutations = dataSourceParams.getDimensionItemPermutations();
 
-            Map<String, Map<DimensionalItemObject, Double>> permutationDimensionItemValueMap = getPermutationDimensionItemValueMap( dataSourceParams );
+            Map<DimensionKey, Map<DimensionalItemObject, Double>> permutationDimensionItemValueMap = getPermutationDimensionItemValueMap( dataSourceParams );
 
             handleEmptyDimensionItemPermutations( dimensionItemPermutations );
 
@@ -496,7 +538,7 @@ public class DefaultAnalyticsService
             {
                 for ( List<DimensionItem> dimensionItems : dimensionItemPermutations )
                 {
-                    String permKey = DimensionItem.asItemKey( dimensionItems );
+                    DimensionKey permKey = DimensionItem.asDimensionKey( dimensionItems );
 
                     Map<DimensionalItemObject, Double> valueMap = permutationDimensionItemValueMap.get( permKey );
 
@@ -577,14 +619,14 @@ public class DefaultAnalyticsService
                 .retainDataDimension( DataDimensionItemType.DATA_ELEMENT )
                 .withIncludeNumDen( false ).build();
 
-            Map<String, Object> aggregatedDataMap = getAggregatedDataValueMapObjectTyped( dataSourceParams );
+            Map<DimensionKey, Object> aggregatedDataMap = getAggregatedDataValueMapObjectTyped( dataSourceParams );
 
-            for ( Map.Entry<String, Object> entry : aggregatedDataMap.entrySet() )
+            for ( Map.Entry<DimensionKey, Object> entry : aggregatedDataMap.entrySet() )
             {
                 Object value = AnalyticsUtils.getRoundedValueObject( params, entry.getValue() );
 
                 grid.addRow()
-                    .addValues( entry.getKey().split( DIMENSION_SEP ) )
+                    .addValues( entry.getKey().getItems() )
                     .addValue( value );
 
                 if ( params.isIncludeNumDen() )
@@ -655,16 +697,16 @@ public class DefaultAnalyticsService
 
         DataQueryParams operandParams = builder.build();
 
-        Map<String, Object> aggregatedDataMap = getAggregatedDataValueMapObjectTyped( operandParams );
+        Map<DimensionKey, Object> aggregatedDataMap = getAggregatedDataValueMapObjectTyped( operandParams );
 
         aggregatedDataMap = AnalyticsUtils.convertDxToOperand( aggregatedDataMap, totalType );
 
-        for ( Map.Entry<String, Object> entry : aggregatedDataMap.entrySet() )
+        for ( Map.Entry<DimensionKey, Object> entry : aggregatedDataMap.entrySet() )
         {
             Object value = AnalyticsUtils.getRoundedValueObject( operandParams, entry.getValue() );
 
             grid.addRow()
-                .addValues( entry.getKey().split( DIMENSION_SEP ) )
+                .addValues( entry.getKey().getItems() )
                 .addValue( value );
 
             if ( params.isIncludeNumDen() )
@@ -722,18 +764,18 @@ public class DefaultAnalyticsService
                 .withRestrictByCategoryOptionStartEndDate( true )
                 .withAggregationType( AnalyticsAggregationType.SUM ).build();
 
-            Map<String, Double> targetMap = getAggregatedCompletenessTargetMap( targetParams );
+            Map<DimensionKey, Double> targetMap = getAggregatedCompletenessTargetMap( targetParams );
 
-            Map<String, Double> dataMap = metric != EXPECTED_REPORTS ? getAggregatedCompletenessValueMap( params ) : new HashMap<>();
+            Map<DimensionKey, Double> dataMap = metric != EXPECTED_REPORTS ? getAggregatedCompletenessValueMap( params ) : new HashMap<>();
 
             Integer periodIndex = params.getPeriodDimensionIndex();
             Integer dataSetIndex = DataQueryParams.DX_INDEX;
             Map<String, PeriodType> dsPtMap = params.getDataSetPeriodTypeMap();
             PeriodType filterPeriodType = params.getFilterPeriodType();
 
-            for ( Map.Entry<String, Double> entry : targetMap.entrySet() )
+            for ( Map.Entry<DimensionKey, Double> entry : targetMap.entrySet() )
             {
-                List<String> dataRow = Lists.newArrayList( entry.getKey().split( DIMENSION_SEP ) );
+                List<String> dataRow = Lists.newArrayList( entry.getKey().getItems() );
 
                 Double target = entry.getValue();
                 Double actual = dataMap.get( entry.getKey() );
@@ -821,7 +863,7 @@ public class DefaultAnalyticsService
     {
         if ( params.getDataDimensionAndFilterOptions().isEmpty() && !params.isSkipData() )
         {
-            Map<String, Double> aggregatedDataMap = getAggregatedDataValueMap( DataQueryParams.newBuilder( params )
+            Map<DimensionKey, Double> aggregatedDataMap = getAggregatedDataValueMap( DataQueryParams.newBuilder( params )
                 .withIncludeNumDen( false ).build() );
 
             fillGridWithAggregatedDataMap(params, grid, aggregatedDataMap);
@@ -844,7 +886,7 @@ public class DefaultAnalyticsService
                 .withAggregationType( AnalyticsAggregationType.COUNT )
                 .withIncludeNumDen( false ).build();
 
-            Map<String, Double> aggregatedDataMap = getAggregatedValidationResultMapObjectTyped( dataSourceParams );
+            Map<DimensionKey, Double> aggregatedDataMap = getAggregatedValidationResultMapObjectTyped( dataSourceParams );
 
             fillGridWithAggregatedDataMap(params, grid, aggregatedDataMap);
         }
@@ -962,6 +1004,45 @@ public class DefaultAnalyticsService
         }
     }
 
+    /**
+     * Substitutes the headers of the given grid with the identifier scheme meta
+     * data property indicated in the query, and returns a sink which substitutes
+     * the meta data of each row before passing it to the given sink. Returns
+     * the given sink if no substitution is required.
+     *
+     * @param params the {@link DataQueryParams}.
+     * @param grid the grid with headers.
+     * @param sink the {@link GridRowSink}.
+     * @return a {@link GridRowSink}.
+     */
+    private GridRowSink withIdScheme( DataQueryParams params, Grid grid, GridRowSink sink )
+    {
+        if ( params.isSkipMeta() || !params.hasNonUidOutputIdScheme() )
+        {
+            return sink;
+        }
+
+        Map<String, String> map = DimensionalObjectUtils.getDimensionItemIdSchemeMap( params.getAllDimensionItems(), params.getOutputIdScheme() );
+
+        grid.substituteMetaData( map );
+
+        List<Integer> metaColumnIndexes = grid.getMetaColumnIndexes();
+
+        return row -> {
+            for ( Integer index : metaColumnIndexes )
+            {
+                String metaValue = map.get( row.get( index ) );
+
+                if ( metaValue != null )
+                {
+                    row.set( index, metaValue );
+                }
+            }
+
+            sink.addRow( row );
+        };
+    }
+
     /**
      * Returns a Grid with aggregated data in table layout.
      *
@@ -1031,14 +1112,14 @@ public class DefaultAnalyticsService
      * @param grid the grid
      * @param aggregatedDataMap the aggregated data map
      */
-    private void fillGridWithAggregatedDataMap( DataQueryParams params, Grid grid, Map<String, Double> aggregatedDataMap)
+    private void fillGridWithAggregatedDataMap( DataQueryParams params, Grid grid, Map<DimensionKey, Double> aggregatedDataMap)
     {
-        for ( Map.Entry<String, Double> entry : aggregatedDataMap.entrySet() )
+        for ( Map.Entry<DimensionKey, Double> entry : aggregatedDataMap.entrySet() )
         {
             Double value = params.isSkipRounding() ? entry.getValue() : MathUtils.getRounded( entry.getValue() );
 
             grid.addRow()
-                .addValues( entry.getKey().split( DIMENSION_SEP ) )
+                .addValues( entry.getKey().getItems() )
                 .addValue( value );
 
             if ( params.isIncludeNumDen() )
@@ -1071,7 +1152,7 @@ public class DefaultAnalyticsService
             .addDimension( new BaseDimensionalObject( DimensionalObject.ORGUNIT_GROUP_DIM_ID, DimensionType.ORGANISATION_UNIT_GROUP, new ArrayList<DimensionalItemObject>( orgUnitGroups ) ) )
             .withSkipPartitioning( true ).build();
 
-        Map<String, Double> orgUnitCountMap = getAggregatedOrganisationUnitTargetMap( orgUnitTargetParams );
+        Map<DimensionKey, Double> orgUnitCountMap = getAggregatedOrganisationUnitTargetMap( orgUnitTargetParams );
 
         return DataQueryParams.getPermutationOrgUnitGroupCountMap( orgUnitCountMap );
     }
@@ -1084,7 +1165,7 @@ public class DefaultAnalyticsService
      * @param params the {@link DataQueryParams}.
      * @return a mapping between a dimension key and the aggregated value.
      */
-    private Map<String, Double> getAggregatedDataValueMap( DataQueryParams params )
+    private Map<DimensionKey, Double> getAggregatedDataValueMap( DataQueryParams params )
     {
         return AnalyticsUtils.getDoubleMap( getAggregatedValueMap( params, AnalyticsTableType.DATA_VALUE, Lists.newArrayList() ) );
     }
@@ -1097,7 +1178,7 @@ public class DefaultAnalyticsService
      * @param params the {@link DataQueryParams}.
      * @return a mapping between a dimension key and the aggregated value.
      */
-    private Map<String, Object> getAggregatedDataValueMapObjectTyped( DataQueryParams params )
+    private Map<DimensionKey, Object> getAggregatedDataValueMapObjectTyped( DataQueryParams params )
     {
         return getAggregatedValueMap( params, AnalyticsTableType.DATA_VALUE, Lists.newArrayList() );
     }
@@ -1110,7 +1191,7 @@ public class DefaultAnalyticsService
      * @param params the {@link DataQueryParams}.
      * @return a mapping between a dimension key and the aggregated value.
      */
-    private Map<String, Double> getAggregatedCompletenessValueMap( DataQueryParams params )
+    private Map<DimensionKey, Double> getAggregatedCompletenessValueMap( DataQueryParams params )
     {
         return AnalyticsUtils.getDoubleMap( getAggregatedValueMap( params, AnalyticsTableType.COMPLETENESS, Lists.newArrayList() ) );
     }
@@ -1123,7 +1204,7 @@ public class DefaultAnalyticsService
      * @return a mapping between the the data set dimension key and the count of
      *         expected data sets to report.
      */
-    private Map<String, Double> getAggregatedCompletenessTargetMap( DataQueryParams params )
+    private Map<DimensionKey, Double> getAggregatedCompletenessTargetMap( DataQueryParams params )
     {
         List<Function<DataQueryParams, List<DataQueryParams>>> queryGroupers = Lists.newArrayList();
         queryGroupers.add( q -> queryPlanner.groupByStartEndDateRestriction( q ) );
@@ -1140,7 +1221,7 @@ public class DefaultAnalyticsService
      * @return a mapping between the the data set dimension key and the count of
      *         expected data sets to report.
      */
-    private Map<String, Double> getAggregatedOrganisationUnitTargetMap( DataQueryParams params )
+    private Map<DimensionKey, Double> getAggregatedOrganisationUnitTargetMap( DataQueryParams params )
     {
         return AnalyticsUtils.getDoubleMap( getAggregatedValueMap( params, AnalyticsTableType.ORG_UNIT_TARGET, Lists.newArrayList() ) );
     }
@@ -1151,7 +1232,7 @@ public class DefaultAnalyticsService
      * @param params the {@link DataQueryParams}.
      * @return a mapping between validation results and counts of them
      */
-    private Map<String, Double> getAggregatedValidationResultMapObjectTyped( DataQueryParams params )
+    private Map<DimensionKey, Double> getAggregatedValidationResultMapObjectTyped( DataQueryParams params )
     {
         return AnalyticsUtils.getDoubleMap( getAggregatedValueMap( params, AnalyticsTableType.VALIDATION_RESULT, Lists.newArrayList() ) );
     }
@@ -1167,7 +1248,7 @@ public class DefaultAnalyticsService
      *        query planning, use empty list for none.
      * @return a mapping between a dimension key and aggregated values.
      */
-    private Map<String, Object> getAggregatedValueMap( DataQueryParams params, AnalyticsTableType tableType, List<Function<DataQueryParams, List<DataQueryParams>>> queryGroupers )
+    private Map<DimensionKey, Object> getAggregatedValueMap( DataQueryParams params, AnalyticsTableType tableType, List<Function<DataQueryParams, List<DataQueryParams>>> queryGroupers )
     {
         queryValidator.validateMaintenanceMode();
 
@@ -1186,22 +1267,22 @@ public class DefaultAnalyticsService
 
         timer.getSplitTime( "Planned analytics query, got: " + queryGroups.getLargestGroupSize() + " for optimal: " + optimalQueries );
 
-        Map<String, Object> map = new HashMap<>();
+        Map<DimensionKey, Object> map = new HashMap<>();
 
         for ( List<DataQueryParams> queries : queryGroups.getSequentialQueries() )
         {
-            List<Future<Map<String, Object>>> futures = new ArrayList<>();
+            List<Future<Map<DimensionKey, Object>>> futures = new ArrayList<>();
 
             for ( DataQueryParams query : queries )
             {
-                futures.add( analyticsManager.getAggregatedDataValues( query, tableType, maxLimit ) );
+                futures.add( queryScheduler.submit( query, tableType, () -> analyticsManager.getAggregatedDataValues( query, tableType, maxLimit ) ) );
             }
 
-            for ( Future<Map<String, Object>> future : futures )
+            for ( Future<Map<DimensionKey, Object>> future : futures )
             {
                 try
                 {
-                    Map<String, Object> taskValues = future.get();
+                    Map<DimensionKey, Object> taskValues = future.get();
 
                     if ( taskValues != null )
                     {
@@ -1210,6 +1291,10 @@ public class DefaultAnalyticsService
                 }
                 catch ( Exception ex )
                 {
+                    // Cancel sibling queries as the result will not be used
+
+                    futures.forEach( f -> f.cancel( true ) );
+
                     log.error( DebugUtils.getStackTrace( ex ) );
                     log.error( DebugUtils.getStackTrace( ex.getCause() ) );
 
@@ -1302,11 +1387,11 @@ public class DefaultAnalyticsService
      *
      * @param params the {@link DataQueryParams}.
      */
-    private Map<String, Map<DimensionalItemObject, Double>> getPermutationDimensionItemValueMap( DataQueryParams params )
+    private Map<DimensionKey, Map<DimensionalItemObject, Double>> getPermutationDimensionItemValueMap( DataQueryParams params )
     {
         List<Indicator> indicators = asTypedList( params.getIndicators() );
 
-        Map<String, Double> valueMap = getAggregatedDataValueMap( params, indicators );
+        Map<DimensionKey, Double> valueMap = getAggregatedDataValueMap( params, indicators );
 
         return DataQueryParams.getPermutationDimensionalItemValueMap( valueMap );
     }
@@ -1321,7 +1406,7 @@ public class DefaultAnalyticsService
      * @param indicators the list of indicators.
      * @return a dimensional items to aggregate values map.
      */
-    private Map<String, Double> getAggregatedDataValueMap( DataQueryParams params, List<Indicator> indicators )
+    private Map<DimensionKey, Double> getAggregatedDataValueMap( DataQueryParams params, List<Indicator> indicators )
     {
         List<DimensionalItemObject> items = Lists.newArrayList( expressionParserService.getIndicatorDimensionalItemObjects( indicators ) );
 
@@ -1338,7 +1423,7 @@ public class DefaultAnalyticsService
 
         Grid grid = getAggregatedDataValueGridInternal( dataSourceParams );
 
-        return grid.getAsMap( grid.getWidth() - 1, DimensionalObject.DIMENSION_SEP );
+        return grid.getAsKeyMap( grid.getWidth() - 1 );
     }
 
     /**
@@ -157,6 +157,8 @@ public class DefaultQueryPlanner
             partitionManager.filterNonExistingPartitions( partitions, plannerParams.getTableName() );
         }
 
+        addLatestPartition( partitions, plannerParams.getTableName() );
+
         return DataQueryParams.newBuilder( params )
             .withTableName( plannerParams.getTableName() )
             .withPartitions( partitions )
@@ -175,11 +177,32 @@ public class DefaultQueryPlanner
             partitionManager.filterNonExistingPartitions( partitions, params.getTableName() );
         }
 
+        if ( params.getTableName() != null )
+        {
+            addLatestPartition( partitions, params.getTableName() );
+        }
+
         return DataQueryParams.newBuilder( params )
             .withPartitions( partitions )
             .build();
     }
 
+    /**
+     * Adds the latest partition to the given partitions if the latest partition
+     * table exists, as it may contain data for any year.
+     *
+     * @param partitions the {@link Partitions}.
+     * @param tableName the analytics table name.
+     */
+    private void addLatestPartition( Partitions partitions, String tableName )
+    {
+        if ( partitions.hasAny() && partitionManager.tableExists(
+            PartitionUtils.getPartitionName( tableName, PartitionUtils.LATEST_PARTITION ) ) )
+        {
+            partitions.add( PartitionUtils.LATEST_PARTITION );
+        }
+    }
+
     // -------------------------------------------------------------------------
     // Supportive split methods
     // -------------------------------------------------------------------------
@@ -44,7 +44,6 @@ import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.ANALYTICS_TBL_ALIAS
 import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.quote;
 import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.quoteAlias;
 import static org.hisp.dhis.api.util.DateUtils.getMediumDateString;
-import static org.hisp.dhis.common.DimensionalObject.DIMENSION_SEP;
 import static org.hisp.dhis.common.IdentifiableObjectUtils.getUids;
 import static org.hisp.dhis.commons.util.TextUtils.getQuotedCommaDelimitedString;
 import static org.hisp.dhis.commons.util.TextUtils.removeLastOr;
@@ -56,9 +55,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 
 import org.apache.commons.logging.Log;
@@ -71,8 +71,13 @@ import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.DataType;
 import org.hisp.dhis.analytics.MeasureFilter;
 import org.hisp.dhis.analytics.QueryPlanner;
+import org.hisp.dhis.analytics.data.AnalyticsSubQueryCache.SubQueryResult;
+import org.hisp.dhis.analytics.partition.PartitionManager;
 import org.hisp.dhis.analytics.table.PartitionUtils;
 import org.hisp.dhis.analytics.util.AnalyticsUtils;
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.CacheProvider;
+import org.hisp.dhis.common.DimensionKey;
 import org.hisp.dhis.common.DimensionType;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.DimensionalObject;
@@ -82,17 +87,18 @@ import org.hisp.dhis.common.ListMap;
 import org.hisp.dhis.common.QueryTimeoutException;
 import org.hisp.dhis.commons.util.DebugUtils;
 import org.hisp.dhis.commons.util.SqlHelper;
+import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.commons.util.TextUtils;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.period.Period;
 import org.hisp.dhis.period.PeriodType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
 import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.jdbc.BadSqlGrammarException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
-import org.springframework.scheduling.annotation.Async;
-import org.springframework.scheduling.annotation.AsyncResult;
 import org.springframework.util.Assert;
 
 import com.google.common.collect.ImmutableMap;
@@ -113,6 +119,13 @@ public class JdbcAnalyticsManager
     private static final String COL_APPROVALLEVEL = "approvallevel";
     private static final int LAST_VALUE_YEARS_OFFSET = -10;
 
+    /**
+     * Maximum total number of values held by the sub-query cache.
+     */
+    private static final long MAX_CACHED_VALUES = 500000;
+
+    private static final String CACHE_REGION = "analyticsSubQueryResult";
+
     private static final Map<MeasureFilter, String> OPERATOR_SQL_MAP = ImmutableMap.<MeasureFilter, String>builder()
         .put( MeasureFilter.EQ, "=" )
         .put( MeasureFilter.GT, ">" )
@@ -124,16 +137,46 @@ public class JdbcAnalyticsManager
     @Autowired
     private QueryPlanner queryPlanner;
 
+    @Autowired
+    private PartitionManager partitionManager;
+
+    @Autowired
+    private DhisConfigurationProvider dhisConfig;
+
+    @Autowired
+    private CacheProvider cacheProvider;
+
+    @Autowired
+    private Environment environment;
+
     @Resource( name = "readOnlyJdbcTemplate" )
     private JdbcTemplate jdbcTemplate;
 
+    private AnalyticsSubQueryCache subQueryCache;
+
+    private boolean subQueryCacheEnabled;
+
+    @PostConstruct
+    public void init()
+    {
+        long expiration = dhisConfig.getAnalyticsCacheExpiration();
+        subQueryCacheEnabled = expiration > 0 && !SystemUtils.isTestRun( environment.getActiveProfiles() );
+
+        Cache<SubQueryResult> cache = cacheProvider.newCacheBuilder( SubQueryResult.class ).forRegion( CACHE_REGION )
+            .expireAfterWrite( expiration, TimeUnit.SECONDS ).withMaximumSize( subQueryCacheEnabled ? MAX_CACHED_VALUES : 0 )
+            .withWeigher( SubQueryResult::getWeight ).build();
+
+        subQueryCache = new AnalyticsSubQueryCache( cache, partitionManager );
+
+        log.info( String.format( "Analytics sub-query cache is enabled: %b with expiration: %d s", subQueryCacheEnabled, expiration ) );
+    }
+
     // -------------------------------------------------------------------------
     // AnalyticsManager implementation
     // -------------------------------------------------------------------------
 
     @Override
-    @Async
-    public Future<Map<String, Object>> getAggregatedDataValues( DataQueryParams params, AnalyticsTableType tableType, int maxLimit )
+    public Map<DimensionKey, Object> getAggregatedDataValues( DataQueryParams params, AnalyticsTableType tableType, int maxLimit )
     {
         assertQuery( params );
 
@@ -166,21 +209,21 @@ public class JdbcAnalyticsManager
 
             log.debug( sql );
 
-            Map<String, Object> map = null;
+            Map<DimensionKey, Object> map = null;
 
             try
             {
-                map = getKeyValueMap( params, sql, maxLimit );
+                map = getCachedKeyValueMap( params, sql, maxLimit );
             }
             catch ( BadSqlGrammarException ex )
             {
                 log.info( AnalyticsUtils.ERR_MSG_TABLE_NOT_EXISTING, ex );
-                return new AsyncResult<>( Maps.newHashMap() );
+                return Maps.newHashMap();
             }
 
             replaceDataPeriodsWithAggregationPeriods( map, params, dataPeriodAggregationPeriodMap );
 
-            return new AsyncResult<>( map );
+            return map;
         }
         catch ( DataAccessResourceFailureException ex )
         {
@@ -195,7 +238,7 @@ public class JdbcAnalyticsManager
     }
 
     @Override
-    public void replaceDataPeriodsWithAggregationPeriods( Map<String, Object> dataValueMap,
+    public void replaceDataPeriodsWithAggregationPeriods( Map<DimensionKey, Object> dataValueMap,
         DataQueryParams params, ListMap<DimensionalItemObject, DimensionalItemObject> dataPeriodAggregationPeriodMap )
     {
         if ( params.isDisaggregation() )
@@ -207,13 +250,11 @@ public class JdbcAnalyticsManager
                 return; // Period is filter, nothing to replace
             }
 
-            Set<String> keys = new HashSet<>( dataValueMap.keySet() );
+            Set<DimensionKey> keys = new HashSet<>( dataValueMap.keySet() );
 
-            for ( String key : keys )
+            for ( DimensionKey key : keys )
             {
-                String[] keyArray = key.split( DIMENSION_SEP );
-
-                String periodKey = keyArray[periodIndex];
+                String periodKey = key.get( periodIndex );
 
                 Assert.notNull( periodKey, String.format( "Period key cannot be null, key: '%s'", key ) );
 
@@ -225,9 +266,7 @@ public class JdbcAnalyticsManager
 
                 for ( DimensionalItemObject period : periods )
                 {
-                    String[] keyCopy = keyArray.clone();
-                    keyCopy[periodIndex] = ((Period) period).getIsoDate();
-                    dataValueMap.put( TextUtils.toString( keyCopy, DIMENSION_SEP ), value );
+                    dataValueMap.put( key.withItem( periodIndex, ((Period) period).getIsoDate() ), value );
                 }
 
                 dataValueMap.remove( key );
@@ -626,14 +665,18 @@ public class JdbcAnalyticsManager
      * Retrieves data from the database based on the given query and SQL and puts
      * into a value key and value mapping.
      */
-    private Map<String, Object> getKeyValueMap( DataQueryParams params, String sql, int maxLimit )
+    private Map<DimensionKey, Object> getKeyValueMap( DataQueryParams params, String sql, int maxLimit )
     {
-        Map<String, Object> map = new HashMap<>();
+        Map<DimensionKey, Object> map = new HashMap<>();
 
         log.debug( String.format( "Analytics SQL: %s", sql ) );
 
         SqlRowSet rowSet = jdbcTemplate.queryForRowSet( sql );
 
+        List<DimensionalObject> dimensions = params.getDimensions();
+
+        String[] items = new String[dimensions.size()];
+
         int counter = 0;
 
         while ( rowSet.next() )
@@ -643,34 +686,46 @@ public class JdbcAnalyticsManager
                 throw new IllegalQueryException( "Query result set exceeds max limit: " + maxLimit );
             }
 
-            StringBuilder key = new StringBuilder();
-
-            for ( DimensionalObject dim : params.getDimensions() )
+            for ( int i = 0; i < items.length; i++ )
             {
-                String value = dim.isFixed() ? dim.getDimensionName() : rowSet.getString( dim.getDimensionName() );
+                DimensionalObject dim = dimensions.get( i );
 
-                key.append( value ).append( DIMENSION_SEP );
+                items[i] = dim.isFixed() ? dim.getDimensionName() : rowSet.getString( dim.getDimensionName() );
             }
 
-            key.deleteCharAt( key.length() - 1 );
+            DimensionKey key = DimensionKey.of( items );
 
             if ( params.isDataType( TEXT ) )
             {
                 String value = rowSet.getString( VALUE_ID );
 
-                map.put( key.toString(), value );
+                map.put( key, value );
             }
             else // NUMERIC
             {
                 Double value = rowSet.getDouble( VALUE_ID );
 
-                map.put( key.toString(), value );
+                map.put( key, value );
             }
         }
 
         return map;
     }
 
+    /**
+     * Retrieves data from the sub-query cache if enabled, see
+     * {@link AnalyticsSubQueryCache}, or from the database otherwise.
+     */
+    private Map<DimensionKey, Object> getCachedKeyValueMap( DataQueryParams params, String sql, int maxLimit )
+    {
+        if ( !subQueryCacheEnabled )
+        {
+            return getKeyValueMap( params, sql, maxLimit );
+        }
+
+        return subQueryCache.get( params, sql, maxLimit, () -> getKeyValueMap( params, sql, maxLimit ) );
+    }
+
     /**
      * Generates a comma-delimited string based on the dimension names of the
      * given dimensions where each dimension name is quoted.
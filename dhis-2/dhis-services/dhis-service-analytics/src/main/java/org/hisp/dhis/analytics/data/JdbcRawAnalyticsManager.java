@@ -55,13 +55,13 @@ import org.hisp.dhis.common.DimensionType;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.DimensionalObject;
 import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridRowSink;
 import org.hisp.dhis.common.IdScheme;
 import org.hisp.dhis.commons.util.SqlHelper;
 import org.hisp.dhis.commons.util.TextUtils;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.util.ObjectUtils;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.util.Assert;
 
 import com.google.api.client.util.Lists;
@@ -88,6 +88,14 @@ public class JdbcRawAnalyticsManager
 
     @Override
     public Grid getRawDataValues( DataQueryParams params, Grid grid )
+    {
+        streamRawDataValues( params, row -> grid.addRow().addValuesAsList( row ) );
+
+        return grid;
+    }
+
+    @Override
+    public void streamRawDataValues( DataQueryParams params, GridRowSink sink )
     {
         Assert.isTrue( params.hasStartEndDate(), "Start and end dates must be specified" );
 
@@ -105,21 +113,18 @@ public class JdbcRawAnalyticsManager
 
         log.debug( "Get raw data SQL: " + sql );
 
-        SqlRowSet rowSet = jdbcTemplate.queryForRowSet( sql );
-
-        while ( rowSet.next() )
-        {
-            grid.addRow();
+        AnalyticsUtils.streamQuery( jdbcTemplate, sql, rs -> {
+            List<Object> row = new ArrayList<>( dimensions.size() + 1 );
 
             for ( DimensionalObject dim : dimensions )
             {
-                grid.addValue( rowSet.getString( dim.getDimensionName() ) );
+                row.add( rs.getString( dim.getDimensionName() ) );
             }
 
-            grid.addValue( rowSet.getDouble( "value" ) );
-        }
+            row.add( rs.getDouble( "value" ) );
 
-        return grid;
+            sink.addRow( row );
+        } );
     }
 
     // -------------------------------------------------------------------------
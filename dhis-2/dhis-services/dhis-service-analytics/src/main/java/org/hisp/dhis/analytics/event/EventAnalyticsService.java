@@ -32,6 +32,7 @@ import org.hisp.dhis.analytics.AnalyticsMetaDataKey;
 import org.hisp.dhis.analytics.Rectangle;
 import org.hisp.dhis.common.AnalyticalObject;
 import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridRowSink;
 
 import java.util.List;
 
@@ -96,6 +97,17 @@ public interface EventAnalyticsService
      */
     Grid getEvents( EventQueryParams params );
 
+    /**
+     * Passes the events matching the given query to the given sink. The sink
+     * is first given a grid with headers and meta data, then each event row
+     * as it is read from the database. Rows are not held in memory, which
+     * makes this method suitable for large exports.
+     *
+     * @param params the event query parameters.
+     * @param sink the {@link GridRowSink}.
+     */
+    void streamEvents( EventQueryParams params, GridRowSink sink );
+
     /**
      * Returns a list of event clusters matching the given query.
      *
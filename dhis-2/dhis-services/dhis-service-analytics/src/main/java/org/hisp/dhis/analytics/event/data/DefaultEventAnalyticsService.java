@@ -95,6 +95,7 @@ import org.hisp.dhis.common.DimensionalObject;
 import org.hisp.dhis.common.EventAnalyticalObject;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.GridRowSink;
 import org.hisp.dhis.common.IdScheme;
 import org.hisp.dhis.common.IdentifiableObjectUtils;
 import org.hisp.dhis.common.IllegalQueryException;
@@ -199,7 +200,8 @@ public class DefaultEventAnalyticsService
         boolean enabled = expiration > 0 && !SystemUtils.isTestRun(this.environment.getActiveProfiles());
 
         queryCache = cacheProvider.newCacheBuilder( Grid.class ).forRegion( CACHE_REGION )
-            .expireAfterWrite( expiration, TimeUnit.SECONDS ).withMaximumSize( enabled ? MAX_CACHE_ENTRIES : 0 ).build();
+            .expireAfterWrite( expiration, TimeUnit.SECONDS ).withMaximumSize( enabled ? MAX_CACHE_ENTRIES : 0 )
+            .withNearCache().invalidateOnMetadataChange().build();
 
         log.info( String.format( "Event analytics server-side cache is enabled: %b with expiration: %d s", enabled, expiration ) );
     }
@@ -586,23 +588,7 @@ public class DefaultEventAnalyticsService
         // Headers
         // ---------------------------------------------------------------------
 
-        grid.addHeader( new GridHeader( ITEM_EVENT, NAME_EVENT, ValueType.TEXT, String.class.getName(), false, true ) )
-            .addHeader( new GridHeader( ITEM_PROGRAM_STAGE, NAME_PROGRAM_STAGE, ValueType.TEXT, String.class.getName(), false, true ) )
-            .addHeader( new GridHeader( ITEM_EVENT_DATE, NAME_EVENT_DATE, ValueType.DATE, Date.class.getName(), false, true ) )
-            .addHeader( new GridHeader( ITEM_LONGITUDE, NAME_LONGITUDE, ValueType.NUMBER, Double.class.getName(), false, true ) )
-            .addHeader( new GridHeader( ITEM_LATITUDE, NAME_LATITUDE, ValueType.NUMBER, Double.class.getName(), false, true ) )
-            .addHeader( new GridHeader( ITEM_ORG_UNIT_NAME, NAME_ORG_UNIT_NAME, ValueType.TEXT, String.class.getName(), false, true ) )
-            .addHeader( new GridHeader( ITEM_ORG_UNIT_CODE, NAME_ORG_UNIT_CODE, ValueType.TEXT, String.class.getName(), false, true ) );
-
-        for ( DimensionalObject dimension : params.getDimensions() )
-        {
-            grid.addHeader( new GridHeader( dimension.getDimension(), dimension.getDisplayName(), ValueType.TEXT, String.class.getName(), false, true ) );
-        }
-
-        for ( QueryItem item : params.getItems() )
-        {
-            grid.addHeader( new GridHeader( item.getItem().getUid(), item.getItem().getName(), item.getValueType(), item.getTypeAsString(), false, true, item.getOptionSet(), item.getLegendSet() ) );
-        }
+        addEventHeaders( params, grid );
 
         // ---------------------------------------------------------------------
         // Data
@@ -657,6 +643,115 @@ public class DefaultEventAnalyticsService
         return grid;
     }
 
+    @Override
+    public void streamEvents( EventQueryParams params, GridRowSink sink )
+    {
+        securityManager.decideAccessEventQuery( params );
+
+        queryValidator.validate( params );
+
+        params = new EventQueryParams.Builder( params )
+            .withStartEndDatesForPeriods()
+            .build();
+
+        Grid grid = new ListGrid();
+
+        addEventHeaders( params, grid );
+
+        params = queryPlanner.planEventQuery( params );
+
+        addMetadata( params, grid );
+
+        if ( params.isPaging() )
+        {
+            long count = params.getPartitions().hasAny() ? eventAnalyticsManager.getEventCount( params ) : 0;
+
+            Pager pager = new Pager( params.getPageWithDefault(), count, params.getPageSizeWithDefault() );
+
+            grid.getMetaData().put( PAGER.getKey(), pager );
+        }
+
+        GridRowSink rowSink = params.hasDataIdScheme() ? withSubstitutedData( grid, sink ) : sink;
+
+        sink.start( grid );
+
+        if ( params.getPartitions().hasAny() )
+        {
+            eventAnalyticsManager.streamEvents( params, grid.getHeaders(), rowSink, queryValidator.getMaxLimit() );
+        }
+
+        sink.finish();
+    }
+
+    /**
+     * Adds the event headers to the given grid.
+     *
+     * @param params the {@link EventQueryParams}.
+     * @param grid the grid.
+     */
+    private void addEventHeaders( EventQueryParams params, Grid grid )
+    {
+        grid.addHeader( new GridHeader( ITEM_EVENT, NAME_EVENT, ValueType.TEXT, String.class.getName(), false, true ) )
+            .addHeader( new GridHeader( ITEM_PROGRAM_STAGE, NAME_PROGRAM_STAGE, ValueType.TEXT, String.class.getName(), false, true ) )
+            .addHeader( new GridHeader( ITEM_EVENT_DATE, NAME_EVENT_DATE, ValueType.DATE, Date.class.getName(), false, true ) )
+            .addHeader( new GridHeader( ITEM_LONGITUDE, NAME_LONGITUDE, ValueType.NUMBER, Double.class.getName(), false, true ) )
+            .addHeader( new GridHeader( ITEM_LATITUDE, NAME_LATITUDE, ValueType.NUMBER, Double.class.getName(), false, true ) )
+            .addHeader( new GridHeader( ITEM_ORG_UNIT_NAME, NAME_ORG_UNIT_NAME, ValueType.TEXT, String.class.getName(), false, true ) )
+            .addHeader( new GridHeader( ITEM_ORG_UNIT_CODE, NAME_ORG_UNIT_CODE, ValueType.TEXT, String.class.getName(), false, true ) );
+
+        for ( DimensionalObject dimension : params.getDimensions() )
+        {
+            grid.addHeader( new GridHeader( dimension.getDimension(), dimension.getDisplayName(), ValueType.TEXT, String.class.getName(), false, true ) );
+        }
+
+        for ( QueryItem item : params.getItems() )
+        {
+            grid.addHeader( new GridHeader( item.getItem().getUid(), item.getItem().getName(), item.getValueType(), item.getTypeAsString(), false, true, item.getOptionSet(), item.getLegendSet() ) );
+        }
+    }
+
+    /**
+     * Returns a sink which substitutes option codes and legend identifiers
+     * with names in each row before passing it to the given sink, in the same
+     * way as {@link #substituteData(EventQueryParams, Grid)}.
+     *
+     * @param grid the grid with headers.
+     * @param sink the {@link GridRowSink}.
+     * @return a {@link GridRowSink}.
+     */
+    private GridRowSink withSubstitutedData( Grid grid, GridRowSink sink )
+    {
+        Map<Integer, Map<String, String>> columnMaps = new HashMap<>();
+
+        for ( int i = 0; i < grid.getHeaders().size(); i++ )
+        {
+            GridHeader header = grid.getHeaders().get( i );
+
+            if ( header.hasOptionSet() )
+            {
+                columnMaps.put( i, header.getOptionSetObject().getOptionCodePropertyMap( IdScheme.NAME ) );
+            }
+            else if ( header.hasLegendSet() )
+            {
+                columnMaps.put( i, header.getLegendSetObject().getLegendUidPropertyMap( IdScheme.NAME ) );
+            }
+        }
+
+        return row -> {
+            for ( Map.Entry<Integer, Map<String, String>> entry : columnMaps.entrySet() )
+            {
+                String value = entry.getValue().get( row.get( entry.getKey() ) );
+
+                if ( value != null )
+                {
+                    row.set( entry.getKey(), value );
+                }
+            }
+
+            sink.addRow( row );
+        };
+    }
+
     private void substituteData( EventQueryParams params, Grid grid )
     {
         for ( int i = 0; i < grid.getHeaders().size(); i++ )
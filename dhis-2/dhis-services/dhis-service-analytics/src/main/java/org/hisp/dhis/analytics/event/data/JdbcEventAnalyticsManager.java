@@ -44,6 +44,7 @@ import static org.hisp.dhis.commons.util.TextUtils.getQuotedCommaDelimitedString
 import static org.hisp.dhis.commons.util.TextUtils.removeLastComma;
 import static org.hisp.dhis.commons.util.TextUtils.removeLastOr;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -62,6 +63,7 @@ import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.DimensionalObject;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.GridRowSink;
 import org.hisp.dhis.common.OrganisationUnitSelectionMode;
 import org.hisp.dhis.common.QueryFilter;
 import org.hisp.dhis.common.QueryItem;
@@ -97,6 +99,14 @@ public class JdbcEventAnalyticsManager
 
     @Override
     public Grid getEvents( EventQueryParams params, Grid grid, int maxLimit )
+    {
+        streamEvents( params, grid.getHeaders(), row -> grid.addRow().addValuesAsList( row ), maxLimit );
+
+        return grid;
+    }
+
+    @Override
+    public void streamEvents( EventQueryParams params, List<GridHeader> headers, GridRowSink sink, int maxLimit )
     {
         List<String> fixedCols = Lists.newArrayList( "psi", "ps", "executiondate", "longitude", "latitude", "ouname", "oucode" );
 
@@ -113,12 +123,12 @@ public class JdbcEventAnalyticsManager
         sql += getPagingClause( params, maxLimit );
 
         // ---------------------------------------------------------------------
-        // Grid
+        // Rows
         // ---------------------------------------------------------------------
 
         try
         {
-            getEvents( params, grid, sql );
+            streamEvents( params, headers, sink, sql );
         }
         catch ( BadSqlGrammarException ex )
         {
@@ -129,42 +139,39 @@ public class JdbcEventAnalyticsManager
             log.warn( AnalyticsUtils.ERR_MSG_QUERY_TIMEOUT, ex );
             throw new QueryTimeoutException( AnalyticsUtils.ERR_MSG_QUERY_TIMEOUT, ex );
         }
-
-        return grid;
     }
 
-    private void getEvents( EventQueryParams params, Grid grid, String sql )
+    private void streamEvents( EventQueryParams params, List<GridHeader> headers, GridRowSink sink, String sql )
     {
         log.debug( String.format( "Analytics event query SQL: %s", sql ) );
 
-        SqlRowSet rowSet = jdbcTemplate.queryForRowSet( sql );
-
-        while ( rowSet.next() )
-        {
-            grid.addRow();
+        AnalyticsUtils.streamQuery( jdbcTemplate, sql, rs -> {
+            List<Object> row = new ArrayList<>( headers.size() );
 
             int index = 1;
 
-            for ( GridHeader header : grid.getHeaders() )
+            for ( GridHeader header : headers )
             {
                 if ( ITEM_LONGITUDE.equals( header.getName() ) || ITEM_LATITUDE.equals( header.getName() ) )
                 {
-                    double val = rowSet.getDouble( index );
-                    grid.addValue( Precision.round( val, COORD_DEC ) );
+                    double val = rs.getDouble( index );
+                    row.add( Precision.round( val, COORD_DEC ) );
                 }
                 else if ( Double.class.getName().equals( header.getType() ) && !header.hasLegendSet() )
                 {
-                    double val = rowSet.getDouble( index );
-                    grid.addValue( params.isSkipRounding() ? val : MathUtils.getRounded( val ) );
+                    double val = rs.getDouble( index );
+                    row.add( params.isSkipRounding() ? val : MathUtils.getRounded( val ) );
                 }
                 else
                 {
-                    grid.addValue( rowSet.getString( index ) );
+                    row.add( rs.getString( index ) );
                 }
 
                 index++;
             }
-        }
+
+            sink.addRow( row );
+        } );
     }
 
     @Override
@@ -28,8 +28,15 @@ package org.hisp.dhis.analytics.partition;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.apache.commons.logging.Log;
@@ -37,6 +44,10 @@ import org.apache.commons.logging.LogFactory;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.Partitions;
 import org.hisp.dhis.analytics.table.PartitionUtils;
+import org.hisp.dhis.api.util.DateUtils;
+import org.hisp.dhis.commons.util.TextUtils;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 
@@ -51,11 +62,30 @@ public class JdbcPartitionManager
     private Set<String> analyticsPartitions = null;
     private Set<String> analyticsEventPartitions = null;
 
+    /**
+     * Table existence by table name, valid for the analytics tables version
+     * in {@link #tableExistsVersion}.
+     */
+    private final Map<String, Boolean> tableExists = new ConcurrentHashMap<>();
+
+    private volatile String tableExistsVersion = null;
+
+    /**
+     * Time of last update by table name, valid for the analytics tables
+     * version in {@link #lastUpdatedVersion}.
+     */
+    private final Map<String, Optional<Date>> lastUpdated = new ConcurrentHashMap<>();
+
+    private volatile String lastUpdatedVersion = null;
+
     //TODO separate method for enrollment partitions ?
 
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private SystemSettingManager systemSettingManager;
+
     @Override
     public Set<String> getDataValueAnalyticsPartitions()
     {
@@ -100,6 +130,32 @@ public class JdbcPartitionManager
 
     @Override
     public boolean tableExists( String table )
+    {
+        final String version = getAnalyticsTablesVersion();
+
+        if ( !version.equals( tableExistsVersion ) )
+        {
+            resetTableExists( version );
+        }
+
+        return tableExists.computeIfAbsent( table, this::queryTableExists );
+    }
+
+    /**
+     * Clears the cached table existence if the analytics tables version has
+     * changed, which is also the case when the tables were updated by
+     * another node.
+     */
+    private synchronized void resetTableExists( String version )
+    {
+        if ( !version.equals( tableExistsVersion ) )
+        {
+            tableExists.clear();
+            tableExistsVersion = version;
+        }
+    }
+
+    private boolean queryTableExists( String table )
     {
         final String sql =
             "select count(table_name) from information_schema.tables " +
@@ -123,16 +179,138 @@ public class JdbcPartitionManager
         partitions.setPartitions( partitionSet );
     }
 
+    @Override
+    public Map<String, Date> getLastUpdated( Collection<String> tables )
+    {
+        final Map<String, Date> result = new HashMap<>();
+
+        if ( tables == null || tables.isEmpty() )
+        {
+            return result;
+        }
+
+        final String version = getAnalyticsTablesVersion();
+
+        if ( !version.equals( lastUpdatedVersion ) || !lastUpdated.keySet().containsAll( tables ) )
+        {
+            loadLastUpdated( tables, version );
+        }
+
+        tables.forEach( table -> lastUpdated.getOrDefault( table, Optional.empty() )
+            .ifPresent( date -> result.put( table, date ) ) );
+
+        return result;
+    }
+
+    /**
+     * Loads the time of last update of the given tables which are not yet
+     * cached for the given analytics tables version. Clears the cached times
+     * if the version has changed.
+     */
+    private synchronized void loadLastUpdated( Collection<String> tables, String version )
+    {
+        if ( !version.equals( lastUpdatedVersion ) )
+        {
+            lastUpdated.clear();
+            lastUpdatedVersion = version;
+        }
+
+        List<String> missing = tables.stream()
+            .filter( table -> !lastUpdated.containsKey( table ) )
+            .distinct()
+            .collect( Collectors.toList() );
+
+        if ( missing.isEmpty() )
+        {
+            return;
+        }
+
+        Map<String, Date> loaded = queryLastUpdated( missing );
+
+        missing.forEach( table -> lastUpdated.put( table, Optional.ofNullable( loaded.get( table ) ) ) );
+    }
+
+    private Map<String, Date> queryLastUpdated( Collection<String> tables )
+    {
+        final Map<String, Date> lastUpdated = new HashMap<>();
+
+        final String tableNames = TextUtils.getQuotedCommaDelimitedString( tables );
+
+        final String sql =
+            "select c.relname as tablename, obj_description(c.oid, 'pg_class') as lastupdated " +
+            "from pg_class c " +
+            "where c.relname in (" + tableNames + ") " +
+            "union all " +
+            "select c.relname as tablename, obj_description(i.inhrelid, 'pg_class') as lastupdated " +
+            "from pg_class c " +
+            "inner join pg_inherits i on c.oid=i.inhparent " +
+            "where c.relname in (" + tableNames + ")";
+
+        log.debug( "Table last updated SQL: " + sql );
+
+        jdbcTemplate.query( sql, rs -> {
+            Date date = parseLastUpdated( rs.getString( "lastupdated" ) );
+
+            if ( date != null )
+            {
+                lastUpdated.merge( rs.getString( "tablename" ), date, ( d1, d2 ) -> d1.after( d2 ) ? d1 : d2 );
+            }
+        } );
+
+        return lastUpdated;
+    }
+
+    /**
+     * Returns the version of the analytics tables, made of the time of the
+     * last successful full and latest partition analytics table update. The
+     * system settings are cached, so this does not query the database.
+     */
+    private String getAnalyticsTablesVersion()
+    {
+        return getTime( SettingKey.LAST_SUCCESSFUL_ANALYTICS_TABLES_UPDATE ) + "-" +
+            getTime( SettingKey.LAST_SUCCESSFUL_LATEST_ANALYTICS_PARTITION_UPDATE );
+    }
+
+    private long getTime( SettingKey key )
+    {
+        Date date = (Date) systemSettingManager.getSystemSetting( key );
+
+        return date != null ? date.getTime() : 0;
+    }
+
     private boolean partitionExists( String tableName, Integer partition )
     {
         return tableExists( PartitionUtils.getPartitionName( tableName, partition ) );
 
     }
 
+    /**
+     * Parses the time of last update recorded as table comment. Returns null
+     * if the comment is not set or is not a timestamp.
+     */
+    private Date parseLastUpdated( String comment )
+    {
+        try
+        {
+            return DateUtils.parseDate( comment );
+        }
+        catch ( IllegalArgumentException ex )
+        {
+            return null;
+        }
+    }
+
     @Override
     public void clearCaches()
     {
         analyticsPartitions = null;
         analyticsEventPartitions = null;
+        synchronized ( this )
+        {
+            tableExists.clear();
+            tableExistsVersion = null;
+            lastUpdated.clear();
+            lastUpdatedVersion = null;
+        }
     }
 }
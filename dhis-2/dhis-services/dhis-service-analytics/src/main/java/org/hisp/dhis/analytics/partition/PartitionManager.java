@@ -28,6 +28,9 @@ package org.hisp.dhis.analytics.partition;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
 import java.util.Set;
 
 import org.hisp.dhis.analytics.Partitions;
@@ -50,7 +53,9 @@ public interface PartitionManager
     Set<String> getEventAnalyticsPartitions();
 
     /**
-     * Indicates whether the given analytics table exists.
+     * Indicates whether the given analytics table exists. The result is
+     * cached until the next analytics table update or until
+     * {@link #clearCaches()} is invoked.
      *
      * @param table the analytics table name.
      */
@@ -66,7 +71,19 @@ public interface PartitionManager
     void filterNonExistingPartitions( Partitions partitions, String tableName );
 
     /**
-     * Clears the partition name caches.
+     * Returns the time of the last update of the given analytics tables. For
+     * a master table, the most recent update of the table and its partitions
+     * is returned. Tables which do not exist or have no recorded update time
+     * are not included. The times are cached until the next analytics table
+     * update or until {@link #clearCaches()} is invoked.
+     *
+     * @param tables the analytics table names.
+     * @return a mapping of table name to time of last update.
+     */
+    Map<String, Date> getLastUpdated( Collection<String> tables );
+
+    /**
+     * Clears the partition name, table existence and last update caches.
      */
     void clearCaches();
 }
@@ -28,6 +28,7 @@ package org.hisp.dhis.analytics.table;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -52,6 +53,7 @@ import org.hisp.dhis.analytics.AnalyticsTablePhase;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
 import org.hisp.dhis.analytics.partition.PartitionManager;
+import org.hisp.dhis.api.util.DateUtils;
 import org.hisp.dhis.calendar.Calendar;
 import org.hisp.dhis.category.CategoryService;
 import org.hisp.dhis.common.IdentifiableObjectManager;
@@ -130,6 +132,15 @@ public abstract class AbstractJdbcTableManager
     {
     }
 
+    /**
+     * Override in order to support updates of the latest partition.
+     */
+    @Override
+    public List<AnalyticsTable> getLatestAnalyticsTables( AnalyticsTableUpdateParams params )
+    {
+        return new ArrayList<>();
+    }
+
     @Override
     public void createTable( AnalyticsTable table )
     {
@@ -137,6 +148,35 @@ public abstract class AbstractJdbcTableManager
         createTempTablePartitions( table );
     }
 
+    @Override
+    public boolean createLatestPartition( AnalyticsTablePartition partition )
+    {
+        final String tableName = partition.getTableName();
+
+        if ( partitionManager.tableExists( tableName ) )
+        {
+            return false;
+        }
+
+        final String sqlCreate = "create table " + tableName + " () inherits (" + partition.getMasterTable().getTableName() + ")";
+
+        log.info( String.format( "Creating latest partition table: %s", tableName ) );
+
+        log.debug( "Create SQL: " + sqlCreate );
+
+        jdbcTemplate.execute( sqlCreate );
+
+        return true;
+    }
+
+    /**
+     * Override in order to support updates of the latest partition.
+     */
+    @Override
+    public void removeUpdatedData( AnalyticsTableUpdateParams params, List<AnalyticsTable> tables )
+    {
+    }
+
     @Override
     @Async
     public Future<?> createIndexesAsync( ConcurrentLinkedQueue<AnalyticsIndex> indexes )
@@ -174,10 +214,15 @@ public abstract class AbstractJdbcTableManager
 
         log.info( String.format( "Swapping table, master table exists: %b, skip master table: %b", tableExists, skipMasterTable ) );
 
+        swapLatestPartition( table, skipMasterTable );
+
+        setLastUpdated( params, table.getPartitionTables() );
+
         table.getPartitionTables().stream().forEach( p -> swapTable( p.getTempTableName(), p.getTableName() ) );
 
         if ( !skipMasterTable )
         {
+            setTableLastUpdated( table.getTempTableName(), params.getStartTime() );
             swapTable( table.getTempTableName(), table.getTableName() );
         }
         else
@@ -187,6 +232,12 @@ public abstract class AbstractJdbcTableManager
         }
     }
 
+    @Override
+    public void setLastUpdated( AnalyticsTableUpdateParams params, List<AnalyticsTablePartition> partitions )
+    {
+        partitions.forEach( p -> setTableLastUpdated( p.getTempTableName(), params.getStartTime() ) );
+    }
+
     @Override
     public void dropTempTable( AnalyticsTable table )
     {
@@ -447,6 +498,16 @@ public abstract class AbstractJdbcTableManager
             .collect( Collectors.toList() );
     }
 
+    /**
+     * Returns the time from which data changes must be captured by the latest
+     * partition, i.e. the start time of the last successful full or latest
+     * update, or null if no such update has been done.
+     */
+    protected Date getLatestPartitionStartTime()
+    {
+        return (Date) systemSettingManager.getSystemSetting( SettingKey.LAST_SUCCESSFUL_LATEST_ANALYTICS_PARTITION_UPDATE );
+    }
+
     /**
      * Executes the given table population SQL statement, log and times the operation.
      *
@@ -484,6 +545,50 @@ public abstract class AbstractJdbcTableManager
         executeSilently( sql );
     }
 
+    /**
+     * Records the given time of last update as comment on the given table,
+     * which is read by {@link PartitionManager#getLastUpdated(java.util.Collection)}.
+     *
+     * @param tableName the table name.
+     * @param lastUpdated the time of last update.
+     */
+    private void setTableLastUpdated( String tableName, Date lastUpdated )
+    {
+        executeSilently( "comment on table " + tableName + " is '" + DateUtils.getLongGmtDateString( lastUpdated ) + "'" );
+    }
+
+    /**
+     * Handles the latest partition of the given table as part of a table swap.
+     * For full updates the latest partition is dropped as the new partitions
+     * contain all data. For partial updates the data for the updated years is
+     * removed from the latest partition as the new partitions contain it.
+     *
+     * @param table the {@link AnalyticsTable}.
+     * @param partialUpdate whether this is a partial update.
+     */
+    private void swapLatestPartition( AnalyticsTable table, boolean partialUpdate )
+    {
+        final String latestTableName = PartitionUtils.getPartitionName( table.getTableName(), PartitionUtils.LATEST_PARTITION );
+
+        if ( !partitionManager.tableExists( latestTableName ) )
+        {
+            return;
+        }
+
+        if ( !partialUpdate )
+        {
+            dropTable( latestTableName );
+        }
+        else if ( table.hasPartitionTables() )
+        {
+            List<Integer> years = table.getPartitionTables().stream()
+                .map( AnalyticsTablePartition::getYear )
+                .collect( Collectors.toList() );
+
+            executeSilently( "delete from " + latestTableName + " where year in (" + TextUtils.getCommaDelimitedString( years ) + ")" );
+        }
+    }
+
     /**
      * Updates table inheritance of a table partition from the temp master table
      * to the real master table.
@@ -34,6 +34,9 @@ import static org.hisp.dhis.system.notification.NotificationLevel.INFO;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import org.apache.commons.logging.Log;
@@ -42,8 +45,11 @@ import org.hisp.dhis.analytics.AnalyticsTableGenerator;
 import org.hisp.dhis.analytics.AnalyticsTableService;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
+import org.hisp.dhis.analytics.partition.PartitionManager;
 import org.hisp.dhis.api.util.DateUtils;
 import org.hisp.dhis.commons.collection.CollectionUtils;
+import org.hisp.dhis.commons.util.ConcurrentUtils;
+import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.message.MessageService;
 import org.hisp.dhis.resourcetable.ResourceTableService;
 import org.hisp.dhis.scheduling.JobConfiguration;
@@ -52,6 +58,9 @@ import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.system.notification.Notifier;
 import org.hisp.dhis.system.util.Clock;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import com.google.common.collect.Lists;
 
 /**
  * @author Lars Helge Overland
@@ -76,6 +85,9 @@ public class DefaultAnalyticsTableGenerator
     @Autowired
     private Notifier notifier;
 
+    @Autowired
+    private PartitionManager partitionManager;
+
     // -------------------------------------------------------------------------
     // Implementation
     // -------------------------------------------------------------------------
@@ -127,6 +139,23 @@ public class DefaultAnalyticsTableGenerator
 
             throw ex;
         }
+        finally
+        {
+            partitionManager.clearCaches();
+        }
+
+        if ( params.isLatestUpdate() )
+        {
+            systemSettingManager.saveSystemSetting( SettingKey.LAST_SUCCESSFUL_LATEST_ANALYTICS_PARTITION_UPDATE, params.getStartTime() );
+            return;
+        }
+
+        if ( !params.isPartialUpdate() && !skipTypes.contains( AnalyticsTableType.DATA_VALUE ) )
+        {
+            // Full update resets the latest partition
+
+            systemSettingManager.saveSystemSetting( SettingKey.LAST_SUCCESSFUL_LATEST_ANALYTICS_PARTITION_UPDATE, params.getStartTime() );
+        }
 
         systemSettingManager.saveSystemSetting( SettingKey.LAST_SUCCESSFUL_ANALYTICS_TABLES_UPDATE, params.getStartTime() );
         systemSettingManager.saveSystemSetting( SettingKey.LAST_SUCCESSFUL_ANALYTICS_TABLES_RUNTIME, DateUtils.getPrettyInterval( clock.getSplitTime() ) );
@@ -139,6 +168,8 @@ public class DefaultAnalyticsTableGenerator
         {
             service.dropTables();
         }
+
+        partitionManager.clearCaches();
     }
 
     @Override
@@ -173,19 +204,59 @@ public class DefaultAnalyticsTableGenerator
         final Date startTime = new Date();
 
         resourceTableService.dropAllSqlViews();
+
+        // Org unit structure table is joined by the org unit group set table
+        // and must be generated first, remaining tables are independent of
+        // each other and generated in parallel
+
         resourceTableService.generateOrganisationUnitStructures();
-        resourceTableService.generateDataSetOrganisationUnitCategoryTable();
-        resourceTableService.generateCategoryOptionComboNames();
-        resourceTableService.generateDataElementGroupSetTable();
-        resourceTableService.generateIndicatorGroupSetTable();
-        resourceTableService.generateOrganisationUnitGroupSetTable();
-        resourceTableService.generateCategoryTable();
-        resourceTableService.generateDataElementTable();
-        resourceTableService.generatePeriodTable();
-        resourceTableService.generateDatePeriodTable();
-        resourceTableService.generateCategoryOptionComboTable();
+
+        List<Runnable> tasks = Lists.newArrayList(
+            resourceTableService::generateDataSetOrganisationUnitCategoryTable,
+            resourceTableService::generateCategoryOptionComboNames,
+            resourceTableService::generateDataElementGroupSetTable,
+            resourceTableService::generateIndicatorGroupSetTable,
+            resourceTableService::generateOrganisationUnitGroupSetTable,
+            resourceTableService::generateCategoryTable,
+            resourceTableService::generateDataElementTable,
+            resourceTableService::generatePeriodTable,
+            resourceTableService::generateDatePeriodTable,
+            resourceTableService::generateCategoryOptionComboTable );
+
+        int taskNo = Math.min( getProcessNo(), tasks.size() );
+
+        log.info( "Resource table task number: " + taskNo );
+
+        ExecutorService executor = Executors.newFixedThreadPool( taskNo, new CustomizableThreadFactory( "resource-table-" ) );
+
+        try
+        {
+            List<Future<?>> futures = tasks.stream()
+                .map( executor::submit )
+                .collect( Collectors.toList() );
+
+            ConcurrentUtils.waitForCompletion( futures );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
         resourceTableService.createAllSqlViews();
 
         systemSettingManager.saveSystemSetting( SettingKey.LAST_SUCCESSFUL_RESOURCE_TABLES_UPDATE, startTime );
     }
+
+    /**
+     * Returns the number of resource tables to generate in parallel, based on
+     * the number of database server CPUs.
+     */
+    private int getProcessNo()
+    {
+        Integer cores = (Integer) systemSettingManager.getSystemSetting( SettingKey.DATABASE_SERVER_CPUS );
+
+        cores = ( cores == null || cores == 0 ) ? SystemUtils.getCpuCores() : cores;
+
+        return cores > 2 ? ( cores - 1 ) : cores;
+    }
 }
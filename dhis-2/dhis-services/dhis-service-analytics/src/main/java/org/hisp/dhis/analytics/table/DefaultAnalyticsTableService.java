@@ -30,6 +30,7 @@ package org.hisp.dhis.analytics.table;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.analytics.partition.PartitionManager;
 import org.hisp.dhis.analytics.*;
 import org.hisp.dhis.common.IdentifiableObjectUtils;
 import org.hisp.dhis.commons.util.ConcurrentUtils;
@@ -53,6 +54,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 /**
  * @author Lars Helge Overland
@@ -84,6 +86,9 @@ public class DefaultAnalyticsTableService
     @Autowired
     private SystemSettingManager systemSettingManager;
 
+    @Autowired
+    private PartitionManager partitionManager;
+
     // -------------------------------------------------------------------------
     // Implementation
     // -------------------------------------------------------------------------
@@ -121,6 +126,12 @@ public class DefaultAnalyticsTableService
             return;
         }
 
+        if ( params.isLatestUpdate() )
+        {
+            updateLatestPartitions( params, clock );
+            return;
+        }
+
         final List<AnalyticsTable> tables = tableManager.getAnalyticsTables( earliest );
 
         if ( tables.isEmpty() )
@@ -211,6 +222,73 @@ public class DefaultAnalyticsTableService
     // Supportive methods
     // -------------------------------------------------------------------------
 
+    /**
+     * Updates the latest partitions in place with data which was changed since
+     * the last successful full or latest update. Changed and deleted data is
+     * first removed from the analytics tables and the current data is then
+     * appended to the latest partitions.
+     *
+     * @param params the {@link AnalyticsTableUpdateParams}.
+     * @param clock the {@link Clock}.
+     */
+    private void updateLatestPartitions( AnalyticsTableUpdateParams params, Clock clock )
+    {
+        JobConfiguration jobId = params.getJobId();
+
+        AnalyticsTableType tableType = tableManager.getAnalyticsTableType();
+
+        final List<AnalyticsTable> tables = tableManager.getLatestAnalyticsTables( params );
+
+        if ( tables.isEmpty() )
+        {
+            clock.logTime( "Latest partition update skipped, no updated data found: " + tableType.getTableName() );
+            notifier.notify( jobId, "Latest partition update skipped, no updated data found" );
+            return;
+        }
+
+        final List<AnalyticsTablePartition> partitions = PartitionUtils.getTablePartitions( tables );
+
+        clock.logTime( "Latest partition update start: " + tableType.getTableName() + ", parameters: " + params.toString() );
+        notifier.notify( jobId, "Creating latest partition tables" );
+
+        List<AnalyticsTablePartition> newPartitions = partitions.stream()
+            .filter( tableManager::createLatestPartition )
+            .collect( Collectors.toList() );
+
+        clock.logTime( "Created latest partition tables: " + newPartitions.size() );
+        notifier.notify( jobId, "Removing updated and deleted data" );
+
+        tableManager.removeUpdatedData( params, tables );
+
+        clock.logTime( "Removed updated and deleted data" );
+        notifier.notify( jobId, "Populating latest partitions" );
+
+        populateTables( params, tables );
+
+        clock.logTime( "Populated latest partitions" );
+        notifier.notify( jobId, "Applying aggregation levels" );
+
+        applyAggregationLevels( tables );
+
+        clock.logTime( "Applied aggregation levels" );
+
+        if ( !newPartitions.isEmpty() )
+        {
+            notifier.notify( jobId, "Creating indexes" );
+            createPartitionIndexes( newPartitions );
+            clock.logTime( "Created indexes" );
+        }
+
+        notifier.notify( jobId, "Analyzing latest partitions" );
+
+        analyzeTables( tables );
+
+        tableManager.setLastUpdated( params, partitions );
+
+        clock.logTime( "Latest partition update done: " + tableType.getTableName() );
+        notifier.notify( jobId, "Latest partition update done" );
+    }
+
     /**
      * Drops the given temporary analytics tables.
      *
@@ -327,8 +405,16 @@ public class DefaultAnalyticsTableService
      */
     private void createIndexes( List<AnalyticsTable> tables )
     {
-        List<AnalyticsTablePartition> partitions = PartitionUtils.getTablePartitions( tables );
+        createPartitionIndexes( PartitionUtils.getTablePartitions( tables ) );
+    }
 
+    /**
+     * Creates indexes on the given analytics table partitions.
+     *
+     * @param partitions the list of {@link AnalyticsTablePartition}.
+     */
+    private void createPartitionIndexes( List<AnalyticsTablePartition> partitions )
+    {
         ConcurrentLinkedQueue<AnalyticsIndex> indexes = new ConcurrentLinkedQueue<>();
 
         for ( AnalyticsTablePartition partition : partitions )
@@ -382,6 +468,8 @@ public class DefaultAnalyticsTableService
 
         tables.forEach( table -> tableManager.swapTable( params, table ) );
 
+        partitionManager.clearCaches();
+
         resourceTableService.createAllSqlViews();
     }
 
@@ -63,6 +63,8 @@ import org.hisp.dhis.category.Category;
 import org.hisp.dhis.category.CategoryOptionGroupSet;
 import org.hisp.dhis.common.ValueType;
 import org.hisp.dhis.commons.collection.ListUtils;
+import org.hisp.dhis.commons.timer.SystemTimer;
+import org.hisp.dhis.commons.timer.Timer;
 import org.hisp.dhis.commons.util.ConcurrentUtils;
 import org.hisp.dhis.commons.util.TextUtils;
 import org.hisp.dhis.dataapproval.DataApprovalLevelService;
@@ -125,6 +127,69 @@ public class JdbcAnalyticsTableManager
         return table.hasPartitionTables() ? newArrayList( table ) : newArrayList();
     }
 
+    @Override
+    @Transactional
+    public List<AnalyticsTable> getLatestAnalyticsTables( AnalyticsTableUpdateParams params )
+    {
+        Date lastUpdate = getLatestPartitionStartTime();
+
+        if ( lastUpdate == null || !partitionManager.tableExists( getTableName() ) )
+        {
+            log.info( "No full analytics table update found, latest partition update not possible" );
+
+            return newArrayList();
+        }
+
+        final String sql =
+            "select dv.dataelementid from datavalue dv " +
+            "where dv.lastupdated > '" + getLongDateString( lastUpdate ) + "' " +
+            "and dv.lastupdated <= '" + getLongDateString( params.getStartTime() ) + "' " +
+            "limit 1";
+
+        if ( !jdbcTemplate.queryForRowSet( sql ).next() )
+        {
+            log.info( String.format( "No data values updated since: %s", getLongDateString( lastUpdate ) ) );
+
+            return newArrayList();
+        }
+
+        AnalyticsTable table = new AnalyticsTable( getTableName(), getDimensionColumns( null ), getValueColumns() );
+
+        return newArrayList( table.addLatestPartitionTable() );
+    }
+
+    @Override
+    public void removeUpdatedData( AnalyticsTableUpdateParams params, List<AnalyticsTable> tables )
+    {
+        final Date lastUpdate = getLatestPartitionStartTime();
+
+        for ( AnalyticsTable table : tables )
+        {
+            final String sql =
+                "delete from " + table.getTableName() + " ax " +
+                "using (" +
+                    "select de.uid as dx, co.uid as co, ao.uid as ao, ps.iso as pe, ou.uid as ou " +
+                    "from datavalue dv " +
+                    "inner join dataelement de on dv.dataelementid=de.dataelementid " +
+                    "inner join _periodstructure ps on dv.periodid=ps.periodid " +
+                    "inner join organisationunit ou on dv.sourceid=ou.organisationunitid " +
+                    "inner join categoryoptioncombo co on dv.categoryoptioncomboid=co.categoryoptioncomboid " +
+                    "inner join categoryoptioncombo ao on dv.attributeoptioncomboid=ao.categoryoptioncomboid " +
+                    "where dv.lastupdated > '" + getLongDateString( lastUpdate ) + "' " +
+                    "and dv.lastupdated <= '" + getLongDateString( params.getStartTime() ) + "'" +
+                ") as dvu " +
+                "where ax.dx=dvu.dx and ax.co=dvu.co and ax.ao=dvu.ao and ax.pe=dvu.pe and ax.ou=dvu.ou";
+
+            log.debug( String.format( "Remove updated data from table: %s with SQL: %s", table.getTableName(), sql ) );
+
+            Timer timer = new SystemTimer().start();
+
+            jdbcTemplate.execute( sql );
+
+            log.info( String.format( "Removed updated data in %s: %s", timer.stop().toString(), table.getTableName() ) );
+        }
+    }
+
     @Override
     public Set<String> getExistingDatabaseTables()
     {
@@ -164,6 +229,11 @@ public class JdbcAnalyticsTableManager
     @Override
     protected List<String> getPartitionChecks( AnalyticsTablePartition partition )
     {
+        if ( partition.isLatestPartition() )
+        {
+            return newArrayList();
+        }
+
         return newArrayList(
             "year = " + partition.getYear() + "",
             "pestartdate < '" + DateUtils.getMediumDateString( partition.getEndDate() ) + "'" );
@@ -176,7 +246,8 @@ public class JdbcAnalyticsTableManager
         final boolean skipDataTypeValidation = (Boolean) systemSettingManager.getSystemSetting( SettingKey.SKIP_DATA_TYPE_VALIDATION_IN_ANALYTICS_TABLE_EXPORT );
         final boolean skipZeroValues = (Boolean) systemSettingManager.getSystemSetting( SettingKey.SKIP_ZERO_VALUES_IN_ANALYTICS_TABLE_EXPORT );
 
-        final String approvalClause = getApprovalJoinClause( partition.getYear() );
+        final Integer year = partition.isLatestPartition() ? null : partition.getYear();
+        final String approvalClause = getApprovalJoinClause( year );
         final String numericClause = skipDataTypeValidation ? "" : ( "and dv.value " + statementBuilder.getRegexpMatch() + " '" + MathUtils.NUMERIC_LENIENT_REGEXP + "' " );
         final String zeroValueCondition = skipZeroValues ? "" : " or de.zeroissignificant = true";
         final String zeroValueClause = "(dv.value != '0' or de.aggregationtype in ('" + AggregationType.AVERAGE + ',' + AggregationType.AVERAGE_SUM_ORG_UNIT + "')" + zeroValueCondition + ") ";
@@ -192,7 +263,9 @@ public class JdbcAnalyticsTableManager
     }
 
     /**
-     * Populates the given analytics table.
+     * Populates the given analytics table. The latest partition is populated
+     * with data changed since the last full or latest update across all years,
+     * other partitions with data for their year.
      *
      * @param table analytics table to populate.
      * @param valueExpression numeric value expression.
@@ -209,7 +282,9 @@ public class JdbcAnalyticsTableManager
 
         String sql = "insert into " + partition.getTempTableName() + " (";
 
-        List<AnalyticsTableColumn> columns = getDimensionColumns( partition.getYear() );
+        final Integer year = partition.isLatestPartition() ? null : partition.getYear();
+
+        List<AnalyticsTableColumn> columns = getDimensionColumns( year );
         List<AnalyticsTableColumn> values = partition.getMasterTable().getValueColumns();
 
         validateDimensionColumns( columns );
@@ -251,11 +326,19 @@ public class JdbcAnalyticsTableManager
             approvalClause +
             "where de.valuetype in (" + valTypes + ") " +
             "and de.domaintype = 'AGGREGATE' " +
-            "and ps.year = " + partition.getYear() + " " +
             "and dv.lastupdated <= '" + getLongDateString( params.getStartTime() ) + "' " +
             "and dv.value is not null " +
             "and dv.deleted is false ";
 
+        if ( partition.isLatestPartition() )
+        {
+            sql += "and dv.lastupdated > '" + getLongDateString( getLatestPartitionStartTime() ) + "' ";
+        }
+        else
+        {
+            sql += "and ps.year = " + partition.getYear() + " ";
+        }
+
         if ( respectStartEndDates )
         {
             sql +=
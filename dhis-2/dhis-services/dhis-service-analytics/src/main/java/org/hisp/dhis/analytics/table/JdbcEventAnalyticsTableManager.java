@@ -41,9 +41,11 @@ import static org.hisp.dhis.system.util.MathUtils.NUMERIC_LENIENT_REGEXP;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.hisp.dhis.analytics.AnalyticsTable;
 import org.hisp.dhis.analytics.AnalyticsTableColumn;
@@ -58,11 +60,13 @@ import org.hisp.dhis.category.CategoryOptionGroupSet;
 import org.hisp.dhis.common.ValueType;
 import org.hisp.dhis.commons.util.TextUtils;
 import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.legend.Legend;
 import org.hisp.dhis.legend.LegendSet;
 import org.hisp.dhis.organisationunit.OrganisationUnitGroupSet;
 import org.hisp.dhis.organisationunit.OrganisationUnitLevel;
 import org.hisp.dhis.period.PeriodType;
 import org.hisp.dhis.program.Program;
+import org.hisp.dhis.setting.SettingKey;
 import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -77,6 +81,10 @@ public class JdbcEventAnalyticsTableManager
 {
     private static final ImmutableSet<ValueType> NO_INDEX_VAL_TYPES = ImmutableSet.of( ValueType.TEXT, ValueType.LONG_TEXT );
 
+    private static final String DATA_VALUE_ALIAS = "edv";
+
+    private static final String ATTRIBUTE_VALUE_ALIAS = "teav";
+
     @Override
     public AnalyticsTableType getAnalyticsTableType()
     {
@@ -103,7 +111,7 @@ public class JdbcEventAnalyticsTableManager
 
             Collections.sort( dataYears );
 
-            AnalyticsTable table = new AnalyticsTable( baseName, getDimensionColumns( program ), Lists.newArrayList(), program );
+            AnalyticsTable table = new AnalyticsTable( baseName, getDimensionColumns( program, false ), Lists.newArrayList(), program );
 
             for ( Integer year : dataYears )
             {
@@ -142,9 +150,11 @@ public class JdbcEventAnalyticsTableManager
         final String end = DateUtils.getMediumDateString( partition.getEndDate() );
         final String tableName = partition.getTempTableName();
 
+        final boolean singlePass = (Boolean) systemSettingManager.getSystemSetting( SettingKey.SINGLE_PASS_EVENT_ANALYTICS_TABLE_EXPORT );
+
         String sql = "insert into " + partition.getTempTableName() + " (";
 
-        List<AnalyticsTableColumn> columns = getDimensionColumns( program );
+        List<AnalyticsTableColumn> columns = getDimensionColumns( program, singlePass );
 
         validateDimensionColumns( columns );
 
@@ -174,6 +184,7 @@ public class JdbcEventAnalyticsTableManager
             "and (cast(date_trunc('month', psi.executiondate) as date)=ougs.startdate or ougs.startdate is null) " +
             "inner join _categorystructure acs on psi.attributeoptioncomboid=acs.categoryoptioncomboid " +
             "left join _dateperiodstructure dps on cast(psi.executiondate as date)=dps.dateperiod " +
+            ( singlePass ? getSinglePassJoins( program ) : "" ) +
             "where psi.executiondate >= '" + start + "' " +
             "and psi.executiondate < '" + end + "' " +
             "and psi.lastupdated <= '" + getLongDateString( params.getStartTime() ) + "' " +
@@ -185,17 +196,16 @@ public class JdbcEventAnalyticsTableManager
         populateAndLog( sql, tableName );
     }
 
-    private List<AnalyticsTableColumn> getDimensionColumns( Program program )
+    /**
+     * Returns the dimension columns for the given program.
+     *
+     * @param program the program.
+     * @param singlePass whether to read data values and attribute values from
+     *        the single pass joins, see {@link #getSinglePassJoins(Program)},
+     *        instead of using one sub-query per column.
+     */
+    private List<AnalyticsTableColumn> getDimensionColumns( Program program, boolean singlePass )
     {
-        final String numericClause = " and value " + statementBuilder.getRegexpMatch() + " '" + NUMERIC_LENIENT_REGEXP + "'";
-        final String dateClause = " and value " + statementBuilder.getRegexpMatch() + " '" + DATE_REGEXP + "'";
-
-        final String dataValueClausePrefix = " and eventdatavalues #>> '{";
-        final String dataValueNumericClauseSuffix = ",value}' " + statementBuilder.getRegexpMatch() + " '" + NUMERIC_LENIENT_REGEXP + "'";
-        final String dataValueDateClauseSuffix = ",value}' " + statementBuilder.getRegexpMatch() + " '" + DATE_REGEXP + "'";
-
-        //TODO dateClause regular expression
-
         List<AnalyticsTableColumn> columns = new ArrayList<>();
 
         if ( program.hasCategoryCombo() )
@@ -242,6 +252,66 @@ public class JdbcEventAnalyticsTableManager
             columns.add( new AnalyticsTableColumn( column, TEXT, "dps." + column ) );
         }
 
+        if ( singlePass )
+        {
+            columns.addAll( getSinglePassValueColumns( program ) );
+        }
+        else
+        {
+            columns.addAll( getValueColumns( program ) );
+        }
+
+        columns.add( new AnalyticsTableColumn( quote( "psi" ), CHARACTER_11, NOT_NULL, "psi.uid" ) );
+        columns.add( new AnalyticsTableColumn( quote( "pi" ), CHARACTER_11, NOT_NULL, "pi.uid" ) );
+        columns.add( new AnalyticsTableColumn( quote( "ps" ), CHARACTER_11, NOT_NULL, "ps.uid" ) );
+        columns.add( new AnalyticsTableColumn( quote( "ao" ), CHARACTER_11, NOT_NULL, "ao.uid" ) );
+        columns.add( new AnalyticsTableColumn( quote( "enrollmentdate" ), TIMESTAMP, "pi.enrollmentdate" ) );
+        columns.add( new AnalyticsTableColumn( quote( "incidentdate" ), TIMESTAMP, "pi.incidentdate" ) );
+        columns.add( new AnalyticsTableColumn( quote( "executiondate" ), TIMESTAMP, "psi.executiondate" ) );
+        columns.add( new AnalyticsTableColumn( quote( "duedate" ),TIMESTAMP, "psi.duedate" ) );
+        columns.add( new AnalyticsTableColumn( quote( "completeddate" ), TIMESTAMP, "psi.completeddate" ) );
+        columns.add( new AnalyticsTableColumn( quote( "created" ), TIMESTAMP, "psi.created" ) );
+        columns.add( new AnalyticsTableColumn( quote( "lastupdated" ), TIMESTAMP, "psi.lastupdated" ) );
+        columns.add( new AnalyticsTableColumn( quote( "pistatus" ), CHARACTER_50, "pi.status" ) );
+        columns.add( new AnalyticsTableColumn( quote( "psistatus" ), CHARACTER_50, "psi.status" ) );
+        columns.add( new AnalyticsTableColumn( quote( "psigeometry" ), GEOMETRY, "psi.geometry" ).withIndexType( "gist" ) );
+
+        // TODO lat and lng deprecated in 2.30, should be removed after 2.33
+        columns.add( new AnalyticsTableColumn( quote( "longitude" ), DOUBLE, "CASE WHEN 'POINT' = GeometryType(psi.geometry) THEN ST_X(psi.geometry) ELSE null END" ) );
+        columns.add( new AnalyticsTableColumn( quote( "latitude" ), DOUBLE, "CASE WHEN 'POINT' = GeometryType(psi.geometry) THEN ST_Y(psi.geometry) ELSE null END" ) );
+
+        columns.add( new AnalyticsTableColumn( quote( "ou" ), CHARACTER_11, NOT_NULL, "ou.uid" ) );
+        columns.add( new AnalyticsTableColumn( quote( "ouname" ), TEXT, NOT_NULL, "ou.name" ) );
+        columns.add( new AnalyticsTableColumn( quote( "oucode" ), TEXT, "ou.code" ) );
+
+        if ( program.isRegistration() )
+        {
+            columns.add( new AnalyticsTableColumn( quote( "tei" ), CHARACTER_11, "tei.uid" ) );
+            columns.add( new AnalyticsTableColumn( quote( "pigeometry" ), GEOMETRY, "pi.geometry" ) );
+        }
+
+        return filterDimensionColumns( columns );
+    }
+
+    /**
+     * Returns the data element, attribute and legend set columns for the given
+     * program, where each column is read with a separate sub-query.
+     *
+     * @param program the program.
+     */
+    private List<AnalyticsTableColumn> getValueColumns( Program program )
+    {
+        final String numericClause = " and value " + statementBuilder.getRegexpMatch() + " '" + NUMERIC_LENIENT_REGEXP + "'";
+        final String dateClause = " and value " + statementBuilder.getRegexpMatch() + " '" + DATE_REGEXP + "'";
+
+        final String dataValueClausePrefix = " and eventdatavalues #>> '{";
+        final String dataValueNumericClauseSuffix = ",value}' " + statementBuilder.getRegexpMatch() + " '" + NUMERIC_LENIENT_REGEXP + "'";
+        final String dataValueDateClauseSuffix = ",value}' " + statementBuilder.getRegexpMatch() + " '" + DATE_REGEXP + "'";
+
+        //TODO dateClause regular expression
+
+        List<AnalyticsTableColumn> columns = new ArrayList<>();
+
         for ( DataElement dataElement : program.getDataElements() )
         {
             ColumnDataType dataType = getColumnType( dataElement.getValueType() );
@@ -320,36 +390,163 @@ public class JdbcEventAnalyticsTableManager
             }
         }
 
-        columns.add( new AnalyticsTableColumn( quote( "psi" ), CHARACTER_11, NOT_NULL, "psi.uid" ) );
-        columns.add( new AnalyticsTableColumn( quote( "pi" ), CHARACTER_11, NOT_NULL, "pi.uid" ) );
-        columns.add( new AnalyticsTableColumn( quote( "ps" ), CHARACTER_11, NOT_NULL, "ps.uid" ) );
-        columns.add( new AnalyticsTableColumn( quote( "ao" ), CHARACTER_11, NOT_NULL, "ao.uid" ) );
-        columns.add( new AnalyticsTableColumn( quote( "enrollmentdate" ), TIMESTAMP, "pi.enrollmentdate" ) );
-        columns.add( new AnalyticsTableColumn( quote( "incidentdate" ), TIMESTAMP, "pi.incidentdate" ) );
-        columns.add( new AnalyticsTableColumn( quote( "executiondate" ), TIMESTAMP, "psi.executiondate" ) );
-        columns.add( new AnalyticsTableColumn( quote( "duedate" ),TIMESTAMP, "psi.duedate" ) );
-        columns.add( new AnalyticsTableColumn( quote( "completeddate" ), TIMESTAMP, "psi.completeddate" ) );
-        columns.add( new AnalyticsTableColumn( quote( "created" ), TIMESTAMP, "psi.created" ) );
-        columns.add( new AnalyticsTableColumn( quote( "lastupdated" ), TIMESTAMP, "psi.lastupdated" ) );
-        columns.add( new AnalyticsTableColumn( quote( "pistatus" ), CHARACTER_50, "pi.status" ) );
-        columns.add( new AnalyticsTableColumn( quote( "psistatus" ), CHARACTER_50, "psi.status" ) );
-        columns.add( new AnalyticsTableColumn( quote( "psigeometry" ), GEOMETRY, "psi.geometry" ).withIndexType( "gist" ) );
+        return columns;
+    }
 
-        // TODO lat and lng deprecated in 2.30, should be removed after 2.33
-        columns.add( new AnalyticsTableColumn( quote( "longitude" ), DOUBLE, "CASE WHEN 'POINT' = GeometryType(psi.geometry) THEN ST_X(psi.geometry) ELSE null END" ) );
-        columns.add( new AnalyticsTableColumn( quote( "latitude" ), DOUBLE, "CASE WHEN 'POINT' = GeometryType(psi.geometry) THEN ST_Y(psi.geometry) ELSE null END" ) );
+    /**
+     * Returns the data element, attribute and legend set columns for the given
+     * program, where values are read from the single pass joins, see
+     * {@link #getSinglePassJoins(Program)}. Legend set columns are computed
+     * from the legends of each legend set instead of joining the legend table.
+     *
+     * @param program the program.
+     */
+    private List<AnalyticsTableColumn> getSinglePassValueColumns( Program program )
+    {
+        List<AnalyticsTableColumn> columns = new ArrayList<>();
 
-        columns.add( new AnalyticsTableColumn( quote( "ou" ), CHARACTER_11, NOT_NULL, "ou.uid" ) );
-        columns.add( new AnalyticsTableColumn( quote( "ouname" ), TEXT, NOT_NULL, "ou.name" ) );
-        columns.add( new AnalyticsTableColumn( quote( "oucode" ), TEXT, "ou.code" ) );
+        for ( DataElement dataElement : program.getDataElements() )
+        {
+            ColumnDataType dataType = getColumnType( dataElement.getValueType() );
+            String value = DATA_VALUE_ALIAS + "." + quote( dataElement.getUid() ) + " ->> 'value'";
+            String regexp = dataElement.isNumericType() ? NUMERIC_LENIENT_REGEXP : dataElement.getValueType().isDate() ? DATE_REGEXP : null;
+            boolean skipIndex = NO_INDEX_VAL_TYPES.contains( dataElement.getValueType() ) && !dataElement.hasOptionSet();
 
-        if ( program.isRegistration() )
+            String sql = getValueClause( dataElement.getValueType(), value, regexp ) + " as " + quote( dataElement.getUid() );
+
+            columns.add( new AnalyticsTableColumn( quote( dataElement.getUid() ), dataType, sql ).withSkipIndex( skipIndex ) );
+        }
+
+        for ( DataElement dataElement : program.getDataElementsWithLegendSet() )
         {
-            columns.add( new AnalyticsTableColumn( quote( "tei" ), CHARACTER_11, "tei.uid" ) );
-            columns.add( new AnalyticsTableColumn( quote( "pigeometry" ), GEOMETRY, "pi.geometry" ) );
+            String value = DATA_VALUE_ALIAS + "." + quote( dataElement.getUid() ) + " ->> 'value'";
+            String select = getSelectClause( dataElement.getValueType(), value );
+
+            for ( LegendSet legendSet : dataElement.getLegendSets() )
+            {
+                String column = quote( dataElement.getUid() + PartitionUtils.SEP + legendSet.getUid() );
+
+                String sql = getValueClause( value, NUMERIC_LENIENT_REGEXP, getLegendClause( legendSet, select ) ) + " as " + column;
+
+                columns.add( new AnalyticsTableColumn( column, CHARACTER_11, sql ) );
+            }
         }
 
-        return filterDimensionColumns( columns );
+        for ( TrackedEntityAttribute attribute : program.getNonConfidentialTrackedEntityAttributes() )
+        {
+            ColumnDataType dataType = getColumnType( attribute.getValueType() );
+            String value = ATTRIBUTE_VALUE_ALIAS + "." + quote( attribute.getUid() );
+            String regexp = attribute.isNumericType() ? NUMERIC_LENIENT_REGEXP : attribute.isDateType() ? DATE_REGEXP : null;
+            boolean skipIndex = NO_INDEX_VAL_TYPES.contains( attribute.getValueType() ) && !attribute.hasOptionSet();
+
+            String sql = getValueClause( attribute.getValueType(), value, regexp ) + " as " + quote( attribute.getUid() );
+
+            columns.add( new AnalyticsTableColumn( quote( attribute.getUid() ), dataType, sql ).withSkipIndex( skipIndex ) );
+        }
+
+        for ( TrackedEntityAttribute attribute : program.getNonConfidentialTrackedEntityAttributesWithLegendSet() )
+        {
+            String value = ATTRIBUTE_VALUE_ALIAS + "." + quote( attribute.getUid() );
+            String select = getSelectClause( attribute.getValueType(), value );
+
+            for ( LegendSet legendSet : attribute.getLegendSets() )
+            {
+                String column = quote( attribute.getUid() + PartitionUtils.SEP + legendSet.getUid() );
+
+                String sql = getValueClause( value, NUMERIC_LENIENT_REGEXP, getLegendClause( legendSet, select ) ) + " as " + column;
+
+                columns.add( new AnalyticsTableColumn( column, CHARACTER_11, sql ) );
+            }
+        }
+
+        return columns;
+    }
+
+    /**
+     * Returns lateral joins which decode the event data values and pivot the
+     * tracked entity attribute values once per event, so that each value column
+     * reads from the joined records instead of running a sub-query per column.
+     *
+     * @param program the program.
+     */
+    private String getSinglePassJoins( Program program )
+    {
+        String sql = "";
+
+        Set<DataElement> dataElements = program.getDataElements();
+
+        if ( !dataElements.isEmpty() )
+        {
+            sql += "left join lateral jsonb_to_record(psi.eventdatavalues) as " + DATA_VALUE_ALIAS + "(" +
+                dataElements.stream()
+                    .map( de -> quote( de.getUid() ) + " jsonb" )
+                    .collect( Collectors.joining( "," ) ) + ") on true ";
+        }
+
+        List<TrackedEntityAttribute> attributes = program.getNonConfidentialTrackedEntityAttributes();
+
+        if ( !attributes.isEmpty() )
+        {
+            sql += "left join lateral (select " +
+                attributes.stream()
+                    .map( tea -> "max(case when trackedentityattributeid=" + tea.getId() + " then value end) as " + quote( tea.getUid() ) )
+                    .collect( Collectors.joining( "," ) ) + " " +
+                "from trackedentityattributevalue where trackedentityinstanceid=pi.trackedentityinstanceid) as " +
+                ATTRIBUTE_VALUE_ALIAS + " on true ";
+        }
+
+        return sql;
+    }
+
+    /**
+     * Returns the select clause for the given value, which is null unless the
+     * value matches the given regular expression.
+     *
+     * @param valueType the value type.
+     * @param value the value expression.
+     * @param regexp the regular expression, or null if any value is valid.
+     */
+    private String getValueClause( ValueType valueType, String value, String regexp )
+    {
+        String select = getSelectClause( valueType, value );
+
+        return regexp != null ? getValueClause( value, regexp, select ) : select;
+    }
+
+    private String getValueClause( String value, String regexp, String select )
+    {
+        return "case when " + value + " " + statementBuilder.getRegexpMatch() + " '" + regexp + "' then " + select + " end";
+    }
+
+    /**
+     * Returns a case expression which maps the given numeric value to the
+     * identifier of the matching legend of the given legend set. The start
+     * value of a legend is inclusive and the end value is exclusive.
+     *
+     * @param legendSet the legend set.
+     * @param value the numeric value expression.
+     */
+    private String getLegendClause( LegendSet legendSet, String value )
+    {
+        List<Legend> legends = legendSet.getLegends().stream()
+            .filter( l -> l.getStartValue() != null && l.getEndValue() != null )
+            .sorted( Comparator.comparing( Legend::getStartValue ) )
+            .collect( Collectors.toList() );
+
+        if ( legends.isEmpty() )
+        {
+            return "null";
+        }
+
+        String sql = "case";
+
+        for ( Legend legend : legends )
+        {
+            sql += " when " + value + " >= " + legend.getStartValue() + " and " + value + " < " + legend.getEndValue() +
+                " then '" + legend.getUid() + "'";
+        }
+
+        return sql + " end";
     }
 
     private List<Integer> getDataYears( Program program, Date earliest )
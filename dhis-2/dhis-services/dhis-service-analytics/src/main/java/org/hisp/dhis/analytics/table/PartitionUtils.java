@@ -56,6 +56,13 @@ public class PartitionUtils
 {
     public static final String SEP = "_";
 
+    /**
+     * Partition holding data which was changed since the last full update.
+     */
+    public static final Integer LATEST_PARTITION = 0;
+
+    public static final String LATEST_PARTITION_NAME = "latest";
+
     /**
      * Returns the start date for the given year, inclusive.
      *
@@ -242,6 +249,16 @@ public class PartitionUtils
      */
     public static String getPartitionName( String tableName, Integer partition )
     {
-        return tableName + SEP + partition;
+        return tableName + SEP + ( isLatestPartition( partition ) ? LATEST_PARTITION_NAME : partition );
+    }
+
+    /**
+     * Indicates whether the given partition is the latest partition.
+     *
+     * @param partition the partition.
+     */
+    public static boolean isLatestPartition( Integer partition )
+    {
+        return LATEST_PARTITION.equals( partition );
     }
 }
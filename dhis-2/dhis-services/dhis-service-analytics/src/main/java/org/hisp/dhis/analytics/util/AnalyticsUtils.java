@@ -39,6 +39,8 @@ import static org.hisp.dhis.common.DimensionalObject.PERIOD_DIM_ID;
 import static org.hisp.dhis.dataelement.DataElementOperand.TotalType;
 import static org.hisp.dhis.expression.ExpressionService.SYMBOL_WILDCARD;
 
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -60,6 +62,7 @@ import org.hisp.dhis.common.DataDimensionItemType;
 import org.hisp.dhis.common.DataDimensionalItemObject;
 import org.hisp.dhis.common.DimensionItemType;
 import org.hisp.dhis.common.DimensionType;
+import org.hisp.dhis.common.DimensionKey;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.DimensionalObject;
 import org.hisp.dhis.common.DimensionalObjectUtils;
@@ -88,6 +91,9 @@ import org.hisp.dhis.program.ProgramStage;
 import org.hisp.dhis.system.util.MathUtils;
 import org.hisp.dhis.system.util.ReflectionUtils;
 import org.joda.time.DateTime;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.util.Assert;
 
 import com.google.common.collect.Lists;
@@ -106,6 +112,47 @@ public class AnalyticsUtils
     public static final String ERR_MSG_TABLE_NOT_EXISTING = "Query failed, likely because the requested analytics table does not exist";
     public static final String ERR_MSG_QUERY_TIMEOUT = "Query failed, likely because the query timed out";
 
+    /**
+     * Executes the given SQL query and passes each row of the result set to
+     * the given row callback handler. The rows are fetched from the database
+     * through a cursor in batches of the fetch size of the given JDBC template,
+     * which means that the result set is never held in memory as a whole.
+     *
+     * @param jdbcTemplate the {@link JdbcTemplate}.
+     * @param sql the SQL query.
+     * @param handler the {@link RowCallbackHandler}.
+     */
+    public static void streamQuery( JdbcTemplate jdbcTemplate, String sql, RowCallbackHandler handler )
+    {
+        jdbcTemplate.execute( (ConnectionCallback<Void>) connection -> {
+
+            // Cursor based fetching requires auto commit to be disabled
+
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit( false );
+
+            try ( Statement statement = connection.createStatement() )
+            {
+                statement.setFetchSize( jdbcTemplate.getFetchSize() );
+                statement.setQueryTimeout( Math.max( jdbcTemplate.getQueryTimeout(), 0 ) );
+
+                try ( ResultSet rs = statement.executeQuery( sql ) )
+                {
+                    while ( rs.next() )
+                    {
+                        handler.processRow( rs );
+                    }
+                }
+            }
+            finally
+            {
+                connection.setAutoCommit( autoCommit );
+            }
+
+            return null;
+        } );
+    }
+
     /**
      * Returns an SQL statement for retrieving raw data values for
      * an aggregate query.
@@ -259,13 +306,13 @@ public class AnalyticsUtils
      * @param totalType the {@link TotalType}.
      * @return a value map.
      */
-    public static <T> Map<String, T> convertDxToOperand( Map<String, T> valueMap, TotalType totalType )
+    public static <T> Map<DimensionKey, T> convertDxToOperand( Map<DimensionKey, T> valueMap, TotalType totalType )
     {
-        Map<String, T> map = Maps.newHashMap();
+        Map<DimensionKey, T> map = Maps.newHashMap();
 
-        for ( Entry<String, T> entry : valueMap.entrySet() )
+        for ( Entry<DimensionKey, T> entry : valueMap.entrySet() )
         {
-            List<String> items = Lists.newArrayList( entry.getKey().split( DimensionalObject.DIMENSION_SEP ) );
+            List<String> items = Lists.newArrayList( entry.getKey().getItems() );
             List<String> operands = Lists.newArrayList( items.subList( 0, totalType.getPropertyCount() + 1 ) );
             List<String> dimensions = Lists.newArrayList( items.subList( totalType.getPropertyCount() + 1, items.size() ) );
 
@@ -277,27 +324,25 @@ public class AnalyticsUtils
             }
 
             String operand = StringUtils.join( operands, DimensionalObjectUtils.COMPOSITE_DIM_OBJECT_PLAIN_SEP );
-            String dimension = StringUtils.join( dimensions, DimensionalObject.DIMENSION_SEP );
-            dimension = !dimension.isEmpty() ? ( DimensionalObject.DIMENSION_SEP + dimension ) : StringUtils.EMPTY;
-            String key = operand + dimension;
+            dimensions.add( 0, operand );
 
-            map.put( key, entry.getValue() );
+            map.put( DimensionKey.of( dimensions ), entry.getValue() );
         }
 
         return map;
     }
 
     /**
-     * Converts a String, Object map into a specific String, Double map.
+     * Converts a key, Object map into a specific key, Double map.
      *
      * @param map the map to convert.
-     * @return a mapping between string and double values.
+     * @return a mapping between keys and double values.
      */
-    public static Map<String, Double> getDoubleMap( Map<String, Object> map )
+    public static <K> Map<K, Double> getDoubleMap( Map<K, Object> map )
     {
-        Map<String, Double> typedMap = new HashMap<>();
+        Map<K, Double> typedMap = new HashMap<>();
 
-        for ( Map.Entry<String, Object> entry : map.entrySet() )
+        for ( Map.Entry<K, Object> entry : map.entrySet() )
         {
             final Object value = entry.getValue();
 
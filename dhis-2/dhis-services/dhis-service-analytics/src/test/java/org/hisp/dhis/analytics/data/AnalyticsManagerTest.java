@@ -41,6 +41,7 @@ import org.hisp.dhis.analytics.AnalyticsAggregationType;
 import org.hisp.dhis.analytics.AnalyticsManager;
 import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.DataType;
+import org.hisp.dhis.common.DimensionKey;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.ListMap;
 import org.hisp.dhis.period.Period;
@@ -72,9 +73,9 @@ public class AnalyticsManagerTest
             .withDataPeriodType( new YearlyPeriodType() )
             .withAggregationType( aggregationType ).build();
         
-        Map<String, Object> dataValueMap = new HashMap<>();
-        dataValueMap.put( BASE_UID + "A-2012-" + BASE_UID + "A", 1d );
-        dataValueMap.put( BASE_UID + "B-2012-" + BASE_UID + "A", 1d );
+        Map<DimensionKey, Object> dataValueMap = new HashMap<>();
+        dataValueMap.put( DimensionKey.fromString( BASE_UID + "A-2012-" + BASE_UID + "A" ), 1d );
+        dataValueMap.put( DimensionKey.fromString( BASE_UID + "B-2012-" + BASE_UID + "A" ), 1d );
         
         ListMap<DimensionalItemObject, DimensionalItemObject> dataPeriodAggregationPeriodMap = new ListMap<>();
         dataPeriodAggregationPeriodMap.putValue( y2012, createPeriod( "2012Q1" ) );
@@ -86,13 +87,13 @@ public class AnalyticsManagerTest
         
         assertEquals( 8, dataValueMap.size() );
         
-        assertTrue( dataValueMap.keySet().contains( BASE_UID + "A-2012Q1-" + BASE_UID + "A" ) );
-        assertTrue( dataValueMap.keySet().contains( BASE_UID + "A-2012Q2-" + BASE_UID + "A" ) );
-        assertTrue( dataValueMap.keySet().contains( BASE_UID + "A-2012Q3-" + BASE_UID + "A" ) );
-        assertTrue( dataValueMap.keySet().contains( BASE_UID + "A-2012Q4-" + BASE_UID + "A" ) );
-        assertTrue( dataValueMap.keySet().contains( BASE_UID + "B-2012Q1-" + BASE_UID + "A" ) );
-        assertTrue( dataValueMap.keySet().contains( BASE_UID + "B-2012Q2-" + BASE_UID + "A" ) );
-        assertTrue( dataValueMap.keySet().contains( BASE_UID + "B-2012Q3-" + BASE_UID + "A" ) );
-        assertTrue( dataValueMap.keySet().contains( BASE_UID + "B-2012Q4-" + BASE_UID + "A" ) );
+        assertTrue( dataValueMap.keySet().contains( DimensionKey.fromString( BASE_UID + "A-2012Q1-" + BASE_UID + "A" ) ) );
+        assertTrue( dataValueMap.keySet().contains( DimensionKey.fromString( BASE_UID + "A-2012Q2-" + BASE_UID + "A" ) ) );
+        assertTrue( dataValueMap.keySet().contains( DimensionKey.fromString( BASE_UID + "A-2012Q3-" + BASE_UID + "A" ) ) );
+        assertTrue( dataValueMap.keySet().contains( DimensionKey.fromString( BASE_UID + "A-2012Q4-" + BASE_UID + "A" ) ) );
+        assertTrue( dataValueMap.keySet().contains( DimensionKey.fromString( BASE_UID + "B-2012Q1-" + BASE_UID + "A" ) ) );
+        assertTrue( dataValueMap.keySet().contains( DimensionKey.fromString( BASE_UID + "B-2012Q2-" + BASE_UID + "A" ) ) );
+        assertTrue( dataValueMap.keySet().contains( DimensionKey.fromString( BASE_UID + "B-2012Q3-" + BASE_UID + "A" ) ) );
+        assertTrue( dataValueMap.keySet().contains( DimensionKey.fromString( BASE_UID + "B-2012Q4-" + BASE_UID + "A" ) ) );
     }
 }
@@ -40,6 +40,7 @@ import static org.hisp.dhis.analytics.DataQueryParams.DISPLAY_NAME_ORGUNIT;
 import static org.mockito.Mockito.*;
 
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 
 import org.hisp.dhis.analytics.*;
@@ -82,6 +83,9 @@ public class AnalyticsServiceMetadataTest
     @Mock
     private AnalyticsManager analyticsManager;
 
+    @Mock
+    private AnalyticsQueryScheduler queryScheduler;
+
     @Mock
     private RawAnalyticsManager rawAnalyticsManager;
 
@@ -126,7 +130,7 @@ public class AnalyticsServiceMetadataTest
     @Before
     public void setUp()
     {
-        target = new DefaultAnalyticsService( analyticsManager, rawAnalyticsManager, securityManager, queryPlanner,
+        target = new DefaultAnalyticsService( analyticsManager, queryScheduler, rawAnalyticsManager, securityManager, queryPlanner,
             queryValidator, expressionParserService, constantService, organisationUnitService, systemSettingManager,
             eventAnalyticsService, dataQueryService, dhisConfig, cacheProvider, environment );
 
@@ -140,10 +144,12 @@ public class AnalyticsServiceMetadataTest
         when( securityManager.withDimensionConstraints( any( DataQueryParams.class ) ) ).thenReturn( params );
         when( queryPlanner.planQuery( any( DataQueryParams.class ), any( QueryPlannerParams.class ) ) ).thenReturn(
             DataQueryGroups.newBuilder().withQueries( newArrayList( DataQueryParams.newBuilder().build() ) ).build() );
-        Map<String, Object> aggregatedValues = new HashMap<>();
+        Map<DimensionKey, Object> aggregatedValues = new HashMap<>();
         when( analyticsManager.getAggregatedDataValues( any( DataQueryParams.class ),
             eq( AnalyticsTableType.DATA_VALUE ), eq( 0 ) ) )
-                .thenReturn( CompletableFuture.completedFuture( aggregatedValues ) );
+                .thenReturn( aggregatedValues );
+        when( queryScheduler.submit( any( DataQueryParams.class ), any( AnalyticsTableType.class ), any() ) )
+            .thenAnswer( invocation -> CompletableFuture.completedFuture( ( (Callable<?>) invocation.getArgument( 2 ) ).call() ) );
     }
 
     @Test
@@ -0,0 +1,171 @@
+package org.hisp.dhis.analytics.data;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.Partitions;
+import org.hisp.dhis.analytics.data.AnalyticsSubQueryCache.SubQueryResult;
+import org.hisp.dhis.analytics.partition.PartitionManager;
+import org.hisp.dhis.cache.CacheBuilder;
+import org.hisp.dhis.cache.LocalCache;
+import org.hisp.dhis.common.DimensionKey;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+
+public class AnalyticsSubQueryCacheTest
+{
+    private static final String SQL_A = "select sum(value) from analytics_2017";
+
+    private static final String SQL_B = "select sum(value) from analytics_2018";
+
+    @Mock
+    private PartitionManager partitionManager;
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    private LocalCache<SubQueryResult> cache;
+
+    private AnalyticsSubQueryCache subQueryCache;
+
+    private DataQueryParams params;
+
+    private AtomicInteger queries;
+
+    private Supplier<Map<DimensionKey, Object>> query;
+
+    @Before
+    public void before()
+    {
+        CacheBuilder<SubQueryResult> builder = new CacheBuilder<SubQueryResult>( null, null )
+            .forRegion( "test" ).expireAfterWrite( 1, TimeUnit.HOURS ).withMaximumSize( 10 )
+            .withWeigher( SubQueryResult::getWeight );
+
+        cache = new LocalCache<>( builder );
+        subQueryCache = new AnalyticsSubQueryCache( cache, partitionManager );
+
+        params = DataQueryParams.newBuilder()
+            .withTableName( "analytics" )
+            .withPartitions( new Partitions( Sets.newHashSet( 2017 ) ) ).build();
+
+        queries = new AtomicInteger();
+
+        query = () -> {
+            queries.incrementAndGet();
+            Map<DimensionKey, Object> map = new HashMap<>();
+            map.put( DimensionKey.of( "deabcdefghA", "201701" ), 10d );
+            return map;
+        };
+
+        setLastUpdated( new Date( 1000 ) );
+    }
+
+    @Test
+    public void testHit()
+    {
+        Map<DimensionKey, Object> first = subQueryCache.get( params, SQL_A, 0, query );
+        Map<DimensionKey, Object> second = subQueryCache.get( params, SQL_A, 0, query );
+
+        assertEquals( 1, queries.get() );
+        assertEquals( first, second );
+        assertEquals( 10d, second.get( DimensionKey.of( "deabcdefghA", "201701" ) ) );
+    }
+
+    @Test
+    public void testReturnsCopy()
+    {
+        subQueryCache.get( params, SQL_A, 0, query ).clear();
+
+        assertEquals( 1, subQueryCache.get( params, SQL_A, 0, query ).size() );
+        assertEquals( 1, queries.get() );
+    }
+
+    @Test
+    public void testMiss()
+    {
+        subQueryCache.get( params, SQL_A, 0, query );
+        subQueryCache.get( params, SQL_B, 0, query );
+        subQueryCache.get( params, SQL_A, 100, query );
+
+        assertEquals( 3, queries.get() );
+    }
+
+    @Test
+    public void testInvalidationOnTableUpdate()
+    {
+        subQueryCache.get( params, SQL_A, 0, query );
+
+        setLastUpdated( new Date( 2000 ) );
+
+        subQueryCache.get( params, SQL_A, 0, query );
+        subQueryCache.get( params, SQL_A, 0, query );
+
+        assertEquals( 2, queries.get() );
+    }
+
+    @Test
+    public void testNotCachedWithoutLastUpdated()
+    {
+        when( partitionManager.getLastUpdated( anyCollection() ) ).thenReturn( new HashMap<>() );
+
+        subQueryCache.get( params, SQL_A, 0, query );
+        subQueryCache.get( params, SQL_A, 0, query );
+
+        assertEquals( 2, queries.get() );
+        assertTrue( cache.getAll().isEmpty() );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void setLastUpdated( Date date )
+    {
+        when( partitionManager.getLastUpdated( anyCollection() ) ).thenReturn( ImmutableMap.of( "analytics_2017", date ) );
+    }
+}
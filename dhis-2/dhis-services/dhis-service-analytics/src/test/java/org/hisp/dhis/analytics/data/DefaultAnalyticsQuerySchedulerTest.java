@@ -0,0 +1,150 @@
+package org.hisp.dhis.analytics.data;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.user.CurrentUserService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.google.common.collect.Lists;
+
+@RunWith( MockitoJUnitRunner.class )
+public class DefaultAnalyticsQuerySchedulerTest
+{
+    @Mock
+    private DhisConfigurationProvider dhisConfig;
+
+    @Mock
+    private CurrentUserService currentUserService;
+
+    private DefaultAnalyticsQueryScheduler scheduler;
+
+    @Before
+    public void setUp()
+    {
+        when( dhisConfig.getProperty( ConfigurationKey.ANALYTICS_QUERY_MAX_CONCURRENCY ) ).thenReturn( "1" );
+
+        scheduler = new DefaultAnalyticsQueryScheduler( dhisConfig, currentUserService );
+    }
+
+    @After
+    public void tearDown()
+    {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testSubmit()
+        throws Exception
+    {
+        when( currentUserService.getCurrentUsername() ).thenReturn( "userA" );
+
+        DataQueryParams params = DataQueryParams.newBuilder().build();
+
+        Future<Integer> future = scheduler.submit( params, AnalyticsTableType.DATA_VALUE, () -> 42 );
+
+        assertEquals( Integer.valueOf( 42 ), future.get( 5, TimeUnit.SECONDS ) );
+        assertEquals( 1, scheduler.getStatistics().get( AnalyticsTableType.DATA_VALUE.getTableName() ).getCount() );
+    }
+
+    @Test
+    public void testFairQueuing()
+        throws Exception
+    {
+        when( currentUserService.getCurrentUsername() ).thenReturn( "userA", "userA", "userA", "userB" );
+
+        DataQueryParams params = DataQueryParams.newBuilder().build();
+
+        CountDownLatch latch = new CountDownLatch( 1 );
+        List<String> order = Collections.synchronizedList( Lists.newArrayList() );
+
+        Future<?> a1 = scheduler.submit( params, AnalyticsTableType.DATA_VALUE, () -> {
+            latch.await();
+            return order.add( "a1" );
+        } );
+        Future<?> a2 = scheduler.submit( params, AnalyticsTableType.DATA_VALUE, () -> order.add( "a2" ) );
+        Future<?> a3 = scheduler.submit( params, AnalyticsTableType.DATA_VALUE, () -> order.add( "a3" ) );
+        Future<?> b1 = scheduler.submit( params, AnalyticsTableType.DATA_VALUE, () -> order.add( "b1" ) );
+
+        latch.countDown();
+
+        a3.get( 5, TimeUnit.SECONDS );
+        b1.get( 5, TimeUnit.SECONDS );
+
+        assertTrue( a1.isDone() );
+        assertTrue( a2.isDone() );
+        assertEquals( Lists.newArrayList( "a1", "a2", "b1", "a3" ), order );
+    }
+
+    @Test
+    public void testCancelPending()
+        throws Exception
+    {
+        when( currentUserService.getCurrentUsername() ).thenReturn( "userA" );
+
+        DataQueryParams params = DataQueryParams.newBuilder().build();
+
+        CountDownLatch latch = new CountDownLatch( 1 );
+        List<String> order = Collections.synchronizedList( Lists.newArrayList() );
+
+        Future<?> a1 = scheduler.submit( params, AnalyticsTableType.DATA_VALUE, () -> {
+            latch.await();
+            return order.add( "a1" );
+        } );
+        Future<?> a2 = scheduler.submit( params, AnalyticsTableType.DATA_VALUE, () -> order.add( "a2" ) );
+        Future<?> a3 = scheduler.submit( params, AnalyticsTableType.DATA_VALUE, () -> order.add( "a3" ) );
+
+        assertTrue( a2.cancel( true ) );
+
+        latch.countDown();
+
+        a1.get( 5, TimeUnit.SECONDS );
+        a3.get( 5, TimeUnit.SECONDS );
+
+        assertEquals( Lists.newArrayList( "a1", "a3" ), order );
+    }
+}
@@ -0,0 +1,135 @@
+package org.hisp.dhis.analytics.data;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.hisp.dhis.DhisConvenienceTest.getDate;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.Partitions;
+import org.hisp.dhis.analytics.QueryPlannerParams;
+import org.hisp.dhis.analytics.partition.PartitionManager;
+import org.hisp.dhis.analytics.table.PartitionUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import com.google.common.collect.Sets;
+
+public class DefaultQueryPlannerTest
+{
+    private static final String TABLE_NAME = AnalyticsTableType.DATA_VALUE.getTableName();
+
+    private static final String LATEST_TABLE_NAME = PartitionUtils.getPartitionName( TABLE_NAME, PartitionUtils.LATEST_PARTITION );
+
+    @Mock
+    private QueryValidator queryValidator;
+
+    @Mock
+    private PartitionManager partitionManager;
+
+    @InjectMocks
+    private DefaultQueryPlanner queryPlanner;
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Test
+    public void testWithTableNameAndPartitionsIncludesLatestPartition()
+    {
+        when( partitionManager.tableExists( LATEST_TABLE_NAME ) ).thenReturn( true );
+
+        DataQueryParams query = queryPlanner.withTableNameAndPartitions( getParams(), getPlannerParams() );
+
+        Partitions expected = new Partitions( Sets.newHashSet( 2014, 2015, PartitionUtils.LATEST_PARTITION ) );
+
+        assertEquals( expected, query.getPartitions() );
+        assertEquals( TABLE_NAME, query.getTableName() );
+    }
+
+    @Test
+    public void testWithTableNameAndPartitionsWithoutLatestPartition()
+    {
+        when( partitionManager.tableExists( LATEST_TABLE_NAME ) ).thenReturn( false );
+
+        DataQueryParams query = queryPlanner.withTableNameAndPartitions( getParams(), getPlannerParams() );
+
+        assertEquals( new Partitions( Sets.newHashSet( 2014, 2015 ) ), query.getPartitions() );
+    }
+
+    @Test
+    public void testAssignPartitionsFromQueryPeriodsIncludesLatestPartition()
+    {
+        when( partitionManager.tableExists( LATEST_TABLE_NAME ) ).thenReturn( true );
+
+        DataQueryParams params = DataQueryParams.newBuilder( getParams() )
+            .withTableName( TABLE_NAME ).build();
+
+        DataQueryParams query = queryPlanner.assignPartitionsFromQueryPeriods( params );
+
+        Partitions expected = new Partitions( Sets.newHashSet( 2014, 2015, PartitionUtils.LATEST_PARTITION ) );
+
+        assertEquals( expected, query.getPartitions() );
+    }
+
+    @Test
+    public void testAssignPartitionsFromQueryPeriodsWithoutTableName()
+    {
+        DataQueryParams query = queryPlanner.assignPartitionsFromQueryPeriods( getParams() );
+
+        assertEquals( new Partitions( Sets.newHashSet( 2014, 2015 ) ), query.getPartitions() );
+
+        verify( partitionManager, never() ).tableExists( anyString() );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private DataQueryParams getParams()
+    {
+        return DataQueryParams.newBuilder()
+            .withStartDate( getDate( 2014, 4, 1 ) )
+            .withEndDate( getDate( 2015, 8, 1 ) ).build();
+    }
+
+    private QueryPlannerParams getPlannerParams()
+    {
+        return QueryPlannerParams.newBuilder()
+            .withTableName( TABLE_NAME ).build();
+    }
+}
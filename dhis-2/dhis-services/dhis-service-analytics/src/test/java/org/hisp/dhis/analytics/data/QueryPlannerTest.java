@@ -40,6 +40,7 @@ import org.hisp.dhis.analytics.QueryPlanner;
 import org.hisp.dhis.analytics.QueryPlannerParams;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.common.BaseDimensionalItemObject;
+import org.hisp.dhis.common.DimensionKey;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.DimensionalObject;
 import org.hisp.dhis.common.IdentifiableObjectManager;
@@ -80,7 +81,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
-import static org.hisp.dhis.common.DimensionalObject.DIMENSION_SEP;
 import static org.hisp.dhis.common.DimensionalObject.ORGUNIT_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.PERIOD_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObjectUtils.COMPOSITE_DIM_OBJECT_PLAIN_SEP;
@@ -296,24 +296,24 @@ public class QueryPlannerTest
     @Test
     public void testGetPermutationDimensionalItemValueMapCocEnabled()
     {
-        Map<String, Double> aggregatedDataMap = new HashMap<>();
-        aggregatedDataMap.put( deA.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid() + DIMENSION_SEP + ouA.getUid() + DIMENSION_SEP + "2000Q1", 1d );
-        aggregatedDataMap.put( deA.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid() + DIMENSION_SEP + ouA.getUid() + DIMENSION_SEP + "2000Q2", 2d );
-        aggregatedDataMap.put( deA.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid() + DIMENSION_SEP + ouB.getUid() + DIMENSION_SEP + "2000Q1", 3d );
-        aggregatedDataMap.put( deA.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid() + DIMENSION_SEP + ouB.getUid() + DIMENSION_SEP + "2000Q2", 4d );
-        aggregatedDataMap.put( deB.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid() + DIMENSION_SEP + ouA.getUid() + DIMENSION_SEP + "2000Q1", 5d );
-        aggregatedDataMap.put( deB.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid() + DIMENSION_SEP + ouA.getUid() + DIMENSION_SEP + "2000Q2", 6d );
-        aggregatedDataMap.put( deB.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid() + DIMENSION_SEP + ouB.getUid() + DIMENSION_SEP + "2000Q1", 7d );
-        aggregatedDataMap.put( deB.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid() + DIMENSION_SEP + ouB.getUid() + DIMENSION_SEP + "2000Q2", 8d );
-
-        MapMap<String, DimensionalItemObject, Double> permutationMap = DataQueryParams.getPermutationDimensionalItemValueMap( aggregatedDataMap );
+        Map<DimensionKey, Double> aggregatedDataMap = new HashMap<>();
+        aggregatedDataMap.put( DimensionKey.of( deA.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid(), ouA.getUid(), "2000Q1" ), 1d );
+        aggregatedDataMap.put( DimensionKey.of( deA.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid(), ouA.getUid(), "2000Q2" ), 2d );
+        aggregatedDataMap.put( DimensionKey.of( deA.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid(), ouB.getUid(), "2000Q1" ), 3d );
+        aggregatedDataMap.put( DimensionKey.of( deA.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid(), ouB.getUid(), "2000Q2" ), 4d );
+        aggregatedDataMap.put( DimensionKey.of( deB.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid(), ouA.getUid(), "2000Q1" ), 5d );
+        aggregatedDataMap.put( DimensionKey.of( deB.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid(), ouA.getUid(), "2000Q2" ), 6d );
+        aggregatedDataMap.put( DimensionKey.of( deB.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid(), ouB.getUid(), "2000Q1" ), 7d );
+        aggregatedDataMap.put( DimensionKey.of( deB.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid(), ouB.getUid(), "2000Q2" ), 8d );
+
+        MapMap<DimensionKey, DimensionalItemObject, Double> permutationMap = DataQueryParams.getPermutationDimensionalItemValueMap( aggregatedDataMap );
 
         assertNotNull( permutationMap );
 
-        String ouAQ1Key = ouA.getUid() + DIMENSION_SEP + "2000Q1";
-        String ouAQ2Key = ouA.getUid() + DIMENSION_SEP + "2000Q2";
-        String ouBQ1Key = ouB.getUid() + DIMENSION_SEP + "2000Q1";
-        String ouBQ2Key = ouB.getUid() + DIMENSION_SEP + "2000Q2";
+        DimensionKey ouAQ1Key = DimensionKey.of( ouA.getUid(), "2000Q1" );
+        DimensionKey ouAQ2Key = DimensionKey.of( ouA.getUid(), "2000Q2" );
+        DimensionKey ouBQ1Key = DimensionKey.of( ouB.getUid(), "2000Q1" );
+        DimensionKey ouBQ2Key = DimensionKey.of( ouB.getUid(), "2000Q2" );
 
         Map<DimensionalItemObject, Double> ouAQ1 = permutationMap.get( ouAQ1Key );
         Map<DimensionalItemObject, Double> ouAQ2 = permutationMap.get( ouAQ2Key );
@@ -353,24 +353,24 @@ public class QueryPlannerTest
     @Test
     public void testGetPermutationDimensionalItemValueMapCocDisabled()
     {
-        Map<String, Double> aggregatedDataMap = new HashMap<>();
-        aggregatedDataMap.put( deA.getUid() + DIMENSION_SEP + ouA.getUid() + DIMENSION_SEP + "200101", 1d );
-        aggregatedDataMap.put( deA.getUid() + DIMENSION_SEP + ouA.getUid() + DIMENSION_SEP + "200102", 2d );
-        aggregatedDataMap.put( deA.getUid() + DIMENSION_SEP + ouB.getUid() + DIMENSION_SEP + "200101", 3d );
-        aggregatedDataMap.put( deA.getUid() + DIMENSION_SEP + ouB.getUid() + DIMENSION_SEP + "200102", 4d );
-        aggregatedDataMap.put( deB.getUid() + DIMENSION_SEP + ouA.getUid() + DIMENSION_SEP + "200101", 5d );
-        aggregatedDataMap.put( deB.getUid() + DIMENSION_SEP + ouA.getUid() + DIMENSION_SEP + "200102", 6d );
-        aggregatedDataMap.put( deB.getUid() + DIMENSION_SEP + ouB.getUid() + DIMENSION_SEP + "200101", 7d );
-        aggregatedDataMap.put( deB.getUid() + DIMENSION_SEP + ouB.getUid() + DIMENSION_SEP + "200102", 8d );
-
-        MapMap<String, DimensionalItemObject, Double> permutationMap = DataQueryParams.getPermutationDimensionalItemValueMap( aggregatedDataMap );
+        Map<DimensionKey, Double> aggregatedDataMap = new HashMap<>();
+        aggregatedDataMap.put( DimensionKey.of( deA.getUid(), ouA.getUid(), "200101" ), 1d );
+        aggregatedDataMap.put( DimensionKey.of( deA.getUid(), ouA.getUid(), "200102" ), 2d );
+        aggregatedDataMap.put( DimensionKey.of( deA.getUid(), ouB.getUid(), "200101" ), 3d );
+        aggregatedDataMap.put( DimensionKey.of( deA.getUid(), ouB.getUid(), "200102" ), 4d );
+        aggregatedDataMap.put( DimensionKey.of( deB.getUid(), ouA.getUid(), "200101" ), 5d );
+        aggregatedDataMap.put( DimensionKey.of( deB.getUid(), ouA.getUid(), "200102" ), 6d );
+        aggregatedDataMap.put( DimensionKey.of( deB.getUid(), ouB.getUid(), "200101" ), 7d );
+        aggregatedDataMap.put( DimensionKey.of( deB.getUid(), ouB.getUid(), "200102" ), 8d );
+
+        MapMap<DimensionKey, DimensionalItemObject, Double> permutationMap = DataQueryParams.getPermutationDimensionalItemValueMap( aggregatedDataMap );
 
         assertNotNull( permutationMap );
 
-        String ouAM1Key = ouA.getUid() + DIMENSION_SEP + "200101";
-        String ouAM2Key = ouA.getUid() + DIMENSION_SEP + "200102";
-        String ouBM1Key = ouB.getUid() + DIMENSION_SEP + "200101";
-        String ouBM2Key = ouB.getUid() + DIMENSION_SEP + "200102";
+        DimensionKey ouAM1Key = DimensionKey.of( ouA.getUid(), "200101" );
+        DimensionKey ouAM2Key = DimensionKey.of( ouA.getUid(), "200102" );
+        DimensionKey ouBM1Key = DimensionKey.of( ouB.getUid(), "200101" );
+        DimensionKey ouBM2Key = DimensionKey.of( ouB.getUid(), "200102" );
 
         Map<DimensionalItemObject, Double> ouAM1 = permutationMap.get( ouAM1Key );
         Map<DimensionalItemObject, Double> ouAM2 = permutationMap.get( ouAM2Key );
@@ -410,25 +410,25 @@ public class QueryPlannerTest
     @Test
     public void testGetPermutationDimensionalItemValueMap()
     {
-        Map<String, Double> aggregatedDataMap = new HashMap<>();
-        aggregatedDataMap.put( deA.getUid() + DIMENSION_SEP + ouA.getUid() + DIMENSION_SEP + "2000Q1", 1d );
-        aggregatedDataMap.put( deA.getUid() + DIMENSION_SEP + ouA.getUid() + DIMENSION_SEP + "2000Q2", 2d );
-        aggregatedDataMap.put( deA.getUid() + DIMENSION_SEP + ouB.getUid() + DIMENSION_SEP + "2000Q1", 3d );
-        aggregatedDataMap.put( deA.getUid() + DIMENSION_SEP + ouB.getUid() + DIMENSION_SEP + "2000Q2", 4d );
+        Map<DimensionKey, Double> aggregatedDataMap = new HashMap<>();
+        aggregatedDataMap.put( DimensionKey.of( deA.getUid(), ouA.getUid(), "2000Q1" ), 1d );
+        aggregatedDataMap.put( DimensionKey.of( deA.getUid(), ouA.getUid(), "2000Q2" ), 2d );
+        aggregatedDataMap.put( DimensionKey.of( deA.getUid(), ouB.getUid(), "2000Q1" ), 3d );
+        aggregatedDataMap.put( DimensionKey.of( deA.getUid(), ouB.getUid(), "2000Q2" ), 4d );
 
-        aggregatedDataMap.put( deB.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid() + DIMENSION_SEP + ouA.getUid() + DIMENSION_SEP + "2000Q1", 5d );
-        aggregatedDataMap.put( deB.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid() + DIMENSION_SEP + ouA.getUid() + DIMENSION_SEP + "2000Q2", 6d );
-        aggregatedDataMap.put( deB.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid() + DIMENSION_SEP + ouB.getUid() + DIMENSION_SEP + "2000Q1", 7d );
-        aggregatedDataMap.put( deB.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid() + DIMENSION_SEP + ouB.getUid() + DIMENSION_SEP + "2000Q2", 8d );
+        aggregatedDataMap.put( DimensionKey.of( deB.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid(), ouA.getUid(), "2000Q1" ), 5d );
+        aggregatedDataMap.put( DimensionKey.of( deB.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid(), ouA.getUid(), "2000Q2" ), 6d );
+        aggregatedDataMap.put( DimensionKey.of( deB.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid(), ouB.getUid(), "2000Q1" ), 7d );
+        aggregatedDataMap.put( DimensionKey.of( deB.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid(), ouB.getUid(), "2000Q2" ), 8d );
 
-        MapMap<String, DimensionalItemObject, Double> permutationMap = DataQueryParams.getPermutationDimensionalItemValueMap( aggregatedDataMap );
+        MapMap<DimensionKey, DimensionalItemObject, Double> permutationMap = DataQueryParams.getPermutationDimensionalItemValueMap( aggregatedDataMap );
 
         assertNotNull( permutationMap );
 
-        String ouAQ1Key = ouA.getUid() + DIMENSION_SEP + "2000Q1";
-        String ouAQ2Key = ouA.getUid() + DIMENSION_SEP + "2000Q2";
-        String ouBQ1Key = ouB.getUid() + DIMENSION_SEP + "2000Q1";
-        String ouBQ2Key = ouB.getUid() + DIMENSION_SEP + "2000Q2";
+        DimensionKey ouAQ1Key = DimensionKey.of( ouA.getUid(), "2000Q1" );
+        DimensionKey ouAQ2Key = DimensionKey.of( ouA.getUid(), "2000Q2" );
+        DimensionKey ouBQ1Key = DimensionKey.of( ouB.getUid(), "2000Q1" );
+        DimensionKey ouBQ2Key = DimensionKey.of( ouB.getUid(), "2000Q2" );
 
         Map<DimensionalItemObject, Double> ouAQ1 = permutationMap.get( ouAQ1Key );
         Map<DimensionalItemObject, Double> ouAQ2 = permutationMap.get( ouAQ2Key );
@@ -0,0 +1,129 @@
+package org.hisp.dhis.analytics.partition;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.google.common.collect.Lists;
+
+public class JdbcPartitionManagerTest
+{
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private SystemSettingManager systemSettingManager;
+
+    @InjectMocks
+    private JdbcPartitionManager partitionManager;
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Test
+    public void testTableExistsIsCachedUntilCachesAreCleared()
+    {
+        when( jdbcTemplate.queryForObject( contains( "'analytics_latest'" ), eq( Integer.class ) ) ).thenReturn( 1 );
+        when( jdbcTemplate.queryForObject( contains( "'analytics_2017'" ), eq( Integer.class ) ) ).thenReturn( 0 );
+
+        assertTrue( partitionManager.tableExists( "analytics_latest" ) );
+        assertTrue( partitionManager.tableExists( "analytics_latest" ) );
+        assertFalse( partitionManager.tableExists( "analytics_2017" ) );
+        assertFalse( partitionManager.tableExists( "analytics_2017" ) );
+
+        verify( jdbcTemplate, times( 2 ) ).queryForObject( anyString(), eq( Integer.class ) );
+
+        partitionManager.clearCaches();
+
+        assertTrue( partitionManager.tableExists( "analytics_latest" ) );
+
+        verify( jdbcTemplate, times( 3 ) ).queryForObject( anyString(), eq( Integer.class ) );
+    }
+
+    @Test
+    public void testTableExistsIsCachedPerAnalyticsTablesVersion()
+    {
+        when( jdbcTemplate.queryForObject( contains( "'analytics_2017'" ), eq( Integer.class ) ) ).thenReturn( 1 );
+        when( systemSettingManager.getSystemSetting( SettingKey.LAST_SUCCESSFUL_ANALYTICS_TABLES_UPDATE ) ).thenReturn( new Date( 1000 ) );
+
+        assertTrue( partitionManager.tableExists( "analytics_2017" ) );
+        assertTrue( partitionManager.tableExists( "analytics_2017" ) );
+
+        verify( jdbcTemplate, times( 1 ) ).queryForObject( anyString(), eq( Integer.class ) );
+
+        when( jdbcTemplate.queryForObject( contains( "'analytics_2017'" ), eq( Integer.class ) ) ).thenReturn( 0 );
+        when( systemSettingManager.getSystemSetting( SettingKey.LAST_SUCCESSFUL_LATEST_ANALYTICS_PARTITION_UPDATE ) ).thenReturn( new Date( 2000 ) );
+
+        assertFalse( partitionManager.tableExists( "analytics_2017" ) );
+
+        verify( jdbcTemplate, times( 2 ) ).queryForObject( anyString(), eq( Integer.class ) );
+    }
+
+    @Test
+    public void testLastUpdatedIsCachedPerAnalyticsTablesVersion()
+    {
+        when( systemSettingManager.getSystemSetting( SettingKey.LAST_SUCCESSFUL_ANALYTICS_TABLES_UPDATE ) ).thenReturn( new Date( 1000 ) );
+
+        partitionManager.getLastUpdated( Lists.newArrayList( "analytics_2017" ) );
+        partitionManager.getLastUpdated( Lists.newArrayList( "analytics_2017" ) );
+
+        verify( jdbcTemplate, times( 1 ) ).query( anyString(), any( RowCallbackHandler.class ) );
+
+        partitionManager.getLastUpdated( Lists.newArrayList( "analytics_2017", "analytics_2018" ) );
+
+        verify( jdbcTemplate, times( 2 ) ).query( anyString(), any( RowCallbackHandler.class ) );
+
+        when( systemSettingManager.getSystemSetting( SettingKey.LAST_SUCCESSFUL_ANALYTICS_TABLES_UPDATE ) ).thenReturn( new Date( 2000 ) );
+
+        partitionManager.getLastUpdated( Lists.newArrayList( "analytics_2017" ) );
+
+        verify( jdbcTemplate, times( 3 ) ).query( anyString(), any( RowCallbackHandler.class ) );
+    }
+}
@@ -30,6 +30,7 @@ package org.hisp.dhis.analytics.table;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.List;
 
@@ -87,6 +88,20 @@ public class AnalyticsTableTest
         assertEquals( "analytics_event_temp_2015_uida", partitionB.getTempTableName() );
     }
 
+    @Test
+    public void testGetLatestPartitionName()
+    {
+        AnalyticsTable tableA = new AnalyticsTable( "analytics", Lists.newArrayList(), Lists.newArrayList() );
+
+        tableA.addLatestPartitionTable();
+
+        AnalyticsTablePartition partitionA = tableA.getPartitionTables().get( 0 );
+
+        assertTrue( partitionA.isLatestPartition() );
+        assertEquals( "analytics_latest", partitionA.getTableName() );
+        assertEquals( "analytics_latest", partitionA.getTempTableName() );
+    }
+
     @Test
     public void testEquals()
     {
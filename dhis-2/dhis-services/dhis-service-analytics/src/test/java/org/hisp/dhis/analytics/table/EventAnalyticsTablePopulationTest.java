@@ -0,0 +1,251 @@
+package org.hisp.dhis.analytics.table;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.IntegrationTest;
+import org.hisp.dhis.IntegrationTestBase;
+import org.hisp.dhis.analytics.AggregationType;
+import org.hisp.dhis.analytics.AnalyticsTableGenerator;
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
+import org.hisp.dhis.category.CategoryOptionCombo;
+import org.hisp.dhis.category.CategoryService;
+import org.hisp.dhis.common.CodeGenerator;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.common.ValueType;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.eventdatavalue.EventDataValue;
+import org.hisp.dhis.legend.Legend;
+import org.hisp.dhis.legend.LegendSet;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramInstance;
+import org.hisp.dhis.program.ProgramInstanceService;
+import org.hisp.dhis.program.ProgramStage;
+import org.hisp.dhis.program.ProgramStageInstance;
+import org.hisp.dhis.program.ProgramStageInstanceService;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
+import org.hisp.dhis.system.util.Clock;
+import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
+import org.hisp.dhis.trackedentity.TrackedEntityInstance;
+import org.hisp.dhis.trackedentity.TrackedEntityType;
+import org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeValue;
+import org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeValueService;
+import org.hisp.dhis.user.UserService;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Populates the event analytics table of a generated program with both the
+ * sub-query and the single pass population strategy, logs the time spent by
+ * each and verifies that both produce the same table content.
+ */
+@Category( IntegrationTest.class )
+public class EventAnalyticsTablePopulationTest
+    extends IntegrationTestBase
+{
+    private static final Log log = LogFactory.getLog( EventAnalyticsTablePopulationTest.class );
+
+    private static final int DATA_ELEMENTS = 100;
+
+    private static final int EVENTS = 2000;
+
+    @Autowired
+    private AnalyticsTableGenerator analyticsTableGenerator;
+
+    @Autowired
+    private IdentifiableObjectManager idObjectManager;
+
+    @Autowired
+    private ProgramInstanceService programInstanceService;
+
+    @Autowired
+    private ProgramStageInstanceService programStageInstanceService;
+
+    @Autowired
+    private TrackedEntityAttributeValueService attributeValueService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private SystemSettingManager systemSettingManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserService _userService;
+
+    private Program program;
+
+    @Override
+    public boolean emptyDatabaseAfterTest()
+    {
+        return true;
+    }
+
+    @Override
+    public void setUpTest()
+    {
+        userService = _userService;
+
+        OrganisationUnit ouA = createOrganisationUnit( 'A' );
+        idObjectManager.save( ouA );
+
+        Legend legendA = createLegend( 'A', 0d, 40d );
+        Legend legendB = createLegend( 'B', 40d, 80d );
+        Legend legendC = createLegend( 'C', 80d, 120d );
+        LegendSet legendSet = createLegendSet( 'A', legendA, legendB, legendC );
+        idObjectManager.save( legendSet );
+
+        TrackedEntityAttribute attribute = createTrackedEntityAttribute( 'A', ValueType.INTEGER );
+        attribute.getLegendSets().add( legendSet );
+        idObjectManager.save( attribute );
+
+        ProgramStage stage = createProgramStage( 'A', 0 );
+
+        List<DataElement> dataElements = new ArrayList<>();
+
+        for ( int i = 0; i < DATA_ELEMENTS; i++ )
+        {
+            DataElement dataElement = createDataElement( 'A', ValueType.INTEGER, AggregationType.SUM );
+            dataElement.setUid( CodeGenerator.generateUid() );
+            dataElement.setName( "DataElement" + i );
+            dataElement.setShortName( "DataElementShort" + i );
+            dataElement.setCode( "DataElementCode" + i );
+
+            if ( i % 10 == 0 )
+            {
+                dataElement.getLegendSets().add( legendSet );
+            }
+
+            idObjectManager.save( dataElement );
+
+            stage.addDataElement( dataElement, i );
+            dataElements.add( dataElement );
+        }
+
+        program = createProgram( 'A', Sets.newHashSet( stage ), Sets.newHashSet( attribute ), Sets.newHashSet( ouA ), null );
+        idObjectManager.save( program );
+        idObjectManager.save( stage );
+
+        TrackedEntityType trackedEntityType = createTrackedEntityType( 'A' );
+        idObjectManager.save( trackedEntityType );
+
+        TrackedEntityInstance trackedEntityInstance = createTrackedEntityInstance( 'A', ouA );
+        trackedEntityInstance.setTrackedEntityType( trackedEntityType );
+        idObjectManager.save( trackedEntityInstance );
+
+        attributeValueService.addTrackedEntityAttributeValue( new TrackedEntityAttributeValue( attribute, trackedEntityInstance, "42" ) );
+
+        ProgramInstance programInstance = programInstanceService.enrollTrackedEntityInstance( trackedEntityInstance, program, null, null, ouA );
+
+        CategoryOptionCombo attributeOptionCombo = categoryService.getDefaultCategoryOptionCombo();
+
+        Random random = new Random( 42 );
+
+        for ( int i = 0; i < EVENTS; i++ )
+        {
+            Set<EventDataValue> dataValues = new HashSet<>();
+
+            for ( DataElement dataElement : dataElements )
+            {
+                // Include some non-numeric values which must be skipped
+
+                String value = random.nextInt( 50 ) == 0 ? "N/A" : String.valueOf( random.nextInt( 120 ) );
+
+                dataValues.add( new EventDataValue( dataElement.getUid(), value ) );
+            }
+
+            ProgramStageInstance event = new ProgramStageInstance();
+            event.setProgramInstance( programInstance );
+            event.setProgramStage( stage );
+            event.setOrganisationUnit( ouA );
+            event.setAttributeOptionCombo( attributeOptionCombo );
+            event.setExecutionDate( getDate( 2018, 1 + i % 12, 1 + i % 28 ) );
+            event.setDueDate( event.getExecutionDate() );
+            event.setEventDataValues( dataValues );
+
+            programStageInstanceService.addProgramStageInstance( event );
+        }
+    }
+
+    @Override
+    public void tearDownTest()
+    {
+        analyticsTableGenerator.dropTables();
+    }
+
+    @Test
+    public void testSinglePassPopulation()
+    {
+        List<Map<String, Object>> subQueryRows = populateTables( false );
+        List<Map<String, Object>> singlePassRows = populateTables( true );
+
+        assertEquals( EVENTS, subQueryRows.size() );
+        assertEquals( subQueryRows, singlePassRows );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private List<Map<String, Object>> populateTables( boolean singlePass )
+    {
+        systemSettingManager.saveSystemSetting( SettingKey.SINGLE_PASS_EVENT_ANALYTICS_TABLE_EXPORT, singlePass );
+
+        Clock clock = new Clock( log ).startClock();
+
+        analyticsTableGenerator.generateTables( AnalyticsTableUpdateParams.newBuilder().build() );
+
+        clock.logTime( String.format( "Populated event analytics tables with %d data elements and %d events, single pass: %b",
+            DATA_ELEMENTS, EVENTS, singlePass ) ).stop();
+
+        String table = AnalyticsTableType.EVENT.getTableName() + PartitionUtils.SEP + program.getUid().toLowerCase();
+
+        return jdbcTemplate.queryForList( "select * from " + table + " order by psi" );
+    }
+}
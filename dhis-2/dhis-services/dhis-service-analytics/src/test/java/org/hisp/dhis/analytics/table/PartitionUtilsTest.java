@@ -98,4 +98,11 @@ public class PartitionUtilsTest
 
         assertEquals( 3, partitions.size() );
     }
+
+    @Test
+    public void testGetPartitionName()
+    {
+        assertEquals( "analytics_2017", PartitionUtils.getPartitionName( "analytics", 2017 ) );
+        assertEquals( "analytics_latest", PartitionUtils.getPartitionName( "analytics", PartitionUtils.LATEST_PARTITION ) );
+    }
 }
@@ -90,76 +90,76 @@ public class AnalyticsUtilsTest
     @Test
     public void testConvertDxToOperandCocOnly()
     {
-        Map<String, Double> map = new HashMap<>();
-        map.put( "GauDLAiXPKT-kC1OT9Q1n1j-R9U8q7X1aJG", 10d );
-        map.put( "YkRvCLedQa4-h1dJ9W4dWor-Zrd4DAf8M99", 11d );
-        map.put( "PcfRp1HETO8-zqXKIEycBck-KBJBZopYMPV", 12d );
+        Map<DimensionKey, Double> map = new HashMap<>();
+        map.put( DimensionKey.fromString( "GauDLAiXPKT-kC1OT9Q1n1j-R9U8q7X1aJG" ), 10d );
+        map.put( DimensionKey.fromString( "YkRvCLedQa4-h1dJ9W4dWor-Zrd4DAf8M99" ), 11d );
+        map.put( DimensionKey.fromString( "PcfRp1HETO8-zqXKIEycBck-KBJBZopYMPV" ), 12d );
 
-        Map<String, Double> convertedMap = AnalyticsUtils.convertDxToOperand( map, TotalType.COC_ONLY );
+        Map<DimensionKey, Double> convertedMap = AnalyticsUtils.convertDxToOperand( map, TotalType.COC_ONLY );
 
-        assertTrue( convertedMap.containsKey( "GauDLAiXPKT.kC1OT9Q1n1j-R9U8q7X1aJG" ) );
-        assertTrue( convertedMap.containsKey( "YkRvCLedQa4.h1dJ9W4dWor-Zrd4DAf8M99" ) );
-        assertTrue( convertedMap.containsKey( "PcfRp1HETO8.zqXKIEycBck-KBJBZopYMPV" ) );
+        assertTrue( convertedMap.containsKey( DimensionKey.fromString( "GauDLAiXPKT.kC1OT9Q1n1j-R9U8q7X1aJG" ) ) );
+        assertTrue( convertedMap.containsKey( DimensionKey.fromString( "YkRvCLedQa4.h1dJ9W4dWor-Zrd4DAf8M99" ) ) );
+        assertTrue( convertedMap.containsKey( DimensionKey.fromString( "PcfRp1HETO8.zqXKIEycBck-KBJBZopYMPV" ) ) );
     }
 
     @Test
     public void testConvertDxToOperandCocOnlyNoDmensions()
     {
-        Map<String, Double> map = new HashMap<>();
-        map.put( "GauDLAiXPKT-kC1OT9Q1n1j", 10d );
-        map.put( "YkRvCLedQa4-h1dJ9W4dWor", 11d );
-        map.put( "PcfRp1HETO8-zqXKIEycBck", 12d );
+        Map<DimensionKey, Double> map = new HashMap<>();
+        map.put( DimensionKey.fromString( "GauDLAiXPKT-kC1OT9Q1n1j" ), 10d );
+        map.put( DimensionKey.fromString( "YkRvCLedQa4-h1dJ9W4dWor" ), 11d );
+        map.put( DimensionKey.fromString( "PcfRp1HETO8-zqXKIEycBck" ), 12d );
 
-        Map<String, Double> convertedMap = AnalyticsUtils.convertDxToOperand( map, TotalType.COC_ONLY );
+        Map<DimensionKey, Double> convertedMap = AnalyticsUtils.convertDxToOperand( map, TotalType.COC_ONLY );
 
-        assertTrue( convertedMap.containsKey( "GauDLAiXPKT.kC1OT9Q1n1j" ) );
-        assertTrue( convertedMap.containsKey( "YkRvCLedQa4.h1dJ9W4dWor" ) );
-        assertTrue( convertedMap.containsKey( "PcfRp1HETO8.zqXKIEycBck" ) );
+        assertTrue( convertedMap.containsKey( DimensionKey.fromString( "GauDLAiXPKT.kC1OT9Q1n1j" ) ) );
+        assertTrue( convertedMap.containsKey( DimensionKey.fromString( "YkRvCLedQa4.h1dJ9W4dWor" ) ) );
+        assertTrue( convertedMap.containsKey( DimensionKey.fromString( "PcfRp1HETO8.zqXKIEycBck" ) ) );
     }
 
     @Test
     public void testConvertDxToOperandAocOnly()
     {
-        Map<String, Double> map = new HashMap<>();
-        map.put( "GauDLAiXPKT-kC1OT9Q1n1j-2016", 10d );
-        map.put( "YkRvCLedQa4-h1dJ9W4dWor-2017", 11d );
-        map.put( "w1G4l0cSxOi-gQhAMdimKO4-2017", 12d );
+        Map<DimensionKey, Double> map = new HashMap<>();
+        map.put( DimensionKey.fromString( "GauDLAiXPKT-kC1OT9Q1n1j-2016" ), 10d );
+        map.put( DimensionKey.fromString( "YkRvCLedQa4-h1dJ9W4dWor-2017" ), 11d );
+        map.put( DimensionKey.fromString( "w1G4l0cSxOi-gQhAMdimKO4-2017" ), 12d );
 
-        Map<String, Double> convertedMap = AnalyticsUtils.convertDxToOperand( map, TotalType.AOC_ONLY );
+        Map<DimensionKey, Double> convertedMap = AnalyticsUtils.convertDxToOperand( map, TotalType.AOC_ONLY );
 
-        assertTrue( convertedMap.containsKey( "GauDLAiXPKT.*.kC1OT9Q1n1j-2016" ) );
-        assertTrue( convertedMap.containsKey( "YkRvCLedQa4.*.h1dJ9W4dWor-2017" ) );
-        assertTrue( convertedMap.containsKey( "w1G4l0cSxOi.*.gQhAMdimKO4-2017" ) );
+        assertTrue( convertedMap.containsKey( DimensionKey.fromString( "GauDLAiXPKT.*.kC1OT9Q1n1j-2016" ) ) );
+        assertTrue( convertedMap.containsKey( DimensionKey.fromString( "YkRvCLedQa4.*.h1dJ9W4dWor-2017" ) ) );
+        assertTrue( convertedMap.containsKey( DimensionKey.fromString( "w1G4l0cSxOi.*.gQhAMdimKO4-2017" ) ) );
     }
 
     @Test
     public void testConvertDxToOperandCocAndAoc()
     {
-        Map<String, Double> map = new HashMap<>();
-        map.put( "GauDLAiXPKT-kC1OT9Q1n1j-R9U8q7X1aJG-201701", 10d );
-        map.put( "YkRvCLedQa4-h1dJ9W4dWor-Zrd4DAf8M99-201702", 11d );
-        map.put( "PcfRp1HETO8-zqXKIEycBck-KBJBZopYMPV-201703", 12d );
+        Map<DimensionKey, Double> map = new HashMap<>();
+        map.put( DimensionKey.fromString( "GauDLAiXPKT-kC1OT9Q1n1j-R9U8q7X1aJG-201701" ), 10d );
+        map.put( DimensionKey.fromString( "YkRvCLedQa4-h1dJ9W4dWor-Zrd4DAf8M99-201702" ), 11d );
+        map.put( DimensionKey.fromString( "PcfRp1HETO8-zqXKIEycBck-KBJBZopYMPV-201703" ), 12d );
 
-        Map<String, Double> convertedMap = AnalyticsUtils.convertDxToOperand( map, TotalType.COC_AND_AOC );
+        Map<DimensionKey, Double> convertedMap = AnalyticsUtils.convertDxToOperand( map, TotalType.COC_AND_AOC );
 
-        assertTrue( convertedMap.containsKey( "GauDLAiXPKT.kC1OT9Q1n1j.R9U8q7X1aJG-201701" ) );
-        assertTrue( convertedMap.containsKey( "YkRvCLedQa4.h1dJ9W4dWor.Zrd4DAf8M99-201702" ) );
-        assertTrue( convertedMap.containsKey( "PcfRp1HETO8.zqXKIEycBck.KBJBZopYMPV-201703" ) );
+        assertTrue( convertedMap.containsKey( DimensionKey.fromString( "GauDLAiXPKT.kC1OT9Q1n1j.R9U8q7X1aJG-201701" ) ) );
+        assertTrue( convertedMap.containsKey( DimensionKey.fromString( "YkRvCLedQa4.h1dJ9W4dWor.Zrd4DAf8M99-201702" ) ) );
+        assertTrue( convertedMap.containsKey( DimensionKey.fromString( "PcfRp1HETO8.zqXKIEycBck.KBJBZopYMPV-201703" ) ) );
     }
 
     @Test
     public void testConvertDxToOperandNone()
     {
-        Map<String, Double> map = new HashMap<>();
-        map.put( "GauDLAiXPKT-kC1OT9Q1n1j-R9U8q7X1aJG", 10d );
-        map.put( "YkRvCLedQa4-h1dJ9W4dWor-Zrd4DAf8M99", 11d );
-        map.put( "PcfRp1HETO8-zqXKIEycBck-KBJBZopYMPV", 12d );
+        Map<DimensionKey, Double> map = new HashMap<>();
+        map.put( DimensionKey.fromString( "GauDLAiXPKT-kC1OT9Q1n1j-R9U8q7X1aJG" ), 10d );
+        map.put( DimensionKey.fromString( "YkRvCLedQa4-h1dJ9W4dWor-Zrd4DAf8M99" ), 11d );
+        map.put( DimensionKey.fromString( "PcfRp1HETO8-zqXKIEycBck-KBJBZopYMPV" ), 12d );
 
-        Map<String, Double> convertedMap = AnalyticsUtils.convertDxToOperand( map, TotalType.NONE );
+        Map<DimensionKey, Double> convertedMap = AnalyticsUtils.convertDxToOperand( map, TotalType.NONE );
 
-        assertTrue( convertedMap.containsKey( "GauDLAiXPKT-kC1OT9Q1n1j-R9U8q7X1aJG" ) );
-        assertTrue( convertedMap.containsKey( "YkRvCLedQa4-h1dJ9W4dWor-Zrd4DAf8M99" ) );
-        assertTrue( convertedMap.containsKey( "PcfRp1HETO8-zqXKIEycBck-KBJBZopYMPV" ) );
+        assertTrue( convertedMap.containsKey( DimensionKey.fromString( "GauDLAiXPKT-kC1OT9Q1n1j-R9U8q7X1aJG" ) ) );
+        assertTrue( convertedMap.containsKey( DimensionKey.fromString( "YkRvCLedQa4-h1dJ9W4dWor-Zrd4DAf8M99" ) ) );
+        assertTrue( convertedMap.containsKey( DimensionKey.fromString( "PcfRp1HETO8-zqXKIEycBck-KBJBZopYMPV" ) ) );
     }
 
     @Test
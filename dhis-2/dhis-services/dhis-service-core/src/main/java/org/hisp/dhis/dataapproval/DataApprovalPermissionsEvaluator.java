@@ -74,7 +74,16 @@ class DataApprovalPermissionsEvaluator
 
     private static Cache<String, DataApprovalLevel> USER_APPROVAL_LEVEL_CACHE = Caffeine.newBuilder()
         .expireAfterAccess( 10, TimeUnit.MINUTES ).initialCapacity( 10000 )
-        .maximumSize( 50000 ).build();
+        .maximumSize( 50000 ).recordStats().build();
+
+    /**
+     * Returns the user approval level cache, for registration with the cache
+     * registry.
+     */
+    static Cache<String, DataApprovalLevel> getUserApprovalLevelCache()
+    {
+        return USER_APPROVAL_LEVEL_CACHE;
+    }
 
     /**
      * Clears the user approval level cache, for unit testing when the same user
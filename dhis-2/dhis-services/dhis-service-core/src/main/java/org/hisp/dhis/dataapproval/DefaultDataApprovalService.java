@@ -32,6 +32,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.cache.CacheRegistry;
 import org.hisp.dhis.common.IdentifiableObjectUtils;
 import org.hisp.dhis.common.ListMap;
 import org.hisp.dhis.dataapproval.exceptions.DataApprovalNotFound;
@@ -52,7 +53,10 @@ import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.User;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PostConstruct;
+
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -132,6 +136,19 @@ public class DefaultDataApprovalService
         this.systemSettingManager = systemSettingManager;
     }
 
+    private CacheRegistry cacheRegistry;
+
+    public void setCacheRegistry( CacheRegistry cacheRegistry )
+    {
+        this.cacheRegistry = cacheRegistry;
+    }
+
+    @PostConstruct
+    public void init()
+    {
+        cacheRegistry.register( "userApprovalLevel", DataApprovalPermissionsEvaluator.getUserApprovalLevelCache(), true );
+    }
+
     // -------------------------------------------------------------------------
     // Data approval workflow
     // -------------------------------------------------------------------------
@@ -465,6 +482,47 @@ public class DefaultDataApprovalService
         return da != null ? dataApprovalStore.dataApprovalExists( da ) : false;
     }
 
+    @Override
+    public Set<OrganisationUnit> getApprovedOrganisationUnits( DataApprovalWorkflow workflow, Period period,
+        Collection<OrganisationUnit> organisationUnits, CategoryOptionCombo attributeOptionCombo )
+    {
+        Set<OrganisationUnit> approvedOrgUnits = new HashSet<>();
+
+        if ( workflow == null )
+        {
+            return approvedOrgUnits;
+        }
+
+        Map<OrganisationUnit, DataApproval> orgUnitApprovalMap = new HashMap<>();
+
+        for ( OrganisationUnit organisationUnit : organisationUnits )
+        {
+            DataApproval da = DataApproval.getLowestApproval(
+                new DataApproval( null, workflow, period, organisationUnit, attributeOptionCombo ) );
+
+            if ( da != null )
+            {
+                orgUnitApprovalMap.put( organisationUnit, da );
+            }
+        }
+
+        if ( orgUnitApprovalMap.isEmpty() )
+        {
+            return approvedOrgUnits;
+        }
+
+        Map<DataApproval, Boolean> approvalExistsMap = dataApprovalStore.dataApprovalsExist( orgUnitApprovalMap.values() );
+
+        orgUnitApprovalMap.forEach( ( organisationUnit, da ) -> {
+            if ( approvalExistsMap.getOrDefault( da, false ) )
+            {
+                approvedOrgUnits.add( organisationUnit );
+            }
+        } );
+
+        return approvedOrgUnits;
+    }
+
     @Override
     public Map<DataApproval, DataApprovalStatus> getDataApprovalStatuses( List<DataApproval> dataApprovalList )
     {
@@ -38,11 +38,13 @@ import static org.hisp.dhis.dataapproval.DataApprovalState.UNAPPROVED_WAITING;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.annotation.PostConstruct;
 import javax.persistence.criteria.CriteriaBuilder;
@@ -57,6 +59,7 @@ import org.hisp.dhis.cache.CacheProvider;
 import org.hisp.dhis.category.CategoryCombo;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.category.CategoryService;
+import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.common.IdentifiableObjectUtils;
 import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.dataapproval.DataApproval;
@@ -107,7 +110,8 @@ public class HibernateDataApprovalStore
         IS_APPROVED_CACHE = cacheProvider.newCacheBuilder( Boolean.class )
             .forRegion( "isDataApproved" )
             .expireAfterAccess( 12, TimeUnit.HOURS )
-            .withMaximumSize( SystemUtils.isTestRun(env.getActiveProfiles()) ? 0 : 20000 ).build();
+            .withMaximumSize( SystemUtils.isTestRun(env.getActiveProfiles()) ? 0 : 20000 )
+            .withNearCache().build();
     }
 
     // -------------------------------------------------------------------------
@@ -259,6 +263,85 @@ public class HibernateDataApprovalStore
         return jdbcTemplate.queryForList( sql ).size() > 0;
     }
 
+    @Override
+    public Map<DataApproval, Boolean> dataApprovalsExist( Collection<DataApproval> dataApprovals )
+    {
+        Map<String, DataApproval> keyApprovalMap = new HashMap<>();
+
+        dataApprovals.forEach( da -> keyApprovalMap.putIfAbsent( da.getCacheKey(), da ) );
+
+        Map<String, Boolean> keyExistsMap = IS_APPROVED_CACHE.getAll( keyApprovalMap.keySet(),
+            keys -> dataApprovalsExistInternal( keys.stream().map( keyApprovalMap::get ).collect( Collectors.toList() ) ) );
+
+        Map<DataApproval, Boolean> approvalExistsMap = new HashMap<>();
+
+        dataApprovals.forEach( da -> approvalExistsMap.put( da, keyExistsMap.getOrDefault( da.getCacheKey(), false ) ) );
+
+        return approvalExistsMap;
+    }
+
+    /**
+     * Looks up the existence of the given data approvals in a single query.
+     * The query matches each property separately, hence the result is filtered
+     * on the exact combinations.
+     *
+     * @param dataApprovals the data approvals to check.
+     * @return a map from data approval cache key to whether the data approval
+     *         exists.
+     */
+    private Map<String, Boolean> dataApprovalsExistInternal( List<DataApproval> dataApprovals )
+    {
+        List<Period> storedPeriods = periodService.reloadPeriods( dataApprovals.stream()
+            .map( DataApproval::getPeriod ).collect( Collectors.toList() ) );
+
+        Map<String, String> idKeyMap = new HashMap<>();
+        Map<String, Boolean> keyExistsMap = new HashMap<>();
+
+        for ( int i = 0; i < dataApprovals.size(); i++ )
+        {
+            DataApproval da = dataApprovals.get( i );
+
+            idKeyMap.put( getIdKey( da.getDataApprovalLevel().getId(), da.getWorkflow().getId(), storedPeriods.get( i ).getId(),
+                da.getOrganisationUnit().getId(), da.getAttributeOptionCombo().getId() ), da.getCacheKey() );
+
+            keyExistsMap.put( da.getCacheKey(), false );
+        }
+
+        String sql =
+            "select dataapprovallevelid, workflowid, periodid, organisationunitid, attributeoptioncomboid " +
+            "from dataapproval " +
+            "where dataapprovallevelid in (" + getIdString( dataApprovals.stream().map( DataApproval::getDataApprovalLevel ) ) + ") " +
+            "and workflowid in (" + getIdString( dataApprovals.stream().map( DataApproval::getWorkflow ) ) + ") " +
+            "and periodid in (" + getIdString( storedPeriods.stream() ) + ") " +
+            "and organisationunitid in (" + getIdString( dataApprovals.stream().map( DataApproval::getOrganisationUnit ) ) + ") " +
+            "and attributeoptioncomboid in (" + getIdString( dataApprovals.stream().map( DataApproval::getAttributeOptionCombo ) ) + ")";
+
+        SqlRowSet rowSet = jdbcTemplate.queryForRowSet( sql );
+
+        while ( rowSet.next() )
+        {
+            String key = idKeyMap.get( getIdKey( rowSet.getInt( 1 ), rowSet.getInt( 2 ), rowSet.getInt( 3 ),
+                rowSet.getInt( 4 ), rowSet.getInt( 5 ) ) );
+
+            if ( key != null )
+            {
+                keyExistsMap.put( key, true );
+            }
+        }
+
+        return keyExistsMap;
+    }
+
+    private String getIdKey( int levelId, int workflowId, int periodId, int orgUnitId, int attributeOptionComboId )
+    {
+        return levelId + SQL_CONCAT + workflowId + SQL_CONCAT + periodId + SQL_CONCAT + orgUnitId + SQL_CONCAT + attributeOptionComboId;
+    }
+
+    private String getIdString( Stream<? extends IdentifiableObject> objects )
+    {
+        return StringUtils.join( objects.map( IdentifiableObject::getId ).distinct().iterator(), "," );
+    }
+
     @Override
     public List<DataApprovalStatus> getDataApprovalStatuses( DataApprovalWorkflow workflow,
         Period period, Collection<OrganisationUnit> orgUnits, int orgUnitLevel,
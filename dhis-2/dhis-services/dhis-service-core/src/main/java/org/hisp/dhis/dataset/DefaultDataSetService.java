@@ -288,13 +288,14 @@ public class DefaultDataSetService
 
         for ( OrganisationUnit child : organisationUnit.getChildren() )
         {
-            if ( isLocked( user, dataSet, period, child, attributeOptionCombo, now ) )
+            if ( isLocked( user, dataSet, period, child, now ) )
             {
                 return true;
             }
         }
 
-        return false;
+        return !dataApprovalService.getApprovedOrganisationUnits( dataSet.getWorkflow(), period,
+            organisationUnit.getChildren(), attributeOptionCombo ).isEmpty();
     }
 
     @Override
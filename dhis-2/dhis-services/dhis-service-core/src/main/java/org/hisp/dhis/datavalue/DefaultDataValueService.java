@@ -35,6 +35,7 @@ import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -329,6 +330,12 @@ public class DefaultDataValueService
         return dataValueStore.getDeflatedDataValues( params );
     }
 
+    @Override
+    public void streamDeflatedDataValues( DataExportParams params, Consumer<DeflatedDataValue> consumer )
+    {
+        dataValueStore.streamDeflatedDataValues( params, consumer );
+    }
+
     @Override
     public int getDataValueCount( int days )
     {
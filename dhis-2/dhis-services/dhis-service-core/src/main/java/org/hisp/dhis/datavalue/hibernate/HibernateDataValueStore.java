@@ -32,11 +32,14 @@ import static org.hisp.dhis.common.IdentifiableObjectUtils.getIdentifiers;
 import static org.hisp.dhis.commons.util.TextUtils.getCommaDelimitedString;
 import static org.hisp.dhis.commons.util.TextUtils.removeLastOr;
 
+import java.sql.PreparedStatement;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -44,6 +47,7 @@ import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 
+import org.apache.commons.lang3.mutable.MutableInt;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.hibernate.query.Query;
@@ -62,7 +66,7 @@ import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.period.Period;
 import org.hisp.dhis.period.PeriodStore;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
+import org.springframework.jdbc.core.RowCallbackHandler;
 
 import com.google.common.collect.Sets;
 
@@ -74,6 +78,8 @@ public class HibernateDataValueStore extends HibernateGenericStore<DataValue>
 {
     private static final Log log = LogFactory.getLog( HibernateDataValueStore.class );
 
+    private static final int DEFLATED_FETCH_SIZE = 10000;
+
     // -------------------------------------------------------------------------
     // Dependencies
     // -------------------------------------------------------------------------
@@ -253,8 +259,8 @@ public class HibernateDataValueStore extends HibernateGenericStore<DataValue>
 
         if ( params.hasPeriods() )
         {
-            Set<Period> periods = params.getPeriods().stream()
-                .map( p -> periodStore.reloadPeriod( p ) )
+            Set<Period> periods = periodStore.reloadPeriods( new ArrayList<>( params.getPeriods() ) ).stream()
+                .filter( Objects::nonNull )
                 .collect( Collectors.toSet() );
             
             query.setParameterList( "periods", getIdentifiers( periods ) );
@@ -340,6 +346,16 @@ public class HibernateDataValueStore extends HibernateGenericStore<DataValue>
 
     @Override
     public List<DeflatedDataValue> getDeflatedDataValues( DataExportParams params )
+    {
+        List<DeflatedDataValue> result = new ArrayList<>();
+
+        streamDeflatedDataValues( params, result::add );
+
+        return result;
+    }
+
+    @Override
+    public void streamDeflatedDataValues( DataExportParams params, Consumer<DeflatedDataValue> consumer )
     {
         SqlHelper sqlHelper = new SqlHelper( true );
 
@@ -458,32 +474,38 @@ public class HibernateDataValueStore extends HibernateGenericStore<DataValue>
 
         sql += where;
 
-        SqlRowSet rowSet = jdbcTemplate.queryForRowSet( sql );
-
-        List<DeflatedDataValue> result = new ArrayList<>();
-
-        while ( rowSet.next() )
-        {
-            Integer dataElementId = rowSet.getInt( 1 );
-            Integer periodId = rowSet.getInt( 2 );
-            Integer organisationUnitId = rowSet.getInt( 3 );
-            Integer categoryOptionComboId = rowSet.getInt( 4 );
-            Integer attributeOptionComboId = rowSet.getInt( 5 );
-            String value = rowSet.getString( 6 );
-            String storedBy = rowSet.getString( 7 );
-            Date created = rowSet.getDate( 8 );
-            Date lastUpdated = rowSet.getDate( 9 );
-            String comment = rowSet.getString( 10 );
-            boolean followup = rowSet.getBoolean( 11 );
-
-            result.add( new DeflatedDataValue( dataElementId, periodId,
+        final String query = sql;
+
+        final MutableInt count = new MutableInt();
+
+        // Rows are read with a fetch size, so that the result set is not held
+        // in memory when running within a transaction
+
+        jdbcTemplate.query( connection -> {
+            PreparedStatement statement = connection.prepareStatement( query );
+            statement.setFetchSize( DEFLATED_FETCH_SIZE );
+            return statement;
+        }, ( RowCallbackHandler ) rs -> {
+            Integer dataElementId = rs.getInt( 1 );
+            Integer periodId = rs.getInt( 2 );
+            Integer organisationUnitId = rs.getInt( 3 );
+            Integer categoryOptionComboId = rs.getInt( 4 );
+            Integer attributeOptionComboId = rs.getInt( 5 );
+            String value = rs.getString( 6 );
+            String storedBy = rs.getString( 7 );
+            Date created = rs.getDate( 8 );
+            Date lastUpdated = rs.getDate( 9 );
+            String comment = rs.getString( 10 );
+            boolean followup = rs.getBoolean( 11 );
+
+            consumer.accept( new DeflatedDataValue( dataElementId, periodId,
                 organisationUnitId, categoryOptionComboId, attributeOptionComboId,
                 value, storedBy, created, lastUpdated, comment, followup ) );
-        }
 
-        log.debug( result.size() + " DeflatedDataValues returned from: " + sql );
+            count.increment();
+        } );
 
-        return result;
+        log.debug( count + " DeflatedDataValues returned from: " + sql );
     }
 
     @Override
@@ -39,7 +39,9 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -81,6 +83,9 @@ import org.hisp.dhis.system.util.MathUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 /**
  * The expression is a string describing a formula containing data element ids
  * and category option combo ids. The formula can potentially contain references
@@ -94,6 +99,10 @@ public class DefaultExpressionService
 {
     private static final Log log = LogFactory.getLog( DefaultExpressionService.class );
 
+    private static final Cache<String, Optional<CompiledExpression>> COMPILED_EXPRESSIONS = Caffeine.newBuilder()
+        .expireAfterAccess( 10, TimeUnit.MINUTES ).initialCapacity( 1000 )
+        .maximumSize( 50000 ).build();
+
     // -------------------------------------------------------------------------
     // Dependencies
     // -------------------------------------------------------------------------
@@ -202,28 +211,24 @@ public class DefaultExpressionService
 
         Integer days = period != null ? period.getDaysInPeriod() : null;
 
-        final String denominatorExpression = generateExpression( indicator.getDenominator(), valueMap,
-            constantMap, orgUnitCountMap, days, NEVER_SKIP );
+        final Double denominatorValue = getExpressionValue( indicator.getDenominator(), valueMap,
+            constantMap, orgUnitCountMap, days, NEVER_SKIP, null );
 
-        if ( denominatorExpression == null )
+        if ( denominatorValue == null )
         {
             return null;
         }
 
-        final double denominatorValue = calculateExpression( denominatorExpression );
-
         if ( !isEqual( denominatorValue, 0d ) )
         {
-            final String numeratorExpression = generateExpression( indicator.getNumerator(), valueMap,
-                constantMap, orgUnitCountMap, days, NEVER_SKIP );
+            final Double numeratorValue = getExpressionValue( indicator.getNumerator(), valueMap,
+                constantMap, orgUnitCountMap, days, NEVER_SKIP, null );
 
-            if ( numeratorExpression == null )
+            if ( numeratorValue == null )
             {
                 return null;
             }
 
-            final double numeratorValue = calculateExpression( numeratorExpression );
-
             int multiplier = indicator.getIndicatorType().getFactor();
 
             int divisor = 1;
@@ -260,9 +265,41 @@ public class DefaultExpressionService
         Map<String, Double> constantMap, Map<String, Integer> orgUnitCountMap, Integer days,
         ListMap<String, Double> aggregateMap )
     {
-        String expressionString = generateExpression( expression.getExpression(),
-            valueMap, constantMap, orgUnitCountMap, days, expression.getMissingValueStrategy(),
-            aggregateMap );
+        return getExpressionValue( expression.getExpression(), valueMap, constantMap, orgUnitCountMap, days,
+            expression.getMissingValueStrategy(), aggregateMap );
+    }
+
+    @Override
+    public CompiledExpression getCompiledExpression( String expression )
+    {
+        if ( expression == null )
+        {
+            return null;
+        }
+
+        return COMPILED_EXPRESSIONS.get( expression, e ->
+            ExpressionCompiler.compile( ExpressionUtils.normalizeExpression( e ) ) ).orElse( null );
+    }
+
+    /**
+     * Calculates the value of the given expression. Uses the compiled form of
+     * the expression if the expression can be compiled, and otherwise
+     * substitutes the values into the expression and calculates the resulting
+     * expression string.
+     */
+    private Double getExpressionValue( String expression, Map<? extends DimensionalItemObject, Double> valueMap,
+        Map<String, Double> constantMap, Map<String, Integer> orgUnitCountMap, Integer days,
+        MissingValueStrategy missingValueStrategy, ListMap<String, Double> aggregateMap )
+    {
+        CompiledExpression compiledExpression = getCompiledExpression( expression );
+
+        if ( compiledExpression != null )
+        {
+            return compiledExpression.getValue( valueMap, constantMap, orgUnitCountMap, days, missingValueStrategy );
+        }
+
+        String expressionString = generateExpression( expression, valueMap, constantMap, orgUnitCountMap, days,
+            missingValueStrategy, aggregateMap );
 
         return expressionString != null ? calculateExpression( expressionString ) : null;
     }
@@ -0,0 +1,634 @@
+package org.hisp.dhis.expression;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.hisp.dhis.expression.ExpressionService.CONSTANT_PATTERN;
+import static org.hisp.dhis.expression.ExpressionService.GROUP_ID;
+import static org.hisp.dhis.expression.ExpressionService.OU_GROUP_PATTERN;
+import static org.hisp.dhis.expression.ExpressionService.VARIABLE_PATTERN;
+import static org.hisp.dhis.expression.MissingValueStrategy.SKIP_IF_ALL_VALUES_MISSING;
+import static org.hisp.dhis.expression.MissingValueStrategy.SKIP_IF_ANY_VALUE_MISSING;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.hisp.dhis.common.DimensionalItemObject;
+
+/**
+ * Compiles expressions into a tree of operations, where item values,
+ * constants, organisation unit group counts and days are read from slots
+ * which are filled for each evaluation. This avoids substituting values into
+ * the expression string and parsing the result for every evaluation.
+ * <p>
+ * The compiler supports the arithmetic, comparison and logical operators
+ * of the JEP expression syntax, parentheses, the <code>if</code> function and
+ * the <code>abs</code>, <code>sqrt</code>, <code>ln</code> and <code>log</code>
+ * functions, with the same precedence and semantics as JEP. Expressions with
+ * other functions, including aggregate functions and <code>isNull</code>, are
+ * not compiled and must be evaluated through expression substitution.
+ */
+public class ExpressionCompiler
+{
+    private static final String DAYS = "[days]";
+
+    private final String expression;
+
+    private int pos = 0;
+
+    private final Map<String, Integer> items = new LinkedHashMap<>();
+
+    private final Map<String, Integer> constants = new LinkedHashMap<>();
+
+    private final Map<String, Integer> orgUnitGroups = new LinkedHashMap<>();
+
+    private boolean days = false;
+
+    private ExpressionCompiler( String expression )
+    {
+        this.expression = expression;
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Compiles the given expression. The expression must be normalized, i.e.
+     * not contain wildcard operands.
+     *
+     * @param expression the expression.
+     * @return the {@link CompiledExpression}, or an empty Optional if the
+     *         expression is invalid or uses syntax which is not supported by
+     *         the compiler.
+     */
+    public static Optional<CompiledExpression> compile( String expression )
+    {
+        if ( expression == null || expression.trim().isEmpty() )
+        {
+            return Optional.empty();
+        }
+
+        try
+        {
+            return Optional.of( new ExpressionCompiler( expression ).compile() );
+        }
+        catch ( UnsupportedExpressionException ex )
+        {
+            return Optional.empty();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Parsing, in order of increasing operator precedence
+    // -------------------------------------------------------------------------
+
+    private CompiledExpression compile()
+    {
+        Node root = parseOr();
+
+        skipWhitespace();
+
+        if ( pos < expression.length() )
+        {
+            throw new UnsupportedExpressionException();
+        }
+
+        return new SlotCompiledExpression( root, items, constants, orgUnitGroups, days );
+    }
+
+    private Node parseOr()
+    {
+        Node node = parseAnd();
+
+        while ( accept( "||" ) )
+        {
+            Node left = node, right = parseAnd();
+            node = v -> bool( left.eval( v ) != 0d || right.eval( v ) != 0d );
+        }
+
+        return node;
+    }
+
+    private Node parseAnd()
+    {
+        Node node = parseEquality();
+
+        while ( accept( "&&" ) )
+        {
+            Node left = node, right = parseEquality();
+            node = v -> bool( left.eval( v ) != 0d && right.eval( v ) != 0d );
+        }
+
+        return node;
+    }
+
+    private Node parseEquality()
+    {
+        Node node = parseRelational();
+
+        while ( true )
+        {
+            Node left = node;
+
+            if ( accept( "==" ) )
+            {
+                Node right = parseRelational();
+                node = v -> bool( left.eval( v ) == right.eval( v ) );
+            }
+            else if ( accept( "!=" ) )
+            {
+                Node right = parseRelational();
+                node = v -> bool( left.eval( v ) != right.eval( v ) );
+            }
+            else
+            {
+                return node;
+            }
+        }
+    }
+
+    private Node parseRelational()
+    {
+        Node node = parseAdditive();
+
+        while ( true )
+        {
+            Node left = node;
+
+            if ( accept( "<=" ) )
+            {
+                Node right = parseAdditive();
+                node = v -> bool( left.eval( v ) <= right.eval( v ) );
+            }
+            else if ( accept( ">=" ) )
+            {
+                Node right = parseAdditive();
+                node = v -> bool( left.eval( v ) >= right.eval( v ) );
+            }
+            else if ( accept( "<" ) )
+            {
+                Node right = parseAdditive();
+                node = v -> bool( left.eval( v ) < right.eval( v ) );
+            }
+            else if ( accept( ">" ) )
+            {
+                Node right = parseAdditive();
+                node = v -> bool( left.eval( v ) > right.eval( v ) );
+            }
+            else
+            {
+                return node;
+            }
+        }
+    }
+
+    private Node parseAdditive()
+    {
+        Node node = parseMultiplicative();
+
+        while ( true )
+        {
+            Node left = node;
+
+            if ( accept( "+" ) )
+            {
+                Node right = parseMultiplicative();
+                node = v -> left.eval( v ) + right.eval( v );
+            }
+            else if ( accept( "-" ) )
+            {
+                Node right = parseMultiplicative();
+                node = v -> left.eval( v ) - right.eval( v );
+            }
+            else
+            {
+                return node;
+            }
+        }
+    }
+
+    private Node parseMultiplicative()
+    {
+        Node node = parseUnary();
+
+        while ( true )
+        {
+            Node left = node;
+
+            if ( accept( "*" ) )
+            {
+                Node right = parseUnary();
+                node = v -> left.eval( v ) * right.eval( v );
+            }
+            else if ( accept( "/" ) )
+            {
+                Node right = parseUnary();
+                node = v -> left.eval( v ) / right.eval( v );
+            }
+            else if ( accept( "%" ) )
+            {
+                Node right = parseUnary();
+                node = v -> left.eval( v ) % right.eval( v );
+            }
+            else
+            {
+                return node;
+            }
+        }
+    }
+
+    private Node parseUnary()
+    {
+        if ( accept( "+" ) )
+        {
+            return parseUnary();
+        }
+        else if ( accept( "-" ) )
+        {
+            Node operand = parseUnary();
+            return v -> -operand.eval( v );
+        }
+        else if ( !lookingAt( "!=" ) && accept( "!" ) )
+        {
+            Node operand = parseUnary();
+            return v -> bool( operand.eval( v ) == 0d );
+        }
+
+        return parsePower();
+    }
+
+    /**
+     * The power operator binds tighter than unary operators on its left side,
+     * and is right-associative, as in JEP.
+     */
+    private Node parsePower()
+    {
+        Node base = parsePrimary();
+
+        if ( accept( "^" ) )
+        {
+            Node exponent = parseUnary();
+            return v -> Math.pow( base.eval( v ), exponent.eval( v ) );
+        }
+
+        return base;
+    }
+
+    private Node parsePrimary()
+    {
+        skipWhitespace();
+
+        if ( pos >= expression.length() )
+        {
+            throw new UnsupportedExpressionException();
+        }
+
+        char c = expression.charAt( pos );
+
+        if ( Character.isDigit( c ) || c == '.' )
+        {
+            double number = parseNumber();
+            return v -> number;
+        }
+        else if ( accept( "(" ) )
+        {
+            Node node = parseOr();
+            expect( ")" );
+            return node;
+        }
+        else if ( accept( DAYS ) )
+        {
+            days = true;
+            return v -> v.days;
+        }
+        else if ( "#DAIR".indexOf( c ) >= 0 && lookingAt( c + "{" ) )
+        {
+            int index = slot( items, parseReference( VARIABLE_PATTERN ) );
+            return v -> v.items[index];
+        }
+        else if ( lookingAt( "C{" ) )
+        {
+            int index = slot( constants, parseReference( CONSTANT_PATTERN ) );
+            return v -> v.constants[index];
+        }
+        else if ( lookingAt( "OUG{" ) )
+        {
+            int index = slot( orgUnitGroups, parseReference( OU_GROUP_PATTERN ) );
+            return v -> v.orgUnitGroups[index];
+        }
+        else if ( Character.isLetter( c ) )
+        {
+            return parseFunction();
+        }
+
+        throw new UnsupportedExpressionException();
+    }
+
+    private Node parseFunction()
+    {
+        int start = pos;
+
+        while ( pos < expression.length() && Character.isLetterOrDigit( expression.charAt( pos ) ) )
+        {
+            pos++;
+        }
+
+        String name = expression.substring( start, pos );
+
+        expect( "(" );
+
+        if ( "if".equalsIgnoreCase( name ) )
+        {
+            Node test = parseOr();
+            expect( "," );
+            Node valueIfTrue = parseOr();
+            expect( "," );
+            Node valueIfFalse = parseOr();
+            expect( ")" );
+
+            return v -> test.eval( v ) != 0d ? valueIfTrue.eval( v ) : valueIfFalse.eval( v );
+        }
+
+        Node arg = parseOr();
+        expect( ")" );
+
+        switch ( name )
+        {
+            case "abs":
+                return v -> Math.abs( arg.eval( v ) );
+            case "sqrt":
+                return v -> Math.sqrt( arg.eval( v ) );
+            case "ln":
+                return v -> Math.log( arg.eval( v ) );
+            case "log":
+                return v -> Math.log10( arg.eval( v ) );
+            default:
+                throw new UnsupportedExpressionException();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private double parseNumber()
+    {
+        int start = pos;
+
+        while ( pos < expression.length() && ( Character.isDigit( expression.charAt( pos ) ) || expression.charAt( pos ) == '.' ) )
+        {
+            pos++;
+        }
+
+        if ( pos < expression.length() && ( expression.charAt( pos ) == 'E' || expression.charAt( pos ) == 'e' ) )
+        {
+            pos++;
+
+            if ( pos < expression.length() && ( expression.charAt( pos ) == '+' || expression.charAt( pos ) == '-' ) )
+            {
+                pos++;
+            }
+
+            while ( pos < expression.length() && Character.isDigit( expression.charAt( pos ) ) )
+            {
+                pos++;
+            }
+        }
+
+        try
+        {
+            return Double.parseDouble( expression.substring( start, pos ) );
+        }
+        catch ( NumberFormatException ex )
+        {
+            throw new UnsupportedExpressionException();
+        }
+    }
+
+    /**
+     * Parses a reference such as <code>#{...}</code> and returns the
+     * identifier of the given pattern.
+     */
+    private String parseReference( Pattern pattern )
+    {
+        int end = expression.indexOf( '}', pos );
+
+        if ( end < 0 )
+        {
+            throw new UnsupportedExpressionException();
+        }
+
+        Matcher matcher = pattern.matcher( expression.substring( pos, end + 1 ) );
+
+        if ( !matcher.matches() )
+        {
+            throw new UnsupportedExpressionException();
+        }
+
+        pos = end + 1;
+
+        return matcher.group( GROUP_ID );
+    }
+
+    /**
+     * Returns the slot index of the given identifier, assigning a new slot
+     * the first time the identifier is referenced.
+     */
+    private int slot( Map<String, Integer> slots, String id )
+    {
+        return slots.computeIfAbsent( id, k -> slots.size() );
+    }
+
+    private boolean lookingAt( String token )
+    {
+        skipWhitespace();
+
+        return expression.startsWith( token, pos );
+    }
+
+    private boolean accept( String token )
+    {
+        if ( lookingAt( token ) )
+        {
+            pos += token.length();
+            return true;
+        }
+
+        return false;
+    }
+
+    private void expect( String token )
+    {
+        if ( !accept( token ) )
+        {
+            throw new UnsupportedExpressionException();
+        }
+    }
+
+    private void skipWhitespace()
+    {
+        while ( pos < expression.length() && Character.isWhitespace( expression.charAt( pos ) ) )
+        {
+            pos++;
+        }
+    }
+
+    private static double bool( boolean value )
+    {
+        return value ? 1d : 0d;
+    }
+
+    // -------------------------------------------------------------------------
+    // Compiled expression
+    // -------------------------------------------------------------------------
+
+    /**
+     * A compiled operation, evaluated against the slot values.
+     */
+    @FunctionalInterface
+    private interface Node
+    {
+        double eval( Values values );
+    }
+
+    /**
+     * Slot values for a single evaluation.
+     */
+    private static class Values
+    {
+        private final double[] items;
+
+        private final double[] constants;
+
+        private final double[] orgUnitGroups;
+
+        private double days;
+
+        Values( int items, int constants, int orgUnitGroups )
+        {
+            this.items = new double[items];
+            this.constants = new double[constants];
+            this.orgUnitGroups = new double[orgUnitGroups];
+        }
+    }
+
+    private static class SlotCompiledExpression
+        implements CompiledExpression
+    {
+        private final Node root;
+
+        private final Map<String, Integer> items;
+
+        private final String[] constants;
+
+        private final String[] orgUnitGroups;
+
+        private final boolean days;
+
+        SlotCompiledExpression( Node root, Map<String, Integer> items, Map<String, Integer> constants,
+            Map<String, Integer> orgUnitGroups, boolean days )
+        {
+            this.root = root;
+            this.items = new HashMap<>( items );
+            this.constants = constants.keySet().toArray( new String[0] );
+            this.orgUnitGroups = orgUnitGroups.keySet().toArray( new String[0] );
+            this.days = days;
+        }
+
+        @Override
+        public Double getValue( Map<? extends DimensionalItemObject, Double> valueMap, Map<String, Double> constantMap,
+            Map<String, Integer> orgUnitCountMap, Integer days, MissingValueStrategy missingValueStrategy )
+        {
+            Values values = new Values( items.size(), constants.length, orgUnitGroups.length );
+
+            int found = 0;
+
+            if ( !items.isEmpty() && valueMap != null )
+            {
+                boolean[] present = new boolean[items.size()];
+
+                for ( Map.Entry<? extends DimensionalItemObject, Double> entry : valueMap.entrySet() )
+                {
+                    if ( entry.getValue() != null )
+                    {
+                        Integer index = items.get( entry.getKey().getDimensionItem() );
+
+                        if ( index != null && !present[index] )
+                        {
+                            values.items[index] = entry.getValue();
+                            present[index] = true;
+                            found++;
+                        }
+                    }
+                }
+            }
+
+            if ( SKIP_IF_ANY_VALUE_MISSING == missingValueStrategy && found < items.size() )
+            {
+                return null;
+            }
+
+            if ( SKIP_IF_ALL_VALUES_MISSING == missingValueStrategy && !items.isEmpty() && found == 0 )
+            {
+                return null;
+            }
+
+            for ( int i = 0; i < constants.length; i++ )
+            {
+                Double constant = constantMap != null ? constantMap.get( constants[i] ) : null;
+                values.constants[i] = constant != null ? constant : 0d;
+            }
+
+            for ( int i = 0; i < orgUnitGroups.length; i++ )
+            {
+                Integer count = orgUnitCountMap != null ? orgUnitCountMap.get( orgUnitGroups[i] ) : null;
+                values.orgUnitGroups[i] = count != null ? count : 0d;
+            }
+
+            if ( this.days )
+            {
+                values.days = days != null ? days : 0d;
+            }
+
+            return root.eval( values );
+        }
+    }
+
+    /**
+     * Signals that the expression can not be compiled.
+     */
+    private static class UnsupportedExpressionException
+        extends RuntimeException
+    {
+    }
+}
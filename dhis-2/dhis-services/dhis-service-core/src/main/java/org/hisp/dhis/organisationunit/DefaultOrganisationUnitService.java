@@ -1,8 +1,5 @@
 package org.hisp.dhis.organisationunit;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
-
 /*
  * Copyright (c) 2004-2018, University of Oslo
  * All rights reserved.
@@ -34,9 +31,11 @@ import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.collect.Sets;
 
 import org.apache.commons.lang3.ObjectUtils;
+import org.hisp.dhis.cache.CacheInvalidation;
+import org.hisp.dhis.cache.CacheInvalidationBus;
+import org.hisp.dhis.cache.LocalCacheInvalidationBus;
 import org.hisp.dhis.commons.collection.ListUtils;
 import org.hisp.dhis.commons.filter.FilterUtils;
-import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.configuration.ConfigurationService;
 import org.hisp.dhis.dataset.DataSet;
 import org.hisp.dhis.dataset.DataSetService;
@@ -49,17 +48,22 @@ import org.hisp.dhis.system.util.ValidationUtils;
 import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.version.VersionService;
-import org.springframework.core.env.Environment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.annotation.PostConstruct;
 import java.awt.geom.Point2D;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
-import static org.hisp.dhis.commons.util.TextUtils.joinHyphen;
-
 /**
  * @author Torgeir Lorange Ostby
  */
@@ -69,16 +73,34 @@ public class DefaultOrganisationUnitService
 {
     private static final String LEVEL_PREFIX = "Level ";
 
-    private static Cache<String, Boolean> IN_USER_ORG_UNIT_HIERARCHY_CACHE;
+    /**
+     * Region of the {@link CacheInvalidationBus} on which hierarchy changes are
+     * published to other server instances.
+     */
+    public static final String HIERARCHY_REGION = "organisationUnitHierarchy";
+
+    /**
+     * Maximum age of the hierarchy index, bounds the staleness of the index for
+     * hierarchy changes whose invalidation was lost.
+     */
+    private static final long HIERARCHY_INDEX_MAX_AGE = TimeUnit.MINUTES.toMillis( 10 );
+
+    private final AtomicReference<OrganisationUnitHierarchyIndex> hierarchyIndex = new AtomicReference<>();
+
+    /**
+     * Pending rebuild of the hierarchy index, so that only one thread at a
+     * time loads the hierarchy.
+     */
+    private final AtomicReference<CompletableFuture<OrganisationUnitHierarchyIndex>> hierarchyIndexRebuild = new AtomicReference<>();
+
+    /**
+     * Identifier of this instance, used to ignore invalidations published by itself.
+     */
+    private final String id = UUID.randomUUID().toString();
 
     // -------------------------------------------------------------------------
     // Dependencies
     // -------------------------------------------------------------------------
-    private Environment env;
-
-    public void setEnv(Environment env) {
-        this.env = env;
-    }
 
     private OrganisationUnitStore organisationUnitStore;
 
@@ -122,14 +144,38 @@ public class DefaultOrganisationUnitService
         this.configurationService = configurationService;
     }
 
+    private PlatformTransactionManager transactionManager;
+
+    public void setTransactionManager( PlatformTransactionManager transactionManager )
+    {
+        this.transactionManager = transactionManager;
+    }
+
+    private CacheInvalidationBus invalidationBus;
+
+    @Autowired( required = false )
+    public void setInvalidationBus( CacheInvalidationBus invalidationBus )
+    {
+        this.invalidationBus = invalidationBus;
+    }
+
+    /**
+     * Publishes hierarchy changes committed by this instance and bumps the
+     * hierarchy version for changes committed by other instances, so that the
+     * hierarchy index of every instance is rebuilt.
+     */
     @PostConstruct
     public void init()
     {
+        if ( invalidationBus == null )
+        {
+            invalidationBus = new LocalCacheInvalidationBus();
+        }
+
+        invalidationBus.subscribe( HIERARCHY_REGION, this::onHierarchyInvalidation );
 
-        IN_USER_ORG_UNIT_HIERARCHY_CACHE = Caffeine.newBuilder()
-                .expireAfterWrite( 3, TimeUnit.HOURS )
-                .initialCapacity( 1000 )
-                .maximumSize( SystemUtils.isTestRun(env.getActiveProfiles() ) ? 0 : 20000 ).build();
+        OrganisationUnitHierarchyVersion.setChangeListener( () ->
+            invalidationBus.publish( new CacheInvalidation( id, HIERARCHY_REGION, null ) ) );
     }
 
     // -------------------------------------------------------------------------
@@ -431,9 +477,7 @@ public class DefaultOrganisationUnitService
     @Override
     public boolean isInUserHierarchyCached( OrganisationUnit organisationUnit )
     {
-        String cacheKey = joinHyphen( currentUserService.getCurrentUsername(), organisationUnit.getUid() );
-
-        return IN_USER_ORG_UNIT_HIERARCHY_CACHE.get( cacheKey, ou -> isInUserHierarchy( organisationUnit ) );
+        return isInUserHierarchy( organisationUnit );
     }
 
     @Override
@@ -444,7 +488,7 @@ public class DefaultOrganisationUnitService
             return false;
         }
 
-        return organisationUnit.isDescendant( user.getOrganisationUnits() );
+        return isDescendant( organisationUnit, user.getOrganisationUnits() );
     }
 
     @Override
@@ -452,7 +496,7 @@ public class DefaultOrganisationUnitService
     {
         OrganisationUnit organisationUnit = organisationUnitStore.getByUid( uid );
 
-        return organisationUnit != null ? organisationUnit.isDescendant( organisationUnits ) : false;
+        return organisationUnit != null ? isDescendant( organisationUnit, organisationUnits ) : false;
     }
 
     // -------------------------------------------------------------------------
@@ -465,10 +509,81 @@ public class DefaultOrganisationUnitService
         return organisationUnitStore.getOrganisationUnitHierarchy();
     }
 
+    @Override
+    public OrganisationUnitHierarchyIndex getOrganisationUnitHierarchyIndex()
+    {
+        while ( true )
+        {
+            OrganisationUnitHierarchyIndex index = hierarchyIndex.get();
+
+            if ( index != null && !isStale( index ) )
+            {
+                return index;
+            }
+
+            CompletableFuture<OrganisationUnitHierarchyIndex> rebuild = new CompletableFuture<>();
+
+            if ( hierarchyIndexRebuild.compareAndSet( null, rebuild ) )
+            {
+                return rebuildHierarchyIndex( rebuild );
+            }
+
+            // Another thread is rebuilding, serve the previous index if any
+
+            if ( index != null )
+            {
+                return index;
+            }
+
+            CompletableFuture<OrganisationUnitHierarchyIndex> pending = hierarchyIndexRebuild.get();
+
+            if ( pending != null )
+            {
+                return pending.join();
+            }
+        }
+    }
+
+    @Override
+    public boolean isDescendant( OrganisationUnit organisationUnit, Collection<OrganisationUnit> ancestors )
+    {
+        if ( organisationUnit == null || ancestors == null || ancestors.isEmpty() )
+        {
+            return false;
+        }
+
+        OrganisationUnitHierarchyIndex index = getOrganisationUnitHierarchyIndex();
+
+        if ( index.contains( organisationUnit.getId() ) && ancestors.stream().allMatch( ancestor -> index.contains( ancestor.getId() ) ) )
+        {
+            return ancestors.stream().anyMatch( ancestor -> index.isDescendant( organisationUnit.getId(), ancestor.getId() ) );
+        }
+
+        return organisationUnit.isDescendant( ancestors instanceof Set ? (Set<OrganisationUnit>) ancestors : new HashSet<>( ancestors ) );
+    }
+
     @Override
     public void updateOrganisationUnitParent( int organisationUnitId, int parentId )
     {
         organisationUnitStore.updateOrganisationUnitParent( organisationUnitId, parentId );
+
+        // Update is done through JDBC and is not seen by Hibernate listeners
+
+        if ( TransactionSynchronizationManager.isSynchronizationActive() )
+        {
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronizationAdapter()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    OrganisationUnitHierarchyVersion.increment();
+                }
+            } );
+        }
+        else
+        {
+            OrganisationUnitHierarchyVersion.increment();
+        }
     }
 
     // -------------------------------------------------------------------------
@@ -810,6 +925,61 @@ public class DefaultOrganisationUnitService
     // Supportive methods
     // -------------------------------------------------------------------------
 
+    private void onHierarchyInvalidation( CacheInvalidation invalidation )
+    {
+        if ( !id.equals( invalidation.getOrigin() ) )
+        {
+            OrganisationUnitHierarchyVersion.incrementRemote();
+        }
+    }
+
+    private boolean isStale( OrganisationUnitHierarchyIndex index )
+    {
+        return index.getVersion() != OrganisationUnitHierarchyVersion.get() ||
+            System.currentTimeMillis() - index.getCreated() > HIERARCHY_INDEX_MAX_AGE;
+    }
+
+    private OrganisationUnitHierarchyIndex rebuildHierarchyIndex( CompletableFuture<OrganisationUnitHierarchyIndex> rebuild )
+    {
+        try
+        {
+            OrganisationUnitHierarchyIndex built = buildHierarchyIndex();
+
+            hierarchyIndex.set( built );
+            rebuild.complete( built );
+
+            return built;
+        }
+        catch ( RuntimeException ex )
+        {
+            rebuild.completeExceptionally( ex );
+
+            throw ex;
+        }
+        finally
+        {
+            hierarchyIndexRebuild.set( null );
+        }
+    }
+
+    /**
+     * Builds the hierarchy index in a separate transaction so that uncommitted
+     * changes of the current transaction are not part of the index. The version
+     * is read before the hierarchy, so that changes committed in between cause
+     * another rebuild rather than a stale index.
+     */
+    private OrganisationUnitHierarchyIndex buildHierarchyIndex()
+    {
+        long version = OrganisationUnitHierarchyVersion.get();
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate( transactionManager );
+        transactionTemplate.setPropagationBehavior( TransactionDefinition.PROPAGATION_REQUIRES_NEW );
+        transactionTemplate.setReadOnly( true );
+
+        return transactionTemplate.execute( status ->
+            new OrganisationUnitHierarchyIndex( organisationUnitStore.getOrganisationUnitRelationships(), version ) );
+    }
+
     /**
      * Searches organisation units until finding one with polygon containing point.
      */
@@ -0,0 +1,85 @@
+package org.hisp.dhis.organisationunit;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds a counter which is incremented whenever the organisation unit
+ * hierarchy is changed and committed. Used to detect whether an
+ * {@link OrganisationUnitHierarchyIndex} must be rebuilt. The counter is
+ * static as it is updated from Hibernate event listeners which are not
+ * managed by Spring. Local changes are passed on to the change listener, which
+ * publishes them to other server instances.
+ */
+public final class OrganisationUnitHierarchyVersion
+{
+    private static final AtomicLong VERSION = new AtomicLong();
+
+    private static volatile Runnable changeListener;
+
+    private OrganisationUnitHierarchyVersion()
+    {
+    }
+
+    public static long get()
+    {
+        return VERSION.get();
+    }
+
+    /**
+     * Increments the version for a hierarchy change committed by this server
+     * instance and notifies the change listener.
+     */
+    public static void increment()
+    {
+        VERSION.incrementAndGet();
+
+        Runnable listener = changeListener;
+
+        if ( listener != null )
+        {
+            listener.run();
+        }
+    }
+
+    /**
+     * Increments the version for a hierarchy change committed by another server
+     * instance, without notifying the change listener.
+     */
+    public static void incrementRemote()
+    {
+        VERSION.incrementAndGet();
+    }
+
+    public static void setChangeListener( Runnable listener )
+    {
+        changeListener = listener;
+    }
+}
@@ -43,6 +43,7 @@ import org.hisp.dhis.dbms.DbmsManager;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.organisationunit.OrganisationUnitHierarchy;
 import org.hisp.dhis.organisationunit.OrganisationUnitQueryParams;
+import org.hisp.dhis.organisationunit.OrganisationUnitRelationship;
 import org.hisp.dhis.organisationunit.OrganisationUnitStore;
 import org.hisp.dhis.system.objectmapper.OrganisationUnitRelationshipRowMapper;
 import org.hisp.dhis.system.util.SqlUtils;
@@ -289,10 +290,16 @@ public class HibernateOrganisationUnitStore
 
     @Override
     public OrganisationUnitHierarchy getOrganisationUnitHierarchy()
+    {
+        return new OrganisationUnitHierarchy( getOrganisationUnitRelationships() );
+    }
+
+    @Override
+    public List<OrganisationUnitRelationship> getOrganisationUnitRelationships()
     {
         final String sql = "select organisationunitid, parentid from organisationunit";
 
-        return new OrganisationUnitHierarchy( jdbcTemplate.query( sql, new OrganisationUnitRelationshipRowMapper() ) );
+        return jdbcTemplate.query( sql, new OrganisationUnitRelationshipRowMapper() );
     }
 
     @Override
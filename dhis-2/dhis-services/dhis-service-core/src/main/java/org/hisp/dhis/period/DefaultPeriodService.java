@@ -205,14 +205,7 @@ public class DefaultPeriodService
     @Override
     public List<Period> reloadPeriods( List<Period> periods )
     {
-        List<Period> reloaded = new ArrayList<>();
-
-        for ( Period period : periods )
-        {
-            reloaded.add( periodStore.reloadForceAddPeriod( period ) );
-        }
-
-        return reloaded;
+        return periodStore.reloadForceAddPeriods( periods );
     }
 
     @Override
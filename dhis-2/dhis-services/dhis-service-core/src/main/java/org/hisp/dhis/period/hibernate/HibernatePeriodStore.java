@@ -30,6 +30,9 @@ package org.hisp.dhis.period.hibernate;
 
 import org.hibernate.Session;
 import org.hibernate.query.Query;
+import org.hisp.dhis.api.util.DateUtils;
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.CacheProvider;
 import org.hisp.dhis.common.exception.InvalidIdentifierReferenceException;
 import org.hisp.dhis.common.hibernate.HibernateIdentifiableObjectStore;
 import org.hisp.dhis.commons.util.SystemUtils;
@@ -38,17 +41,23 @@ import org.hisp.dhis.period.PeriodStore;
 import org.hisp.dhis.period.PeriodType;
 import org.hisp.dhis.period.RelativePeriods;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
 
 import javax.annotation.PostConstruct;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * Implements the PeriodStore interface.
@@ -63,7 +72,10 @@ public class HibernatePeriodStore
     @Autowired
     private Environment env;
 
-    private static Cache<String, Integer> PERIOD_ID_CACHE;
+    @Autowired
+    private CacheProvider cacheProvider;
+
+    private Cache<Integer> PERIOD_ID_CACHE;
     
     // -------------------------------------------------------------------------
     // Period
@@ -72,11 +84,11 @@ public class HibernatePeriodStore
     @PostConstruct
     public void init()
     {
-
-        PERIOD_ID_CACHE =  Caffeine.newBuilder()
-                .expireAfterWrite( 24, TimeUnit.HOURS )
-                .initialCapacity( 200 )
-                .maximumSize( SystemUtils.isTestRun(env.getActiveProfiles()) ? 0 : 10000 ).build();
+        PERIOD_ID_CACHE = cacheProvider.newCacheBuilder( Integer.class )
+            .forRegion( "periodIdCache" )
+            .expireAfterWrite( 24, TimeUnit.HOURS )
+            .withMaximumSize( SystemUtils.isTestRun( env.getActiveProfiles() ) ? 0 : 10000 )
+            .withNearCache().build();
     }
 
     @Override
@@ -184,19 +196,118 @@ public class HibernatePeriodStore
             return period; // Already in session, no reload needed
         }
 
-        Integer id = PERIOD_ID_CACHE.get( period.getCacheKey(), key -> getPeriodId( period.getStartDate(), period.getEndDate(), period.getPeriodType() ) );
+        Integer id = PERIOD_ID_CACHE.get( period.getCacheKey(), key -> getPeriodId( period.getStartDate(), period.getEndDate(), period.getPeriodType() ) ).orElse( null );
         
         Period storedPeriod = id != null ? getSession().get( Period.class, id ) : null;
 
         return storedPeriod != null ? storedPeriod.copyTransientProperties( period ) : null;
     }
 
+    @Override
+    public List<Period> reloadPeriods( List<Period> periods )
+    {
+        Session session = sessionFactory.getCurrentSession();
+
+        Map<String, Period> keyPeriodMap = new HashMap<>();
+
+        periods.stream()
+            .filter( period -> !session.contains( period ) )
+            .forEach( period -> keyPeriodMap.putIfAbsent( period.getCacheKey(), period ) );
+
+        Map<String, Integer> keyIdMap = PERIOD_ID_CACHE.getAll( keyPeriodMap.keySet(), keys -> getPeriodIds( keys.stream()
+            .map( keyPeriodMap::get ).collect( Collectors.toList() ) ) );
+
+        Map<Integer, Period> idPeriodMap = new HashMap<>();
+
+        if ( !keyIdMap.isEmpty() )
+        {
+            session.byMultipleIds( Period.class ).multiLoad( new ArrayList<>( new HashSet<>( keyIdMap.values() ) ) ).stream()
+                .filter( Objects::nonNull )
+                .forEach( period -> idPeriodMap.put( period.getId(), period ) );
+        }
+
+        List<Period> reloaded = new ArrayList<>( periods.size() );
+
+        for ( Period period : periods )
+        {
+            if ( session.contains( period ) )
+            {
+                reloaded.add( period );
+                continue;
+            }
+
+            Integer id = keyIdMap.get( period.getCacheKey() );
+
+            Period storedPeriod = id != null ? idPeriodMap.get( id ) : null;
+
+            reloaded.add( storedPeriod != null ? storedPeriod.copyTransientProperties( period ) : null );
+        }
+
+        return reloaded;
+    }
+
     private Integer getPeriodId( Date startDate, Date endDate, PeriodType periodType )
     {
         Period period = getPeriod( startDate, endDate, periodType );
         
         return period != null ? period.getId() : null;
     }
+
+    /**
+     * Retrieves the identifiers of the given periods in a single query. The
+     * query matches on the period types, start dates and end dates separately,
+     * hence the result is filtered on the exact combinations.
+     *
+     * @param periods the periods to look up.
+     * @return a mapping from period cache key to period identifier for the
+     *         periods which exist.
+     */
+    private Map<String, Integer> getPeriodIds( Collection<Period> periods )
+    {
+        Map<String, Period> datesPeriodMap = new HashMap<>();
+
+        periods.forEach( period -> datesPeriodMap.put( getDatesKey( period ), period ) );
+
+        Set<Integer> periodTypes = periods.stream()
+            .map( period -> reloadPeriodType( period.getPeriodType() ).getId() )
+            .collect( Collectors.toSet() );
+
+        Set<Date> startDates = periods.stream().map( Period::getStartDate ).collect( Collectors.toSet() );
+        Set<Date> endDates = periods.stream().map( Period::getEndDate ).collect( Collectors.toSet() );
+
+        String hql = "from Period p where p.periodType.id in (:periodTypes) and p.startDate in (:startDates) and p.endDate in (:endDates)";
+
+        List<Period> storedPeriods = getQuery( hql )
+            .setParameterList( "periodTypes", periodTypes )
+            .setParameterList( "startDates", startDates )
+            .setParameterList( "endDates", endDates )
+            .list();
+
+        Map<String, Integer> keyIdMap = new HashMap<>();
+
+        for ( Period storedPeriod : storedPeriods )
+        {
+            Period period = datesPeriodMap.get( getDatesKey( storedPeriod ) );
+
+            if ( period != null )
+            {
+                keyIdMap.put( period.getCacheKey(), storedPeriod.getId() );
+            }
+        }
+
+        return keyIdMap;
+    }
+
+    /**
+     * Returns a key for the given period based on the period type and the
+     * day of the start and end dates, which is independent of the concrete
+     * date class returned by the persistence layer.
+     */
+    private String getDatesKey( Period period )
+    {
+        return period.getPeriodType().getName() + "-" + DateUtils.getMediumDateString( period.getStartDate() ) +
+            "-" + DateUtils.getMediumDateString( period.getEndDate() );
+    }
     
     @Override
     public Period reloadForceAddPeriod( Period period )
@@ -213,6 +324,34 @@ public class HibernatePeriodStore
         return storedPeriod;
     }
 
+    @Override
+    public List<Period> reloadForceAddPeriods( List<Period> periods )
+    {
+        List<Period> storedPeriods = reloadPeriods( periods );
+
+        List<Period> reloaded = new ArrayList<>( periods.size() );
+
+        Map<String, Period> addedPeriods = new HashMap<>();
+
+        for ( int i = 0; i < periods.size(); i++ )
+        {
+            Period period = periods.get( i );
+            Period storedPeriod = storedPeriods.get( i );
+
+            if ( storedPeriod == null )
+            {
+                storedPeriod = addedPeriods.computeIfAbsent( period.getCacheKey(), key -> {
+                    addPeriod( period );
+                    return period;
+                } );
+            }
+
+            reloaded.add( storedPeriod );
+        }
+
+        return reloaded;
+    }
+
     // -------------------------------------------------------------------------
     // PeriodType (do not use generic store which is linked to Period)
     // -------------------------------------------------------------------------
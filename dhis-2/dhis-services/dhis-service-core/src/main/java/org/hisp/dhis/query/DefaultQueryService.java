@@ -94,7 +94,33 @@ public class DefaultQueryService
         query.setFirstResult( 0 );
         query.setMaxResults( Integer.MAX_VALUE );
 
-        return queryObjects( query ).size();
+        if ( Defaults.INCLUDE != query.getDefaults() && Preheat.isDefaultClass( query.getSchema().getKlass() ) )
+        {
+            return queryObjects( query ).size();
+        }
+
+        if ( query.getObjects() != null )
+        {
+            return inMemoryQueryEngine.count( query );
+        }
+
+        QueryPlan queryPlan = queryPlanner.planQuery( query );
+
+        Query pQuery = queryPlan.getPersistedQuery();
+        Query npQuery = queryPlan.getNonPersistedQuery();
+
+        // count in the database if everything could be pushed down, otherwise count in-memory without ordering
+
+        if ( npQuery.getCriterions().isEmpty() )
+        {
+            return criteriaQueryEngine.count( pQuery );
+        }
+
+        pQuery.clearOrders();
+        npQuery.clearOrders();
+        npQuery.setObjects( criteriaQueryEngine.query( pQuery ) );
+
+        return inMemoryQueryEngine.count( npQuery );
     }
 
     @Override
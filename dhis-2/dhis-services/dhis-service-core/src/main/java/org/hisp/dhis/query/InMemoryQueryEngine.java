@@ -34,17 +34,20 @@ import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.common.PagerUtils;
 import org.hisp.dhis.hibernate.HibernateUtils;
 import org.hisp.dhis.schema.Property;
+import org.hisp.dhis.schema.PropertyAccessors;
 import org.hisp.dhis.schema.Schema;
 import org.hisp.dhis.schema.SchemaService;
 import org.hisp.dhis.security.acl.AclService;
-import org.hisp.dhis.system.util.ReflectionUtils;
 import org.hisp.dhis.user.CurrentUserService;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author Morten Olav Hansen <mortenoh@gmail.com>
@@ -68,8 +71,22 @@ public class InMemoryQueryEngine<T extends IdentifiableObject>
     public List<T> query( Query query )
     {
         validateQuery( query );
-        List<T> list = runQuery( query );
-        list = runSorter( query, list );
+
+        long limit = getPageLimit( query );
+        List<T> list;
+
+        if ( query.getOrders().isEmpty() )
+        {
+            list = runQuery( query ).limit( limit ).collect( Collectors.toList() );
+        }
+        else if ( limit < Integer.MAX_VALUE )
+        {
+            list = runTopSorter( query, runQuery( query ), (int) limit );
+        }
+        else
+        {
+            list = runSorter( query, runQuery( query ).collect( Collectors.toList() ) );
+        }
 
         return PagerUtils.pageCollection( list, query.getFirstResult(), query.getMaxResults() );
     }
@@ -78,9 +95,8 @@ public class InMemoryQueryEngine<T extends IdentifiableObject>
     public int count( Query query )
     {
         validateQuery( query );
-        List<T> list = runQuery( query );
 
-        return list.size();
+        return (int) runQuery( query ).count();
     }
 
     private void validateQuery( Query query )
@@ -101,20 +117,78 @@ public class InMemoryQueryEngine<T extends IdentifiableObject>
         }
     }
 
+    /**
+     * Returns the number of matching objects needed to serve the requested page,
+     * i.e. first result plus max results.
+     */
+    private long getPageLimit( Query query )
+    {
+        return Math.min( (long) query.getFirstResult() + query.getMaxResults(), Integer.MAX_VALUE );
+    }
+
     @SuppressWarnings( "unchecked" )
-    private List<T> runQuery( Query query )
+    private Stream<T> runQuery( Query query )
     {
         return query.getObjects().stream()
             .filter( object -> test( query, (T) object ) )
-            .map( object -> (T) object )
-            .collect( Collectors.toList() );
+            .map( object -> (T) object );
     }
 
     private List<T> runSorter( Query query, List<T> objects )
     {
         List<T> sorted = new ArrayList<>( objects );
 
-        sorted.sort( ( o1, o2 ) ->
+        sorted.sort( getComparator( query ) );
+
+        return sorted;
+    }
+
+    /**
+     * Sorts only the first limit objects of the stream, keeping a bounded heap
+     * with the largest retained object on top. Ties are broken on encounter order
+     * so the result is the same as the head of a full, stable sort.
+     */
+    private List<T> runTopSorter( Query query, Stream<T> objects, int limit )
+    {
+        if ( limit <= 0 )
+        {
+            return new ArrayList<>();
+        }
+
+        Comparator<T> comparator = getComparator( query );
+        Comparator<IndexedObject<T>> indexedComparator = ( o1, o2 ) ->
+        {
+            int result = comparator.compare( o1.object, o2.object );
+            return result != 0 ? result : Long.compare( o1.index, o2.index );
+        };
+
+        PriorityQueue<IndexedObject<T>> heap = new PriorityQueue<>( Math.min( limit, 1024 ), indexedComparator.reversed() );
+        long[] index = { 0 };
+
+        objects.forEachOrdered( object ->
+        {
+            IndexedObject<T> indexed = new IndexedObject<>( object, index[0]++ );
+
+            if ( heap.size() < limit )
+            {
+                heap.add( indexed );
+            }
+            else if ( indexedComparator.compare( indexed, heap.peek() ) < 0 )
+            {
+                heap.poll();
+                heap.add( indexed );
+            }
+        } );
+
+        List<IndexedObject<T>> sorted = new ArrayList<>( heap );
+        sorted.sort( indexedComparator );
+
+        return sorted.stream().map( indexed -> indexed.object ).collect( Collectors.toList() );
+    }
+
+    private Comparator<T> getComparator( Query query )
+    {
+        return ( o1, o2 ) ->
         {
             for ( Order order : query.getOrders() )
             {
@@ -123,9 +197,7 @@ public class InMemoryQueryEngine<T extends IdentifiableObject>
             }
 
             return 0;
-        } );
-
-        return sorted;
+        };
     }
 
     private boolean test( Query query, T object )
@@ -322,6 +394,19 @@ public class InMemoryQueryEngine<T extends IdentifiableObject>
             return items;
         }
 
-        return ReflectionUtils.invokeMethod( object, property.getGetterMethod() );
+        return PropertyAccessors.invokeGetter( object, property );
+    }
+
+    private static class IndexedObject<T>
+    {
+        private final T object;
+
+        private final long index;
+
+        IndexedObject( T object, long index )
+        {
+            this.object = object;
+            this.index = index;
+        }
     }
 }
@@ -28,12 +28,22 @@ package org.hisp.dhis.query.planner;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import com.google.common.collect.ImmutableSet;
 import org.hisp.dhis.query.Conjunction;
 import org.hisp.dhis.query.Criterion;
 import org.hisp.dhis.query.Disjunction;
 import org.hisp.dhis.query.Junction;
 import org.hisp.dhis.query.Query;
 import org.hisp.dhis.query.Restriction;
+import org.hisp.dhis.query.operators.BetweenOperator;
+import org.hisp.dhis.query.operators.EqualOperator;
+import org.hisp.dhis.query.operators.GreaterEqualOperator;
+import org.hisp.dhis.query.operators.GreaterThanOperator;
+import org.hisp.dhis.query.operators.InOperator;
+import org.hisp.dhis.query.operators.LessEqualOperator;
+import org.hisp.dhis.query.operators.LessThanOperator;
+import org.hisp.dhis.query.operators.LikeOperator;
+import org.hisp.dhis.query.operators.Operator;
 import org.hisp.dhis.schema.Property;
 import org.hisp.dhis.schema.Schema;
 import org.hisp.dhis.schema.SchemaService;
@@ -44,12 +54,23 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author Morten Olav Hansen <mortenoh@gmail.com>
  */
 public class DefaultQueryPlanner implements QueryPlanner
 {
+    /**
+     * Operators which give the same result on an inner join as the any-item
+     * semantics of the in-memory engine. Negated and null operators are not
+     * safe as an inner join drops objects with empty or missing associations,
+     * and the token operator is written as SQL against the root table.
+     */
+    private static final Set<Class<? extends Operator>> JOIN_SAFE_OPERATORS = ImmutableSet.of(
+        EqualOperator.class, InOperator.class, LikeOperator.class, BetweenOperator.class, GreaterThanOperator.class,
+        GreaterEqualOperator.class, LessThanOperator.class, LessEqualOperator.class );
+
     private final SchemaService schemaService;
 
     public DefaultQueryPlanner( SchemaService schemaService )
@@ -236,6 +257,11 @@ public class DefaultQueryPlanner implements QueryPlanner
             }
         }
 
+        if ( Junction.Type.AND == query.getRootJunctionType() )
+        {
+            handleAliasRestrictions( query, pQuery );
+        }
+
         if ( query.ordersPersisted() )
         {
             pQuery.addOrders( query.getOrders() );
@@ -245,6 +271,45 @@ public class DefaultQueryPlanner implements QueryPlanner
         return pQuery;
     }
 
+    /**
+     * Moves root restrictions on single level association paths, i.e.
+     * dataElementGroups.id, to the persisted query. Each alias is joined by at most
+     * one restriction, as a shared join would require the restrictions to match on
+     * the same associated object while the in-memory engine tests them separately.
+     * Remaining restrictions on the same alias are tested in-memory on the already
+     * reduced result.
+     *
+     * @param query  the non persisted query.
+     * @param pQuery the persisted query.
+     */
+    private void handleAliasRestrictions( Query query, Query pQuery )
+    {
+        Iterator<Criterion> iterator = query.getCriterions().iterator();
+
+        while ( iterator.hasNext() )
+        {
+            Criterion criterion = iterator.next();
+
+            if ( !Restriction.class.isInstance( criterion ) )
+            {
+                continue;
+            }
+
+            Restriction restriction = (Restriction) criterion;
+            QueryPath queryPath = restriction.getQueryPath();
+
+            if ( queryPath.isPersisted() && queryPath.haveAlias() && !queryPath.haveAlias( 1 )
+                && !queryPath.getProperty().isCollection()
+                && JOIN_SAFE_OPERATORS.contains( restriction.getOperator().getClass() )
+                && !pQuery.getAliases().contains( queryPath.getAlias()[0] ) )
+            {
+                pQuery.getAliases().add( queryPath.getAlias()[0] );
+                pQuery.getCriterions().add( criterion );
+                iterator.remove();
+            }
+        }
+    }
+
     private Junction handleJunction( Query query, Junction queryJunction, boolean persistedOnly )
     {
         Iterator<org.hisp.dhis.query.Criterion> iterator = queryJunction.getCriterions().iterator();
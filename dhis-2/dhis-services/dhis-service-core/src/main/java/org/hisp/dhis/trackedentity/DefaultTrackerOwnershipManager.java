@@ -359,7 +359,7 @@ public class DefaultTrackerOwnershipManager implements TrackerOwnershipManager
      */
     private boolean isInHierarchy( OrganisationUnit organisationUnit, Set<OrganisationUnit> organisationUnits )
     {
-        return organisationUnit != null && organisationUnits != null && organisationUnit.isDescendant( organisationUnits );
+        return organisationUnit != null && organisationUnits != null && organisationUnitService.isDescendant( organisationUnit, organisationUnits );
     }
 
     /**
@@ -46,6 +46,10 @@ import static org.hisp.dhis.trackedentity.TrackedEntityInstanceQueryParams.ORG_U
 import static org.hisp.dhis.trackedentity.TrackedEntityInstanceQueryParams.ORG_UNIT_NAME;
 import static org.hisp.dhis.trackedentity.TrackedEntityInstanceQueryParams.TRACKED_ENTITY_ID;
 import static org.hisp.dhis.trackedentity.TrackedEntityInstanceQueryParams.TRACKED_ENTITY_INSTANCE_ID;
+import static org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeSearchIndex.SEARCH_FILTER;
+import static org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeSearchIndex.SEARCH_QUERY;
+import static org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeSearchIndex.SEARCH_SCAN_SUFFIX;
+import static org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeSearchIndex.SEARCH_TABLE;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -54,7 +58,9 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.Predicate;
@@ -66,6 +72,7 @@ import org.apache.commons.logging.LogFactory;
 import org.hibernate.criterion.Restrictions;
 import org.hibernate.query.Query;
 import org.hisp.dhis.common.OrganisationUnitSelectionMode;
+import org.hisp.dhis.common.PageToken;
 import org.hisp.dhis.common.QueryFilter;
 import org.hisp.dhis.common.QueryItem;
 import org.hisp.dhis.common.QueryOperator;
@@ -74,9 +81,11 @@ import org.hisp.dhis.commons.util.SqlHelper;
 import org.hisp.dhis.event.EventStatus;
 import org.hisp.dhis.jdbc.StatementBuilder;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
 import org.hisp.dhis.trackedentity.TrackedEntityInstance;
 import org.hisp.dhis.trackedentity.TrackedEntityInstanceQueryParams;
 import org.hisp.dhis.trackedentity.TrackedEntityInstanceStore;
+import org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeSearchIndex;
 import org.hisp.dhis.user.User;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.transaction.annotation.Transactional;
@@ -91,6 +100,8 @@ public class HibernateTrackedEntityInstanceStore
 {
     private static final Log log = LogFactory.getLog( HibernateTrackedEntityInstanceStore.class );
 
+    private static final String KEYSET_ORDER = "order by tei.lastUpdated desc, tei.id desc ";
+
     // -------------------------------------------------------------------------
     // Dependencies
     // -------------------------------------------------------------------------
@@ -102,6 +113,13 @@ public class HibernateTrackedEntityInstanceStore
         this.statementBuilder = statementBuilder;
     }
 
+    private TrackedEntityAttributeSearchIndex searchIndex;
+
+    public void setSearchIndex( TrackedEntityAttributeSearchIndex searchIndex )
+    {
+        this.searchIndex = searchIndex;
+    }
+
     // -------------------------------------------------------------------------
     // Implementation methods
     // -------------------------------------------------------------------------
@@ -122,7 +140,8 @@ public class HibernateTrackedEntityInstanceStore
         String hql = buildTrackedEntityInstanceHql( params );
 
         //If it is a sync job running a query, I need to adjust an HQL a bit, because I am adding 2 joins and don't want duplicates in results
-        if ( params.isSynchronizationQuery() )
+        //Keyset paging joins program instances without fetching them, which can give duplicates as well
+        if ( params.isSynchronizationQuery() || params.isKeysetPaging() )
         {
             hql = hql.replaceFirst( "select tei from", "select distinct tei from" );
         }
@@ -131,11 +150,20 @@ public class HibernateTrackedEntityInstanceStore
 
         if ( params.isPaging() )
         {
-            query.setFirstResult( params.getOffset() );
+            query.setFirstResult( params.isKeysetPaging() ? 0 : params.getOffset() );
             query.setMaxResults( params.getPageSizeWithDefault() );
         }
 
-        return query.list();
+        List<TrackedEntityInstance> instances = query.list();
+
+        if ( params.isKeysetPaging() && params.isPaging() && !instances.isEmpty() && instances.size() >= params.getPageSizeWithDefault() )
+        {
+            TrackedEntityInstance last = instances.get( instances.size() - 1 );
+
+            params.setNextPageToken( new PageToken( last.getLastUpdated(), last.getId() ) );
+        }
+
+        return instances;
     }
 
     private String buildTrackedEntityInstanceCountHql( TrackedEntityInstanceQueryParams params )
@@ -144,7 +172,8 @@ public class HibernateTrackedEntityInstanceStore
             .replaceFirst( "select tei from", "select count(distinct tei) from" )
             .replaceFirst( "left join fetch tei.programInstances", "left join tei.programInstances" )
             .replaceFirst( "order by case when pi.status = 'ACTIVE' then 1 when pi.status = 'COMPLETED' then 2 else 3 end asc, tei.lastUpdated desc ", "" )
-            .replaceFirst( "order by tei.lastUpdated desc ", "" );
+            .replaceFirst( "order by tei.lastUpdated desc ", "" )
+            .replaceFirst( KEYSET_ORDER, "" );
     }
 
     private String buildTrackedEntityInstanceHql( TrackedEntityInstanceQueryParams params )
@@ -155,7 +184,9 @@ public class HibernateTrackedEntityInstanceStore
 
         if ( params.hasProgram() )
         {
-            hql += "left join fetch tei.programInstances as pi ";
+            // Fetch joins are paged in memory, so keyset paging joins without fetching
+
+            hql += params.isKeysetPaging() ? "left join tei.programInstances as pi " : "left join fetch tei.programInstances as pi ";
 
             hql += hlp.whereAnd() + " pi.program.uid = '" + params.getProgram().getUid() + "'";
 
@@ -291,7 +322,19 @@ public class HibernateTrackedEntityInstanceStore
             hql += hlp.whereAnd() + " tei.deleted is false ";
         }
 
-        if ( params.hasProgram() )
+        if ( params.hasPageToken() )
+        {
+            PageToken pageToken = params.getPageToken();
+
+            hql += hlp.whereAnd() + " (tei.lastUpdated < '" + pageToken.getLastUpdatedString() + "' or (tei.lastUpdated = '"
+                + pageToken.getLastUpdatedString() + "' and tei.id < " + pageToken.getId() + ")) ";
+        }
+
+        if ( params.isKeysetPaging() )
+        {
+            hql += " " + KEYSET_ORDER;
+        }
+        else if ( params.hasProgram() )
         {
             hql += " order by case when pi.status = 'ACTIVE' then 1 when pi.status = 'COMPLETED' then 2 else 3 end asc, tei.lastUpdated desc ";
         }
@@ -359,8 +402,12 @@ public class HibernateTrackedEntityInstanceStore
         // Query
         // ---------------------------------------------------------------------
 
+        long start = System.currentTimeMillis();
+
         SqlRowSet rowSet = jdbcTemplate.queryForRowSet( sql );
 
+        recordSearch( params, System.currentTimeMillis() - start );
+
         log.debug( "Tracked entity instance query SQL: " + sql );
 
         List<Map<String, String>> list = new ArrayList<>();
@@ -414,8 +461,12 @@ public class HibernateTrackedEntityInstanceStore
         // Query
         // ---------------------------------------------------------------------
 
+        long start = System.currentTimeMillis();
+
         Integer count = jdbcTemplate.queryForObject( sql, Integer.class );
 
+        recordSearch( params, System.currentTimeMillis() - start );
+
         log.debug( "Tracked entity instance count SQL: " + sql );
 
         return count;
@@ -423,7 +474,9 @@ public class HibernateTrackedEntityInstanceStore
 
     /**
      * From, join and where clause. For attribute params, restriction is set in
-     * inner join. For query params, restriction is set in where clause.
+     * inner join. For query params, restriction is set in where clause. When
+     * the attribute search index is enabled, text restrictions are resolved
+     * against the search table instead of the attribute value table.
      */
     private String getFromWhereClause( TrackedEntityInstanceQueryParams params, SqlHelper hlp )
     {
@@ -504,10 +557,11 @@ public class HibernateTrackedEntityInstanceStore
                 {
                     final String encodedFilter = statementBuilder.encode( filter.getFilter(), false );
 
-                    final String queryCol = item.isNumeric() ? (col + ".value") : "lower(" + col + ".value)";
+                    final String sqlFilter = filter.getSqlOperator() + " "
+                        + StringUtils.lowerCase( filter.getSqlFilter( encodedFilter ) );
 
-                    sql += "and " + queryCol + " " + filter.getSqlOperator() + " "
-                        + StringUtils.lowerCase( filter.getSqlFilter( encodedFilter ) ) + " ";
+                    sql += item.isNumeric() ? "and " + col + ".value " + sqlFilter + " "
+                        : getAttributeFilterClause( item, filter, col, StringUtils.lowerCase( encodedFilter ), sqlFilter );
                 }
             }
         }
@@ -557,6 +611,13 @@ public class HibernateTrackedEntityInstanceStore
             {
                 final String query = statementBuilder.encode( queryToken, false );
 
+                if ( searchIndex.isEnabled() )
+                {
+                    sql += getIndexedQueryClause( params, StringUtils.lowerCase( query ) ) + " and ";
+
+                    continue;
+                }
+
                 sql += "(";
 
                 for ( QueryItem item : params.getAttributesAndFilters() )
@@ -580,6 +641,119 @@ public class HibernateTrackedEntityInstanceStore
         return sql;
     }
 
+    /**
+     * Returns the join restriction for the given filter on a text attribute.
+     * Equality filters on unique attributes are narrowed down through the
+     * in-process unique index, other filters are resolved through the search
+     * table if enabled.
+     */
+    private String getAttributeFilterClause( QueryItem item, QueryFilter filter, String col, String encodedFilter, String sqlFilter )
+    {
+        final String valueClause = "and lower(" + col + ".value) " + sqlFilter + " ";
+
+        if ( filter.isOperator( QueryOperator.EQ ) && item.getItem() instanceof TrackedEntityAttribute )
+        {
+            Set<Integer> candidates = searchIndex.getUniqueCandidates( (TrackedEntityAttribute) item.getItem(), filter.getFilter() );
+
+            if ( candidates != null )
+            {
+                return candidates.isEmpty() ? "and false " : "and " + col + ".trackedentityinstanceid in ("
+                    + getCommaDelimitedString( candidates ) + ") " + valueClause;
+            }
+        }
+
+        if ( searchIndex.isEnabled() )
+        {
+            return "and " + col + ".trackedentityinstanceid in (select trackedentityinstanceid from " + SEARCH_TABLE + " "
+                + "where trackedentityattributeid = " + item.getItem().getId() + " and " + getSearchValueClause( filter, encodedFilter, sqlFilter ) + ") ";
+        }
+
+        return valueClause;
+    }
+
+    /**
+     * Returns the restriction on the search table value for the given filter.
+     * Equality filters also restrict on the hash of the value, as values are
+     * indexed by hash to support values above the btree index entry limit.
+     */
+    private String getSearchValueClause( QueryFilter filter, String encodedFilter, String sqlFilter )
+    {
+        if ( filter.isOperator( QueryOperator.EQ ) )
+        {
+            return "md5(value) = md5('" + encodedFilter + "') and value " + sqlFilter;
+        }
+        else if ( filter.isOperator( QueryOperator.IN ) )
+        {
+            String hashes = QueryFilter.getFilterItems( encodedFilter ).stream()
+                .map( value -> "md5('" + value + "')" )
+                .collect( Collectors.joining( "," ) );
+
+            return "md5(value) in (" + hashes + ") and value " + sqlFilter;
+        }
+
+        return "value " + sqlFilter;
+    }
+
+    /**
+     * Returns the where restriction for the given query token through the
+     * search table. Word matches use the text search index, partial matches
+     * use the trigram index. The text search parser treats tokens such as
+     * emails, URLs and hyphenated words differently from the regular
+     * expression word match, so tokens which are not alphanumeric are matched
+     * by regular expression on the trigram index instead.
+     */
+    private String getIndexedQueryClause( TrackedEntityInstanceQueryParams params, String query )
+    {
+        List<Integer> attributeIds = new ArrayList<>();
+
+        for ( QueryItem item : params.getAttributesAndFilters() )
+        {
+            attributeIds.add( item.getItem().getId() );
+        }
+
+        final String match;
+
+        if ( params.getQuery().isOperator( QueryOperator.LIKE ) )
+        {
+            match = "value like '%" + query + "%'";
+        }
+        else if ( StringUtils.isAlphanumeric( query ) )
+        {
+            match = "tokens @@ plainto_tsquery('simple', '" + query + "')";
+        }
+        else
+        {
+            match = "value " + statementBuilder.getRegexpMatch() + " '" + statementBuilder.getRegexpWordStart()
+                + query + statementBuilder.getRegexpWordEnd() + "'";
+        }
+
+        return "tei.trackedentityinstanceid in (select trackedentityinstanceid from " + SEARCH_TABLE + " "
+            + "where trackedentityattributeid in (" + getCommaDelimitedString( attributeIds ) + ") and " + match + ")";
+    }
+
+    /**
+     * Records the execution time of the given query if it searches attribute
+     * values.
+     */
+    private void recordSearch( TrackedEntityInstanceQueryParams params, long execution )
+    {
+        String searchType = null;
+
+        if ( params.isOrQuery() && params.hasAttributesOrFilters() )
+        {
+            searchType = SEARCH_QUERY;
+        }
+        else if ( params.getAttributesAndFilters().stream().anyMatch( QueryItem::hasFilter ) )
+        {
+            searchType = SEARCH_FILTER;
+        }
+
+        if ( searchType != null )
+        {
+            searchIndex.recordSearch( searchIndex.isEnabled() ? searchType : searchType + SEARCH_SCAN_SUFFIX, execution );
+        }
+    }
+
     private String getOrderClause( TrackedEntityInstanceQueryParams params )
     {
         List<String> cols = getStaticGridColumns();
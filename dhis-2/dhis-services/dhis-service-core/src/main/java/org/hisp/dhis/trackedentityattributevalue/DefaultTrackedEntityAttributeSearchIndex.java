@@ -0,0 +1,339 @@
+package org.hisp.dhis.trackedentityattributevalue;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+/**
+ * Search index backed by the {@link #SEARCH_TABLE} table, which holds
+ * lower-cased values with a trigram index and word tokens with a text search
+ * index. Values of unique attributes are held in an in-process index which
+ * is loaded on first lookup, refreshed periodically and only extended on
+ * writes, so lookups give a superset of the actual matches. Indexes are held
+ * as futures so that only one thread loads an index, writes during a load
+ * are applied once it completes, and values missing from the index are
+ * re-checked against the search table. The in-process index is not used in
+ * cluster mode, where writes on other nodes are not visible.
+ */
+public class DefaultTrackedEntityAttributeSearchIndex
+    implements TrackedEntityAttributeSearchIndex
+{
+    private static final Log log = LogFactory.getLog( DefaultTrackedEntityAttributeSearchIndex.class );
+
+    private static final int MAX_UNIQUE_VALUES = 500000;
+
+    private static final long UNIQUE_INDEX_EXPIRY = TimeUnit.MINUTES.toMillis( 30 );
+
+    private static final String UPSERT_SQL =
+        "insert into " + SEARCH_TABLE + " (trackedentityinstanceid, trackedentityattributeid, value, tokens) " +
+        "values (?, ?, ?, to_tsvector('simple', ?)) " +
+        "on conflict (trackedentityinstanceid, trackedentityattributeid) " +
+        "do update set value = excluded.value, tokens = excluded.tokens";
+
+    private static final String UNIQUE_SQL =
+        "select trackedentityinstanceid from " + SEARCH_TABLE + " " +
+        "where trackedentityattributeid = ? and md5(value) = md5(?) and value = ?";
+
+    private static final String DELETE_SQL =
+        "delete from " + SEARCH_TABLE + " where trackedentityinstanceid = ? and trackedentityattributeid = ?";
+
+    private final Map<Integer, CompletableFuture<UniqueIndex>> uniqueIndexes = new ConcurrentHashMap<>();
+
+    private final Map<String, TrackedEntityAttributeSearchStats> statistics = new ConcurrentHashMap<>();
+
+    private volatile Boolean enabled;
+
+    // -------------------------------------------------------------------------
+    // Dependencies
+    // -------------------------------------------------------------------------
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DhisConfigurationProvider config;
+
+    // -------------------------------------------------------------------------
+    // TrackedEntityAttributeSearchIndex implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public boolean isEnabled()
+    {
+        if ( enabled == null )
+        {
+            Integer tables = jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.tables where table_name = '" + SEARCH_TABLE + "'", Integer.class );
+
+            enabled = tables != null && tables > 0;
+
+            log.info( "Tracked entity attribute search table enabled: " + enabled );
+        }
+
+        return enabled;
+    }
+
+    @Override
+    public void index( TrackedEntityAttributeValue attributeValue )
+    {
+        TrackedEntityAttribute attribute = attributeValue.getAttribute();
+
+        if ( attribute.isConfidentialBool() || attributeValue.getPlainValue() == null )
+        {
+            return;
+        }
+
+        int instanceId = attributeValue.getEntityInstance().getId();
+        String value = attributeValue.getPlainValue();
+
+        if ( isEnabled() )
+        {
+            jdbcTemplate.update( UPSERT_SQL, instanceId, attribute.getId(), StringUtils.lowerCase( value ), value );
+        }
+
+        // Applied once a concurrent load of the unique index completes
+
+        CompletableFuture<UniqueIndex> uniqueIndex = uniqueIndexes.get( attribute.getId() );
+
+        if ( uniqueIndex != null )
+        {
+            uniqueIndex.thenAccept( index -> index.add( StringUtils.lowerCase( value ), instanceId ) );
+        }
+    }
+
+    @Override
+    public void remove( TrackedEntityAttributeValue attributeValue )
+    {
+        if ( isEnabled() )
+        {
+            jdbcTemplate.update( DELETE_SQL, attributeValue.getEntityInstance().getId(), attributeValue.getAttribute().getId() );
+        }
+    }
+
+    @Override
+    public Set<Integer> getUniqueCandidates( TrackedEntityAttribute attribute, String value )
+    {
+        if ( !Boolean.TRUE.equals( attribute.isUnique() ) || attribute.isConfidentialBool() || config.isClusterEnabled() )
+        {
+            return null;
+        }
+
+        long start = System.currentTimeMillis();
+
+        UniqueIndex uniqueIndex = getUniqueIndex( attribute );
+
+        String lowerValue = StringUtils.lowerCase( value );
+
+        Set<Integer> candidates = uniqueIndex.get( lowerValue );
+
+        if ( candidates != null && candidates.isEmpty() )
+        {
+            // Value may have been written but not committed while the index
+            // was loaded, re-check the search table which is indexed by hash
+
+            candidates = isEnabled() ? getUniqueCandidatesFromSearchTable( attribute, lowerValue, uniqueIndex ) : null;
+        }
+
+        recordSearch( SEARCH_UNIQUE, System.currentTimeMillis() - start );
+
+        return candidates;
+    }
+
+    @Override
+    public void recordSearch( String searchType, long execution )
+    {
+        TrackedEntityAttributeSearchStats stats = statistics.computeIfAbsent( searchType, type -> new TrackedEntityAttributeSearchStats() );
+
+        stats.record( execution );
+
+        log.debug( String.format( "Tracked entity attribute search of type: '%s' took %d ms, stats: %s", searchType, execution, stats ) );
+    }
+
+    @Override
+    public Map<String, TrackedEntityAttributeSearchStats> getStatistics()
+    {
+        return Collections.unmodifiableMap( statistics );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the in-process index for the given unique attribute, loading it
+     * if missing or expired. The load runs outside of the map, a pending
+     * future is installed first so that concurrent lookups wait for the same
+     * load instead of loading again.
+     *
+     * @param attribute the unique {@link TrackedEntityAttribute}.
+     * @return a {@link UniqueIndex}.
+     */
+    private UniqueIndex getUniqueIndex( TrackedEntityAttribute attribute )
+    {
+        while ( true )
+        {
+            CompletableFuture<UniqueIndex> current = uniqueIndexes.get( attribute.getId() );
+
+            if ( current != null && !isExpired( current ) )
+            {
+                return current.join();
+            }
+
+            CompletableFuture<UniqueIndex> loading = new CompletableFuture<>();
+
+            boolean installed = current == null ? uniqueIndexes.putIfAbsent( attribute.getId(), loading ) == null
+                : uniqueIndexes.replace( attribute.getId(), current, loading );
+
+            if ( installed )
+            {
+                try
+                {
+                    UniqueIndex index = loadUniqueIndex( attribute );
+                    loading.complete( index );
+                    return index;
+                }
+                catch ( RuntimeException ex )
+                {
+                    uniqueIndexes.remove( attribute.getId(), loading );
+                    loading.completeExceptionally( ex );
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    private boolean isExpired( CompletableFuture<UniqueIndex> uniqueIndex )
+    {
+        return uniqueIndex.isDone() && !uniqueIndex.isCompletedExceptionally() && uniqueIndex.join().isExpired();
+    }
+
+    /**
+     * Loads the in-process index for the given unique attribute. Returns an
+     * unavailable index if the attribute has too many values to be held in
+     * memory.
+     *
+     * @param attribute the unique {@link TrackedEntityAttribute}.
+     * @return a {@link UniqueIndex}.
+     */
+    private UniqueIndex loadUniqueIndex( TrackedEntityAttribute attribute )
+    {
+        Integer count = jdbcTemplate.queryForObject(
+            "select count(*) from trackedentityattributevalue where trackedentityattributeid = ?", Integer.class, attribute.getId() );
+
+        if ( count == null || count > MAX_UNIQUE_VALUES )
+        {
+            log.info( String.format( "Attribute '%s' has %d values, skipping in-process unique index", attribute.getUid(), count ) );
+
+            return new UniqueIndex( null );
+        }
+
+        Map<String, Set<Integer>> values = new ConcurrentHashMap<>( count );
+
+        jdbcTemplate.query( "select trackedentityinstanceid, lower(value) from trackedentityattributevalue " +
+            "where trackedentityattributeid = ? and value is not null", (RowCallbackHandler) rs -> {
+                values.computeIfAbsent( rs.getString( 2 ), value -> ConcurrentHashMap.newKeySet() ).add( rs.getInt( 1 ) );
+            }, attribute.getId() );
+
+        log.info( String.format( "Loaded in-process unique index for attribute '%s' with %d values", attribute.getUid(), values.size() ) );
+
+        return new UniqueIndex( values );
+    }
+
+    /**
+     * Returns the tracked entity instances with the given value for the given
+     * attribute from the search table, and adds them to the given index.
+     */
+    private Set<Integer> getUniqueCandidatesFromSearchTable( TrackedEntityAttribute attribute, String value, UniqueIndex uniqueIndex )
+    {
+        Set<Integer> candidates = new HashSet<>( jdbcTemplate.queryForList( UNIQUE_SQL, Integer.class, attribute.getId(), value, value ) );
+
+        candidates.forEach( instanceId -> uniqueIndex.add( value, instanceId ) );
+
+        return candidates;
+    }
+
+    /**
+     * In-process index of lower-cased values to tracked entity instance
+     * identifiers for a unique attribute. Entries are only added between
+     * loads, never removed.
+     */
+    private static class UniqueIndex
+    {
+        private final Map<String, Set<Integer>> values;
+
+        private final long loaded = System.currentTimeMillis();
+
+        UniqueIndex( Map<String, Set<Integer>> values )
+        {
+            this.values = values;
+        }
+
+        boolean isExpired()
+        {
+            return System.currentTimeMillis() - loaded > UNIQUE_INDEX_EXPIRY;
+        }
+
+        Set<Integer> get( String value )
+        {
+            if ( values == null )
+            {
+                return null;
+            }
+
+            Set<Integer> instances = values.get( value );
+
+            return instances != null ? new HashSet<>( instances ) : new HashSet<>();
+        }
+
+        UniqueIndex add( String value, int instanceId )
+        {
+            if ( values != null )
+            {
+                values.computeIfAbsent( value, v -> ConcurrentHashMap.newKeySet() ).add( instanceId );
+            }
+
+            return this;
+        }
+    }
+}
@@ -79,6 +79,9 @@ public class DefaultTrackedEntityAttributeValueService
     @Autowired
     private DhisConfigurationProvider dhisConfigurationProvider;
 
+    @Autowired
+    private TrackedEntityAttributeSearchIndex searchIndex;
+
     // -------------------------------------------------------------------------
     // Implementation methods
     // -------------------------------------------------------------------------
@@ -93,6 +96,7 @@ public class DefaultTrackedEntityAttributeValueService
         trackedEntityAttributeValueAuditService.addTrackedEntityAttributeValueAudit( trackedEntityAttributeValueAudit );
         deleteFileValue( attributeValue );
         attributeValueStore.delete( attributeValue );
+        searchIndex.remove( attributeValue );
     }
 
     @Override
@@ -165,6 +169,7 @@ public class DefaultTrackedEntityAttributeValueService
         if ( attributeValue.getValue() != null )
         {
             attributeValueStore.saveVoid( attributeValue );
+            searchIndex.index( attributeValue );
 
             if ( attributeValue.getAttribute().isGenerated() && attributeValue.getAttribute().getTextPattern() != null )
             {
@@ -181,6 +186,7 @@ public class DefaultTrackedEntityAttributeValueService
         {
             deleteFileValue( attributeValue );
             attributeValueStore.delete( attributeValue );
+            searchIndex.remove( attributeValue );
         }
         else
         {
@@ -206,6 +212,7 @@ public class DefaultTrackedEntityAttributeValueService
             trackedEntityAttributeValueAuditService
                 .addTrackedEntityAttributeValueAudit( trackedEntityAttributeValueAudit );
             attributeValueStore.update( attributeValue );
+            searchIndex.index( attributeValue );
 
             if ( attributeValue.getAttribute().isGenerated() && attributeValue.getAttribute().getTextPattern() != null )
             {
@@ -0,0 +1,130 @@
+package org.hisp.dhis.expression;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.hisp.dhis.expression.MissingValueStrategy.NEVER_SKIP;
+import static org.hisp.dhis.expression.MissingValueStrategy.SKIP_IF_ALL_VALUES_MISSING;
+import static org.hisp.dhis.expression.MissingValueStrategy.SKIP_IF_ANY_VALUE_MISSING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hisp.dhis.common.DimensionalItemObject;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.system.util.MathUtils;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+public class ExpressionCompilerTest
+{
+    private static final double DELTA = 0.0001;
+
+    @Test
+    public void testArithmeticMatchesJep()
+    {
+        String[] expressions = {
+            "1 + 2 * 3", "(1 + 2) * 3", "10 / 4 - 1", "7 % 3", "2 ^ 3 ^ 2", "-2 ^ 2", "2 ^ -1",
+            "-(3 + 4) * -2", "1 + +2", "10 - 2 - 3", "100 / 10 / 5", ".5 * 4",
+            "3 > 2", "3 < 2", "2 >= 2", "2 <= 1", "2 == 2", "2 != 2", "1 && 0", "1 || 0", "!0", "!5",
+            "1 + 2 > 2 && 4 / 2 == 2", "IF( 1 > 0, 10, 20 )", "IF( 0, 10, 20 ) + 1",
+            "abs( -4 ) + sqrt( 16 )", "ln( 1 ) + log( 100 )" };
+
+        for ( String expression : expressions )
+        {
+            Double value = compile( expression ).getValue( new HashMap<>(), null, null, null, NEVER_SKIP );
+
+            assertEquals( expression, MathUtils.calculateExpression( expression ), value, DELTA );
+        }
+    }
+
+    @Test
+    public void testFunctionNameCase()
+    {
+        assertEquals( 10d, compile( "if( 1, 10, 20 )" ).getValue( new HashMap<>(), null, null, null, NEVER_SKIP ), DELTA );
+        assertFalse( ExpressionCompiler.compile( "ABS( 1 )" ).isPresent() );
+    }
+
+    @Test
+    public void testUnsupported()
+    {
+        assertFalse( ExpressionCompiler.compile( "AVG(#{a1234567890})" ).isPresent() );
+        assertFalse( ExpressionCompiler.compile( "isNull(#{a1234567890})" ).isPresent() );
+        assertFalse( ExpressionCompiler.compile( "sin(1)" ).isPresent() );
+        assertFalse( ExpressionCompiler.compile( "1 +" ).isPresent() );
+        assertFalse( ExpressionCompiler.compile( "(1 + 2" ).isPresent() );
+        assertFalse( ExpressionCompiler.compile( "#{invalid}" ).isPresent() );
+        assertFalse( ExpressionCompiler.compile( "" ).isPresent() );
+        assertFalse( ExpressionCompiler.compile( null ).isPresent() );
+    }
+
+    @Test
+    public void testItemsConstantsOrgUnitGroupsAndDays()
+    {
+        DataElement deA = new DataElement( "A" );
+        deA.setUid( "deabcdefghA" );
+        DataElement deB = new DataElement( "B" );
+        deB.setUid( "deabcdefghB" );
+
+        CompiledExpression expression = compile( "#{deabcdefghA} * 2 + #{deabcdefghB} + C{xxxxxxxxx25} * OUG{yyyyyyyyy20} + [days]" );
+
+        Map<DimensionalItemObject, Double> valueMap = ImmutableMap.of( deA, 3d, deB, 4d );
+
+        assertEquals( 3 * 2 + 4 + 0.5 * 10 + 31, expression.getValue( valueMap,
+            ImmutableMap.of( "xxxxxxxxx25", 0.5 ), ImmutableMap.of( "yyyyyyyyy20", 10 ), 31, NEVER_SKIP ), DELTA );
+
+        assertEquals( 3 * 2 + 4, expression.getValue( valueMap, null, null, null, NEVER_SKIP ), DELTA );
+    }
+
+    @Test
+    public void testMissingValueStrategy()
+    {
+        DataElement deA = new DataElement( "A" );
+        deA.setUid( "deabcdefghA" );
+
+        CompiledExpression expression = compile( "#{deabcdefghA} + #{deabcdefghB}" );
+
+        Map<DimensionalItemObject, Double> valueMap = ImmutableMap.of( deA, 3d );
+
+        assertEquals( 3d, expression.getValue( valueMap, null, null, null, NEVER_SKIP ), DELTA );
+        assertEquals( 3d, expression.getValue( valueMap, null, null, null, SKIP_IF_ALL_VALUES_MISSING ), DELTA );
+        assertNull( expression.getValue( valueMap, null, null, null, SKIP_IF_ANY_VALUE_MISSING ) );
+        assertNull( expression.getValue( new HashMap<>(), null, null, null, SKIP_IF_ALL_VALUES_MISSING ) );
+        assertTrue( expression.getValue( new HashMap<>(), null, null, null, null ) == 0d );
+    }
+
+    private CompiledExpression compile( String expression )
+    {
+        return ExpressionCompiler.compile( expression ).get();
+    }
+}
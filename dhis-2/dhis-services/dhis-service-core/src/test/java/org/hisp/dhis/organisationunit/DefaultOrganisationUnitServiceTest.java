@@ -0,0 +1,227 @@
+package org.hisp.dhis.organisationunit;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.hisp.dhis.cache.CacheInvalidation;
+import org.hisp.dhis.cache.LocalCacheInvalidationBus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+@RunWith( MockitoJUnitRunner.class )
+public class DefaultOrganisationUnitServiceTest
+{
+    @Mock
+    private OrganisationUnitStore organisationUnitStore;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LocalCacheInvalidationBus invalidationBus;
+
+    private List<CacheInvalidation> invalidations;
+
+    private DefaultOrganisationUnitService organisationUnitService;
+
+    private List<OrganisationUnitRelationship> relationships;
+
+    private OrganisationUnit unitA;
+
+    private OrganisationUnit unitB;
+
+    private OrganisationUnit unitC;
+
+    /**
+     * Hierarchy:
+     *
+     * A
+     * - B
+     * C
+     */
+    @Before
+    public void setUp()
+    {
+        relationships = Lists.newArrayList(
+            new OrganisationUnitRelationship( 0, 1 ),
+            new OrganisationUnitRelationship( 1, 2 ),
+            new OrganisationUnitRelationship( 0, 3 ) );
+
+        when( organisationUnitStore.getOrganisationUnitRelationships() ).thenReturn( relationships );
+
+        invalidations = new ArrayList<>();
+
+        invalidationBus = new LocalCacheInvalidationBus();
+        invalidationBus.subscribe( DefaultOrganisationUnitService.HIERARCHY_REGION, invalidations::add );
+
+        organisationUnitService = new DefaultOrganisationUnitService();
+        organisationUnitService.setOrganisationUnitStore( organisationUnitStore );
+        organisationUnitService.setTransactionManager( transactionManager );
+        organisationUnitService.setInvalidationBus( invalidationBus );
+        organisationUnitService.init();
+
+        // Parents are not set, so that only the index can resolve descendants
+
+        unitA = createOrganisationUnit( 1 );
+        unitB = createOrganisationUnit( 2 );
+        unitC = createOrganisationUnit( 3 );
+    }
+
+    @After
+    public void tearDown()
+    {
+        OrganisationUnitHierarchyVersion.setChangeListener( null );
+    }
+
+    @Test
+    public void testIsDescendantUsesIndex()
+    {
+        assertTrue( organisationUnitService.isDescendant( unitB, Sets.newHashSet( unitA ) ) );
+        assertTrue( organisationUnitService.isDescendant( unitA, Sets.newHashSet( unitA ) ) );
+        assertTrue( organisationUnitService.isDescendant( unitB, Lists.newArrayList( unitC, unitA ) ) );
+
+        assertFalse( organisationUnitService.isDescendant( unitA, Sets.newHashSet( unitB ) ) );
+        assertFalse( organisationUnitService.isDescendant( unitC, Sets.newHashSet( unitA ) ) );
+
+        verify( organisationUnitStore, times( 1 ) ).getOrganisationUnitRelationships();
+    }
+
+    @Test
+    public void testIndexRebuiltAfterLocalChange()
+    {
+        OrganisationUnitHierarchyIndex index = organisationUnitService.getOrganisationUnitHierarchyIndex();
+
+        assertSame( index, organisationUnitService.getOrganisationUnitHierarchyIndex() );
+
+        OrganisationUnitHierarchyVersion.increment();
+
+        OrganisationUnitHierarchyIndex rebuilt = organisationUnitService.getOrganisationUnitHierarchyIndex();
+
+        assertNotSame( index, rebuilt );
+        assertEquals( OrganisationUnitHierarchyVersion.get(), rebuilt.getVersion() );
+        assertSame( rebuilt, organisationUnitService.getOrganisationUnitHierarchyIndex() );
+
+        verify( organisationUnitStore, times( 2 ) ).getOrganisationUnitRelationships();
+
+        assertEquals( 1, invalidations.size() );
+        assertTrue( invalidations.get( 0 ).isAll() );
+    }
+
+    @Test
+    public void testIndexRebuiltAfterRemoteInvalidation()
+    {
+        OrganisationUnitHierarchyIndex index = organisationUnitService.getOrganisationUnitHierarchyIndex();
+
+        CacheInvalidation remote = new CacheInvalidation( "remote", DefaultOrganisationUnitService.HIERARCHY_REGION, null );
+
+        invalidationBus.publish( remote );
+
+        OrganisationUnitHierarchyIndex rebuilt = organisationUnitService.getOrganisationUnitHierarchyIndex();
+
+        assertNotSame( index, rebuilt );
+        assertEquals( OrganisationUnitHierarchyVersion.get(), rebuilt.getVersion() );
+
+        verify( organisationUnitStore, times( 2 ) ).getOrganisationUnitRelationships();
+
+        // Remote changes are not published again
+
+        assertEquals( 1, invalidations.size() );
+        assertSame( remote, invalidations.get( 0 ) );
+    }
+
+    @Test
+    public void testPreviousIndexServedWhileRebuilding()
+        throws Exception
+    {
+        OrganisationUnitHierarchyIndex index = organisationUnitService.getOrganisationUnitHierarchyIndex();
+
+        CountDownLatch loading = new CountDownLatch( 1 );
+        CountDownLatch release = new CountDownLatch( 1 );
+
+        when( organisationUnitStore.getOrganisationUnitRelationships() ).thenAnswer( invocation -> {
+            loading.countDown();
+            release.await();
+            return relationships;
+        } );
+
+        OrganisationUnitHierarchyVersion.increment();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try
+        {
+            Future<OrganisationUnitHierarchyIndex> rebuild = executor.submit( organisationUnitService::getOrganisationUnitHierarchyIndex );
+
+            assertTrue( loading.await( 10, TimeUnit.SECONDS ) );
+
+            // Callers during the rebuild get the previous index without loading the hierarchy
+
+            assertSame( index, organisationUnitService.getOrganisationUnitHierarchyIndex() );
+            assertSame( index, organisationUnitService.getOrganisationUnitHierarchyIndex() );
+
+            release.countDown();
+
+            OrganisationUnitHierarchyIndex rebuilt = rebuild.get( 10, TimeUnit.SECONDS );
+
+            assertNotSame( index, rebuilt );
+            assertSame( rebuilt, organisationUnitService.getOrganisationUnitHierarchyIndex() );
+
+            verify( organisationUnitStore, times( 2 ) ).getOrganisationUnitRelationships();
+        }
+        finally
+        {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private OrganisationUnit createOrganisationUnit( int id )
+    {
+        OrganisationUnit unit = new OrganisationUnit();
+        unit.setId( id );
+        return unit;
+    }
+}
@@ -445,6 +445,33 @@ public class OrganisationUnitServiceTest
         assertFalse( unit4.isDescendant( unit1 ) );
     }
 
+    @Test
+    public void testIsDescendantService()
+    {
+        OrganisationUnit unit1 = createOrganisationUnit( '1' );
+        organisationUnitService.addOrganisationUnit( unit1 );
+
+        OrganisationUnit unit2 = createOrganisationUnit( '2', unit1 );
+        unit1.getChildren().add( unit2 );
+        organisationUnitService.addOrganisationUnit( unit2 );
+
+        OrganisationUnit unit3 = createOrganisationUnit( '3', unit2 );
+        unit2.getChildren().add( unit3 );
+        organisationUnitService.addOrganisationUnit( unit3 );
+
+        OrganisationUnit unit4 = createOrganisationUnit( '4' );
+        organisationUnitService.addOrganisationUnit( unit4 );
+
+        assertTrue( organisationUnitService.isDescendant( unit1, Sets.newHashSet( unit1 ) ) );
+        assertTrue( organisationUnitService.isDescendant( unit2, Sets.newHashSet( unit1 ) ) );
+        assertTrue( organisationUnitService.isDescendant( unit3, Sets.newHashSet( unit1 ) ) );
+        assertTrue( organisationUnitService.isDescendant( unit2, Lists.newArrayList( unit1, unit3 ) ) );
+
+        assertFalse( organisationUnitService.isDescendant( unit2, Sets.newHashSet( unit3 ) ) );
+        assertFalse( organisationUnitService.isDescendant( unit4, Sets.newHashSet( unit1 ) ) );
+        assertFalse( organisationUnitService.isDescendant( unit4, new HashSet<>() ) );
+    }
+
     @Test
     public void testGetOrganisationUnitAtLevelAndBranch()
         throws Exception
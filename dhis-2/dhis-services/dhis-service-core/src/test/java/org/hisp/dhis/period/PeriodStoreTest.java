@@ -32,6 +32,8 @@ import org.hisp.dhis.DhisSpringTest;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.google.common.collect.Lists;
+
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.Iterator;
@@ -476,4 +478,56 @@ public class PeriodStoreTest
         assertNotNull( periodsC );
         assertEquals( 0, periodsC.size() );
     }
+
+    @Test
+    public void testReloadPeriods()
+    {
+        List<PeriodType> periodTypes = periodStore.getAllPeriodTypes();
+        Iterator<PeriodType> it = periodTypes.iterator();
+        PeriodType periodTypeA = it.next();
+        PeriodType periodTypeB = it.next();
+
+        Period periodA = new Period( periodTypeA, getDay( 1 ), getDay( 2 ) );
+        Period periodB = new Period( periodTypeB, getDay( 2 ), getDay( 3 ) );
+        periodStore.addPeriod( periodA );
+        periodStore.addPeriod( periodB );
+
+        List<Period> periods = Lists.newArrayList(
+            new Period( periodTypeA, getDay( 1 ), getDay( 2 ) ),
+            new Period( periodTypeA, getDay( 2 ), getDay( 3 ) ),
+            new Period( periodTypeB, getDay( 2 ), getDay( 3 ) ),
+            periodA );
+
+        List<Period> reloaded = periodStore.reloadPeriods( periods );
+
+        assertEquals( 4, reloaded.size() );
+        assertEquals( periodA.getId(), reloaded.get( 0 ).getId() );
+        assertNull( reloaded.get( 1 ) );
+        assertEquals( periodB.getId(), reloaded.get( 2 ).getId() );
+        assertSame( periodA, reloaded.get( 3 ) );
+    }
+
+    @Test
+    public void testReloadForceAddPeriods()
+    {
+        List<PeriodType> periodTypes = periodStore.getAllPeriodTypes();
+        Iterator<PeriodType> it = periodTypes.iterator();
+        PeriodType periodTypeA = it.next();
+
+        Period periodA = new Period( periodTypeA, getDay( 1 ), getDay( 2 ) );
+        periodStore.addPeriod( periodA );
+
+        List<Period> periods = Lists.newArrayList(
+            new Period( periodTypeA, getDay( 1 ), getDay( 2 ) ),
+            new Period( periodTypeA, getDay( 2 ), getDay( 3 ) ),
+            new Period( periodTypeA, getDay( 2 ), getDay( 3 ) ) );
+
+        List<Period> reloaded = periodStore.reloadForceAddPeriods( periods );
+
+        assertEquals( 3, reloaded.size() );
+        assertEquals( periodA.getId(), reloaded.get( 0 ).getId() );
+        assertTrue( reloaded.get( 1 ).getId() > 0 );
+        assertSame( reloaded.get( 1 ), reloaded.get( 2 ) );
+        assertEquals( 2, periodStore.getPeriodsByPeriodType( periodTypeA ).size() );
+    }
 }
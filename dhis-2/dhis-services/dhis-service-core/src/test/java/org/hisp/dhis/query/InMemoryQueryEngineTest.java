@@ -531,6 +531,34 @@ public class InMemoryQueryEngineTest
         assertEquals( "abcdefghijA", objects.get( 0 ).getUid() );
     }
 
+    @Test
+    public void sortNameDescPaged()
+    {
+        Schema schema = schemaService.getDynamicSchema( DataElement.class );
+
+        Query query = Query.from( schema );
+        query.setObjects( dataElements );
+        query.addOrder( new Order( schema.getProperty( "name" ), Direction.DESCENDING ) );
+        query.setFirstResult( 1 );
+        query.setMaxResults( 2 );
+        List<? extends IdentifiableObject> objects = queryEngine.query( query );
+
+        assertEquals( 2, objects.size() );
+
+        assertEquals( "deabcdefghE", objects.get( 0 ).getUid() );
+        assertEquals( "deabcdefghD", objects.get( 1 ).getUid() );
+    }
+
+    @Test
+    public void countEqQuery()
+    {
+        Query query = Query.from( schemaService.getDynamicSchema( DataElement.class ) );
+        query.setObjects( dataElements );
+        query.add( Restrictions.eq( "valueType", ValueType.NUMBER ) );
+
+        assertEquals( 2, queryEngine.count( query ) );
+    }
+
     @Test
     public void testLikeNameDeepPath()
     {
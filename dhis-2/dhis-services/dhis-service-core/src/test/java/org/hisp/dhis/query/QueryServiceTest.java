@@ -581,6 +581,22 @@ public class QueryServiceTest
         assertTrue( objects.isEmpty() );
     }
 
+    @Test
+    public void testCriteriaAndRootJunctionDEGCount()
+    {
+        Query query = Query.from( schemaService.getDynamicSchema( DataElementGroup.class ), Junction.Type.AND );
+        query.add( Restrictions.eq( "dataElements.id", "deabcdefghA" ) );
+        query.add( Restrictions.eq( "dataElements.id", "deabcdefghB" ) );
+
+        assertEquals( 1, queryService.count( query ) );
+
+        query = Query.from( schemaService.getDynamicSchema( DataElementGroup.class ), Junction.Type.AND );
+        query.add( Restrictions.eq( "dataElements.id", "deabcdefghA" ) );
+        query.add( Restrictions.eq( "dataElements.id", "deabcdefghD" ) );
+
+        assertEquals( 0, queryService.count( query ) );
+    }
+
     @Test
     public void testCriteriaOrRootJunctionDEG1()
     {
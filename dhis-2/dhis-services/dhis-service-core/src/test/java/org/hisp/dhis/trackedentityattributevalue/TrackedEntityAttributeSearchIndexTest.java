@@ -0,0 +1,131 @@
+package org.hisp.dhis.trackedentityattributevalue;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.hisp.dhis.DhisSpringTest;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.organisationunit.OrganisationUnitService;
+import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
+import org.hisp.dhis.trackedentity.TrackedEntityAttributeService;
+import org.hisp.dhis.trackedentity.TrackedEntityInstance;
+import org.hisp.dhis.trackedentity.TrackedEntityInstanceService;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+public class TrackedEntityAttributeSearchIndexTest
+    extends DhisSpringTest
+{
+    @Autowired
+    private TrackedEntityAttributeSearchIndex searchIndex;
+
+    @Autowired
+    private TrackedEntityAttributeValueService attributeValueService;
+
+    @Autowired
+    private TrackedEntityInstanceService entityInstanceService;
+
+    @Autowired
+    private OrganisationUnitService organisationUnitService;
+
+    @Autowired
+    private TrackedEntityAttributeService attributeService;
+
+    private TrackedEntityAttribute attributeA;
+
+    private TrackedEntityAttribute attributeB;
+
+    private TrackedEntityInstance entityInstanceA;
+
+    private TrackedEntityInstance entityInstanceB;
+
+    @Override
+    public void setUpTest()
+    {
+        OrganisationUnit organisationUnit = createOrganisationUnit( 'A' );
+        organisationUnitService.addOrganisationUnit( organisationUnit );
+
+        entityInstanceA = createTrackedEntityInstance( 'A', organisationUnit );
+        entityInstanceB = createTrackedEntityInstance( 'B', organisationUnit );
+
+        entityInstanceService.addTrackedEntityInstance( entityInstanceA );
+        entityInstanceService.addTrackedEntityInstance( entityInstanceB );
+
+        attributeA = createTrackedEntityAttribute( 'A' );
+        attributeA.setUnique( true );
+        attributeB = createTrackedEntityAttribute( 'B' );
+
+        attributeService.addTrackedEntityAttribute( attributeA );
+        attributeService.addTrackedEntityAttribute( attributeB );
+    }
+
+    @Test
+    public void testGetUniqueCandidates()
+    {
+        assertNotNull( searchIndex.getUniqueCandidates( attributeA, "Alpha" ) );
+
+        attributeValueService.addTrackedEntityAttributeValue( new TrackedEntityAttributeValue( attributeA, entityInstanceA, "Alpha" ) );
+        attributeValueService.addTrackedEntityAttributeValue( new TrackedEntityAttributeValue( attributeA, entityInstanceB, "Beta" ) );
+
+        Set<Integer> candidates = searchIndex.getUniqueCandidates( attributeA, "ALPHA" );
+
+        assertTrue( candidates.contains( entityInstanceA.getId() ) );
+        assertFalse( candidates.contains( entityInstanceB.getId() ) );
+        assertTrue( searchIndex.getUniqueCandidates( attributeA, "Beta" ).contains( entityInstanceB.getId() ) );
+    }
+
+    @Test
+    public void testGetUniqueCandidatesNonUniqueAttribute()
+    {
+        attributeValueService.addTrackedEntityAttributeValue( new TrackedEntityAttributeValue( attributeB, entityInstanceA, "Alpha" ) );
+
+        assertNull( searchIndex.getUniqueCandidates( attributeB, "Alpha" ) );
+    }
+
+    @Test
+    public void testGetStatistics()
+    {
+        searchIndex.recordSearch( "testSearch", 20 );
+        searchIndex.recordSearch( "testSearch", 40 );
+
+        TrackedEntityAttributeSearchStats stats = searchIndex.getStatistics().get( "testSearch" );
+
+        assertNotNull( stats );
+        assertEquals( 2, stats.getCount() );
+        assertEquals( 30, stats.getAverageExecution() );
+        assertEquals( 40, stats.getMaxExecution() );
+    }
+}
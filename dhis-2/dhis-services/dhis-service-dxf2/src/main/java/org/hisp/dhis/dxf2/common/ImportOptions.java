@@ -92,6 +92,10 @@ public class ImportOptions
 
     private boolean force;
 
+    private boolean bulkImport;
+
+    private boolean parallelImport;
+
     private String filename;
 
     private NotificationLevel notificationLevel;
@@ -132,6 +136,8 @@ public class ImportOptions
         options.requireAttributeOptionCombo = this.requireAttributeOptionCombo;
         options.skipPatternValidation = this.skipPatternValidation;
         options.force = this.force;
+        options.bulkImport = this.bulkImport;
+        options.parallelImport = this.parallelImport;
         options.filename = this.filename;
         options.notificationLevel = this.notificationLevel;
         options.ignoreEmptyCollection = this.ignoreEmptyCollection;
@@ -344,6 +350,29 @@ public class ImportOptions
         return force;
     }
 
+    /**
+     * Indicates whether to stage data values and events in bulk and write them
+     * through set-based SQL instead of saving each object. Applies to data value
+     * and event imports on PostgreSQL.
+     */
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public boolean isBulkImport()
+    {
+        return bulkImport;
+    }
+
+    /**
+     * Indicates whether to write data values on multiple threads, where data
+     * values are partitioned by organisation unit.
+     */
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public boolean isParallelImport()
+    {
+        return parallelImport;
+    }
+
     @JsonProperty
     @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
     public String getFilename()
@@ -542,6 +571,18 @@ public class ImportOptions
         return this;
     }
 
+    public ImportOptions setBulkImport( boolean bulkImport )
+    {
+        this.bulkImport = bulkImport;
+        return this;
+    }
+
+    public ImportOptions setParallelImport( boolean parallelImport )
+    {
+        this.parallelImport = parallelImport;
+        return this;
+    }
+
     public ImportOptions setFilename( String filename )
     {
         this.filename = filename;
@@ -577,6 +618,8 @@ public class ImportOptions
             .add( "requireCategoryOptionCombo", requireCategoryOptionCombo )
             .add( "requireAttributeOptionCombo", requireAttributeOptionCombo )
             .add( "force", force )
+            .add( "bulkImport", bulkImport )
+            .add( "parallelImport", parallelImport )
             .toString();
     }
 }
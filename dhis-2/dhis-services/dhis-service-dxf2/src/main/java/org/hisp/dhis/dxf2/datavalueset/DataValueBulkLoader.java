@@ -0,0 +1,391 @@
+package org.hisp.dhis.dxf2.datavalueset;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.datavalue.DataValue;
+import org.hisp.dhis.dxf2.importsummary.ImportConflict;
+import org.hisp.dhis.dxf2.importsummary.ImportCount;
+import org.hisp.dhis.dxf2.importsummary.ImportSummary;
+import org.hisp.dhis.importexport.ImportStrategy;
+import org.hisp.dhis.jdbc.copy.CopyWriter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Writes validated data values to the database in bulk. Data values are
+ * collected in chunks, and each chunk is streamed through the PostgreSQL COPY
+ * protocol into a temporary staging table. The state of existing data values,
+ * audits and the final inserts, updates and deletes are then resolved with a
+ * handful of set-based statements per chunk instead of one lookup per value.
+ * Each chunk is written in a single transaction and the staging table is
+ * dropped on commit.
+ * <p>
+ * Duplicate data values within a chunk are reported as conflicts, and the
+ * last value for a given data element, period, org unit, category option
+ * combo and attribute option combo is imported.
+ */
+public class DataValueBulkLoader
+{
+    private static final Log log = LogFactory.getLog( DataValueBulkLoader.class );
+
+    private static final int CHUNK_SIZE = 10000;
+
+    private static final String STAGING_TABLE = "_datavalueimport";
+
+    private static final String KEY_JOIN =
+        "dv.dataelementid = s.dataelementid and dv.periodid = s.periodid and dv.sourceid = s.sourceid " +
+        "and dv.categoryoptioncomboid = s.categoryoptioncomboid and dv.attributeoptioncomboid = s.attributeoptioncomboid";
+
+    private static final String NULL_VALUE = "(s.value is null and s.comment is null)";
+
+    private static final int EXISTING_DELETED = 1;
+
+    private static final int EXISTING = 2;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ImportStrategy strategy;
+
+    private final boolean skipExistingCheck;
+
+    private final List<DataValue> chunk = new ArrayList<>( CHUNK_SIZE );
+
+    private final List<ImportConflict> conflicts = new ArrayList<>();
+
+    private int importCount = 0;
+
+    private int updateCount = 0;
+
+    private int deleteCount = 0;
+
+    /**
+     * @param jdbcTemplate the {@link JdbcTemplate}.
+     * @param strategy the import strategy.
+     * @param skipExistingCheck whether to skip the check for existing data
+     *        values, in which case data values are only inserted.
+     */
+    public DataValueBulkLoader( JdbcTemplate jdbcTemplate, ImportStrategy strategy, boolean skipExistingCheck )
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.strategy = strategy;
+        this.skipExistingCheck = skipExistingCheck;
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Indicates whether the database behind the given {@link JdbcTemplate}
+     * supports bulk loading, which is the case for PostgreSQL.
+     *
+     * @param jdbcTemplate the {@link JdbcTemplate}.
+     * @return true if bulk loading is supported.
+     */
+    public static boolean isSupported( JdbcTemplate jdbcTemplate )
+    {
+        Boolean supported = jdbcTemplate.execute( (ConnectionCallback<Boolean>) CopyWriter::isSupported );
+
+        return Boolean.TRUE.equals( supported );
+    }
+
+    /**
+     * Adds a validated data value. The data value is written to the database
+     * when the current chunk is full.
+     *
+     * @param dataValue the data value.
+     */
+    public void add( DataValue dataValue )
+    {
+        chunk.add( dataValue );
+
+        if ( chunk.size() >= CHUNK_SIZE )
+        {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the remaining data values and adds conflicts for duplicate data
+     * values to the given import summary.
+     *
+     * @param summary the {@link ImportSummary}.
+     * @return the {@link ImportCount} with the number of imported, updated and
+     *         deleted data values. The ignored count is not set.
+     */
+    public ImportCount finish( ImportSummary summary )
+    {
+        flush();
+
+        summary.getConflicts().addAll( conflicts );
+
+        return new ImportCount( importCount, updateCount, 0, deleteCount );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void flush()
+    {
+        if ( chunk.isEmpty() )
+        {
+            return;
+        }
+
+        jdbcTemplate.execute( (ConnectionCallback<Void>) connection -> {
+            writeChunk( connection );
+            return null;
+        } );
+
+        log.debug( String.format( "Wrote data value chunk of size: %d, import: %d, update: %d, delete: %d",
+            chunk.size(), importCount, updateCount, deleteCount ) );
+
+        chunk.clear();
+    }
+
+    /**
+     * Writes the current chunk in a single transaction. If the connection
+     * takes part in an outer transaction, the outer transaction is used.
+     */
+    private void writeChunk( Connection connection )
+        throws SQLException
+    {
+        boolean autoCommit = connection.getAutoCommit();
+
+        if ( autoCommit )
+        {
+            connection.setAutoCommit( false );
+        }
+
+        try ( Statement statement = connection.createStatement() )
+        {
+            statement.execute( getCreateStagingTableSql() );
+
+            copyChunk( connection );
+
+            statement.execute( "create index on " + STAGING_TABLE + " (dataelementid, periodid, sourceid, categoryoptioncomboid, attributeoptioncomboid)" );
+            statement.execute( "analyze " + STAGING_TABLE );
+
+            removeDuplicates( statement );
+
+            if ( !skipExistingCheck )
+            {
+                statement.executeUpdate(
+                    "update " + STAGING_TABLE + " s " +
+                    "set existing = case when dv.deleted then " + EXISTING_DELETED + " else " + EXISTING + " end " +
+                    "from datavalue dv " +
+                    "where " + KEY_JOIN );
+            }
+
+            if ( strategy.isCreateAndUpdate() || strategy.isUpdate() )
+            {
+                statement.executeUpdate( getInsertAuditSql( "case when " + NULL_VALUE + " or s.deleted then 'DELETE' else 'UPDATE' end" ) );
+
+                deleteCount += statement.executeUpdate( getUpdateSql( "true", "and (" + NULL_VALUE + " or s.deleted)" ) );
+                updateCount += statement.executeUpdate( getUpdateSql( "false", "and not " + NULL_VALUE + " and not s.deleted" ) );
+            }
+            else if ( strategy.isDelete() )
+            {
+                statement.executeUpdate( getInsertAuditSql( "'DELETE'" ) );
+
+                deleteCount += statement.executeUpdate( getUpdateSql( "true", "" ) );
+            }
+
+            if ( strategy.isCreateAndUpdate() || strategy.isCreate() )
+            {
+                importCount += statement.executeUpdate( getUpsertSql() );
+            }
+
+            statement.execute( "drop table " + STAGING_TABLE );
+
+            if ( autoCommit )
+            {
+                connection.commit();
+            }
+        }
+        catch ( SQLException | RuntimeException ex )
+        {
+            if ( autoCommit )
+            {
+                connection.rollback();
+            }
+
+            throw ex;
+        }
+        finally
+        {
+            if ( autoCommit )
+            {
+                connection.setAutoCommit( true );
+            }
+        }
+    }
+
+    private void copyChunk( Connection connection )
+        throws SQLException
+    {
+        try ( CopyWriter writer = new CopyWriter( connection, STAGING_TABLE ) )
+        {
+            for ( int i = 0; i < chunk.size(); i++ )
+            {
+                DataValue dv = chunk.get( i );
+
+                writer.write( new Object[] { i,
+                    dv.getDataElement().getId(),
+                    dv.getPeriod().getId(),
+                    dv.getSource().getId(),
+                    dv.getCategoryOptionCombo().getId(),
+                    dv.getAttributeOptionCombo().getId(),
+                    dv.getValue(),
+                    dv.getStoredBy(),
+                    dv.getCreated(),
+                    dv.getLastUpdated(),
+                    dv.getComment(),
+                    dv.isFollowup(),
+                    dv.isDeleted(),
+                    0 } );
+            }
+
+            writer.finish();
+        }
+    }
+
+    /**
+     * Reports every data value which is followed by another data value with
+     * the same key as a conflict and removes it from the staging table.
+     */
+    private void removeDuplicates( Statement statement )
+        throws SQLException
+    {
+        final String duplicateSql =
+            "from " + STAGING_TABLE + " s " +
+            "where exists (" +
+                "select 1 from " + STAGING_TABLE + " dv " +
+                "where " + KEY_JOIN + " and dv.rownum > s.rownum)";
+
+        try ( ResultSet rs = statement.executeQuery( "select s.rownum " + duplicateSql ) )
+        {
+            while ( rs.next() )
+            {
+                DataValue dv = chunk.get( rs.getInt( 1 ) );
+
+                conflicts.add( new ImportConflict( dv.getDataElement().getUid(), String.format(
+                    "Duplicate data value for period: %s, org unit: %s, category option combo: %s and attribute option combo: %s, last value was used",
+                    dv.getPeriod().getIsoDate(), dv.getSource().getUid(), dv.getCategoryOptionCombo().getUid(), dv.getAttributeOptionCombo().getUid() ) ) );
+            }
+        }
+
+        statement.executeUpdate( "delete " + duplicateSql );
+    }
+
+    private String getCreateStagingTableSql()
+    {
+        return "create temporary table " + STAGING_TABLE + " (" +
+            "rownum integer not null, " +
+            "dataelementid bigint not null, " +
+            "periodid bigint not null, " +
+            "sourceid bigint not null, " +
+            "categoryoptioncomboid bigint not null, " +
+            "attributeoptioncomboid bigint not null, " +
+            "value varchar(50000), " +
+            "storedby varchar(255), " +
+            "created timestamp, " +
+            "lastupdated timestamp, " +
+            "comment varchar(50000), " +
+            "followup boolean, " +
+            "deleted boolean not null, " +
+            "existing integer not null) " +
+            "on commit drop";
+    }
+
+    /**
+     * Returns SQL for auditing existing, non-deleted data values with their
+     * current value.
+     *
+     * @param auditType the SQL expression for the audit type.
+     */
+    private String getInsertAuditSql( String auditType )
+    {
+        return
+            "insert into datavalueaudit (datavalueauditid, dataelementid, periodid, organisationunitid, " +
+                "categoryoptioncomboid, attributeoptioncomboid, value, modifiedby, created, audittype) " +
+            "select nextval('hibernate_sequence'), s.dataelementid, s.periodid, s.sourceid, " +
+                "s.categoryoptioncomboid, s.attributeoptioncomboid, dv.value, s.storedby, now(), " + auditType + " " +
+            "from " + STAGING_TABLE + " s " +
+            "inner join datavalue dv on " + KEY_JOIN + " " +
+            "where s.existing = " + EXISTING;
+    }
+
+    /**
+     * Returns SQL for updating existing, non-deleted data values.
+     *
+     * @param deleted the SQL expression for the deleted flag.
+     * @param filter the additional filter on the staging table.
+     */
+    private String getUpdateSql( String deleted, String filter )
+    {
+        return
+            "update datavalue dv " +
+            "set value = s.value, storedby = s.storedby, created = s.created, lastupdated = s.lastupdated, " +
+                "comment = s.comment, followup = s.followup, deleted = " + deleted + " " +
+            "from " + STAGING_TABLE + " s " +
+            "where " + KEY_JOIN + " and s.existing = " + EXISTING + " " + filter;
+    }
+
+    /**
+     * Returns SQL for inserting new data values and restoring soft deleted
+     * data values. When the existing check is skipped, data values which
+     * already exist are left untouched.
+     */
+    private String getUpsertSql()
+    {
+        String conflictAction = skipExistingCheck ? "do nothing" :
+            "do update set value = excluded.value, storedby = excluded.storedby, created = excluded.created, " +
+                "lastupdated = excluded.lastupdated, comment = excluded.comment, followup = excluded.followup, deleted = excluded.deleted";
+
+        return
+            "insert into datavalue (dataelementid, periodid, sourceid, categoryoptioncomboid, attributeoptioncomboid, " +
+                "value, storedby, created, lastupdated, comment, followup, deleted) " +
+            "select s.dataelementid, s.periodid, s.sourceid, s.categoryoptioncomboid, s.attributeoptioncomboid, " +
+                "s.value, s.storedby, s.created, s.lastupdated, s.comment, s.followup, s.deleted " +
+            "from " + STAGING_TABLE + " s " +
+            "where s.existing < " + EXISTING + " and not " + NULL_VALUE + " " +
+            "on conflict (dataelementid, periodid, sourceid, categoryoptioncomboid, attributeoptioncomboid) " + conflictAction;
+    }
+}
@@ -64,6 +64,7 @@ import org.hisp.dhis.common.IllegalQueryException;
 import org.hisp.dhis.commons.collection.CachingMap;
 import org.hisp.dhis.commons.util.DebugUtils;
 import org.hisp.dhis.commons.util.StreamUtils;
+import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.dataapproval.DataApproval;
 import org.hisp.dhis.dataapproval.DataApprovalService;
 import org.hisp.dhis.dataapproval.DataApprovalWorkflow;
@@ -121,6 +122,7 @@ import org.hisp.quick.BatchHandler;
 import org.hisp.quick.BatchHandlerFactory;
 import org.hisp.staxwax.factory.XMLFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import com.csvreader.CsvReader;
 
@@ -136,6 +138,7 @@ public class DefaultDataValueSetService
 
     private static final String ERROR_OBJECT_NEEDED_TO_COMPLETE = "Must be provided to complete data set";
     private static final int CACHE_MISS_THRESHOLD = 250;
+    private static final int MAX_IMPORT_THREADS = 8;
 
     @Autowired
     private IdentifiableObjectManager identifiableObjectManager;
@@ -194,6 +197,9 @@ public class DefaultDataValueSetService
     @Autowired
     private AggregateAccessManager accessManager;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     // Set methods for test purposes
 
     public void setBatchHandlerFactory( BatchHandlerFactory batchHandlerFactory )
@@ -635,6 +641,37 @@ public class DefaultDataValueSetService
     {
         importOptions = ObjectUtils.firstNonNull( importOptions, ImportOptions.getDefaultImportOptions() );
 
+        PartitionedDataValueWriter parallelWriter = importOptions.isParallelImport() ?
+            new PartitionedDataValueWriter( batchHandlerFactory, getImportThreads() ) : null;
+
+        try
+        {
+            return saveDataValueSet( importOptions, id, dataValueSet, parallelWriter );
+        }
+        catch ( RuntimeException ex )
+        {
+            if ( parallelWriter != null )
+            {
+                parallelWriter.cancel();
+            }
+
+            throw ex;
+        }
+    }
+
+    /**
+     * Imports the given data value set.
+     *
+     * @param importOptions the {@link ImportOptions}.
+     * @param id the {@link JobConfiguration}.
+     * @param dataValueSet the {@link DataValueSet}.
+     * @param parallelWriter the writer for parallel import, which is started
+     *        unless bulk import is used, can be null.
+     * @return the {@link ImportSummary}.
+     */
+    private ImportSummary saveDataValueSet( ImportOptions importOptions, JobConfiguration id, DataValueSet dataValueSet,
+        PartitionedDataValueWriter parallelWriter )
+    {
         Clock clock = new Clock( log ).startClock().logTime( "Starting data value import, options: " + importOptions );
         NotificationLevel notificationLevel = importOptions.getNotificationLevel( INFO );
         notifier.clear( id ).notify( id, notificationLevel, "Process started" );
@@ -821,6 +858,20 @@ public class DefaultDataValueSetService
         BatchHandler<DataValue> dataValueBatchHandler = batchHandlerFactory.createBatchHandler( DataValueBatchHandler.class ).init();
         BatchHandler<DataValueAudit> auditBatchHandler = batchHandlerFactory.createBatchHandler( DataValueAuditBatchHandler.class ).init();
 
+        DataValueBulkLoader bulkLoader = importOptions.isBulkImport() && !dryRun && DataValueBulkLoader.isSupported( jdbcTemplate ) ?
+            new DataValueBulkLoader( jdbcTemplate, strategy, skipExistingCheck ) : null;
+
+        if ( bulkLoader != null )
+        {
+            parallelWriter = null;
+        }
+        else if ( parallelWriter != null )
+        {
+            parallelWriter.start( strategy, skipExistingCheck, dryRun );
+        }
+
+        log.info( String.format( "Bulk import: %b, parallel import: %b", bulkLoader != null, parallelWriter != null ) );
+
         int importCount = 0;
         int updateCount = 0;
         int deleteCount = 0;
@@ -934,7 +985,7 @@ public class DefaultDataValueSetService
                 }
             }
 
-            boolean inUserHierarchy = orgUnitInHierarchyMap.get( orgUnit.getUid(), () -> orgUnit.isDescendant( currentOrgUnits ) );
+            boolean inUserHierarchy = orgUnitInHierarchyMap.get( orgUnit.getUid(), () -> organisationUnitService.isDescendant( orgUnit, currentOrgUnits ) );
 
             if ( !inUserHierarchy )
             {
@@ -948,32 +999,26 @@ public class DefaultDataValueSetService
                 continue;
             }
 
-            dataValue.setValueForced(
-                ValidationUtils.normalizeBoolean( dataValue.getValue(), dataElement.getValueType() ) );
+            // Value checks only need the data element, for parallel imports
+            // they run on the writer threads
 
-            String valueValid = ValidationUtils.dataValueIsValid( dataValue.getValue(), dataElement );
-
-            if ( valueValid != null )
-            {
-                summary.getConflicts().add( new ImportConflict( dataValue.getValue(), i18n.getString( valueValid ) + ", must match data element type: " + dataElement.getUid() ) );
-                continue;
-            }
+            final boolean writerValidation = parallelWriter != null && !dataElement.isFileType();
 
-            String commentValid = ValidationUtils.commentIsValid( dataValue.getComment() );
+            final Optional<Set<String>> optionCodes = dataElementOptionsMap.get( dataElement.getUid(), () -> dataElement.hasOptionSet() ?
+                Optional.of( dataElement.getOptionSet().getOptionCodesAsSet() ) : Optional.empty() );
 
-            if ( commentValid != null )
+            if ( !writerValidation )
             {
-                summary.getConflicts().add( new ImportConflict( "Comment", i18n.getString( commentValid ) ) );
-                continue;
-            }
+                dataValue.setValueForced(
+                    ValidationUtils.normalizeBoolean( dataValue.getValue(), dataElement.getValueType() ) );
 
-            Optional<Set<String>> optionCodes = dataElementOptionsMap.get( dataElement.getUid(), () -> dataElement.hasOptionSet() ?
-                Optional.of( dataElement.getOptionSet().getOptionCodesAsSet() ) : Optional.empty() );
+                ImportConflict valueConflict = validateValue( dataValue.getValue(), dataValue.getComment(), dataElement, optionCodes, i18n );
 
-            if ( optionCodes.isPresent() && !optionCodes.get().contains( dataValue.getValue() ) )
-            {
-                summary.getConflicts().add( new ImportConflict( dataValue.getValue(), "Data value is not a valid option of the data element option set: " + dataElement.getUid() ) );
-                continue;
+                if ( valueConflict != null )
+                {
+                    summary.getConflicts().add( valueConflict );
+                    continue;
+                }
             }
 
             // -----------------------------------------------------------------
@@ -1045,19 +1090,22 @@ public class DefaultDataValueSetService
                 continue;
             }
 
-            boolean zeroAndInsignificant = ValidationUtils.dataValueIsZeroAndInsignificant( dataValue.getValue(), dataElement );
-
-            if ( zeroAndInsignificant )
+            if ( !writerValidation )
             {
-                continue; // Ignore value
-            }
+                boolean zeroAndInsignificant = ValidationUtils.dataValueIsZeroAndInsignificant( dataValue.getValue(), dataElement );
+
+                if ( zeroAndInsignificant )
+                {
+                    continue; // Ignore value
+                }
 
-            String storedByValid = ValidationUtils.storedByIsValid( dataValue.getStoredBy() );
+                ImportConflict storedByConflict = validateStoredBy( dataValue.getStoredBy(), i18n );
 
-            if ( storedByValid != null )
-            {
-                summary.getConflicts().add( new ImportConflict( dataValue.getStoredBy(), i18n.getString( storedByValid ) ) );
-                continue;
+                if ( storedByConflict != null )
+                {
+                    summary.getConflicts().add( storedByConflict );
+                    continue;
+                }
             }
 
             String storedBy = dataValue.getStoredBy() == null || dataValue.getStoredBy().trim().isEmpty() ? currentUserName : dataValue.getStoredBy();
@@ -1077,7 +1125,7 @@ public class DefaultDataValueSetService
             if ( !attrOptionComboOrgUnitMap.get( attrOptionCombo.getUid() + orgUnit.getUid(), () ->
             {
                 Set<OrganisationUnit> aocOrgUnits = aoc.getOrganisationUnits();
-                return aocOrgUnits == null || orgUnit.isDescendant( aocOrgUnits );
+                return aocOrgUnits == null || organisationUnitService.isDescendant( orgUnit, aocOrgUnits );
             } ) )
             {
                 summary.getConflicts().add( new ImportConflict( orgUnit.getUid(),
@@ -1172,6 +1220,23 @@ public class DefaultDataValueSetService
             internalValue.setFollowup( dataValue.getFollowup() );
             internalValue.setDeleted( BooleanUtils.isTrue( dataValue.getDeleted() ) );
 
+            if ( bulkLoader != null && !dataElement.isFileType() )
+            {
+                bulkLoader.add( internalValue );
+                continue;
+            }
+
+            if ( writerValidation )
+            {
+                final String value = dataValue.getValue();
+                final String comment = dataValue.getComment();
+                final String rawStoredBy = dataValue.getStoredBy();
+
+                parallelWriter.write( internalValue, conflicts -> validateOnWriter(
+                    internalValue, value, comment, rawStoredBy, dataElement, optionCodes, i18n, conflicts ) );
+                continue;
+            }
+
             // -----------------------------------------------------------------
             // Save, update or delete data value
             // -----------------------------------------------------------------
@@ -1298,6 +1363,24 @@ public class DefaultDataValueSetService
         dataValueBatchHandler.flush();
         auditBatchHandler.flush();
 
+        if ( bulkLoader != null )
+        {
+            ImportCount bulkCount = bulkLoader.finish( summary );
+
+            importCount += bulkCount.getImported();
+            updateCount += bulkCount.getUpdated();
+            deleteCount += bulkCount.getDeleted();
+        }
+
+        if ( parallelWriter != null )
+        {
+            ImportCount parallelCount = parallelWriter.finish( summary );
+
+            importCount += parallelCount.getImported();
+            updateCount += parallelCount.getUpdated();
+            deleteCount += parallelCount.getDeleted();
+        }
+
         int ignores = totalCount - importCount - updateCount - deleteCount;
 
         summary.setImportCount( new ImportCount( importCount, updateCount, ignores, deleteCount ) );
@@ -1316,6 +1399,92 @@ public class DefaultDataValueSetService
     // Supportive methods
     // -------------------------------------------------------------------------
 
+    /**
+     * Returns the number of threads to use for parallel data value imports.
+     * Leaves one core for the thread validating the data values, and is
+     * capped to limit the number of database connections in use.
+     */
+    private int getImportThreads()
+    {
+        int threads = SystemUtils.getCpuCores();
+
+        if ( threads > 2 )
+        {
+            threads--;
+        }
+
+        return Math.min( threads, MAX_IMPORT_THREADS );
+    }
+
+    /**
+     * Validates the value and comment of a data value against its data
+     * element.
+     *
+     * @return a conflict if the data value is not valid, null otherwise.
+     */
+    private static ImportConflict validateValue( String value, String comment, DataElement dataElement,
+        Optional<Set<String>> optionCodes, I18n i18n )
+    {
+        String valueValid = ValidationUtils.dataValueIsValid( value, dataElement );
+
+        if ( valueValid != null )
+        {
+            return new ImportConflict( value, i18n.getString( valueValid ) + ", must match data element type: " + dataElement.getUid() );
+        }
+
+        String commentValid = ValidationUtils.commentIsValid( comment );
+
+        if ( commentValid != null )
+        {
+            return new ImportConflict( "Comment", i18n.getString( commentValid ) );
+        }
+
+        if ( optionCodes.isPresent() && !optionCodes.get().contains( value ) )
+        {
+            return new ImportConflict( value, "Data value is not a valid option of the data element option set: " + dataElement.getUid() );
+        }
+
+        return null;
+    }
+
+    private static ImportConflict validateStoredBy( String storedBy, I18n i18n )
+    {
+        String storedByValid = ValidationUtils.storedByIsValid( storedBy );
+
+        return storedByValid != null ? new ImportConflict( storedBy, i18n.getString( storedByValid ) ) : null;
+    }
+
+    /**
+     * Runs the value checks of a data value of a parallel import on a writer
+     * thread, and sets the normalized value on the data value to write.
+     *
+     * @return true if the data value is to be written.
+     */
+    private static boolean validateOnWriter( DataValue internalValue, String value, String comment, String storedBy,
+        DataElement dataElement, Optional<Set<String>> optionCodes, I18n i18n, List<ImportConflict> conflicts )
+    {
+        String normalizedValue = ValidationUtils.normalizeBoolean( value, dataElement.getValueType() );
+
+        ImportConflict conflict = validateValue( normalizedValue, comment, dataElement, optionCodes, i18n );
+
+        if ( conflict == null && ValidationUtils.dataValueIsZeroAndInsignificant( normalizedValue, dataElement ) )
+        {
+            return false; // Ignore value
+        }
+
+        conflict = conflict != null ? conflict : validateStoredBy( storedBy, i18n );
+
+        if ( conflict != null )
+        {
+            conflicts.add( conflict );
+            return false;
+        }
+
+        internalValue.setValue( trimToNull( normalizedValue ) );
+
+        return true;
+    }
+
     private void handleComplete( DataSet dataSet, Date completeDate, Period period, OrganisationUnit orgUnit,
         CategoryOptionCombo attributeOptionCombo, String currentUserName, ImportSummary summary )
     {
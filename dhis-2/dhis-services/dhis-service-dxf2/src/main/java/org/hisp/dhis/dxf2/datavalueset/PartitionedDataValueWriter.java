@@ -0,0 +1,413 @@
+package org.hisp.dhis.dxf2.datavalueset;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.common.AuditType;
+import org.hisp.dhis.datavalue.DataValue;
+import org.hisp.dhis.datavalue.DataValueAudit;
+import org.hisp.dhis.dxf2.importsummary.ImportConflict;
+import org.hisp.dhis.dxf2.importsummary.ImportCount;
+import org.hisp.dhis.dxf2.importsummary.ImportSummary;
+import org.hisp.dhis.importexport.ImportStrategy;
+import org.hisp.dhis.jdbc.batchhandler.DataValueAuditBatchHandler;
+import org.hisp.dhis.jdbc.batchhandler.DataValueBatchHandler;
+import org.hisp.quick.BatchHandler;
+import org.hisp.quick.BatchHandlerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Validates and writes data values on multiple threads. Data values are
+ * partitioned by organisation unit, and each partition is validated and
+ * written by a single thread with its own {@link BatchHandler}s. Data values
+ * with the same key always end up in the same partition and are written in
+ * the order they were submitted, which keeps the outcome and the import
+ * counts independent of thread scheduling.
+ * <p>
+ * Data values must be fully resolved before they are submitted, and checks
+ * which need the persistence session must be done before, as the writer
+ * threads do not have access to it. Data values for file resource data
+ * elements must not be submitted.
+ */
+public class PartitionedDataValueWriter
+{
+    private static final Log log = LogFactory.getLog( PartitionedDataValueWriter.class );
+
+    private static final int QUEUE_SIZE = 1000;
+
+    private static final PendingDataValue END_OF_INPUT = new PendingDataValue( null, null );
+
+    private final BatchHandlerFactory batchHandlerFactory;
+
+    private final int partitionCount;
+
+    private ImportStrategy strategy;
+
+    private boolean skipExistingCheck;
+
+    private boolean dryRun;
+
+    private final List<Partition> partitions = new ArrayList<>();
+
+    private final List<Future<?>> futures = new ArrayList<>();
+
+    private ExecutorService executor;
+
+    /**
+     * @param batchHandlerFactory the {@link BatchHandlerFactory}.
+     * @param partitionCount the number of partitions and threads.
+     */
+    public PartitionedDataValueWriter( BatchHandlerFactory batchHandlerFactory, int partitionCount )
+    {
+        this.batchHandlerFactory = batchHandlerFactory;
+        this.partitionCount = partitionCount;
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Starts the writer threads.
+     *
+     * @param strategy the import strategy.
+     * @param skipExistingCheck whether to skip the check for existing data values.
+     * @param dryRun whether to count data values without writing them.
+     */
+    public void start( ImportStrategy strategy, boolean skipExistingCheck, boolean dryRun )
+    {
+        this.strategy = strategy;
+        this.skipExistingCheck = skipExistingCheck;
+        this.dryRun = dryRun;
+        this.executor = Executors.newFixedThreadPool( partitionCount, new CustomizableThreadFactory( "data-value-import-" ) );
+
+        for ( int i = 0; i < partitionCount; i++ )
+        {
+            Partition partition = new Partition(
+                batchHandlerFactory.createBatchHandler( DataValueBatchHandler.class ).init(),
+                batchHandlerFactory.createBatchHandler( DataValueAuditBatchHandler.class ).init() );
+
+            partitions.add( partition );
+            futures.add( executor.submit( partition ) );
+        }
+
+        log.info( String.format( "Started data value writer with %d partitions", partitionCount ) );
+    }
+
+    /**
+     * Submits a validated data value to the partition of its organisation
+     * unit. Blocks while the queue of the partition is full.
+     *
+     * @param dataValue the validated data value.
+     * @throws IllegalStateException if a writer thread failed.
+     */
+    public void write( DataValue dataValue )
+    {
+        write( dataValue, conflicts -> true );
+    }
+
+    /**
+     * Submits a data value to the partition of its organisation unit, where
+     * it is validated with the given validation before it is written. Blocks
+     * while the queue of the partition is full.
+     *
+     * @param dataValue the data value.
+     * @param validation the {@link Validation} to run on the writer thread.
+     * @throws IllegalStateException if a writer thread failed.
+     */
+    public void write( DataValue dataValue, Validation validation )
+    {
+        int index = dataValue.getSource().getId() % partitions.size();
+
+        enqueue( index, new PendingDataValue( dataValue, validation ) );
+    }
+
+    /**
+     * Waits for all partitions to be validated, written and flushed, shuts
+     * down the writer threads and adds the validation conflicts to the given
+     * import summary.
+     *
+     * @param summary the {@link ImportSummary}.
+     * @return the {@link ImportCount} with the number of imported, updated and
+     *         deleted data values. The ignored count is not set.
+     * @throws IllegalStateException if a writer thread failed.
+     */
+    public ImportCount finish( ImportSummary summary )
+    {
+        try
+        {
+            for ( int i = 0; i < partitions.size(); i++ )
+            {
+                enqueue( i, END_OF_INPUT );
+            }
+
+            for ( int i = 0; i < futures.size(); i++ )
+            {
+                awaitPartition( i );
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        int importCount = 0;
+        int updateCount = 0;
+        int deleteCount = 0;
+
+        for ( Partition partition : partitions )
+        {
+            importCount += partition.importCount;
+            updateCount += partition.updateCount;
+            deleteCount += partition.deleteCount;
+
+            summary.getConflicts().addAll( partition.conflicts );
+        }
+
+        return new ImportCount( importCount, updateCount, 0, deleteCount );
+    }
+
+    /**
+     * Stops the writer threads without waiting for queued data values. Used
+     * when the import is aborted, does nothing if the writer was not started.
+     */
+    public void cancel()
+    {
+        if ( executor != null )
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void enqueue( int index, PendingDataValue dataValue )
+    {
+        try
+        {
+            while ( !partitions.get( index ).queue.offer( dataValue, 1, TimeUnit.SECONDS ) )
+            {
+                if ( futures.get( index ).isDone() )
+                {
+                    awaitPartition( index );
+
+                    throw new IllegalStateException( "Data value writer stopped unexpectedly" );
+                }
+            }
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+
+            throw new IllegalStateException( "Interrupted while submitting data value", ex );
+        }
+    }
+
+    private void awaitPartition( int index )
+    {
+        try
+        {
+            futures.get( index ).get();
+        }
+        catch ( ExecutionException ex )
+        {
+            throw new IllegalStateException( "Data value writer failed", ex.getCause() );
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+
+            throw new IllegalStateException( "Interrupted while waiting for data value writer", ex );
+        }
+    }
+
+    /**
+     * Validation of a data value which runs on the writer thread of its
+     * partition.
+     */
+    @FunctionalInterface
+    public interface Validation
+    {
+        /**
+         * Validates the data value, adding conflicts to the given list.
+         *
+         * @param conflicts the list of conflicts of the partition.
+         * @return true if the data value is to be written, false if it is to
+         *         be ignored.
+         */
+        boolean validate( List<ImportConflict> conflicts );
+    }
+
+    private static class PendingDataValue
+    {
+        private final DataValue dataValue;
+
+        private final Validation validation;
+
+        PendingDataValue( DataValue dataValue, Validation validation )
+        {
+            this.dataValue = dataValue;
+            this.validation = validation;
+        }
+    }
+
+    /**
+     * A partition validates and writes its data values in submission order
+     * and keeps its own counts and conflicts. These are read after the
+     * partition thread completed.
+     */
+    private class Partition
+        implements Runnable
+    {
+        private final BlockingQueue<PendingDataValue> queue = new ArrayBlockingQueue<>( QUEUE_SIZE );
+
+        private final List<ImportConflict> conflicts = new ArrayList<>();
+
+        private final BatchHandler<DataValue> dataValueBatchHandler;
+
+        private final BatchHandler<DataValueAudit> auditBatchHandler;
+
+        private int importCount = 0;
+
+        private int updateCount = 0;
+
+        private int deleteCount = 0;
+
+        Partition( BatchHandler<DataValue> dataValueBatchHandler, BatchHandler<DataValueAudit> auditBatchHandler )
+        {
+            this.dataValueBatchHandler = dataValueBatchHandler;
+            this.auditBatchHandler = auditBatchHandler;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                PendingDataValue dataValue;
+
+                while ( ( dataValue = queue.take() ) != END_OF_INPUT )
+                {
+                    if ( dataValue.validation.validate( conflicts ) )
+                    {
+                        writeDataValue( dataValue.dataValue );
+                    }
+                }
+            }
+            catch ( InterruptedException ex )
+            {
+                Thread.currentThread().interrupt();
+
+                throw new IllegalStateException( "Data value writer was interrupted", ex );
+            }
+            finally
+            {
+                dataValueBatchHandler.flush();
+                auditBatchHandler.flush();
+            }
+        }
+
+        private void writeDataValue( DataValue internalValue )
+        {
+            DataValue existingValue = !skipExistingCheck ? dataValueBatchHandler.findObject( internalValue ) : null;
+
+            if ( !skipExistingCheck && existingValue != null && !existingValue.isDeleted() )
+            {
+                if ( strategy.isCreateAndUpdate() || strategy.isUpdate() )
+                {
+                    DataValueAudit auditValue = new DataValueAudit( internalValue, existingValue.getValue(), internalValue.getStoredBy(), AuditType.UPDATE );
+
+                    if ( internalValue.isNullValue() || internalValue.isDeleted() )
+                    {
+                        internalValue.setDeleted( true );
+
+                        auditValue.setAuditType( AuditType.DELETE );
+
+                        deleteCount++;
+                    }
+                    else
+                    {
+                        updateCount++;
+                    }
+
+                    if ( !dryRun )
+                    {
+                        dataValueBatchHandler.updateObject( internalValue );
+
+                        auditBatchHandler.addObject( auditValue );
+                    }
+                }
+                else if ( strategy.isDelete() )
+                {
+                    DataValueAudit auditValue = new DataValueAudit( internalValue, existingValue.getValue(), internalValue.getStoredBy(), AuditType.DELETE );
+
+                    internalValue.setDeleted( true );
+
+                    deleteCount++;
+
+                    if ( !dryRun )
+                    {
+                        dataValueBatchHandler.updateObject( internalValue );
+
+                        auditBatchHandler.addObject( auditValue );
+                    }
+                }
+            }
+            else if ( ( strategy.isCreateAndUpdate() || strategy.isCreate() ) && !internalValue.isNullValue() )
+            {
+                if ( existingValue != null && existingValue.isDeleted() )
+                {
+                    importCount++;
+
+                    if ( !dryRun )
+                    {
+                        dataValueBatchHandler.updateObject( internalValue );
+                    }
+                }
+                else if ( dryRun || dataValueBatchHandler.addObject( internalValue ) )
+                {
+                    importCount++;
+                }
+            }
+        }
+    }
+}
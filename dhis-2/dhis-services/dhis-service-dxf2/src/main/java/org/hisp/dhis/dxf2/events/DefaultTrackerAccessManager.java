@@ -36,6 +36,7 @@ import org.hisp.dhis.category.CategoryOption;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.program.ProgramInstance;
 import org.hisp.dhis.program.ProgramStage;
@@ -56,11 +57,14 @@ public class DefaultTrackerAccessManager implements TrackerAccessManager
 {
     private final AclService aclService;
     private final TrackerOwnershipManager ownershipAccessManager;
+    private final OrganisationUnitService organisationUnitService;
 
-    public DefaultTrackerAccessManager( AclService aclService, TrackerOwnershipManager ownershipAccessManager )
+    public DefaultTrackerAccessManager( AclService aclService, TrackerOwnershipManager ownershipAccessManager,
+        OrganisationUnitService organisationUnitService )
     {
         this.aclService = aclService;
         this.ownershipAccessManager = ownershipAccessManager;
+        this.organisationUnitService = organisationUnitService;
     }
 
     @Override
@@ -553,7 +557,7 @@ public class DefaultTrackerAccessManager implements TrackerAccessManager
 
     private boolean isInHierarchy( OrganisationUnit organisationUnit, Set<OrganisationUnit> organisationUnits )
     {
-        return organisationUnit != null && organisationUnits != null && organisationUnit.isDescendant( organisationUnits );
+        return organisationUnit != null && organisationUnits != null && organisationUnitService.isDescendant( organisationUnit, organisationUnits );
     }
 
     private boolean isNull( ProgramStage programStage )
@@ -58,6 +58,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -126,12 +127,14 @@ import org.hisp.dhis.program.ProgramStatus;
 import org.hisp.dhis.program.ProgramType;
 import org.hisp.dhis.program.notification.ProgramNotificationEventType;
 import org.hisp.dhis.program.notification.ProgramNotificationPublisher;
+import org.hisp.dhis.programrule.engine.ProgramRuleEngineService;
 import org.hisp.dhis.programrule.engine.ProgramStageInstanceScheduledEvent;
 import org.hisp.dhis.query.Order;
 import org.hisp.dhis.query.Query;
 import org.hisp.dhis.query.QueryService;
 import org.hisp.dhis.query.Restrictions;
 import org.hisp.dhis.scheduling.JobConfiguration;
+import org.hisp.dhis.scheduling.SchedulingManager;
 import org.hisp.dhis.schema.SchemaService;
 import org.hisp.dhis.security.Authorities;
 import org.hisp.dhis.security.acl.AclService;
@@ -151,7 +154,11 @@ import org.hisp.dhis.user.UserCredentials;
 import org.hisp.dhis.user.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
@@ -261,6 +268,18 @@ public abstract class AbstractEventService
     @Autowired
     protected EventSyncService eventSyncService;
 
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    protected TransactionTemplate transactionTemplate;
+
+    @Autowired
+    protected SchedulingManager schedulingManager;
+
+    @Autowired
+    protected ProgramRuleEngineService programRuleEngineService;
+
     protected static final int FLUSH_FREQUENCY = 100;
 
     // -------------------------------------------------------------------------
@@ -318,7 +337,7 @@ public abstract class AbstractEventService
 
             if ( importOptions.getImportStrategy().isCreate() )
             {
-                create.addAll( events );
+                create.addAll( _events );
             }
             else if ( importOptions.getImportStrategy().isCreateAndUpdate() )
             {
@@ -329,11 +348,11 @@ public abstract class AbstractEventService
             }
             else if ( importOptions.getImportStrategy().isUpdate() )
             {
-                update.addAll( events );
+                update.addAll( _events );
             }
             else if ( importOptions.getImportStrategy().isDelete() )
             {
-                delete.addAll( events.stream().map( Event::getEvent ).collect( Collectors.toList() ) );
+                delete.addAll( _events.stream().map( Event::getEvent ).collect( Collectors.toList() ) );
             }
             else if ( importOptions.getImportStrategy().isSync() )
             {
@@ -385,6 +404,13 @@ public abstract class AbstractEventService
         importOptions = updateImportOptions( importOptions );
         List<List<Event>> partitions = Lists.partition( events, FLUSH_FREQUENCY );
 
+        EventBulkLoader bulkLoader = importOptions.isBulkImport() && !importOptions.isDryRun() && EventBulkLoader.isSupported( jdbcTemplate ) ?
+            new EventBulkLoader( jdbcTemplate, dbmsManager::flushSession ) : null;
+
+        // Summaries are added when all events are written as bulk loaded events might be rejected
+
+        List<ImportSummary> summaries = new ArrayList<>();
+
         for ( List<Event> _events : partitions )
         {
             reloadUser( importOptions );
@@ -392,7 +418,7 @@ public abstract class AbstractEventService
 
             for ( Event event : _events )
             {
-                importSummaries.addImportSummary( addEvent( event, importOptions, true ) );
+                summaries.add( addEvent( event, importOptions, true, bulkLoader ) );
             }
 
             if ( clearSession && events.size() >= FLUSH_FREQUENCY )
@@ -401,8 +427,19 @@ public abstract class AbstractEventService
             }
         }
 
+        if ( bulkLoader != null )
+        {
+            int count = bulkLoader.finish();
+
+            log.info( String.format( "Bulk loaded %d events", count ) );
+
+            sendDeferredProgramNotifications( bulkLoader.getEventsToNotify() );
+        }
+
         updateEntities( importOptions.getUser() );
 
+        summaries.forEach( importSummaries::addImportSummary );
+
         return importSummaries;
     }
 
@@ -433,6 +470,11 @@ public abstract class AbstractEventService
 
     @Override
     public ImportSummary addEvent( Event event, ImportOptions importOptions, boolean bulkImport )
+    {
+        return addEvent( event, importOptions, bulkImport, null );
+    }
+
+    private ImportSummary addEvent( Event event, ImportOptions importOptions, boolean bulkImport, EventBulkLoader bulkLoader )
     {
         importOptions = updateImportOptions( importOptions );
 
@@ -590,7 +632,10 @@ public abstract class AbstractEventService
             return importSummary;
         }
 
-        return saveEvent( program, programInstance, programStage, programStageInstance, organisationUnit, event, importOptions, bulkImport );
+        EventBulkLoader eventBulkLoader = bulkLoader != null && canBulkLoad( event, program, programStage, programStageInstance, importOptions ) ?
+            bulkLoader : null;
+
+        return saveEvent( program, programInstance, programStage, programStageInstance, organisationUnit, event, importOptions, bulkImport, eventBulkLoader );
     }
 
     // -------------------------------------------------------------------------
@@ -615,17 +660,24 @@ public abstract class AbstractEventService
         {
             int count = 0;
 
-            if ( params.isTotalPages() )
+            // With keyset paging the total is only counted for the first page
+
+            if ( params.isTotalPages() && !params.hasPageToken() )
             {
                 count = eventStore.getEventCount( params, organisationUnits );
             }
 
-            Pager pager = new Pager( params.getPageWithDefault(), count, params.getPageSizeWithDefault() );
+            Pager pager = new Pager( params.isKeysetPaging() ? 1 : params.getPageWithDefault(), count, params.getPageSizeWithDefault() );
             events.setPager( pager );
         }
 
         List<Event> eventList = eventStore.getEvents( params, organisationUnits, Collections.emptyMap() );
 
+        if ( params.hasNextPageToken() && events.getPager() != null )
+        {
+            events.getPager().setNextPageToken( params.getNextPageToken().encode() );
+        }
+
         User user = currentUserService.getCurrentUser();
 
         for ( Event event : eventList )
@@ -1335,7 +1387,13 @@ public abstract class AbstractEventService
     }
 
     private void preheatDataElementsCache(Event event, ImportOptions importOptions) {
-        Set<String> dataElementUids = event.getDataValues().stream().map( dv -> dv.getDataElement() ).collect( Collectors.toSet());
+        Set<String> dataElementUids = event.getDataValues().stream().map( dv -> dv.getDataElement() )
+            .filter( uid -> !dataElementCache.containsKey( uid ) ).collect( Collectors.toSet());
+
+        if ( dataElementUids.isEmpty() )
+        {
+            return;
+        }
 
         List<DataElement> dataElements = manager.getObjects( DataElement.class, IdentifiableProperty.UID, dataElementUids );
 
@@ -1563,7 +1621,7 @@ public abstract class AbstractEventService
 
     private ImportSummary saveEvent( Program program, ProgramInstance programInstance, ProgramStage programStage,
         ProgramStageInstance programStageInstance, OrganisationUnit organisationUnit, Event event,
-        ImportOptions importOptions, boolean bulkSave )
+        ImportOptions importOptions, boolean bulkSave, EventBulkLoader bulkLoader )
     {
         Assert.notNull( program, "Program cannot be null" );
         Assert.notNull( programInstance, "Program instance cannot be null" );
@@ -1639,9 +1697,9 @@ public abstract class AbstractEventService
             {
                 programStageInstance = createProgramStageInstance( event, programStage, programInstance,
                     organisationUnit, dueDate, executionDate, event.getStatus().getValue(),
-                    completedBy, storedBy, event.getEvent(), aoc, importOptions, importSummary );
+                    completedBy, storedBy, event.getEvent(), aoc, importOptions, importSummary, bulkLoader != null );
 
-                if ( program.isRegistration() )
+                if ( program.isRegistration() && bulkLoader == null )
                 {
                     programInstance.getProgramStageInstances().add( programStageInstance );
                 }
@@ -1650,10 +1708,13 @@ public abstract class AbstractEventService
             {
                 updateProgramStageInstance( event, programStage, programInstance, organisationUnit, dueDate,
                     executionDate, event.getStatus().getValue(), completedBy,
-                    programStageInstance, aoc, importOptions, importSummary );
+                    programStageInstance, aoc, importOptions, importSummary, false );
             }
 
-            updateTrackedEntityInstance( programStageInstance, importOptions.getUser(), bulkSave );
+            if ( bulkLoader == null )
+            {
+                updateTrackedEntityInstance( programStageInstance, importOptions.getUser(), bulkSave );
+            }
 
             importSummary.setReference( programStageInstance.getUid() );
         }
@@ -1668,7 +1729,11 @@ public abstract class AbstractEventService
         }
 
         programInstanceCache.put( programInstance.getUid(), programInstance );
-        sendProgramNotification( programStageInstance, importOptions );
+
+        if ( bulkLoader == null )
+        {
+            sendProgramNotification( programStageInstance, importOptions );
+        }
 
         if ( importSummary.getConflicts().size() > 0 ) {
             importSummary.setStatus( ImportStatus.ERROR );
@@ -1679,9 +1744,81 @@ public abstract class AbstractEventService
             importSummary.incrementImported();
         }
 
+        if ( bulkLoader != null )
+        {
+            bulkLoader.add( programStageInstance, importSummary, isDeferredNotification( programStageInstance, importOptions ) );
+        }
+
         return importSummary;
     }
 
+    /**
+     * Indicates whether notifications must be sent for the given bulk loaded
+     * event once the import is committed, which is the case for completed and
+     * scheduled events unless notifications are skipped.
+     */
+    static boolean isDeferredNotification( ProgramStageInstance programStageInstance, ImportOptions importOptions )
+    {
+        return !importOptions.isSkipNotifications() &&
+            ( programStageInstance.isCompleted() || EventStatus.SCHEDULE == programStageInstance.getStatus() );
+    }
+
+    /**
+     * Sends notifications for the given bulk loaded events in a separate thread
+     * and transaction once the current transaction is committed, as the events
+     * are not part of the Hibernate session. Program rules for scheduled events
+     * are evaluated in batch.
+     *
+     * @param uids the identifiers of the events.
+     */
+    private void sendDeferredProgramNotifications( List<String> uids )
+    {
+        if ( uids.isEmpty() )
+        {
+            return;
+        }
+
+        final List<String> eventUids = new ArrayList<>( uids );
+
+        final Runnable task = () -> {
+            for ( List<String> partition : Lists.partition( eventUids, FLUSH_FREQUENCY ) )
+            {
+                transactionTemplate.execute( status -> {
+                    List<ProgramStageInstance> programStageInstances = partition.stream()
+                        .map( programStageInstanceService::getProgramStageInstance )
+                        .filter( Objects::nonNull )
+                        .collect( Collectors.toList() );
+
+                    programStageInstances.stream()
+                        .filter( ProgramStageInstance::isCompleted )
+                        .forEach( psi -> programNotificationPublisher.publishEvent( psi, ProgramNotificationEventType.PROGRAM_STAGE_COMPLETION ) );
+
+                    programRuleEngineService.evaluateEvents( programStageInstances.stream()
+                        .filter( psi -> EventStatus.SCHEDULE.equals( psi.getStatus() ) )
+                        .collect( Collectors.toList() ) );
+
+                    return null;
+                } );
+            }
+        };
+
+        if ( TransactionSynchronizationManager.isSynchronizationActive() )
+        {
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronizationAdapter()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    schedulingManager.executeJob( task );
+                }
+            } );
+        }
+        else
+        {
+            schedulingManager.executeJob( task );
+        }
+    }
+
     private void sendProgramNotification( ProgramStageInstance programStageInstance, ImportOptions importOptions )
     {
         if ( !importOptions.isSkipNotifications() )
@@ -1701,7 +1838,7 @@ public abstract class AbstractEventService
     private ProgramStageInstance createProgramStageInstance( Event event, ProgramStage programStage,
         ProgramInstance programInstance, OrganisationUnit organisationUnit, Date dueDate, Date executionDate,
         int status, String completedBy, String storeBy, String programStageInstanceIdentifier,
-        CategoryOptionCombo aoc, ImportOptions importOptions, ImportSummary importSummary )
+        CategoryOptionCombo aoc, ImportOptions importOptions, ImportSummary importSummary, boolean bulkLoad )
     {
         ProgramStageInstance programStageInstance = new ProgramStageInstance();
 
@@ -1720,7 +1857,7 @@ public abstract class AbstractEventService
         programStageInstance.setStoredBy( storeBy );
 
         updateProgramStageInstance( event, programStage, programInstance, organisationUnit, dueDate, executionDate,
-            status, completedBy, programStageInstance, aoc, importOptions, importSummary );
+            status, completedBy, programStageInstance, aoc, importOptions, importSummary, bulkLoad );
 
         return programStageInstance;
     }
@@ -1728,7 +1865,7 @@ public abstract class AbstractEventService
     private void updateProgramStageInstance( Event event, ProgramStage programStage, ProgramInstance programInstance,
         OrganisationUnit organisationUnit, Date dueDate, Date executionDate, int status,
         String completedBy, ProgramStageInstance programStageInstance, CategoryOptionCombo aoc,
-        ImportOptions importOptions, ImportSummary importSummary )
+        ImportOptions importOptions, ImportSummary importSummary, boolean bulkLoad )
     {
         programStageInstance.setProgramInstance( programInstance );
         programStageInstance.setProgramStage( programStage );
@@ -1757,7 +1894,14 @@ public abstract class AbstractEventService
 
         preheatDataElementsCache( event, importOptions );
 
-        if ( programStageInstance.getId() == 0 )
+        if ( bulkLoad )
+        {
+            // Event and data value audits are written by the bulk loader
+
+            programStageInstance.setAutoFields();
+            eventDataValueService.prepareDataValues( programStageInstance, event, importOptions, importSummary, dataElementCache );
+        }
+        else if ( programStageInstance.getId() == 0 )
         {
             programStageInstance.setAutoFields();
             programStageInstanceService.addProgramStageInstance( programStageInstance );
@@ -1772,6 +1916,26 @@ public abstract class AbstractEventService
         }
     }
 
+    /**
+     * Indicates whether the given event can be written by the bulk loader, which
+     * is the case for new events. Events with notes or file data values, and events
+     * for non-repeatable program stages of tracker programs, are saved individually.
+     */
+    private boolean canBulkLoad( Event event, Program program, ProgramStage programStage,
+        ProgramStageInstance programStageInstance, ImportOptions importOptions )
+    {
+        if ( programStageInstance != null || !event.getNotes().isEmpty() || ( program.isRegistration() && !programStage.getRepeatable() ) )
+        {
+            return false;
+        }
+
+        preheatDataElementsCache( event, importOptions );
+
+        return event.getDataValues().stream()
+            .map( dataValue -> dataElementCache.get( dataValue.getDataElement() ) )
+            .noneMatch( dataElement -> dataElement != null && dataElement.isFileType() );
+    }
+
     private void saveTrackedEntityComment( ProgramStageInstance programStageInstance, Event event, String storedBy )
     {
         for ( Note note : event.getNotes() )
@@ -1982,6 +2146,12 @@ public abstract class AbstractEventService
             violation = "At least one of the following query parameters are required: orgUnit, program, trackedEntityInstance or event";
         }
 
+        if ( params.isKeysetPaging() && ( ( params.getOrders() != null && !params.getOrders().isEmpty() ) ||
+            ( params.getGridOrders() != null && !params.getGridOrders().isEmpty() ) ) )
+        {
+            violation = "Order can not be specified with keyset paging, events are ordered by last updated";
+        }
+
         if ( violation != null )
         {
             log.warn( "Validation failed: " + violation );
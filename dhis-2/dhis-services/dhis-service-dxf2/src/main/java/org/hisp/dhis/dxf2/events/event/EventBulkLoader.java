@@ -0,0 +1,427 @@
+package org.hisp.dhis.dxf2.events.event;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.dxf2.importsummary.ImportConflict;
+import org.hisp.dhis.dxf2.importsummary.ImportCount;
+import org.hisp.dhis.dxf2.importsummary.ImportStatus;
+import org.hisp.dhis.dxf2.importsummary.ImportSummary;
+import org.hisp.dhis.hibernate.jsonb.type.JsonEventDataValueSetBinaryType;
+import org.hisp.dhis.jdbc.copy.CopyWriter;
+import org.hisp.dhis.program.ProgramStageInstance;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.vividsolutions.jts.geom.Geometry;
+
+/**
+ * Writes new, validated events to the database in bulk. Events are collected
+ * in chunks, and each chunk is streamed through the PostgreSQL COPY protocol
+ * into a temporary staging table. Events, event data value audits and the last
+ * updated timestamp of the affected tracked entity instances are then written
+ * with a handful of set-based statements per chunk instead of one Hibernate
+ * save per event. Each chunk is written in a single transaction and the staging
+ * table is dropped on commit.
+ * <p>
+ * Events with an identifier which already exists, or which occurs earlier in
+ * the same chunk, are not written and are reported as conflicts on the import
+ * summary of the event. The identifiers of written events which were added
+ * with notifications enabled are available through {@link #getEventsToNotify()}
+ * so that notifications can be sent when the transaction is committed.
+ */
+public class EventBulkLoader
+{
+    private static final Log log = LogFactory.getLog( EventBulkLoader.class );
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final String STAGING_TABLE = "_eventimport";
+
+    private static final int DEFAULT_SRID = 4326;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Runnable beforeWrite;
+
+    private final List<BulkEvent> chunk = new ArrayList<>( CHUNK_SIZE );
+
+    private final List<String> eventsToNotify = new ArrayList<>();
+
+    private int importCount = 0;
+
+    /**
+     * @param jdbcTemplate the {@link JdbcTemplate}.
+     * @param beforeWrite callback which is invoked before each chunk is written,
+     *        typically used to flush the Hibernate session so that referenced
+     *        program instances exist in the database.
+     */
+    public EventBulkLoader( JdbcTemplate jdbcTemplate, Runnable beforeWrite )
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.beforeWrite = beforeWrite;
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Indicates whether the database behind the given {@link JdbcTemplate}
+     * supports bulk loading, which is the case for PostgreSQL.
+     *
+     * @param jdbcTemplate the {@link JdbcTemplate}.
+     * @return true if bulk loading is supported.
+     */
+    public static boolean isSupported( JdbcTemplate jdbcTemplate )
+    {
+        Boolean supported = jdbcTemplate.execute( (ConnectionCallback<Boolean>) CopyWriter::isSupported );
+
+        return Boolean.TRUE.equals( supported );
+    }
+
+    /**
+     * Adds a new, validated event. The event is written to the database when
+     * the current chunk is full.
+     *
+     * @param programStageInstance the event, which must not be persisted.
+     * @param importSummary the import summary of the event.
+     * @param notify whether to send notifications for the event once written.
+     */
+    public void add( ProgramStageInstance programStageInstance, ImportSummary importSummary, boolean notify )
+    {
+        chunk.add( new BulkEvent( programStageInstance, importSummary, notify ) );
+
+        if ( chunk.size() >= CHUNK_SIZE )
+        {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the remaining events.
+     *
+     * @return the number of written events.
+     */
+    public int finish()
+    {
+        flush();
+
+        return importCount;
+    }
+
+    /**
+     * Returns the identifiers of written events which were added with
+     * notifications enabled.
+     */
+    public List<String> getEventsToNotify()
+    {
+        return Collections.unmodifiableList( eventsToNotify );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void flush()
+    {
+        if ( chunk.isEmpty() )
+        {
+            return;
+        }
+
+        beforeWrite.run();
+
+        jdbcTemplate.execute( (ConnectionCallback<Void>) connection -> {
+            writeChunk( connection );
+            return null;
+        } );
+
+        for ( BulkEvent event : chunk )
+        {
+            if ( !event.rejected )
+            {
+                importCount++;
+
+                if ( event.notify )
+                {
+                    eventsToNotify.add( event.programStageInstance.getUid() );
+                }
+            }
+        }
+
+        log.debug( String.format( "Wrote event chunk of size: %d, total: %d", chunk.size(), importCount ) );
+
+        chunk.clear();
+    }
+
+    /**
+     * Writes the current chunk in a single transaction. If the connection
+     * takes part in an outer transaction, the outer transaction is used.
+     */
+    private void writeChunk( Connection connection )
+        throws SQLException
+    {
+        boolean autoCommit = connection.getAutoCommit();
+
+        if ( autoCommit )
+        {
+            connection.setAutoCommit( false );
+        }
+
+        try ( Statement statement = connection.createStatement() )
+        {
+            statement.execute( getCreateStagingTableSql() );
+
+            copyChunk( connection );
+
+            statement.execute( "create index on " + STAGING_TABLE + " (uid)" );
+            statement.execute( "analyze " + STAGING_TABLE );
+
+            rejectEvents( statement, "where exists (select 1 from " + STAGING_TABLE + " d where d.uid = s.uid and d.rownum < s.rownum)",
+                "Event ID %s occurs more than once in the import, only the first event was imported" );
+
+            rejectEvents( statement, "where exists (select 1 from programstageinstance psi where psi.uid = s.uid)",
+                "Event ID %s was already used and/or deleted. This event can not be modified." );
+
+            statement.executeUpdate( "update " + STAGING_TABLE + " set programstageinstanceid = nextval('hibernate_sequence')" );
+            statement.executeUpdate( getInsertEventSql() );
+            statement.executeUpdate( getInsertAuditSql() );
+            statement.executeUpdate( getUpdateTrackedEntityInstanceSql() );
+
+            statement.execute( "drop table " + STAGING_TABLE );
+
+            if ( autoCommit )
+            {
+                connection.commit();
+            }
+        }
+        catch ( SQLException | RuntimeException ex )
+        {
+            if ( autoCommit )
+            {
+                connection.rollback();
+            }
+
+            throw ex;
+        }
+        finally
+        {
+            if ( autoCommit )
+            {
+                connection.setAutoCommit( true );
+            }
+        }
+    }
+
+    private void copyChunk( Connection connection )
+        throws SQLException
+    {
+        try ( CopyWriter writer = new CopyWriter( connection, STAGING_TABLE ) )
+        {
+            for ( int i = 0; i < chunk.size(); i++ )
+            {
+                ProgramStageInstance psi = chunk.get( i ).programStageInstance;
+
+                writer.write( new Object[] { i,
+                    null,
+                    psi.getUid(),
+                    psi.getCode(),
+                    psi.getCreated(),
+                    psi.getLastUpdated(),
+                    psi.getCreatedAtClient(),
+                    psi.getLastUpdatedAtClient(),
+                    psi.getLastSynchronized(),
+                    psi.getProgramInstance().getId(),
+                    psi.getProgramStage().getId(),
+                    psi.getAttributeOptionCombo() != null ? psi.getAttributeOptionCombo().getId() : null,
+                    psi.getStoredBy(),
+                    psi.getDueDate(),
+                    psi.getExecutionDate(),
+                    psi.getOrganisationUnit() != null ? psi.getOrganisationUnit().getId() : null,
+                    psi.getStatus().name(),
+                    psi.getCompletedBy(),
+                    psi.getCompletedDate(),
+                    getGeometry( psi.getGeometry() ),
+                    JsonEventDataValueSetBinaryType.convertEventDataValuesSetIntoJson( psi.getEventDataValues() ) } );
+            }
+
+            writer.finish();
+        }
+    }
+
+    /**
+     * Reports the events matching the given filter on the staging table as
+     * conflicts and removes them from the staging table.
+     *
+     * @param statement the statement.
+     * @param filter the filter on the staging table aliased as "s".
+     * @param message the conflict message, with a placeholder for the event identifier.
+     */
+    private void rejectEvents( Statement statement, String filter, String message )
+        throws SQLException
+    {
+        final String rejectSql = "from " + STAGING_TABLE + " s " + filter;
+
+        try ( ResultSet rs = statement.executeQuery( "select s.rownum " + rejectSql ) )
+        {
+            while ( rs.next() )
+            {
+                BulkEvent event = chunk.get( rs.getInt( 1 ) );
+                ImportSummary summary = event.importSummary;
+                ImportCount count = summary.getImportCount();
+
+                if ( !event.rejected && ImportStatus.SUCCESS == summary.getStatus() )
+                {
+                    count.setImported( count.getImported() - 1 );
+                    count.incrementIgnored();
+                }
+
+                String uid = event.programStageInstance.getUid();
+
+                summary.setStatus( ImportStatus.ERROR );
+                summary.getConflicts().add( new ImportConflict( uid, String.format( message, uid ) ) );
+
+                event.rejected = true;
+            }
+        }
+
+        statement.executeUpdate( "delete " + rejectSql );
+    }
+
+    /**
+     * Returns the geometry in extended WKT format, which is accepted by the
+     * geometry input function.
+     */
+    private static String getGeometry( Geometry geometry )
+    {
+        if ( geometry == null )
+        {
+            return null;
+        }
+
+        return "SRID=" + ( geometry.getSRID() > 0 ? geometry.getSRID() : DEFAULT_SRID ) + ";" + geometry.toText();
+    }
+
+    private String getCreateStagingTableSql()
+    {
+        return "create temporary table " + STAGING_TABLE + " (" +
+            "rownum integer not null, " +
+            "programstageinstanceid bigint, " +
+            "uid character varying(11) not null, " +
+            "code character varying(50), " +
+            "created timestamp not null, " +
+            "lastupdated timestamp not null, " +
+            "createdatclient timestamp, " +
+            "lastupdatedatclient timestamp, " +
+            "lastsynchronized timestamp, " +
+            "programinstanceid bigint not null, " +
+            "programstageid bigint not null, " +
+            "attributeoptioncomboid bigint, " +
+            "storedby character varying(255), " +
+            "duedate timestamp, " +
+            "executiondate timestamp, " +
+            "organisationunitid bigint, " +
+            "status character varying(50) not null, " +
+            "completedby character varying(255), " +
+            "completeddate timestamp, " +
+            "geometry text, " +
+            "eventdatavalues jsonb) " +
+            "on commit drop";
+    }
+
+    private String getInsertEventSql()
+    {
+        return
+            "insert into programstageinstance (programstageinstanceid, uid, code, created, lastupdated, createdatclient, " +
+                "lastupdatedatclient, lastsynchronized, programinstanceid, programstageid, attributeoptioncomboid, deleted, " +
+                "storedby, duedate, executiondate, organisationunitid, status, completedby, completeddate, geometry, eventdatavalues) " +
+            "select s.programstageinstanceid, s.uid, s.code, s.created, s.lastupdated, s.createdatclient, " +
+                "s.lastupdatedatclient, s.lastsynchronized, s.programinstanceid, s.programstageid, s.attributeoptioncomboid, false, " +
+                "s.storedby, s.duedate, s.executiondate, s.organisationunitid, s.status, s.completedby, s.completeddate, " +
+                "ST_GeomFromEWKT(s.geometry), s.eventdatavalues " +
+            "from " + STAGING_TABLE + " s";
+    }
+
+    /**
+     * Returns SQL for auditing the creation of the data values of the events.
+     */
+    private String getInsertAuditSql()
+    {
+        return
+            "insert into trackedentitydatavalueaudit (trackedentitydatavalueauditid, programstageinstanceid, dataelementid, " +
+                "value, created, providedelsewhere, modifiedby, audittype) " +
+            "select nextval('hibernate_sequence'), s.programstageinstanceid, de.dataelementid, " +
+                "dv.value ->> 'value', now(), coalesce((dv.value ->> 'providedElsewhere')::boolean, false), " +
+                "dv.value ->> 'storedBy', 'CREATE' " +
+            "from " + STAGING_TABLE + " s " +
+            "cross join lateral jsonb_each(s.eventdatavalues) dv " +
+            "inner join dataelement de on de.uid = dv.key";
+    }
+
+    private String getUpdateTrackedEntityInstanceSql()
+    {
+        return
+            "update trackedentityinstance tei " +
+            "set lastupdated = now() " +
+            "from programinstance pi " +
+            "where pi.trackedentityinstanceid = tei.trackedentityinstanceid " +
+            "and pi.programinstanceid in (select distinct s.programinstanceid from " + STAGING_TABLE + " s)";
+    }
+
+    /**
+     * An event in the current chunk with its import summary.
+     */
+    private static class BulkEvent
+    {
+        private final ProgramStageInstance programStageInstance;
+
+        private final ImportSummary importSummary;
+
+        private final boolean notify;
+
+        private boolean rejected = false;
+
+        BulkEvent( ProgramStageInstance programStageInstance, ImportSummary importSummary, boolean notify )
+        {
+            this.programStageInstance = programStageInstance;
+            this.importSummary = importSummary;
+            this.notify = notify;
+        }
+    }
+}
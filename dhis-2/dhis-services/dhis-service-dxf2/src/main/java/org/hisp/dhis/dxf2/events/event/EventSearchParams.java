@@ -31,6 +31,7 @@ package org.hisp.dhis.dxf2.events.event;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.common.IdSchemes;
 import org.hisp.dhis.common.OrganisationUnitSelectionMode;
+import org.hisp.dhis.common.PageToken;
 import org.hisp.dhis.common.QueryItem;
 import org.hisp.dhis.event.EventStatus;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
@@ -119,6 +120,21 @@ public class EventSearchParams
 
     private boolean skipPaging;
 
+    /**
+     * Indicates whether to page with page tokens instead of offsets.
+     */
+    private boolean keysetPaging;
+
+    /**
+     * Token of the page to fetch with keyset paging, null for the first page.
+     */
+    private PageToken pageToken;
+
+    /**
+     * Token of the next page, set when the current page has been fetched.
+     */
+    private PageToken nextPageToken;
+
     private List<Order> orders;
 
     private List<String> gridOrders;
@@ -179,6 +195,25 @@ public class EventSearchParams
         return (getPageWithDefault() - 1) * getPageSizeWithDefault();
     }
 
+    /**
+     * Indicates whether keyset paging should be used, either explicitly or
+     * through a page token.
+     */
+    public boolean isKeysetPaging()
+    {
+        return keysetPaging || pageToken != null;
+    }
+
+    public boolean hasPageToken()
+    {
+        return pageToken != null;
+    }
+
+    public boolean hasNextPageToken()
+    {
+        return nextPageToken != null;
+    }
+
     /**
      * Sets paging properties to default values.
      */
@@ -561,4 +596,29 @@ public class EventSearchParams
     {
         this.synchronizationQuery = synchronizationQuery;
     }
+
+    public void setKeysetPaging( boolean keysetPaging )
+    {
+        this.keysetPaging = keysetPaging;
+    }
+
+    public PageToken getPageToken()
+    {
+        return pageToken;
+    }
+
+    public void setPageToken( PageToken pageToken )
+    {
+        this.pageToken = pageToken;
+    }
+
+    public PageToken getNextPageToken()
+    {
+        return nextPageToken;
+    }
+
+    public void setNextPageToken( PageToken nextPageToken )
+    {
+        this.nextPageToken = nextPageToken;
+    }
 }
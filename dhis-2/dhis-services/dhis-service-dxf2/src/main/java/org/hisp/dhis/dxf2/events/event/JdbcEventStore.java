@@ -72,6 +72,7 @@ import org.apache.commons.logging.LogFactory;
 import org.hisp.dhis.api.util.DateUtils;
 import org.hisp.dhis.common.IdSchemes;
 import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.common.PageToken;
 import org.hisp.dhis.common.QueryFilter;
 import org.hisp.dhis.common.QueryItem;
 import org.hisp.dhis.common.QueryOperator;
@@ -180,13 +181,40 @@ public class JdbcEventStore
 
         IdSchemes idSchemes = ObjectUtils.firstNonNull( params.getIdSchemes(), new IdSchemes() );
 
+        int lastEventId = -1;
+
+        int fetchedEvents = 0;
+
+        PageToken lastPageToken = null;
+
         while ( rowSet.next() )
         {
+            if ( params.isKeysetPaging() && rowSet.getInt( "psi_id" ) != lastEventId )
+            {
+                lastEventId = rowSet.getInt( "psi_id" );
+                lastPageToken = new PageToken( rowSet.getTimestamp( "psi_lastupdated" ), lastEventId );
+                fetchedEvents++;
+            }
+
             if ( rowSet.getString( "psi_uid" ) == null || (params.getCategoryOptionCombo() == null && !isSuperUser && !userHasAccess( rowSet )) )
             {
                 continue;
             }
 
+            if ( rowSet.getString( "psi_uid" ).equals( event.getUid() ) )
+            {
+                String categoryOption = rowSet.getString( "deco_uid" );
+
+                if ( !splitToArray( event.getAttributeCategoryOptions(), TextUtils.SEMICOLON ).contains( categoryOption ) )
+                {
+                    event.setAttributeCategoryOptions( event.getAttributeCategoryOptions() + TextUtils.SEMICOLON + categoryOption );
+                }
+
+                addNote( event, rowSet, notes );
+
+                continue;
+            }
+
             event = new Event();
 
             event.setUid( rowSet.getString( "psi_uid" ) );
@@ -275,17 +303,12 @@ public class JdbcEventStore
                 }
             }
 
-            if ( rowSet.getString( "psinote_value" ) != null && !notes.contains( rowSet.getString( "psinote_id" ) ) )
-            {
-                Note note = new Note();
-                note.setNote( rowSet.getString( "psinote_uid" ) );
-                note.setValue( rowSet.getString( "psinote_value" ) );
-                note.setStoredDate( DateUtils.getIso8601NoTz( rowSet.getDate( "psinote_storeddate" ) ) );
-                note.setStoredBy( rowSet.getString( "psinote_storedby" ) );
+            addNote( event, rowSet, notes );
+        }
 
-                event.getNotes().add( note );
-                notes.add( rowSet.getString( "psinote_id" ) );
-            }
+        if ( params.isKeysetPaging() && params.isPaging() && fetchedEvents >= params.getPageSizeWithDefault() )
+        {
+            params.setNextPageToken( lastPageToken );
         }
 
         if ( params.getCategoryOptionCombo() == null && !isSuper( user ) )
@@ -296,6 +319,21 @@ public class JdbcEventStore
         return events;
     }
 
+    private void addNote( Event event, SqlRowSet rowSet, Set<String> notes )
+    {
+        if ( rowSet.getString( "psinote_value" ) != null && !notes.contains( rowSet.getString( "psinote_id" ) ) )
+        {
+            Note note = new Note();
+            note.setNote( rowSet.getString( "psinote_uid" ) );
+            note.setValue( rowSet.getString( "psinote_value" ) );
+            note.setStoredDate( DateUtils.getIso8601NoTz( rowSet.getDate( "psinote_storeddate" ) ) );
+            note.setStoredBy( rowSet.getString( "psinote_storedby" ) );
+
+            event.getNotes().add( note );
+            notes.add( rowSet.getString( "psinote_id" ) );
+        }
+    }
+
     @Override
     public List<Map<String, String>> getEventsGrid( EventSearchParams params, List<OrganisationUnit> organisationUnits )
     {
@@ -477,7 +515,7 @@ public class JdbcEventStore
 
         sql = sql.replaceFirst( "order .*? (desc|asc)", "" );
 
-        sql = sql.replaceFirst( "limit \\d+ offset \\d+", "" );
+        sql = sql.replaceFirst( "limit \\d+( offset \\d+)?", "" );
 
         log.debug( "Event query count SQL: " + sql );
 
@@ -558,11 +596,18 @@ public class JdbcEventStore
     {
         String sql = "select * from (";
 
-        sql += getEventSelectQuery( params, organisationUnits, user );
+        if ( params.isPaging() && params.isKeysetPaging() )
+        {
+            sql += getEventKeysetPageQuery( params, organisationUnits, user );
+        }
+        else
+        {
+            sql += getEventSelectQuery( params, organisationUnits, user );
 
-        sql += getOrderQuery( params );
+            sql += getOrderQuery( params );
 
-        sql += getEventPagingQuery( params );
+            sql += getEventPagingQuery( params );
+        }
 
         sql += ") as event left join (";
 
@@ -582,6 +627,31 @@ public class JdbcEventStore
         return sql;
     }
 
+    /**
+     * The event query returns one row per category option of the attribute
+     * option combo. The page token and limit are hence applied to the distinct
+     * event ids, and all rows of the selected events are joined afterwards, so
+     * that a page never ends in the middle of an event.
+     */
+    private String getEventKeysetPageQuery( EventSearchParams params, List<OrganisationUnit> organisationUnits, User user )
+    {
+        String sql = "with evrows as (";
+
+        sql += getEventSelectQuery( params, organisationUnits, user );
+
+        sql += ") select evrows.* from evrows inner join ("
+            + "select distinct psi_id as page_psi_id, psi_lastupdated as page_lastupdated from evrows "
+            + "order by page_lastupdated desc, page_psi_id desc ";
+
+        sql += getEventPagingQuery( params );
+
+        sql += ") as page on evrows.psi_id = page.page_psi_id ";
+
+        sql += getOrderQuery( params );
+
+        return sql;
+    }
+
     private String getEventSelectQuery( EventSearchParams params, List<OrganisationUnit> organisationUnits, User user )
     {
         List<Integer> orgUnitIds = getIdentifiers( organisationUnits );
@@ -802,6 +872,14 @@ public class JdbcEventStore
             sql += hlp.whereAnd() + " psi.lastupdated > psi.lastsynchronized ";
         }
 
+        if ( params.hasPageToken() )
+        {
+            PageToken pageToken = params.getPageToken();
+
+            sql += hlp.whereAnd() + " (psi.lastupdated, psi.programstageinstanceid) < ('"
+                + pageToken.getLastUpdatedString() + "', " + pageToken.getId() + ") ";
+        }
+
         return sql;
     }
 
@@ -998,7 +1076,11 @@ public class JdbcEventStore
     {
         String sql = " ";
 
-        if ( params.isPaging() )
+        if ( params.isPaging() && params.isKeysetPaging() )
+        {
+            sql += "limit " + params.getPageSizeWithDefault() + " ";
+        }
+        else if ( params.isPaging() )
         {
             sql += "limit " + params.getPageSizeWithDefault() + " offset " + params.getOffset() + " ";
         }
@@ -1061,6 +1143,11 @@ public class JdbcEventStore
 
     private String getOrderQuery( EventSearchParams params )
     {
+        if ( params.isKeysetPaging() )
+        {
+            return "order by psi_lastupdated desc, psi_id desc ";
+        }
+
         ArrayList<String> orderFields = new ArrayList<String>();
 
         if ( params.getGridOrders() != null )
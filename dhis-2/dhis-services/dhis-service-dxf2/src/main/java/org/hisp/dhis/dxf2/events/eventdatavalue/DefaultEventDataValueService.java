@@ -90,6 +90,42 @@ public class DefaultEventDataValueService implements EventDataValueService
     public void processDataValues( ProgramStageInstance programStageInstance, Event event, boolean isUpdate,
         boolean singleValue, ImportOptions importOptions, ImportSummary importSummary, Map<String, DataElement> dataElementsCache ) {
 
+        Set<EventDataValue> newDataValues = new HashSet<>();
+        Set<EventDataValue> updatedDataValues = new HashSet<>();
+        Set<EventDataValue> removedDataValuesDueToEmptyValue = new HashSet<>();
+
+        if ( !prepareDataValues( programStageInstance, event, isUpdate, singleValue, importOptions, importSummary, dataElementsCache,
+            newDataValues, updatedDataValues, removedDataValuesDueToEmptyValue ) )
+        {
+            return;
+        }
+
+        programStageInstanceService.auditDataValuesChangesAndHandleFileDataValues( newDataValues, updatedDataValues, newDataValues, dataElementsCache, programStageInstance, singleValue );
+    }
+
+    @Override
+    public void prepareDataValues( ProgramStageInstance programStageInstance, Event event, ImportOptions importOptions,
+        ImportSummary importSummary, Map<String, DataElement> dataElementsCache )
+    {
+        Set<EventDataValue> newDataValues = new HashSet<>();
+
+        if ( prepareDataValues( programStageInstance, event, false, false, importOptions, importSummary, dataElementsCache,
+            newDataValues, new HashSet<>(), new HashSet<>() ) )
+        {
+            programStageInstance.setEventDataValues( newDataValues );
+        }
+    }
+
+    /**
+     * Validates the data values of the given event and sorts the valid data values
+     * into the given sets of new, updated and removed data values.
+     *
+     * @return false if mandatory data elements are missing, true otherwise.
+     */
+    private boolean prepareDataValues( ProgramStageInstance programStageInstance, Event event, boolean isUpdate,
+        boolean singleValue, ImportOptions importOptions, ImportSummary importSummary, Map<String, DataElement> dataElementsCache,
+        Set<EventDataValue> newDataValues, Set<EventDataValue> updatedDataValues, Set<EventDataValue> removedDataValuesDueToEmptyValue )
+    {
         Map<String, EventDataValue> dataElementValueMap = getDataElementToEventDataValueMap( programStageInstance.getEventDataValues() );
 
         boolean validateMandatoryAttributes = doValidationOfMandatoryAttributes( importOptions.getUser() );
@@ -98,14 +134,11 @@ public class DefaultEventDataValueService implements EventDataValueService
             importSummary.setStatus( ImportStatus.ERROR );
             importSummary.incrementIgnored();
 
-            return;
+            return false;
         }
 
         Program program = programStageInstance.getProgramStage().getProgram();
 
-        Set<EventDataValue> newDataValues = new HashSet<>();
-        Set<EventDataValue> updatedDataValues = new HashSet<>();
-        Set<EventDataValue> removedDataValuesDueToEmptyValue = new HashSet<>();
         String fallbackStoredBy =
             AbstractEventService.getValidUsername( event.getStoredBy(), importSummary, importOptions.getUser() != null ? importOptions.getUser().getUsername() : "[Unknown]" );
 
@@ -131,7 +164,7 @@ public class DefaultEventDataValueService implements EventDataValueService
             }
         }
 
-        programStageInstanceService.auditDataValuesChangesAndHandleFileDataValues( newDataValues, updatedDataValues, newDataValues, dataElementsCache, programStageInstance, singleValue );
+        return true;
     }
 
     private void prepareDataValueForStorage( Map<String, EventDataValue> dataElementToValueMap, DataValue dataValue,
@@ -53,4 +53,18 @@ public interface EventDataValueService
      */
     void processDataValues( ProgramStageInstance programStageInstance, Event event, boolean isUpdate,
         boolean singleValue, ImportOptions importOptions, ImportSummary importSummary, Map<String, DataElement> dataElementsCache );
+
+    /**
+     * Validates the data values of a new event and sets the valid data values on
+     * the ProgramStageInstance without saving or auditing them. Used by bulk imports
+     * which write events and audits to the database in bulk.
+     *
+     * @param programStageInstance The new ProgramStageInstance the EventDataValues are related to
+     * @param event Event that holds the data values to process
+     * @param importOptions ImportOptions
+     * @param importSummary ImportSummary
+     * @param dataElementsCache Cache with DataElements related to EventDataValues that are being created
+     */
+    void prepareDataValues( ProgramStageInstance programStageInstance, Event event, ImportOptions importOptions,
+        ImportSummary importSummary, Map<String, DataElement> dataElementsCache );
 }
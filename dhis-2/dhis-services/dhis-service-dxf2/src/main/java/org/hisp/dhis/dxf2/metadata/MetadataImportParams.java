@@ -130,6 +130,11 @@ public class MetadataImportParams
      */
     private boolean skipValidation;
 
+    /**
+     * Validate objects of different classes concurrently.
+     */
+    private boolean parallelValidation;
+
     /**
      * Name of file that was used for import (if available).
      */
@@ -341,6 +346,19 @@ public class MetadataImportParams
         return this;
     }
 
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public boolean isParallelValidation()
+    {
+        return parallelValidation;
+    }
+
+    public MetadataImportParams setParallelValidation( boolean parallelValidation )
+    {
+        this.parallelValidation = parallelValidation;
+        return this;
+    }
+
     @JsonProperty
     @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
     public String getFilename()
@@ -464,6 +482,7 @@ public class MetadataImportParams
         params.setSkipSharing( skipSharing );
         params.setSkipTranslation( skipTranslation );
         params.setSkipValidation( skipValidation );
+        params.setParallelValidation( parallelValidation );
         params.setJobId( id );
         params.setImportStrategy( importStrategy );
         params.setAtomicMode( atomicMode );
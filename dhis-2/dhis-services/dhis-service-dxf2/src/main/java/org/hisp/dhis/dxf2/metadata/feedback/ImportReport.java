@@ -42,6 +42,7 @@ import org.hisp.dhis.feedback.TypeReport;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -57,6 +58,11 @@ public class ImportReport
 
     private Map<Class<?>, TypeReport> typeReportMap = new HashMap<>();
 
+    /**
+     * Validation time in milliseconds per class.
+     */
+    private Map<Class<?>, Long> validationTimeMap = new LinkedHashMap<>();
+
     public ImportReport()
     {
     }
@@ -83,6 +89,11 @@ public class ImportReport
         typeReportMap.values().forEach( this::addTypeReport );
     }
 
+    public void addValidationTimes( Map<Class<?>, Long> validationTimeMap )
+    {
+        validationTimeMap.forEach( ( klass, millis ) -> this.validationTimeMap.merge( klass, millis, Long::sum ) );
+    }
+
     public List<ErrorReport> getErrorReports()
     {
         List<ErrorReport> errorReports = new ArrayList<>();
@@ -142,6 +153,13 @@ public class ImportReport
         return typeReportMap;
     }
 
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public Map<Class<?>, Long> getValidationTimeMap()
+    {
+        return validationTimeMap;
+    }
+
     @Override
     public String toString()
     {
@@ -30,6 +30,7 @@ package org.hisp.dhis.dxf2.metadata.objectbundle;
 
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hisp.dhis.cache.CacheRegistry;
 import org.hisp.dhis.cache.HibernateCacheManager;
 import org.hisp.dhis.common.AuditType;
 import org.hisp.dhis.common.BaseIdentifiableObject;
@@ -65,6 +66,8 @@ import org.hisp.dhis.user.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -102,6 +105,9 @@ public class DefaultObjectBundleService implements ObjectBundleService
     @Autowired
     private HibernateCacheManager cacheManager;
 
+    @Autowired
+    private CacheRegistry cacheRegistry;
+
     @Autowired
     private Notifier notifier;
 
@@ -203,6 +209,7 @@ public class DefaultObjectBundleService implements ObjectBundleService
 
         dbmsManager.clearSession();
         cacheManager.clearCache();
+        invalidateMetadataCaches();
         bundle.setObjectBundleStatus( ObjectBundleStatus.COMMITTED );
 
         return commitReport;
@@ -498,6 +505,30 @@ public class DefaultObjectBundleService implements ObjectBundleService
         return typeReport;
     }
 
+    /**
+     * Invalidates the caches which depend on metadata on all server instances
+     * once the transaction has committed, so that the caches are not
+     * populated with the old metadata in the meantime.
+     */
+    private void invalidateMetadataCaches()
+    {
+        if ( TransactionSynchronizationManager.isSynchronizationActive() )
+        {
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronizationAdapter()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    cacheRegistry.invalidateMetadataCaches();
+                }
+            } );
+        }
+        else
+        {
+            cacheRegistry.invalidateMetadataCaches();
+        }
+    }
+
     @SuppressWarnings( "unchecked" )
     private List<Class<? extends IdentifiableObject>> getSortedClasses( ObjectBundle bundle )
     {
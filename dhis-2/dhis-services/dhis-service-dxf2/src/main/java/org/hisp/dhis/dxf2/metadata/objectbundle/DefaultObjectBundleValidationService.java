@@ -36,6 +36,7 @@ import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.common.IdentifiableObjectUtils;
 import org.hisp.dhis.commons.timer.SystemTimer;
 import org.hisp.dhis.commons.timer.Timer;
+import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.dxf2.metadata.AtomicMode;
 import org.hisp.dhis.dxf2.metadata.objectbundle.feedback.ObjectBundleValidationReport;
 import org.hisp.dhis.feedback.ErrorCode;
@@ -60,9 +61,11 @@ import org.hisp.dhis.user.User;
 import org.hisp.dhis.user.UserCredentials;
 import org.hisp.dhis.user.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PreDestroy;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -71,6 +74,13 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -82,6 +92,11 @@ public class DefaultObjectBundleValidationService implements ObjectBundleValidat
 {
     private static final LoggingManager.Logger log = LoggingManager.createLogger( DefaultObjectBundleValidationService.class );
 
+    /**
+     * Default number of objects of a class per concurrently validated chunk.
+     */
+    static final int DEFAULT_CHUNK_SIZE = 500;
+
     @Autowired
     private SchemaService schemaService;
 
@@ -97,6 +112,26 @@ public class DefaultObjectBundleValidationService implements ObjectBundleValidat
     @Autowired( required = false )
     private List<ObjectBundleHook> objectBundleHooks = new ArrayList<>();
 
+    /**
+     * In-memory validation is pure computation against the preheat, hence the
+     * pool is bounded by the number of available processor cores.
+     */
+    private final ExecutorService executor = Executors.newFixedThreadPool(
+        Math.max( 1, SystemUtils.getCpuCores() ), new CustomizableThreadFactory( "object-bundle-validation-" ) );
+
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    @PreDestroy
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
+    void setChunkSize( int chunkSize )
+    {
+        this.chunkSize = chunkSize;
+    }
+
     @Override
     public ObjectBundleValidationReport validate( ObjectBundle bundle )
     {
@@ -111,106 +146,280 @@ public class DefaultObjectBundleValidationService implements ObjectBundleValidat
         }
 
         List<Class<? extends IdentifiableObject>> klasses = getSortedClasses( bundle );
+        List<TypeValidation> typeValidations = new ArrayList<>();
 
         for ( Class<? extends IdentifiableObject> klass : klasses )
         {
-            TypeReport typeReport = new TypeReport( klass );
+            TypeValidation typeValidation = new TypeValidation( klass, bundle );
+            typeValidation.run( () -> validateInSession( typeValidation, bundle ) );
 
-            List<IdentifiableObject> nonPersistedObjects = bundle.getObjects( klass, false );
-            List<IdentifiableObject> persistedObjects = bundle.getObjects( klass, true );
-            List<IdentifiableObject> allObjects = bundle.getObjectMap().get( klass );
+            if ( !bundle.isParallelValidation() )
+            {
+                typeValidation.run( () -> validateInMemory( typeValidation, bundle ) );
+            }
 
-            cleanDefaults( bundle.getPreheat(), nonPersistedObjects );
-            cleanDefaults( bundle.getPreheat(), persistedObjects );
+            typeValidations.add( typeValidation );
+        }
 
-            typeReport.merge( checkDuplicateIds( klass, persistedObjects, nonPersistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
+        if ( bundle.isParallelValidation() )
+        {
+            validateInMemoryConcurrently( typeValidations, bundle );
+        }
 
-            if ( bundle.getImportMode().isCreateAndUpdate() )
-            {
-                typeReport.merge( runValidationHooks( klass, nonPersistedObjects, bundle ) );
-                typeReport.merge( runValidationHooks( klass, persistedObjects, bundle ) );
-                typeReport.merge( validateSecurity( klass, nonPersistedObjects, bundle, ImportStrategy.CREATE ) );
-                typeReport.merge( validateSecurity( klass, persistedObjects, bundle, ImportStrategy.UPDATE ) );
-                typeReport.merge( validateBySchemas( klass, nonPersistedObjects, bundle ) );
-                typeReport.merge( validateBySchemas( klass, persistedObjects, bundle ) );
-                typeReport.merge( checkUniqueness( klass, nonPersistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
-                typeReport.merge( checkUniqueness( klass, persistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
-                typeReport.merge( checkMandatoryAttributes( klass, nonPersistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
-                typeReport.merge( checkMandatoryAttributes( klass, persistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
-                typeReport.merge( checkUniqueAttributes( klass, nonPersistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
-                typeReport.merge( checkUniqueAttributes( klass, persistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
+        for ( TypeValidation typeValidation : typeValidations )
+        {
+            validation.addTypeReport( typeValidation.getTypeReport() );
+            validation.addValidationTime( typeValidation.getKlass(), typeValidation.getMillis() );
 
-                TypeReport checkReferences = checkReferences( klass, allObjects, bundle.getPreheat(), bundle.getPreheatIdentifier(), bundle.isSkipSharing() );
+            log.debug( "(" + bundle.getUsername() + ") Import:Validation of " + typeValidation.getKlass().getSimpleName() +
+                " took " + typeValidation.getMillis() + " ms" );
+        }
 
-                if ( !checkReferences.getErrorReports().isEmpty() && AtomicMode.ALL == bundle.getAtomicMode() )
-                {
-                    typeReport.getStats().incIgnored();
-                }
+        validateAtomicity( bundle, validation );
+        bundle.setObjectBundleStatus( ObjectBundleStatus.VALIDATED );
 
-                typeReport.getStats().incCreated( nonPersistedObjects.size() );
-                typeReport.getStats().incUpdated( persistedObjects.size() );
+        log.info( "(" + bundle.getUsername() + ") Import:Validation took " + timer.toString() );
 
-                typeReport.merge( checkReferences );
-            }
-            else if ( bundle.getImportMode().isCreate() )
+        return validation;
+    }
+
+    /**
+     * Runs the checks which may access the Hibernate session, such as
+     * validation hooks and security checks. Must run on the calling thread.
+     */
+    private void validateInSession( TypeValidation typeValidation, ObjectBundle bundle )
+    {
+        Class<? extends IdentifiableObject> klass = typeValidation.getKlass();
+        TypeReport typeReport = typeValidation.getTypeReport();
+        List<IdentifiableObject> nonPersistedObjects = typeValidation.getNonPersistedObjects();
+        List<IdentifiableObject> persistedObjects = typeValidation.getPersistedObjects();
+
+        cleanDefaults( bundle.getPreheat(), nonPersistedObjects );
+        cleanDefaults( bundle.getPreheat(), persistedObjects );
+
+        typeReport.merge( checkDuplicateIds( klass, persistedObjects, nonPersistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
+
+        if ( bundle.getImportMode().isCreateAndUpdate() )
+        {
+            typeReport.merge( runValidationHooks( klass, nonPersistedObjects, bundle ) );
+            typeReport.merge( runValidationHooks( klass, persistedObjects, bundle ) );
+            typeReport.merge( validateSecurity( klass, nonPersistedObjects, bundle, ImportStrategy.CREATE ) );
+            typeReport.merge( validateSecurity( klass, persistedObjects, bundle, ImportStrategy.UPDATE ) );
+        }
+        else if ( bundle.getImportMode().isCreate() )
+        {
+            typeReport.merge( runValidationHooks( klass, nonPersistedObjects, bundle ) );
+            typeReport.merge( validateSecurity( klass, nonPersistedObjects, bundle, ImportStrategy.CREATE ) );
+            typeReport.merge( validateForCreate( klass, persistedObjects, bundle ) );
+        }
+        else if ( bundle.getImportMode().isUpdate() )
+        {
+            typeReport.merge( runValidationHooks( klass, persistedObjects, bundle ) );
+            typeReport.merge( validateSecurity( klass, persistedObjects, bundle, ImportStrategy.UPDATE ) );
+            typeReport.merge( validateForUpdate( klass, nonPersistedObjects, bundle ) );
+        }
+        else if ( bundle.getImportMode().isDelete() )
+        {
+            typeReport.merge( validateSecurity( klass, persistedObjects, bundle, ImportStrategy.DELETE ) );
+            typeReport.merge( validateForDelete( klass, nonPersistedObjects, bundle ) );
+
+            typeReport.getStats().incDeleted( persistedObjects.size() );
+        }
+    }
+
+    /**
+     * Runs the checks which only access the objects of the given class and the
+     * preheat, such as schema, uniqueness and reference checks. Can run
+     * concurrently for different classes. Uses the reports of the schema and
+     * reference checks of chunks when these were run concurrently.
+     */
+    private void validateInMemory( TypeValidation typeValidation, ObjectBundle bundle )
+    {
+        Class<? extends IdentifiableObject> klass = typeValidation.getKlass();
+        TypeReport typeReport = typeValidation.getTypeReport();
+        List<IdentifiableObject> nonPersistedObjects = typeValidation.getNonPersistedObjects();
+        List<IdentifiableObject> persistedObjects = typeValidation.getPersistedObjects();
+        List<IdentifiableObject> allObjects = typeValidation.getAllObjects();
+
+        if ( bundle.getImportMode().isCreateAndUpdate() )
+        {
+            typeReport.merge( validateBySchemas( klass, nonPersistedObjects, typeValidation.getNonPersistedChunks(), bundle ) );
+            typeReport.merge( validateBySchemas( klass, persistedObjects, typeValidation.getPersistedChunks(), bundle ) );
+            typeReport.merge( checkUniqueness( klass, nonPersistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
+            typeReport.merge( checkUniqueness( klass, persistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
+            typeReport.merge( checkMandatoryAttributes( klass, nonPersistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
+            typeReport.merge( checkMandatoryAttributes( klass, persistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
+            typeReport.merge( checkUniqueAttributes( klass, nonPersistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
+            typeReport.merge( checkUniqueAttributes( klass, persistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
+
+            TypeReport checkReferences = checkReferences( klass, allObjects, typeValidation.getReferenceChunks(), bundle );
+
+            if ( !checkReferences.getErrorReports().isEmpty() && AtomicMode.ALL == bundle.getAtomicMode() )
             {
-                typeReport.merge( runValidationHooks( klass, nonPersistedObjects, bundle ) );
-                typeReport.merge( validateSecurity( klass, nonPersistedObjects, bundle, ImportStrategy.CREATE ) );
-                typeReport.merge( validateForCreate( klass, persistedObjects, bundle ) );
-                typeReport.merge( validateBySchemas( klass, nonPersistedObjects, bundle ) );
-                typeReport.merge( checkUniqueness( klass, nonPersistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
-                typeReport.merge( checkMandatoryAttributes( klass, nonPersistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
-                typeReport.merge( checkUniqueAttributes( klass, nonPersistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
+                typeReport.getStats().incIgnored();
+            }
 
-                TypeReport checkReferences = checkReferences( klass, allObjects, bundle.getPreheat(), bundle.getPreheatIdentifier(), bundle.isSkipSharing() );
+            typeReport.getStats().incCreated( nonPersistedObjects.size() );
+            typeReport.getStats().incUpdated( persistedObjects.size() );
 
-                if ( !checkReferences.getErrorReports().isEmpty() && AtomicMode.ALL == bundle.getAtomicMode() )
-                {
-                    typeReport.getStats().incIgnored();
-                }
+            typeReport.merge( checkReferences );
+        }
+        else if ( bundle.getImportMode().isCreate() )
+        {
+            typeReport.merge( validateBySchemas( klass, nonPersistedObjects, typeValidation.getNonPersistedChunks(), bundle ) );
+            typeReport.merge( checkUniqueness( klass, nonPersistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
+            typeReport.merge( checkMandatoryAttributes( klass, nonPersistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
+            typeReport.merge( checkUniqueAttributes( klass, nonPersistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
 
-                typeReport.getStats().incCreated( nonPersistedObjects.size() );
+            TypeReport checkReferences = checkReferences( klass, allObjects, typeValidation.getReferenceChunks(), bundle );
 
-                typeReport.merge( checkReferences );
+            if ( !checkReferences.getErrorReports().isEmpty() && AtomicMode.ALL == bundle.getAtomicMode() )
+            {
+                typeReport.getStats().incIgnored();
             }
-            else if ( bundle.getImportMode().isUpdate() )
+
+            typeReport.getStats().incCreated( nonPersistedObjects.size() );
+
+            typeReport.merge( checkReferences );
+        }
+        else if ( bundle.getImportMode().isUpdate() )
+        {
+            typeReport.merge( validateBySchemas( klass, persistedObjects, typeValidation.getPersistedChunks(), bundle ) );
+            typeReport.merge( checkUniqueness( klass, persistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
+            typeReport.merge( checkMandatoryAttributes( klass, persistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
+            typeReport.merge( checkUniqueAttributes( klass, persistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
+
+            TypeReport checkReferences = checkReferences( klass, allObjects, typeValidation.getReferenceChunks(), bundle );
+
+            if ( !checkReferences.getErrorReports().isEmpty() && AtomicMode.ALL == bundle.getAtomicMode() )
             {
-                typeReport.merge( runValidationHooks( klass, persistedObjects, bundle ) );
-                typeReport.merge( validateSecurity( klass, persistedObjects, bundle, ImportStrategy.UPDATE ) );
-                typeReport.merge( validateForUpdate( klass, nonPersistedObjects, bundle ) );
-                typeReport.merge( validateBySchemas( klass, persistedObjects, bundle ) );
-                typeReport.merge( checkUniqueness( klass, persistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
-                typeReport.merge( checkMandatoryAttributes( klass, persistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
-                typeReport.merge( checkUniqueAttributes( klass, persistedObjects, bundle.getPreheat(), bundle.getPreheatIdentifier() ) );
+                typeReport.getStats().incIgnored();
+            }
 
-                TypeReport checkReferences = checkReferences( klass, allObjects, bundle.getPreheat(), bundle.getPreheatIdentifier(), bundle.isSkipSharing() );
+            typeReport.getStats().incUpdated( persistedObjects.size() );
 
-                if ( !checkReferences.getErrorReports().isEmpty() && AtomicMode.ALL == bundle.getAtomicMode() )
-                {
-                    typeReport.getStats().incIgnored();
-                }
+            typeReport.merge( checkReferences );
+        }
+    }
 
-                typeReport.getStats().incUpdated( persistedObjects.size() );
+    /**
+     * Runs the in-memory checks concurrently. The schema and reference checks
+     * are independent per object and run on chunks of the objects of each
+     * class first. The remaining checks depend on the order of the objects and
+     * run per class, merging the chunk reports in order. The preheat
+     * uniqueness maps are made concurrent as they are shared between classes.
+     */
+    private void validateInMemoryConcurrently( List<TypeValidation> typeValidations, ObjectBundle bundle )
+    {
+        Preheat preheat = bundle.getPreheat();
+        preheat.setUniquenessMap( new ConcurrentHashMap<>( preheat.getUniquenessMap() ) );
+        preheat.setUniqueAttributeValues( new ConcurrentHashMap<>( preheat.getUniqueAttributeValues() ) );
 
-                typeReport.merge( checkReferences );
+        List<Runnable> chunkTasks = new ArrayList<>();
+
+        for ( TypeValidation typeValidation : typeValidations )
+        {
+            Class<? extends IdentifiableObject> klass = typeValidation.getKlass();
+
+            if ( bundle.getImportMode().isCreateAndUpdate() || bundle.getImportMode().isCreate() )
+            {
+                typeValidation.setNonPersistedChunks( createChunks( typeValidation.getNonPersistedObjects() ) );
+                typeValidation.getNonPersistedChunks().forEach( chunk -> chunkTasks.add( () -> typeValidation.run( () ->
+                    chunk.setTypeReport( validateBySchemas( klass, chunk.getObjects(), bundle ) ) ) ) );
             }
-            else if ( bundle.getImportMode().isDelete() )
+
+            if ( bundle.getImportMode().isCreateAndUpdate() || bundle.getImportMode().isUpdate() )
             {
-                typeReport.merge( validateSecurity( klass, persistedObjects, bundle, ImportStrategy.DELETE ) );
-                typeReport.merge( validateForDelete( klass, nonPersistedObjects, bundle ) );
+                typeValidation.setPersistedChunks( createChunks( typeValidation.getPersistedObjects() ) );
+                typeValidation.getPersistedChunks().forEach( chunk -> chunkTasks.add( () -> typeValidation.run( () ->
+                    chunk.setTypeReport( validateBySchemas( klass, chunk.getObjects(), bundle ) ) ) ) );
+            }
 
-                typeReport.getStats().incDeleted( persistedObjects.size() );
+            if ( !bundle.getImportMode().isDelete() )
+            {
+                typeValidation.setReferenceChunks( createChunks( typeValidation.getAllObjects() ) );
+                typeValidation.getReferenceChunks().forEach( chunk -> chunkTasks.add( () -> typeValidation.run( () ->
+                    chunk.setTypeReport( checkReferences( klass, chunk.getObjects(), preheat, bundle.getPreheatIdentifier(), bundle.isSkipSharing() ) ) ) ) );
             }
+        }
+
+        runConcurrently( chunkTasks );
+
+        runConcurrently( typeValidations.stream()
+            .map( typeValidation -> (Runnable) () -> typeValidation.run( () -> validateInMemory( typeValidation, bundle ) ) )
+            .collect( Collectors.toList() ) );
+    }
 
-            validation.addTypeReport( typeReport );
+    /**
+     * Runs the given tasks on the executor and waits for all of them to
+     * complete.
+     */
+    private void runConcurrently( List<Runnable> tasks )
+    {
+        List<Future<?>> futures = tasks.stream()
+            .map( executor::submit )
+            .collect( Collectors.toList() );
+
+        try
+        {
+            for ( Future<?> future : futures )
+            {
+                future.get();
+            }
         }
+        catch ( InterruptedException ex )
+        {
+            futures.forEach( future -> future.cancel( true ) );
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "Interrupted during validation of metadata import", ex );
+        }
+        catch ( ExecutionException ex )
+        {
+            futures.forEach( future -> future.cancel( true ) );
+            throw ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause() : new IllegalStateException( ex.getCause() );
+        }
+    }
 
-        validateAtomicity( bundle, validation );
-        bundle.setObjectBundleStatus( ObjectBundleStatus.VALIDATED );
+    private List<Chunk> createChunks( List<IdentifiableObject> objects )
+    {
+        List<Chunk> chunks = new ArrayList<>();
 
-        log.info( "(" + bundle.getUsername() + ") Import:Validation took " + timer.toString() );
+        for ( int offset = 0; offset < objects.size(); offset += chunkSize )
+        {
+            chunks.add( new Chunk( offset, new ArrayList<>( objects.subList( offset, Math.min( offset + chunkSize, objects.size() ) ) ) ) );
+        }
 
-        return validation;
+        return chunks;
+    }
+
+    /**
+     * Merges the reports of the given chunks in order, offsetting the object
+     * indexes by the position of each chunk, and retains the objects of the
+     * chunks which passed the check.
+     */
+    private TypeReport mergeChunks( Class<? extends IdentifiableObject> klass, List<IdentifiableObject> objects, List<Chunk> chunks )
+    {
+        TypeReport typeReport = new TypeReport( klass );
+
+        objects.clear();
+
+        for ( Chunk chunk : chunks )
+        {
+            TypeReport chunkReport = new TypeReport( klass );
+            chunkReport.getStats().merge( chunk.getTypeReport().getStats() );
+
+            chunk.getTypeReport().getObjectReports().forEach( objectReport -> {
+                ObjectReport offsetReport = new ObjectReport( objectReport.getKlass(), objectReport.getIndex() + chunk.getOffset(),
+                    objectReport.getUid(), objectReport.getDisplayName() );
+                offsetReport.addErrorReports( objectReport.getErrorReports() );
+                chunkReport.addObjectReport( offsetReport );
+            } );
+
+            typeReport.merge( chunkReport );
+            objects.addAll( chunk.getObjects() );
+        }
+
+        return typeReport;
     }
 
     private void cleanDefaults( Preheat preheat, List<IdentifiableObject> objects )
@@ -500,6 +709,11 @@ public class DefaultObjectBundleValidationService implements ObjectBundleValidat
         return typeReport;
     }
 
+    private TypeReport validateBySchemas( Class<? extends IdentifiableObject> klass, List<IdentifiableObject> objects, List<Chunk> chunks, ObjectBundle bundle )
+    {
+        return chunks != null ? mergeChunks( klass, objects, chunks ) : validateBySchemas( klass, objects, bundle );
+    }
+
     private TypeReport validateBySchemas( Class<? extends IdentifiableObject> klass, List<IdentifiableObject> objects, ObjectBundle bundle )
     {
         TypeReport typeReport = new TypeReport( klass );
@@ -555,6 +769,12 @@ public class DefaultObjectBundleValidationService implements ObjectBundleValidat
         return klasses;
     }
 
+    private TypeReport checkReferences( Class<? extends IdentifiableObject> klass, List<IdentifiableObject> objects, List<Chunk> chunks, ObjectBundle bundle )
+    {
+        return chunks != null ? mergeChunks( klass, objects, chunks ) :
+            checkReferences( klass, objects, bundle.getPreheat(), bundle.getPreheatIdentifier(), bundle.isSkipSharing() );
+    }
+
     private TypeReport checkReferences( Class<? extends IdentifiableObject> klass, List<IdentifiableObject> objects, Preheat preheat, PreheatIdentifier identifier, boolean skipSharing )
     {
         TypeReport typeReport = new TypeReport( klass );
@@ -788,45 +1008,45 @@ public class DefaultObjectBundleValidationService implements ObjectBundleValidat
 
         if ( object == null || preheat.isDefault( object ) ) return errorReports;
 
-        if ( !preheat.getUniquenessMap().containsKey( object.getClass() ) )
-        {
-            preheat.getUniquenessMap().put( object.getClass(), new HashMap<>() );
-        }
-
-        Map<String, Map<Object, String>> uniquenessMap = preheat.getUniquenessMap().get( object.getClass() );
+        Map<String, Map<Object, String>> uniquenessMap = preheat.getUniquenessMap().computeIfAbsent( object.getClass(), k -> new HashMap<>() );
 
         Schema schema = schemaService.getDynamicSchema( object.getClass() );
         List<Property> uniqueProperties = schema.getProperties().stream()
             .filter( p -> p.isPersisted() && p.isOwner() && p.isUnique() && p.isSimple() )
             .collect( Collectors.toList() );
 
-        uniqueProperties.forEach( property ->
+        // User credentials are checked together with users, which may be validated concurrently
+
+        synchronized ( uniquenessMap )
         {
-            if ( !uniquenessMap.containsKey( property.getName() ) )
+            uniqueProperties.forEach( property ->
             {
-                uniquenessMap.put( property.getName(), new HashMap<>() );
-            }
-
-            Object value = ReflectionUtils.invokeMethod( object, property.getGetterMethod() );
+                if ( !uniquenessMap.containsKey( property.getName() ) )
+                {
+                    uniquenessMap.put( property.getName(), new HashMap<>() );
+                }
 
-            if ( value != null )
-            {
-                String persistedUid = uniquenessMap.get( property.getName() ).get( value );
+                Object value = ReflectionUtils.invokeMethod( object, property.getGetterMethod() );
 
-                if ( persistedUid != null )
+                if ( value != null )
                 {
-                    if ( !object.getUid().equals( persistedUid ) )
+                    String persistedUid = uniquenessMap.get( property.getName() ).get( value );
+
+                    if ( persistedUid != null )
                     {
-                        errorReports.add( new ErrorReport( object.getClass(), ErrorCode.E5003, property.getName(), value,
-                            identifier.getIdentifiersWithName( object ), persistedUid ).setMainId( persistedUid ).setErrorProperty( property.getName() ) );
+                        if ( !object.getUid().equals( persistedUid ) )
+                        {
+                            errorReports.add( new ErrorReport( object.getClass(), ErrorCode.E5003, property.getName(), value,
+                                identifier.getIdentifiersWithName( object ), persistedUid ).setMainId( persistedUid ).setErrorProperty( property.getName() ) );
+                        }
+                    }
+                    else
+                    {
+                        uniquenessMap.get( property.getName() ).put( value, object.getUid() );
                     }
                 }
-                else
-                {
-                    uniquenessMap.get( property.getName() ).put( value, object.getUid() );
-                }
-            }
-        } );
+            } );
+        }
 
         return errorReports;
     }
@@ -937,12 +1157,7 @@ public class DefaultObjectBundleValidationService implements ObjectBundleValidat
         Set<AttributeValue> attributeValues = object.getAttributeValues();
         List<String> uniqueAttributes = new ArrayList<>( preheat.getUniqueAttributes().get( klass ) ); // make copy for modification
 
-        if ( !preheat.getUniqueAttributeValues().containsKey( klass ) )
-        {
-            preheat.getUniqueAttributeValues().put( klass, new HashMap<>() );
-        }
-
-        Map<String, Map<String, String>> uniqueAttributeValues = preheat.getUniqueAttributeValues().get( klass );
+        Map<String, Map<String, String>> uniqueAttributeValues = preheat.getUniqueAttributeValues().computeIfAbsent( klass, k -> new HashMap<>() );
 
         if ( uniqueAttributes.isEmpty() )
         {
@@ -987,4 +1202,144 @@ public class DefaultObjectBundleValidationService implements ObjectBundleValidat
         return klass != null && (UserCredentials.class.isAssignableFrom( klass ) || EmbeddedObject.class.isAssignableFrom( klass ) ||
             Period.class.isAssignableFrom( klass ) || PeriodType.class.isAssignableFrom( klass ));
     }
+
+    /**
+     * Objects and type report of a class being validated, with the time spent
+     * validating it.
+     */
+    private static class TypeValidation
+    {
+        private final Class<? extends IdentifiableObject> klass;
+
+        private final List<IdentifiableObject> nonPersistedObjects;
+
+        private final List<IdentifiableObject> persistedObjects;
+
+        private final List<IdentifiableObject> allObjects;
+
+        private final TypeReport typeReport;
+
+        private final AtomicLong nanos = new AtomicLong();
+
+        private List<Chunk> nonPersistedChunks;
+
+        private List<Chunk> persistedChunks;
+
+        private List<Chunk> referenceChunks;
+
+        TypeValidation( Class<? extends IdentifiableObject> klass, ObjectBundle bundle )
+        {
+            this.klass = klass;
+            this.nonPersistedObjects = bundle.getObjects( klass, false );
+            this.persistedObjects = bundle.getObjects( klass, true );
+            this.allObjects = bundle.getObjectMap().get( klass );
+            this.typeReport = new TypeReport( klass );
+        }
+
+        void run( Runnable validation )
+        {
+            Timer timer = new SystemTimer().start();
+            validation.run();
+            nanos.addAndGet( timer.stop().duration() );
+        }
+
+        Class<? extends IdentifiableObject> getKlass()
+        {
+            return klass;
+        }
+
+        List<IdentifiableObject> getNonPersistedObjects()
+        {
+            return nonPersistedObjects;
+        }
+
+        List<IdentifiableObject> getPersistedObjects()
+        {
+            return persistedObjects;
+        }
+
+        List<IdentifiableObject> getAllObjects()
+        {
+            return allObjects;
+        }
+
+        TypeReport getTypeReport()
+        {
+            return typeReport;
+        }
+
+        List<Chunk> getNonPersistedChunks()
+        {
+            return nonPersistedChunks;
+        }
+
+        void setNonPersistedChunks( List<Chunk> nonPersistedChunks )
+        {
+            this.nonPersistedChunks = nonPersistedChunks;
+        }
+
+        List<Chunk> getPersistedChunks()
+        {
+            return persistedChunks;
+        }
+
+        void setPersistedChunks( List<Chunk> persistedChunks )
+        {
+            this.persistedChunks = persistedChunks;
+        }
+
+        List<Chunk> getReferenceChunks()
+        {
+            return referenceChunks;
+        }
+
+        void setReferenceChunks( List<Chunk> referenceChunks )
+        {
+            this.referenceChunks = referenceChunks;
+        }
+
+        long getMillis()
+        {
+            return TimeUnit.NANOSECONDS.toMillis( nanos.get() );
+        }
+    }
+
+    /**
+     * Copy of a contiguous range of the objects of a class, starting at the
+     * given offset, with the report of a check run on it.
+     */
+    private static class Chunk
+    {
+        private final int offset;
+
+        private final List<IdentifiableObject> objects;
+
+        private TypeReport typeReport;
+
+        Chunk( int offset, List<IdentifiableObject> objects )
+        {
+            this.offset = offset;
+            this.objects = objects;
+        }
+
+        int getOffset()
+        {
+            return offset;
+        }
+
+        List<IdentifiableObject> getObjects()
+        {
+            return objects;
+        }
+
+        TypeReport getTypeReport()
+        {
+            return typeReport;
+        }
+
+        void setTypeReport( TypeReport typeReport )
+        {
+            this.typeReport = typeReport;
+        }
+    }
 }
@@ -124,6 +124,11 @@ public class ObjectBundle
      */
     private final boolean skipValidation;
 
+    /**
+     * Validate objects of different classes concurrently.
+     */
+    private final boolean parallelValidation;
+
     /**
      * Job id to use for threaded imports.
      */
@@ -169,6 +174,7 @@ public class ObjectBundle
         this.skipSharing = params.isSkipSharing();
         this.skipTranslation = params.isSkipTranslation();
         this.skipValidation = params.isSkipValidation();
+        this.parallelValidation = params.isParallelValidation();
         this.jobId = params.getJobId();
         this.preheat = preheat;
 
@@ -250,6 +256,11 @@ public class ObjectBundle
         return skipValidation;
     }
 
+    public boolean isParallelValidation()
+    {
+        return parallelValidation;
+    }
+
     public JobConfiguration getJobId()
     {
         return jobId;
@@ -82,6 +82,8 @@ public class ObjectBundleParams
 
     private boolean skipValidation;
 
+    private boolean parallelValidation;
+
     private JobConfiguration jobId;
 
     public ObjectBundleParams()
@@ -243,6 +245,17 @@ public class ObjectBundleParams
         return this;
     }
 
+    public boolean isParallelValidation()
+    {
+        return parallelValidation;
+    }
+
+    public ObjectBundleParams setParallelValidation( boolean parallelValidation )
+    {
+        this.parallelValidation = parallelValidation;
+        return this;
+    }
+
     public JobConfiguration getJobId()
     {
         return jobId;
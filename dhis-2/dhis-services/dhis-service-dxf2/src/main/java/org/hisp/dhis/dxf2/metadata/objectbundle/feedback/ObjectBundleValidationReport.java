@@ -35,7 +35,7 @@ import org.hisp.dhis.feedback.ObjectReport;
 import org.hisp.dhis.feedback.TypeReport;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -44,7 +44,15 @@ import java.util.Map;
  */
 public class ObjectBundleValidationReport
 {
-    private Map<Class<?>, TypeReport> typeReportMap = new HashMap<>();
+    /**
+     * Type reports in the order in which classes were validated.
+     */
+    private Map<Class<?>, TypeReport> typeReportMap = new LinkedHashMap<>();
+
+    /**
+     * Validation time in milliseconds per class.
+     */
+    private Map<Class<?>, Long> validationTimeMap = new LinkedHashMap<>();
 
     public ObjectBundleValidationReport()
     {
@@ -89,7 +97,12 @@ public class ObjectBundleValidationReport
         }
 
         TypeReport typeReport = typeReportMap.get( report.getKlass() );
-        typeReport.merge( typeReport );
+        typeReport.merge( report );
+    }
+
+    public void addValidationTime( Class<?> klass, long millis )
+    {
+        validationTimeMap.merge( klass, millis, Long::sum );
     }
 
     //-----------------------------------------------------------------------------------
@@ -116,6 +129,11 @@ public class ObjectBundleValidationReport
         return typeReportMap.get( klass );
     }
 
+    public Map<Class<?>, Long> getValidationTimeMap()
+    {
+        return validationTimeMap;
+    }
+
     public List<ObjectReport> getObjectReports( Class<?> klass )
     {
         if ( !typeReportMap.containsKey( klass ) )
@@ -149,6 +167,7 @@ public class ObjectBundleValidationReport
     {
         return MoreObjects.toStringHelper( this )
             .add( "typeReportMap", typeReportMap )
+            .add( "validationTimeMap", validationTimeMap )
             .toString();
     }
 }
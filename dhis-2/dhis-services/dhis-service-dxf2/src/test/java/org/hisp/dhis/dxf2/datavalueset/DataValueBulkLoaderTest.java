@@ -0,0 +1,264 @@
+package org.hisp.dhis.dxf2.datavalueset;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.hisp.dhis.IntegrationTest;
+import org.hisp.dhis.IntegrationTestBase;
+import org.hisp.dhis.category.CategoryOptionCombo;
+import org.hisp.dhis.category.CategoryService;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.datavalue.DataValue;
+import org.hisp.dhis.datavalue.DataValueService;
+import org.hisp.dhis.dxf2.importsummary.ImportCount;
+import org.hisp.dhis.dxf2.importsummary.ImportSummary;
+import org.hisp.dhis.importexport.ImportStrategy;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.period.MonthlyPeriodType;
+import org.hisp.dhis.period.Period;
+import org.hisp.dhis.period.PeriodService;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Category( IntegrationTest.class )
+public class DataValueBulkLoaderTest
+    extends IntegrationTestBase
+{
+    @Autowired
+    private IdentifiableObjectManager idObjectManager;
+
+    @Autowired
+    private PeriodService periodService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private DataValueService dataValueService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private DataElement deA;
+    private DataElement deB;
+
+    private Period peA;
+
+    private OrganisationUnit ouA;
+
+    private CategoryOptionCombo coc;
+
+    @Override
+    public boolean emptyDatabaseAfterTest()
+    {
+        return true;
+    }
+
+    @Override
+    protected void setUpTest()
+    {
+        deA = createDataElement( 'A' );
+        deB = createDataElement( 'B' );
+
+        idObjectManager.save( deA );
+        idObjectManager.save( deB );
+
+        peA = createPeriod( new MonthlyPeriodType(), getDate( 2018, 1, 1 ), getDate( 2018, 1, 31 ) );
+
+        periodService.addPeriod( peA );
+
+        ouA = createOrganisationUnit( 'A' );
+
+        idObjectManager.save( ouA );
+
+        coc = categoryService.getDefaultCategoryOptionCombo();
+    }
+
+    @Test
+    public void testInsertThroughStagingTable()
+    {
+        DataValueBulkLoader loader = new DataValueBulkLoader( jdbcTemplate, ImportStrategy.CREATE_AND_UPDATE, false );
+
+        loader.add( createValue( deA, "10", null ) );
+        loader.add( createValue( deB, "20", "Comment" ) );
+
+        ImportSummary summary = new ImportSummary();
+        ImportCount count = loader.finish( summary );
+
+        assertEquals( 2, count.getImported() );
+        assertEquals( 0, count.getUpdated() );
+        assertEquals( 0, count.getDeleted() );
+        assertTrue( summary.getConflicts().isEmpty() );
+
+        assertEquals( "10", getStoredValue( deA ) );
+        assertEquals( "20", getStoredValue( deB ) );
+        assertEquals( "Comment", jdbcTemplate.queryForObject(
+            "select comment from datavalue where dataelementid = " + deB.getId(), String.class ) );
+        assertStagingTableDropped();
+    }
+
+    @Test
+    public void testUpdateAndDeleteExisting()
+    {
+        dataValueService.addDataValue( createValue( deA, "10", null ) );
+        dataValueService.addDataValue( createValue( deB, "20", null ) );
+
+        DataValueBulkLoader loader = new DataValueBulkLoader( jdbcTemplate, ImportStrategy.CREATE_AND_UPDATE, false );
+
+        loader.add( createValue( deA, "11", null ) );
+        loader.add( createValue( deB, null, null ) );
+
+        ImportCount count = loader.finish( new ImportSummary() );
+
+        assertEquals( 0, count.getImported() );
+        assertEquals( 1, count.getUpdated() );
+        assertEquals( 1, count.getDeleted() );
+
+        assertEquals( "11", getStoredValue( deA ) );
+        assertTrue( jdbcTemplate.queryForObject(
+            "select deleted from datavalue where dataelementid = " + deB.getId(), Boolean.class ) );
+
+        assertEquals( Integer.valueOf( 1 ), jdbcTemplate.queryForObject(
+            "select count(*) from datavalueaudit where dataelementid = " + deA.getId() + " and audittype = 'UPDATE' and value = '10'", Integer.class ) );
+        assertEquals( Integer.valueOf( 1 ), jdbcTemplate.queryForObject(
+            "select count(*) from datavalueaudit where dataelementid = " + deB.getId() + " and audittype = 'DELETE' and value = '20'", Integer.class ) );
+    }
+
+    @Test
+    public void testRestoreSoftDeleted()
+    {
+        DataValue dataValue = createValue( deA, "10", null );
+        dataValue.setDeleted( true );
+        dataValueService.addDataValue( dataValue );
+
+        DataValueBulkLoader loader = new DataValueBulkLoader( jdbcTemplate, ImportStrategy.CREATE_AND_UPDATE, false );
+
+        loader.add( createValue( deA, "12", null ) );
+
+        ImportCount count = loader.finish( new ImportSummary() );
+
+        assertEquals( 1, count.getImported() );
+        assertEquals( "12", getStoredValue( deA ) );
+        assertEquals( Boolean.FALSE, jdbcTemplate.queryForObject(
+            "select deleted from datavalue where dataelementid = " + deA.getId(), Boolean.class ) );
+    }
+
+    @Test
+    public void testSkipExistingCheckLeavesExistingUntouched()
+    {
+        dataValueService.addDataValue( createValue( deA, "10", null ) );
+
+        DataValueBulkLoader loader = new DataValueBulkLoader( jdbcTemplate, ImportStrategy.CREATE, true );
+
+        loader.add( createValue( deA, "11", null ) );
+        loader.add( createValue( deB, "20", null ) );
+
+        ImportCount count = loader.finish( new ImportSummary() );
+
+        assertEquals( 1, count.getImported() );
+        assertEquals( "10", getStoredValue( deA ) );
+        assertEquals( "20", getStoredValue( deB ) );
+    }
+
+    @Test
+    public void testDuplicatesAreReportedAndLastValueIsUsed()
+    {
+        DataValueBulkLoader loader = new DataValueBulkLoader( jdbcTemplate, ImportStrategy.CREATE_AND_UPDATE, false );
+
+        loader.add( createValue( deA, "10", null ) );
+        loader.add( createValue( deA, "11", null ) );
+        loader.add( createValue( deB, "20", null ) );
+
+        ImportSummary summary = new ImportSummary();
+        ImportCount count = loader.finish( summary );
+
+        assertEquals( 2, count.getImported() );
+        assertEquals( 1, summary.getConflicts().size() );
+        assertEquals( deA.getUid(), summary.getConflicts().iterator().next().getObject() );
+        assertEquals( "11", getStoredValue( deA ) );
+    }
+
+    @Test
+    public void testChunkIsRolledBackOnFailure()
+    {
+        Period unsaved = createPeriod( new MonthlyPeriodType(), getDate( 2018, 2, 1 ), getDate( 2018, 2, 28 ) );
+        unsaved.setId( Integer.MAX_VALUE );
+
+        DataValueBulkLoader loader = new DataValueBulkLoader( jdbcTemplate, ImportStrategy.CREATE_AND_UPDATE, false );
+
+        loader.add( createValue( deA, "10", null ) );
+        loader.add( new DataValue( deB, unsaved, ouA, coc, coc, "20" ) );
+
+        try
+        {
+            loader.finish( new ImportSummary() );
+            fail( "Expected failure on missing period" );
+        }
+        catch ( DataAccessException ex )
+        {
+            // Expected
+        }
+
+        assertNull( getStoredValue( deA ) );
+        assertEquals( Integer.valueOf( 0 ), jdbcTemplate.queryForObject( "select count(*) from datavalue", Integer.class ) );
+        assertStagingTableDropped();
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private DataValue createValue( DataElement dataElement, String value, String comment )
+    {
+        DataValue dataValue = new DataValue( dataElement, peA, ouA, coc, coc, value );
+        dataValue.setComment( comment );
+        dataValue.setStoredBy( "admin" );
+        return dataValue;
+    }
+
+    private String getStoredValue( DataElement dataElement )
+    {
+        return jdbcTemplate.query( "select value from datavalue where dataelementid = " + dataElement.getId(),
+            rs -> rs.next() ? rs.getString( 1 ) : null );
+    }
+
+    private void assertStagingTableDropped()
+    {
+        assertEquals( Integer.valueOf( 0 ), jdbcTemplate.queryForObject(
+            "select count(*) from pg_tables where tablename = '_datavalueimport'", Integer.class ) );
+    }
+}
@@ -0,0 +1,221 @@
+package org.hisp.dhis.dxf2.datavalueset;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.hisp.dhis.category.CategoryOptionCombo;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.datavalue.DataValue;
+import org.hisp.dhis.datavalue.DataValueAudit;
+import org.hisp.dhis.dxf2.importsummary.ImportConflict;
+import org.hisp.dhis.dxf2.importsummary.ImportCount;
+import org.hisp.dhis.dxf2.importsummary.ImportSummary;
+import org.hisp.dhis.importexport.ImportStrategy;
+import org.hisp.dhis.jdbc.batchhandler.DataValueBatchHandler;
+import org.hisp.dhis.mock.batchhandler.MockBatchHandler;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.period.MonthlyPeriodType;
+import org.hisp.dhis.period.Period;
+import org.hisp.quick.BatchHandler;
+import org.hisp.quick.BatchHandlerFactory;
+import org.junit.Test;
+
+public class PartitionedDataValueWriterTest
+{
+    private final DataElement deA = new DataElement( "DataElementA" );
+    private final Period peA = new MonthlyPeriodType().createPeriod( "201801" );
+    private final CategoryOptionCombo cocA = new CategoryOptionCombo();
+
+    @Test
+    public void testWriteNewValues()
+    {
+        RecordingBatchHandlerFactory factory = new RecordingBatchHandlerFactory( false );
+
+        PartitionedDataValueWriter writer = new PartitionedDataValueWriter( factory, 3 );
+        writer.start( ImportStrategy.CREATE_AND_UPDATE, false, false );
+
+        for ( int i = 0; i < 50; i++ )
+        {
+            writer.write( createDataValue( i % 5, String.valueOf( i ) ) );
+        }
+
+        ImportCount count = writer.finish( new ImportSummary() );
+
+        assertEquals( 50, count.getImported() );
+        assertEquals( 0, count.getUpdated() );
+        assertEquals( 0, count.getDeleted() );
+        assertEquals( 3, factory.dataValueHandlers.size() );
+
+        int inserts = 0;
+
+        for ( MockBatchHandler<DataValue> handler : factory.dataValueHandlers )
+        {
+            Set<Integer> orgUnits = handler.getInserts().stream().map( dv -> dv.getSource().getId() ).collect( Collectors.toSet() );
+
+            orgUnits.forEach( ou -> assertEquals( ou % 3, factory.dataValueHandlers.indexOf( handler ) ) );
+
+            inserts += handler.getInserts().size();
+        }
+
+        assertEquals( 50, inserts );
+    }
+
+    @Test
+    public void testWriteExistingValues()
+    {
+        RecordingBatchHandlerFactory factory = new RecordingBatchHandlerFactory( true );
+
+        PartitionedDataValueWriter writer = new PartitionedDataValueWriter( factory, 2 );
+        writer.start( ImportStrategy.CREATE_AND_UPDATE, false, false );
+
+        writer.write( createDataValue( 1, "10" ) );
+        writer.write( createDataValue( 2, "20" ) );
+        writer.write( createDataValue( 3, null ) );
+
+        ImportCount count = writer.finish( new ImportSummary() );
+
+        assertEquals( 0, count.getImported() );
+        assertEquals( 2, count.getUpdated() );
+        assertEquals( 1, count.getDeleted() );
+    }
+
+    @Test
+    public void testDryRun()
+    {
+        RecordingBatchHandlerFactory factory = new RecordingBatchHandlerFactory( false );
+
+        PartitionedDataValueWriter writer = new PartitionedDataValueWriter( factory, 2 );
+        writer.start( ImportStrategy.CREATE_AND_UPDATE, false, true );
+
+        writer.write( createDataValue( 1, "10" ) );
+        writer.write( createDataValue( 2, "20" ) );
+
+        ImportCount count = writer.finish( new ImportSummary() );
+
+        assertEquals( 2, count.getImported() );
+        assertEquals( 0, factory.dataValueHandlers.stream().mapToInt( h -> h.getInserts().size() ).sum() );
+    }
+
+    @Test
+    public void testValidateOnWriterThreads()
+    {
+        RecordingBatchHandlerFactory factory = new RecordingBatchHandlerFactory( false );
+
+        PartitionedDataValueWriter writer = new PartitionedDataValueWriter( factory, 3 );
+        writer.start( ImportStrategy.CREATE_AND_UPDATE, false, false );
+
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        for ( int i = 0; i < 30; i++ )
+        {
+            final String value = String.valueOf( i );
+
+            writer.write( createDataValue( i % 3, value ), conflicts -> {
+                threads.add( Thread.currentThread().getName() );
+
+                if ( Integer.parseInt( value ) % 10 == 0 )
+                {
+                    conflicts.add( new ImportConflict( value, "Invalid value" ) );
+                    return false;
+                }
+
+                return Integer.parseInt( value ) % 10 != 5;
+            } );
+        }
+
+        ImportSummary summary = new ImportSummary();
+
+        ImportCount count = writer.finish( summary );
+
+        assertEquals( 24, count.getImported() );
+        assertEquals( 3, summary.getConflicts().size() );
+        assertEquals( 3, threads.size() );
+        assertFalse( threads.contains( Thread.currentThread().getName() ) );
+    }
+
+    @Test
+    public void testCancelWithoutStart()
+    {
+        new PartitionedDataValueWriter( new RecordingBatchHandlerFactory( false ), 2 ).cancel();
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private DataValue createDataValue( int orgUnitId, String value )
+    {
+        OrganisationUnit orgUnit = new OrganisationUnit( "OrgUnit" + orgUnitId );
+        orgUnit.setId( orgUnitId );
+
+        DataValue dataValue = new DataValue( deA, peA, orgUnit, cocA, cocA, value );
+        dataValue.setStoredBy( "admin" );
+
+        return dataValue;
+    }
+
+    /**
+     * Creates a new mock batch handler per call, as each partition requires
+     * its own batch handlers.
+     */
+    private static class RecordingBatchHandlerFactory
+        implements BatchHandlerFactory
+    {
+        private final boolean findSelf;
+
+        private final List<MockBatchHandler<DataValue>> dataValueHandlers = new ArrayList<>();
+
+        RecordingBatchHandlerFactory( boolean findSelf )
+        {
+            this.findSelf = findSelf;
+        }
+
+        @Override
+        @SuppressWarnings( "unchecked" )
+        public <T> BatchHandler<T> createBatchHandler( Class<? extends BatchHandler<T>> clazz )
+        {
+            if ( DataValueBatchHandler.class.equals( clazz ) )
+            {
+                MockBatchHandler<DataValue> handler = new MockBatchHandler<DataValue>().withFindSelf( findSelf );
+                dataValueHandlers.add( handler );
+                return (BatchHandler<T>) handler;
+            }
+
+            return (BatchHandler<T>) new MockBatchHandler<DataValueAudit>();
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package org.hisp.dhis.dxf2.events.event;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+
+import org.hisp.dhis.IntegrationTest;
+import org.hisp.dhis.IntegrationTestBase;
+import org.hisp.dhis.category.CategoryService;
+import org.hisp.dhis.common.CodeGenerator;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dxf2.common.ImportOptions;
+import org.hisp.dhis.dxf2.importsummary.ImportStatus;
+import org.hisp.dhis.dxf2.importsummary.ImportSummaries;
+import org.hisp.dhis.dxf2.importsummary.ImportSummary;
+import org.hisp.dhis.event.EventStatus;
+import org.hisp.dhis.eventdatavalue.EventDataValue;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramInstance;
+import org.hisp.dhis.program.ProgramInstanceService;
+import org.hisp.dhis.program.ProgramStage;
+import org.hisp.dhis.program.ProgramStageDataElement;
+import org.hisp.dhis.program.ProgramStageDataElementService;
+import org.hisp.dhis.program.ProgramStageInstance;
+import org.hisp.dhis.program.ProgramStageInstanceService;
+import org.hisp.dhis.program.ProgramType;
+import org.hisp.dhis.user.UserService;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+@Category( IntegrationTest.class )
+public class EventBulkLoaderTest
+    extends IntegrationTestBase
+{
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private IdentifiableObjectManager idObjectManager;
+
+    @Autowired
+    private ProgramStageDataElementService programStageDataElementService;
+
+    @Autowired
+    private ProgramInstanceService programInstanceService;
+
+    @Autowired
+    private ProgramStageInstanceService programStageInstanceService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private UserService _userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private OrganisationUnit ouA;
+
+    private DataElement deA;
+    private DataElement deB;
+
+    private Program programA;
+
+    private ProgramStage programStageA;
+
+    private ProgramInstance programInstanceA;
+
+    @Override
+    public boolean emptyDatabaseAfterTest()
+    {
+        return true;
+    }
+
+    @Override
+    protected void setUpTest()
+    {
+        userService = _userService;
+
+        ouA = createOrganisationUnit( 'A' );
+        idObjectManager.save( ouA );
+
+        deA = createDataElement( 'A' );
+        deB = createDataElement( 'B' );
+        idObjectManager.save( deA );
+        idObjectManager.save( deB );
+
+        programStageA = createProgramStage( 'A', 0 );
+        idObjectManager.save( programStageA );
+
+        programA = createProgram( 'A', new HashSet<>(), ouA );
+        programA.setProgramType( ProgramType.WITHOUT_REGISTRATION );
+        idObjectManager.save( programA );
+
+        for ( DataElement dataElement : Lists.newArrayList( deA, deB ) )
+        {
+            ProgramStageDataElement programStageDataElement = new ProgramStageDataElement();
+            programStageDataElement.setDataElement( dataElement );
+            programStageDataElement.setProgramStage( programStageA );
+            programStageDataElementService.addProgramStageDataElement( programStageDataElement );
+
+            programStageA.getProgramStageDataElements().add( programStageDataElement );
+        }
+
+        programStageA.setProgram( programA );
+        programA.getProgramStages().add( programStageA );
+
+        idObjectManager.update( programStageA );
+        idObjectManager.update( programA );
+
+        programInstanceA = new ProgramInstance();
+        programInstanceA.setProgram( programA );
+        programInstanceA.setIncidentDate( new Date() );
+        programInstanceA.setEnrollmentDate( new Date() );
+
+        programInstanceService.addProgramInstance( programInstanceA );
+
+        createUserAndInjectSecurityContext( true );
+    }
+
+    // -------------------------------------------------------------------------
+    // Bulk loader
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void testBulkLoadEventsWithDataValues()
+    {
+        ProgramStageInstance psiA = createEvent( EventStatus.COMPLETED,
+            new EventDataValue( deA.getUid(), "10", "admin" ), new EventDataValue( deB.getUid(), "20", "admin" ) );
+        ProgramStageInstance psiB = createEvent( EventStatus.ACTIVE, new EventDataValue( deA.getUid(), "30", "admin" ) );
+
+        EventBulkLoader loader = new EventBulkLoader( jdbcTemplate, dbmsManager::flushSession );
+
+        loader.add( psiA, createSuccessSummary(), true );
+        loader.add( psiB, createSuccessSummary(), false );
+
+        assertEquals( 2, loader.finish() );
+
+        assertEquals( "10", getStoredValue( psiA, deA ) );
+        assertEquals( "20", getStoredValue( psiA, deB ) );
+        assertEquals( "30", getStoredValue( psiB, deA ) );
+        assertEquals( "COMPLETED", jdbcTemplate.queryForObject(
+            "select status from programstageinstance where uid = ?", String.class, psiA.getUid() ) );
+
+        assertEquals( 2, getAuditCount( psiA ) );
+        assertEquals( 1, getAuditCount( psiB ) );
+
+        assertEquals( Lists.newArrayList( psiA.getUid() ), loader.getEventsToNotify() );
+
+        ProgramStageInstance stored = programStageInstanceService.getProgramStageInstance( psiA.getUid() );
+
+        assertNotNull( stored );
+        assertEquals( 2, stored.getEventDataValues().size() );
+    }
+
+    @Test
+    public void testRejectExistingAndRepeatedEvents()
+    {
+        ProgramStageInstance existing = createEvent( EventStatus.ACTIVE );
+        programStageInstanceService.addProgramStageInstance( existing );
+
+        ProgramStageInstance psiA = createEvent( EventStatus.COMPLETED, new EventDataValue( deA.getUid(), "10" ) );
+        psiA.setUid( existing.getUid() );
+
+        ProgramStageInstance psiB = createEvent( EventStatus.ACTIVE, new EventDataValue( deA.getUid(), "20" ) );
+
+        ProgramStageInstance psiC = createEvent( EventStatus.COMPLETED, new EventDataValue( deA.getUid(), "30" ) );
+        psiC.setUid( psiB.getUid() );
+
+        ImportSummary summaryA = createSuccessSummary();
+        ImportSummary summaryB = createSuccessSummary();
+        ImportSummary summaryC = createSuccessSummary();
+
+        EventBulkLoader loader = new EventBulkLoader( jdbcTemplate, dbmsManager::flushSession );
+
+        loader.add( psiA, summaryA, true );
+        loader.add( psiB, summaryB, false );
+        loader.add( psiC, summaryC, true );
+
+        assertEquals( 1, loader.finish() );
+
+        assertRejected( summaryA );
+        assertRejected( summaryC );
+
+        assertEquals( ImportStatus.SUCCESS, summaryB.getStatus() );
+        assertEquals( 1, summaryB.getImportCount().getImported() );
+
+        assertEquals( "20", getStoredValue( psiB, deA ) );
+        assertEquals( 0, getAuditCount( existing ) );
+        assertTrue( loader.getEventsToNotify().isEmpty() );
+    }
+
+    // -------------------------------------------------------------------------
+    // Event service bulk import
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void testBulkImportEvents()
+    {
+        Event eventA = createImportEvent( EventStatus.COMPLETED, new DataValue( deA.getUid(), "10" ), new DataValue( deB.getUid(), "20" ) );
+        Event eventB = createImportEvent( EventStatus.ACTIVE, new DataValue( deA.getUid(), "30" ) );
+
+        Event eventC = createImportEvent( EventStatus.ACTIVE, new DataValue( deB.getUid(), "40" ) );
+        Note note = new Note();
+        note.setValue( "Note on event" );
+        eventC.getNotes().add( note );
+
+        Event eventD = createImportEvent( EventStatus.ACTIVE, new DataValue( deA.getUid(), "50" ) );
+        eventD.setEvent( eventB.getEvent() );
+
+        ImportSummaries summaries = eventService.addEvents( Lists.newArrayList( eventA, eventB, eventC, eventD ),
+            new ImportOptions().setBulkImport( true ), false );
+
+        assertEquals( 3, summaries.getImported() );
+        assertEquals( 1, summaries.getIgnored() );
+        assertEquals( 4, summaries.getImportSummaries().size() );
+        assertEquals( ImportStatus.ERROR, summaries.getImportSummaries().get( 3 ).getStatus() );
+        assertEquals( 1, summaries.getImportSummaries().get( 3 ).getConflicts().size() );
+
+        dbmsManager.flushSession();
+
+        assertEquals( Integer.valueOf( 3 ), jdbcTemplate.queryForObject(
+            "select count(*) from programstageinstance where programstageid = ?", Integer.class, programStageA.getId() ) );
+
+        assertEquals( "10", getStoredValue( eventA.getEvent(), deA ) );
+        assertEquals( "20", getStoredValue( eventA.getEvent(), deB ) );
+        assertEquals( "30", getStoredValue( eventB.getEvent(), deA ) );
+        assertEquals( "40", getStoredValue( eventC.getEvent(), deB ) );
+
+        assertEquals( 2, getAuditCount( eventA.getEvent() ) );
+        assertEquals( 1, getAuditCount( eventB.getEvent() ) );
+
+        assertEquals( Integer.valueOf( 1 ), jdbcTemplate.queryForObject(
+            "select count(*) from programstageinstancecomments psic " +
+            "inner join programstageinstance psi on psi.programstageinstanceid = psic.programstageinstanceid " +
+            "where psi.uid = ?", Integer.class, eventC.getEvent() ) );
+    }
+
+    @Test
+    public void testDeferredNotificationSelection()
+    {
+        ImportOptions importOptions = new ImportOptions();
+
+        assertTrue( AbstractEventService.isDeferredNotification( createEvent( EventStatus.COMPLETED ), importOptions ) );
+        assertTrue( AbstractEventService.isDeferredNotification( createEvent( EventStatus.SCHEDULE ), importOptions ) );
+        assertFalse( AbstractEventService.isDeferredNotification( createEvent( EventStatus.ACTIVE ), importOptions ) );
+        assertFalse( AbstractEventService.isDeferredNotification( createEvent( EventStatus.SKIPPED ), importOptions ) );
+
+        importOptions.setSkipNotifications( true );
+
+        assertFalse( AbstractEventService.isDeferredNotification( createEvent( EventStatus.COMPLETED ), importOptions ) );
+        assertFalse( AbstractEventService.isDeferredNotification( createEvent( EventStatus.SCHEDULE ), importOptions ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private ProgramStageInstance createEvent( EventStatus status, EventDataValue... eventDataValues )
+    {
+        ProgramStageInstance programStageInstance = new ProgramStageInstance( programInstanceA, programStageA );
+        programStageInstance.setUid( CodeGenerator.generateUid() );
+        programStageInstance.setOrganisationUnit( ouA );
+        programStageInstance.setAttributeOptionCombo( categoryService.getDefaultCategoryOptionCombo() );
+        programStageInstance.setExecutionDate( new Date() );
+        programStageInstance.setDueDate( new Date() );
+        programStageInstance.setStatus( status );
+        programStageInstance.setEventDataValues( Sets.newHashSet( eventDataValues ) );
+        programStageInstance.setAutoFields();
+
+        return programStageInstance;
+    }
+
+    private Event createImportEvent( EventStatus status, DataValue... dataValues )
+    {
+        Event event = new Event();
+        event.setEvent( CodeGenerator.generateUid() );
+        event.setProgram( programA.getUid() );
+        event.setOrgUnit( ouA.getUid() );
+        event.setEventDate( "2018-01-01" );
+        event.setStatus( status );
+        event.getDataValues().addAll( Lists.newArrayList( dataValues ) );
+
+        return event;
+    }
+
+    private ImportSummary createSuccessSummary()
+    {
+        ImportSummary summary = new ImportSummary( ImportStatus.SUCCESS );
+        summary.incrementImported();
+        return summary;
+    }
+
+    private void assertRejected( ImportSummary summary )
+    {
+        assertEquals( ImportStatus.ERROR, summary.getStatus() );
+        assertEquals( 0, summary.getImportCount().getImported() );
+        assertEquals( 1, summary.getImportCount().getIgnored() );
+        assertEquals( 1, summary.getConflicts().size() );
+    }
+
+    private String getStoredValue( ProgramStageInstance programStageInstance, DataElement dataElement )
+    {
+        return getStoredValue( programStageInstance.getUid(), dataElement );
+    }
+
+    private String getStoredValue( String uid, DataElement dataElement )
+    {
+        return jdbcTemplate.queryForObject( "select eventdatavalues #>> '{" + dataElement.getUid() + ",value}' " +
+            "from programstageinstance where uid = ?", String.class, uid );
+    }
+
+    private int getAuditCount( ProgramStageInstance programStageInstance )
+    {
+        return getAuditCount( programStageInstance.getUid() );
+    }
+
+    private int getAuditCount( String uid )
+    {
+        return jdbcTemplate.queryForObject( "select count(*) from trackedentitydatavalueaudit a " +
+            "inner join programstageinstance psi on psi.programstageinstanceid = a.programstageinstanceid " +
+            "where psi.uid = ?", Integer.class, uid );
+    }
+}
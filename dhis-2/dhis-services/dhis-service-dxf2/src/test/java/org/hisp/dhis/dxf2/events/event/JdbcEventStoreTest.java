@@ -0,0 +1,285 @@
+package org.hisp.dhis.dxf2.events.event;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.hisp.dhis.IntegrationTest;
+import org.hisp.dhis.IntegrationTestBase;
+import org.hisp.dhis.category.CategoryCombo;
+import org.hisp.dhis.category.CategoryOption;
+import org.hisp.dhis.category.CategoryOptionCombo;
+import org.hisp.dhis.category.CategoryService;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.common.PageToken;
+import org.hisp.dhis.commons.util.TextUtils;
+import org.hisp.dhis.event.EventStatus;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramInstance;
+import org.hisp.dhis.program.ProgramInstanceService;
+import org.hisp.dhis.program.ProgramStage;
+import org.hisp.dhis.program.ProgramStageInstance;
+import org.hisp.dhis.program.ProgramStageInstanceService;
+import org.hisp.dhis.program.ProgramType;
+import org.hisp.dhis.user.UserService;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+@Category( IntegrationTest.class )
+public class JdbcEventStoreTest
+    extends IntegrationTestBase
+{
+    @Autowired
+    private EventStore eventStore;
+
+    @Autowired
+    private IdentifiableObjectManager idObjectManager;
+
+    @Autowired
+    private ProgramInstanceService programInstanceService;
+
+    @Autowired
+    private ProgramStageInstanceService programStageInstanceService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private UserService _userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private OrganisationUnit ouA;
+
+    private Program programA;
+
+    private ProgramStage programStageA;
+
+    private ProgramInstance programInstanceA;
+
+    private List<CategoryOptionCombo> optionCombos;
+
+    private Set<String> optionUids;
+
+    private PageToken lastPageToken;
+
+    @Override
+    public boolean emptyDatabaseAfterTest()
+    {
+        return true;
+    }
+
+    @Override
+    protected void setUpTest()
+    {
+        userService = _userService;
+
+        ouA = createOrganisationUnit( 'A' );
+        idObjectManager.save( ouA );
+
+        CategoryOption optionA = createCategoryOption( 'A' );
+        CategoryOption optionB = createCategoryOption( 'B' );
+        CategoryOption optionC = createCategoryOption( 'C' );
+        CategoryOption optionD = createCategoryOption( 'D' );
+
+        for ( CategoryOption option : Lists.newArrayList( optionA, optionB, optionC, optionD ) )
+        {
+            categoryService.addCategoryOption( option );
+        }
+
+        CategoryCombo categoryCombo = createCategoryCombo( 'A',
+            createCategory( 'A', optionA, optionB ), createCategory( 'B', optionC, optionD ) );
+        categoryCombo.getCategories().forEach( categoryService::addCategory );
+        categoryService.addCategoryCombo( categoryCombo );
+        categoryService.generateOptionCombos( categoryCombo );
+
+        optionCombos = Lists.newArrayList( categoryCombo.getOptionCombos() );
+        optionUids = Sets.newHashSet( optionA.getUid(), optionB.getUid(), optionC.getUid(), optionD.getUid() );
+
+        programStageA = createProgramStage( 'A', 0 );
+        idObjectManager.save( programStageA );
+
+        programA = createProgram( 'A', new HashSet<>(), ouA );
+        programA.setProgramType( ProgramType.WITHOUT_REGISTRATION );
+        programA.setCategoryCombo( categoryCombo );
+        idObjectManager.save( programA );
+
+        programStageA.setProgram( programA );
+        programA.getProgramStages().add( programStageA );
+
+        idObjectManager.update( programStageA );
+        idObjectManager.update( programA );
+
+        programInstanceA = new ProgramInstance();
+        programInstanceA.setProgram( programA );
+        programInstanceA.setIncidentDate( new Date() );
+        programInstanceA.setEnrollmentDate( new Date() );
+
+        programInstanceService.addProgramInstance( programInstanceA );
+
+        createUserAndInjectSecurityContext( true );
+    }
+
+    // -------------------------------------------------------------------------
+    // Keyset paging
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void testKeysetPagingOverEventsWithSeveralCategoryOptions()
+    {
+        List<String> expected = new ArrayList<>();
+
+        for ( int i = 0; i < 5; i++ )
+        {
+            expected.add( createEvent( optionCombos.get( i % optionCombos.size() ) ).getUid() );
+        }
+
+        // Equal timestamps make the id the only tie breaker between events
+
+        dbmsManager.flushSession();
+        jdbcTemplate.update( "update programstageinstance set lastupdated = '2019-01-01 10:00:00.123456'" );
+
+        List<String> fetched = new ArrayList<>();
+
+        List<Event> page = getPage( null );
+        assertPage( page, 2 );
+        fetched.addAll( getUids( page ) );
+
+        PageToken pageToken = lastPageToken;
+        assertNotNull( pageToken );
+
+        page = getPage( pageToken );
+        assertPage( page, 2 );
+        fetched.addAll( getUids( page ) );
+
+        pageToken = lastPageToken;
+        assertNotNull( pageToken );
+
+        page = getPage( pageToken );
+        assertPage( page, 1 );
+        fetched.addAll( getUids( page ) );
+
+        assertNull( lastPageToken );
+
+        assertEquals( Lists.reverse( expected ), fetched );
+    }
+
+    @Test
+    public void testKeysetPagingWithPageSizeOfAllEvents()
+    {
+        for ( int i = 0; i < 3; i++ )
+        {
+            createEvent( optionCombos.get( i ) );
+        }
+
+        List<Event> page = getPage( null, 3 );
+        assertPage( page, 3 );
+        assertNotNull( lastPageToken );
+
+        page = getPage( lastPageToken, 3 );
+        assertPage( page, 0 );
+        assertNull( lastPageToken );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private List<Event> getPage( PageToken pageToken )
+    {
+        return getPage( pageToken, 2 );
+    }
+
+    private List<Event> getPage( PageToken pageToken, int pageSize )
+    {
+        EventSearchParams params = new EventSearchParams();
+        params.setProgram( programA );
+        params.setKeysetPaging( true );
+        params.setPageToken( pageToken );
+        params.setPageSize( pageSize );
+
+        List<Event> events = eventStore.getEvents( params, Lists.newArrayList( ouA ), new HashMap<>() );
+
+        lastPageToken = params.getNextPageToken();
+
+        return events;
+    }
+
+    private void assertPage( List<Event> page, int size )
+    {
+        assertEquals( size, page.size() );
+        assertEquals( size, new HashSet<>( getUids( page ) ).size() );
+
+        for ( Event event : page )
+        {
+            Set<String> options = TextUtils.splitToArray( event.getAttributeCategoryOptions(), TextUtils.SEMICOLON );
+
+            assertEquals( 2, options.size() );
+            assertTrue( optionUids.containsAll( options ) );
+        }
+    }
+
+    private List<String> getUids( List<Event> events )
+    {
+        List<String> uids = new ArrayList<>();
+        events.forEach( event -> uids.add( event.getUid() ) );
+        return uids;
+    }
+
+    private ProgramStageInstance createEvent( CategoryOptionCombo optionCombo )
+    {
+        ProgramStageInstance programStageInstance = new ProgramStageInstance( programInstanceA, programStageA );
+        programStageInstance.setOrganisationUnit( ouA );
+        programStageInstance.setAttributeOptionCombo( optionCombo );
+        programStageInstance.setExecutionDate( new Date() );
+        programStageInstance.setDueDate( new Date() );
+        programStageInstance.setStatus( EventStatus.ACTIVE );
+
+        programStageInstanceService.addProgramStageInstance( programStageInstance );
+
+        return programStageInstance;
+    }
+}
@@ -46,6 +46,8 @@ import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Morten Olav Hansen <mortenoh@gmail.com>
@@ -84,6 +86,24 @@ public class MetadataImportServiceTest
         assertEquals( Status.OK, report.getStatus() );
     }
 
+    @Test
+    public void testImportReportHasValidationTimes() throws IOException
+    {
+        Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>> metadata = renderService.fromMetadata(
+            new ClassPathResource( "dxf2/dataset_with_sections.json" ).getInputStream(), RenderFormat.JSON );
+
+        MetadataImportParams params = new MetadataImportParams();
+        params.setImportMode( ObjectBundleMode.COMMIT );
+        params.setImportStrategy( ImportStrategy.CREATE );
+        params.setObjects( metadata );
+
+        ImportReport report = importService.importMetadata( params );
+
+        assertEquals( Status.OK, report.getStatus() );
+        assertFalse( report.getValidationTimeMap().isEmpty() );
+        assertTrue( report.getTypeReportMap().keySet().containsAll( report.getValidationTimeMap().keySet() ) );
+    }
+
     @Test
     public void testCorrectStatusOnImportErrors() throws IOException
     {
@@ -49,6 +49,7 @@ import org.hisp.dhis.dxf2.metadata.objectbundle.feedback.ObjectBundleValidationR
 import org.hisp.dhis.feedback.ErrorCode;
 import org.hisp.dhis.feedback.ErrorReport;
 import org.hisp.dhis.feedback.ObjectReport;
+import org.hisp.dhis.feedback.TypeReport;
 import org.hisp.dhis.importexport.ImportStrategy;
 import org.hisp.dhis.indicator.Indicator;
 import org.hisp.dhis.option.OptionSet;
@@ -70,10 +71,13 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.AopTestUtils;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
 
@@ -279,6 +283,61 @@ public class ObjectBundleServiceTest
         assertEquals( 3, validate.getErrorReportsByCode( DataElement.class, ErrorCode.E4000 ).size() );
     }
 
+    @Test
+    public void testCreatePreheatValidationsInvalidObjectsParallel() throws IOException
+    {
+        Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>> metadata = renderService.fromMetadata(
+            new ClassPathResource( "dxf2/de_validate2.json" ).getInputStream(), RenderFormat.JSON );
+
+        ObjectBundleParams params = new ObjectBundleParams();
+        params.setObjectBundleMode( ObjectBundleMode.VALIDATE );
+        params.setImportStrategy( ImportStrategy.CREATE );
+        params.setParallelValidation( true );
+        params.setObjects( metadata );
+
+        ObjectBundle bundle = objectBundleService.create( params );
+        ObjectBundleValidationReport validate = objectBundleValidationService.validate( bundle );
+
+        assertFalse( validate.getTypeReportMap().isEmpty() );
+
+        assertEquals( 5, validate.getErrorReportsByCode( DataElement.class, ErrorCode.E5002 ).size() );
+        assertEquals( 3, validate.getErrorReportsByCode( DataElement.class, ErrorCode.E4000 ).size() );
+
+        assertEquals( validate.getTypeReportMap().keySet(), validate.getValidationTimeMap().keySet() );
+    }
+
+    @Test
+    public void testCreatePreheatValidationsInvalidObjectsParallelChunks() throws IOException
+    {
+        ObjectBundleValidationReport sequential = validate( "dxf2/de_validate2.json", false );
+
+        DefaultObjectBundleValidationService service = AopTestUtils.getTargetObject( objectBundleValidationService );
+        service.setChunkSize( 2 );
+
+        ObjectBundleValidationReport parallel;
+
+        try
+        {
+            parallel = validate( "dxf2/de_validate2.json", true );
+        }
+        finally
+        {
+            service.setChunkSize( DefaultObjectBundleValidationService.DEFAULT_CHUNK_SIZE );
+        }
+
+        assertEquals( sequential.getTypeReportMap().keySet(), parallel.getTypeReportMap().keySet() );
+
+        for ( Class<?> klass : sequential.getTypeReportMap().keySet() )
+        {
+            TypeReport sequentialReport = sequential.getTypeReportMap().get( klass );
+            TypeReport parallelReport = parallel.getTypeReportMap().get( klass );
+
+            assertEquals( getErrorMessagesByIndex( sequentialReport ), getErrorMessagesByIndex( parallelReport ) );
+            assertEquals( sequentialReport.getStats().getIgnored(), parallelReport.getStats().getIgnored() );
+            assertEquals( sequentialReport.getStats().getCreated(), parallelReport.getStats().getCreated() );
+        }
+    }
+
     @Test
     public void testUpdatePreheatValidationsInvalidObjects() throws IOException
     {
@@ -1576,4 +1635,28 @@ public class ObjectBundleServiceTest
         UserGroup userGroup = createUserGroup( 'A', Sets.newHashSet( user ) );
         manager.save( userGroup );
     }
+
+    private ObjectBundleValidationReport validate( String path, boolean parallelValidation ) throws IOException
+    {
+        Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>> metadata = renderService.fromMetadata(
+            new ClassPathResource( path ).getInputStream(), RenderFormat.JSON );
+
+        ObjectBundleParams params = new ObjectBundleParams();
+        params.setObjectBundleMode( ObjectBundleMode.VALIDATE );
+        params.setImportStrategy( ImportStrategy.CREATE );
+        params.setParallelValidation( parallelValidation );
+        params.setObjects( metadata );
+
+        return objectBundleValidationService.validate( objectBundleService.create( params ) );
+    }
+
+    private Map<Integer, List<String>> getErrorMessagesByIndex( TypeReport typeReport )
+    {
+        Map<Integer, List<String>> messages = new HashMap<>();
+
+        typeReport.getObjectReportMap().forEach( ( index, objectReport ) -> messages.put( index, objectReport.getErrorReports().stream()
+            .map( ErrorReport::getMessage ).sorted().collect( Collectors.toList() ) ) );
+
+        return messages;
+    }
 }
\ No newline at end of file
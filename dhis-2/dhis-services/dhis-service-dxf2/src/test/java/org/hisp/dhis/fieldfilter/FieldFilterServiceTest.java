@@ -0,0 +1,161 @@
+package org.hisp.dhis.fieldfilter;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hisp.dhis.DhisSpringTest;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.node.Node;
+import org.hisp.dhis.node.NodeSerializer;
+import org.hisp.dhis.node.NodeUtils;
+import org.hisp.dhis.node.serializers.Jackson2JsonNodeSerializer;
+import org.hisp.dhis.node.serializers.StAXNodeSerializer;
+import org.hisp.dhis.node.types.CollectionNode;
+import org.hisp.dhis.node.types.RootNode;
+import org.hisp.dhis.node.types.StreamingCollectionNode;
+import org.hisp.dhis.user.UserService;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.google.common.collect.Lists;
+
+public class FieldFilterServiceTest
+    extends DhisSpringTest
+{
+    @Autowired
+    private FieldFilterService fieldFilterService;
+
+    @Autowired
+    private UserService _userService;
+
+    private List<DataElement> dataElements;
+
+    @Override
+    protected void setUpTest() throws Exception
+    {
+        userService = _userService;
+
+        createUserAndInjectSecurityContext( true );
+
+        dataElements = Lists.newArrayList( createDataElement( 'A' ), createDataElement( 'B' ), createDataElement( 'C' ) );
+    }
+
+    @Test
+    public void testToStreamingCollectionNode()
+    {
+        CollectionNode collectionNode = fieldFilterService.toStreamingCollectionNode( DataElement.class,
+            new FieldFilterParams( dataElements, Lists.newArrayList( "id", "name" ) ) );
+
+        assertTrue( collectionNode instanceof StreamingCollectionNode );
+        assertFalse( ((StreamingCollectionNode) collectionNode).isMaterialized() );
+        assertEquals( "dataElements", collectionNode.getName() );
+        assertEquals( 3, collectionNode.getChildren().size() );
+
+        for ( Node node : collectionNode.getChildren() )
+        {
+            assertEquals( "dataElement", node.getName() );
+            assertEquals( 2, node.getChildren().size() );
+        }
+    }
+
+    @Test
+    public void testToStreamingCollectionNodeEmpty()
+    {
+        CollectionNode collectionNode = fieldFilterService.toStreamingCollectionNode( DataElement.class,
+            new FieldFilterParams( new ArrayList<>(), Lists.newArrayList( "id", "name" ) ) );
+
+        assertFalse( collectionNode instanceof StreamingCollectionNode );
+        assertEquals( "dataElements", collectionNode.getName() );
+        assertTrue( collectionNode.isEmpty() );
+    }
+
+    @Test
+    public void testSerializeStreamingCollectionNodeJson() throws Exception
+    {
+        String json = serialize( new Jackson2JsonNodeSerializer(), Lists.newArrayList( "id", "name" ) );
+
+        assertEquals( serializeCollectionNode( new Jackson2JsonNodeSerializer(), Lists.newArrayList( "id", "name" ) ), json );
+        assertTrue( json.contains( "\"id\":\"" + dataElements.get( 0 ).getUid() + "\"" ) );
+        assertTrue( json.contains( "\"name\":\"DataElementC\"" ) );
+        assertFalse( json.contains( "\"code\"" ) );
+    }
+
+    @Test
+    public void testSerializeStreamingCollectionNodeXml() throws Exception
+    {
+        String xml = serialize( new StAXNodeSerializer(), Lists.newArrayList( "id", "code" ) );
+
+        assertEquals( serializeCollectionNode( new StAXNodeSerializer(), Lists.newArrayList( "id", "code" ) ), xml );
+        assertTrue( xml.contains( "DataElementCodeB" ) );
+        assertFalse( xml.contains( "DataElementShortB" ) );
+    }
+
+    @Test
+    public void testSerializeStreamingCollectionNodeEmptyJson() throws Exception
+    {
+        dataElements.clear();
+
+        String json = serialize( new Jackson2JsonNodeSerializer(), Lists.newArrayList( "id", "name" ) );
+
+        assertEquals( "{\"dataElements\":[]}", json );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private String serialize( NodeSerializer serializer, List<String> fields ) throws Exception
+    {
+        return serialize( serializer, fieldFilterService.toStreamingCollectionNode( DataElement.class,
+            new FieldFilterParams( dataElements, fields ) ) );
+    }
+
+    private String serializeCollectionNode( NodeSerializer serializer, List<String> fields ) throws Exception
+    {
+        return serialize( serializer, fieldFilterService.toCollectionNode( DataElement.class,
+            new FieldFilterParams( dataElements, fields ) ) );
+    }
+
+    private String serialize( NodeSerializer serializer, CollectionNode collectionNode ) throws Exception
+    {
+        RootNode rootNode = NodeUtils.createMetadata( collectionNode );
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serializer.serialize( rootNode, outputStream );
+        return new String( outputStream.toByteArray(), StandardCharsets.UTF_8 );
+    }
+}
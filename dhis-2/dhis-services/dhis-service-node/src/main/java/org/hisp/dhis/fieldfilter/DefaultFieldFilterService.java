@@ -44,13 +44,14 @@ import org.hisp.dhis.node.Preset;
 import org.hisp.dhis.node.types.CollectionNode;
 import org.hisp.dhis.node.types.ComplexNode;
 import org.hisp.dhis.node.types.SimpleNode;
+import org.hisp.dhis.node.types.StreamingCollectionNode;
 import org.hisp.dhis.period.PeriodType;
 import org.hisp.dhis.preheat.Preheat;
 import org.hisp.dhis.schema.Property;
+import org.hisp.dhis.schema.PropertyAccessors;
 import org.hisp.dhis.schema.Schema;
 import org.hisp.dhis.schema.SchemaService;
 import org.hisp.dhis.security.acl.AclService;
-import org.hisp.dhis.system.util.ReflectionUtils;
 import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.user.UserCredentials;
@@ -141,27 +142,67 @@ public class DefaultFieldFilterService implements FieldFilterService
     @Override
     public CollectionNode toCollectionNode( Class<?> wrapper, FieldFilterParams params )
     {
-        String fields = params.getFields() == null ? "" : Joiner.on( "," ).join( params.getFields() );
-
         Schema rootSchema = schemaService.getDynamicSchema( wrapper );
 
         CollectionNode collectionNode = new CollectionNode( rootSchema.getCollectionName() );
         collectionNode.setNamespace( rootSchema.getNamespace() );
 
-        List<?> objects = params.getObjects();
-
-        if ( params.getSkipSharing() )
+        if ( params.getObjects().isEmpty() )
         {
-            fields = Joiner.on( "," ).join( fieldParser.modifyFilter( params.getFields(),  SHARING_FIELDS ) );
+            return collectionNode;
         }
 
+        final FieldMap fieldMap = getFieldMap( params );
+
+        params.getObjects().forEach( object -> {
+            AbstractNode node = buildNode( fieldMap, wrapper, object, params.getUser(), params.getDefaults() );
+
+            if ( node != null )
+            {
+                collectionNode.addChild( node );
+            }
+        } );
+
+        return collectionNode;
+    }
+
+    @Override
+    public CollectionNode toStreamingCollectionNode( Class<?> wrapper, FieldFilterParams params )
+    {
+        Schema rootSchema = schemaService.getDynamicSchema( wrapper );
+
         if ( params.getObjects().isEmpty() )
         {
+            CollectionNode collectionNode = new CollectionNode( rootSchema.getCollectionName() );
+            collectionNode.setNamespace( rootSchema.getNamespace() );
             return collectionNode;
         }
 
+        final FieldMap fieldMap = getFieldMap( params );
+
+        CollectionNode collectionNode = new StreamingCollectionNode( rootSchema.getCollectionName(), params.getObjects(),
+            object -> buildNode( fieldMap, wrapper, object, params.getUser(), params.getDefaults() ) );
+        collectionNode.setNamespace( rootSchema.getNamespace() );
+
+        return collectionNode;
+    }
+
+    /**
+     * Parses the fields of the given params into a field map, and sets the current
+     * user on the params if not already set. The params must contain at least one
+     * object.
+     */
+    private FieldMap getFieldMap( FieldFilterParams params )
+    {
+        String fields = params.getFields() == null ? "" : Joiner.on( "," ).join( params.getFields() );
+
+        if ( params.getSkipSharing() )
+        {
+            fields = Joiner.on( "," ).join( fieldParser.modifyFilter( params.getFields(),  SHARING_FIELDS ) );
+        }
+
         FieldMap fieldMap = new FieldMap();
-        Schema schema = schemaService.getDynamicSchema( objects.get( 0 ).getClass() );
+        Schema schema = schemaService.getDynamicSchema( params.getObjects().get( 0 ).getClass() );
 
         if ( StringUtils.isEmpty( fields ) )
         {
@@ -175,23 +216,12 @@ public class DefaultFieldFilterService implements FieldFilterService
             fieldMap = fieldParser.parse( fields );
         }
 
-        final FieldMap finalFieldMap = fieldMap;
-
         if ( params.getUser() == null )
         {
             params.setUser( currentUserService.getCurrentUser() );
         }
 
-        objects.forEach( object -> {
-            AbstractNode node = buildNode( finalFieldMap, wrapper, object, params.getUser(), params.getDefaults() );
-
-            if ( node != null )
-            {
-                collectionNode.addChild( node );
-            }
-        } );
-
-        return collectionNode;
+        return fieldMap;
     }
 
     private AbstractNode buildNode( FieldMap fieldMap, Class<?> klass, Object object, User user, Defaults defaults )
@@ -242,7 +272,7 @@ public class DefaultFieldFilterService implements FieldFilterService
                 continue;
             }
 
-            Object returnValue = ReflectionUtils.invokeMethod( object, property.getGetterMethod() );
+            Object returnValue = PropertyAccessors.invokeGetter( object, property );
             Schema propertySchema = schemaService.getDynamicSchema( property.getKlass() );
 
             FieldMap fieldValue = fieldMap.get( fieldKey );
@@ -530,7 +560,7 @@ public class DefaultFieldFilterService implements FieldFilterService
                 continue;
             }
 
-            Object returnValue = ReflectionUtils.invokeMethod( object, property.getGetterMethod() );
+            Object returnValue = PropertyAccessors.invokeGetter( object, property );
 
             SimpleNode simpleNode = new SimpleNode( field, returnValue );
             simpleNode.setAttribute( property.isAttribute() );
@@ -51,4 +51,10 @@ public interface FieldFilterService
      * Perform inclusion/exclusion on a list of objects.
      */
     CollectionNode toCollectionNode( Class<?> wrapper, FieldFilterParams params );
+
+    /**
+     * Perform inclusion/exclusion on a list of objects, building the node of
+     * each object lazily while the returned collection node is serialized.
+     */
+    CollectionNode toStreamingCollectionNode( Class<?> wrapper, FieldFilterParams params );
 }
@@ -33,6 +33,7 @@ import org.hisp.dhis.node.types.CollectionNode;
 import org.hisp.dhis.node.types.ComplexNode;
 import org.hisp.dhis.node.types.RootNode;
 import org.hisp.dhis.node.types.SimpleNode;
+import org.hisp.dhis.node.types.StreamingCollectionNode;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
 
@@ -127,6 +128,12 @@ public abstract class AbstractNodeSerializer implements NodeSerializer
 
     protected void writeCollectionNode( CollectionNode collectionNode ) throws Exception
     {
+        if ( collectionNode instanceof StreamingCollectionNode && !((StreamingCollectionNode) collectionNode).isMaterialized() )
+        {
+            writeStreamingCollectionNode( (StreamingCollectionNode) collectionNode );
+            return;
+        }
+
         if ( !config.getInclusionStrategy().include( collectionNode.getChildren() ) )
         {
             return;
@@ -145,6 +152,34 @@ public abstract class AbstractNodeSerializer implements NodeSerializer
 
     protected abstract void endWriteCollectionNode( CollectionNode collectionNode ) throws Exception;
 
+    /**
+     * Writes the collection one child at a time, building each child node right
+     * before it is written so that only one object tree is held in memory.
+     */
+    protected void writeStreamingCollectionNode( StreamingCollectionNode collectionNode ) throws Exception
+    {
+        if ( !config.getInclusionStrategy().include( collectionNode.getObjects() ) )
+        {
+            return;
+        }
+
+        startWriteCollectionNode( collectionNode );
+
+        for ( Object object : collectionNode.getObjects() )
+        {
+            Node node = collectionNode.buildNode( object );
+
+            if ( node != null && node.getName() != null )
+            {
+                ((AbstractNode) node).setParent( collectionNode );
+                dispatcher( node );
+                flushStream();
+            }
+        }
+
+        endWriteCollectionNode( collectionNode );
+    }
+
     protected void dispatcher( Node node ) throws Exception
     {
         switch ( node.getType() )
@@ -64,6 +64,11 @@ public class CollectionNode extends AbstractNode
         this.wrapping = wrapping;
     }
 
+    public boolean isEmpty()
+    {
+        return children.isEmpty();
+    }
+
     @Override
     public int hashCode()
     {
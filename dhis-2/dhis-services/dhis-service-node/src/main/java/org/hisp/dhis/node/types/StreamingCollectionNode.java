@@ -0,0 +1,102 @@
+package org.hisp.dhis.node.types;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.hisp.dhis.node.Node;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Collection node which builds the node of each of its objects only when it is
+ * written, so that serializers can write and discard one object at a time
+ * instead of holding the node tree of the full collection in memory. Calling
+ * {@link #getChildren()} materializes all children, for serializers which need
+ * random access to the tree.
+ */
+public class StreamingCollectionNode extends CollectionNode
+{
+    private final Collection<?> objects;
+
+    private final Function<Object, ? extends Node> nodeBuilder;
+
+    private boolean materialized;
+
+    public StreamingCollectionNode( String name, Collection<?> objects, Function<Object, ? extends Node> nodeBuilder )
+    {
+        super( name );
+        this.objects = objects;
+        this.nodeBuilder = nodeBuilder;
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Builds the node for the given object, or null if the object is excluded.
+     */
+    public Node buildNode( Object object )
+    {
+        return nodeBuilder.apply( object );
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return materialized ? super.isEmpty() : objects.isEmpty();
+    }
+
+    @Override
+    public List<Node> getChildren()
+    {
+        if ( !materialized )
+        {
+            materialized = true;
+            objects.forEach( object -> addChild( buildNode( object ) ) );
+        }
+
+        return super.getChildren();
+    }
+
+    // -------------------------------------------------------------------------
+    // Get methods
+    // -------------------------------------------------------------------------
+
+    public Collection<?> getObjects()
+    {
+        return objects;
+    }
+
+    public boolean isMaterialized()
+    {
+        return materialized;
+    }
+}
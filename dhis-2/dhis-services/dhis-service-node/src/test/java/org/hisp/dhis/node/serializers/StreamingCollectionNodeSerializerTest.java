@@ -0,0 +1,173 @@
+package org.hisp.dhis.node.serializers;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hisp.dhis.node.Node;
+import org.hisp.dhis.node.NodeSerializer;
+import org.hisp.dhis.node.types.CollectionNode;
+import org.hisp.dhis.node.types.ComplexNode;
+import org.hisp.dhis.node.types.RootNode;
+import org.hisp.dhis.node.types.SimpleNode;
+import org.hisp.dhis.node.types.StreamingCollectionNode;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class StreamingCollectionNodeSerializerTest
+{
+    private final List<String> objects = Lists.newArrayList( "A", "B", "C" );
+
+    @Test
+    public void testSerializeJson() throws Exception
+    {
+        String expected = serialize( new Jackson2JsonNodeSerializer(), createRootNode( createCollectionNode( objects ) ) );
+
+        assertEquals( "{\"dataElements\":[{\"id\":\"A\"},{\"id\":\"B\"},{\"id\":\"C\"}]}", expected );
+        assertStreamedEquals( expected, new Jackson2JsonNodeSerializer(), objects );
+    }
+
+    @Test
+    public void testSerializeXml() throws Exception
+    {
+        String expected = serialize( new StAXNodeSerializer(), createRootNode( createCollectionNode( objects ) ) );
+
+        assertTrue( expected.contains( "<dataElements><dataElement><id>A</id></dataElement>" ) );
+        assertStreamedEquals( expected, new StAXNodeSerializer(), objects );
+    }
+
+    @Test
+    public void testSerializeEmptyJson() throws Exception
+    {
+        String expected = serialize( new Jackson2JsonNodeSerializer(), createRootNode( createCollectionNode( new ArrayList<>() ) ) );
+
+        assertEquals( "{\"dataElements\":[]}", expected );
+        assertStreamedEquals( expected, new Jackson2JsonNodeSerializer(), new ArrayList<>() );
+    }
+
+    @Test
+    public void testSerializeEmptyXml() throws Exception
+    {
+        String expected = serialize( new StAXNodeSerializer(), createRootNode( createCollectionNode( new ArrayList<>() ) ) );
+
+        assertFalse( expected.contains( "dataElements" ) );
+        assertStreamedEquals( expected, new StAXNodeSerializer(), new ArrayList<>() );
+    }
+
+    @Test
+    public void testSerializeSkipsExcludedObjects() throws Exception
+    {
+        StreamingCollectionNode collectionNode = new StreamingCollectionNode( "dataElements", objects,
+            object -> "B".equals( object ) ? null : createObjectNode( object ) );
+
+        String json = serialize( new Jackson2JsonNodeSerializer(), createRootNode( collectionNode ) );
+
+        assertEquals( "{\"dataElements\":[{\"id\":\"A\"},{\"id\":\"C\"}]}", json );
+    }
+
+    @Test
+    public void testMaterializeChildren()
+    {
+        AtomicInteger built = new AtomicInteger();
+
+        StreamingCollectionNode collectionNode = new StreamingCollectionNode( "dataElements", objects, object -> {
+            built.incrementAndGet();
+            return createObjectNode( object );
+        } );
+
+        assertFalse( collectionNode.isMaterialized() );
+        assertFalse( collectionNode.isEmpty() );
+        assertEquals( 0, built.get() );
+
+        assertEquals( 3, collectionNode.getChildren().size() );
+        assertEquals( 3, collectionNode.getChildren().size() );
+        assertTrue( collectionNode.isMaterialized() );
+        assertEquals( 3, built.get() );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Asserts that the streamed collection of the given objects serializes to
+     * the expected output, and that each node is built once while serializing
+     * without materializing the collection.
+     */
+    private void assertStreamedEquals( String expected, NodeSerializer serializer, List<String> objects ) throws Exception
+    {
+        AtomicInteger built = new AtomicInteger();
+
+        StreamingCollectionNode collectionNode = new StreamingCollectionNode( "dataElements", objects, object -> {
+            built.incrementAndGet();
+            return createObjectNode( object );
+        } );
+
+        assertEquals( expected, serialize( serializer, createRootNode( collectionNode ) ) );
+        assertEquals( objects.size(), built.get() );
+        assertFalse( collectionNode.isMaterialized() );
+    }
+
+    private CollectionNode createCollectionNode( List<String> objects )
+    {
+        CollectionNode collectionNode = new CollectionNode( "dataElements" );
+        objects.forEach( object -> collectionNode.addChild( createObjectNode( object ) ) );
+        return collectionNode;
+    }
+
+    private Node createObjectNode( Object object )
+    {
+        ComplexNode complexNode = new ComplexNode( "dataElement" );
+        complexNode.addChild( new SimpleNode( "id", object ) );
+        return complexNode;
+    }
+
+    private RootNode createRootNode( CollectionNode collectionNode )
+    {
+        RootNode rootNode = new RootNode( "metadata" );
+        rootNode.addChild( collectionNode );
+        return rootNode;
+    }
+
+    private String serialize( NodeSerializer serializer, RootNode rootNode ) throws Exception
+    {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serializer.serialize( rootNode, outputStream );
+        return new String( outputStream.toByteArray(), StandardCharsets.UTF_8 );
+    }
+}
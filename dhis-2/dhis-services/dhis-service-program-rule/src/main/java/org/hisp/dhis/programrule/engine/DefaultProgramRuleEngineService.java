@@ -30,13 +30,35 @@ package org.hisp.dhis.programrule.engine;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.commons.util.DebugUtils;
+import org.hisp.dhis.commons.util.SystemUtils;
+import org.hisp.dhis.program.Program;
 import org.hisp.dhis.program.ProgramInstance;
 import org.hisp.dhis.program.ProgramStageInstance;
+import org.hisp.dhis.program.ProgramStageInstanceService;
+import org.hisp.dhis.rules.RuleEngineContext;
 import org.hisp.dhis.rules.models.RuleEffect;
+import org.hisp.dhis.system.util.Clock;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.PreDestroy;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Created by zubair@dhis2.org on 23.10.17.
@@ -56,6 +78,29 @@ public class DefaultProgramRuleEngineService
     @Autowired
     private List<RuleActionImplementer> ruleActionImplementers;
 
+    @Autowired
+    private ProgramStageInstanceService programStageInstanceService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Rule evaluation is pure computation, hence the pool is bounded by the
+     * number of available processor cores.
+     */
+    private final ExecutorService executor = Executors.newFixedThreadPool(
+        Math.max( 1, SystemUtils.getCpuCores() ), new CustomizableThreadFactory( "program-rule-" ) );
+
+    @PreDestroy
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
+    // -------------------------------------------------------------------------
+    // ProgramRuleEngineService implementation
+    // -------------------------------------------------------------------------
+
     @Override
     public List<RuleEffect> evaluate( ProgramInstance programInstance )
     {
@@ -71,15 +116,7 @@ public class DefaultProgramRuleEngineService
             log.error( DebugUtils.getStackTrace( ex.getCause() ) );
         }
 
-        for ( RuleEffect effect : ruleEffects )
-        {
-            ruleActionImplementers.stream().filter( i -> i.accept( effect.ruleAction() ) ).forEach( i ->
-            {
-                log.info( String.format( "Invoking action implementer: %s", i.getClass().getSimpleName() ) );
-
-                i.implement( effect, programInstance );
-            } );
-        }
+        implement( ruleEffects, programInstance );
 
         return ruleEffects;
     }
@@ -99,16 +136,177 @@ public class DefaultProgramRuleEngineService
             log.error( DebugUtils.getStackTrace( ex.getCause() ) );
         }
 
+        implement( ruleEffects, programStageInstance );
+
+        return ruleEffects;
+    }
+
+    @Override
+    public Map<String, List<RuleEffect>> evaluateEvents( Collection<ProgramStageInstance> events )
+    {
+        List<ProgramStageInstance> programStageInstances = events.stream()
+            .filter( psi -> psi != null && psi.getProgramInstance() != null && psi.getProgramInstance().getProgram() != null )
+            .collect( Collectors.toList() );
+
+        Map<String, List<RuleEffect>> ruleEffects = evaluate( programStageInstances,
+            psi -> psi.getProgramInstance().getProgram(), programRuleEngine::getEventEvaluation );
+
+        runAfterCommit( ruleEffects, uid -> {
+            ProgramStageInstance programStageInstance = programStageInstanceService.getProgramStageInstance( uid );
+
+            if ( programStageInstance != null )
+            {
+                implement( ruleEffects.get( uid ), programStageInstance );
+            }
+        } );
+
+        return ruleEffects;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Evaluates the given objects grouped by program. The rule engine context
+     * is built once per program. Objects are mapped to rule engine models on
+     * the calling thread, as this requires the Hibernate session, while the
+     * evaluations are executed concurrently.
+     *
+     * @param objects the objects to evaluate.
+     * @param programFunction function returning the program of an object.
+     * @param evaluationFunction function returning the evaluation of an object.
+     * @return a mapping of object identifier and rule effects.
+     */
+    private <T extends IdentifiableObject> Map<String, List<RuleEffect>> evaluate( List<T> objects,
+        Function<T, Program> programFunction, BiFunction<RuleEngineContext, T, Callable<List<RuleEffect>>> evaluationFunction )
+    {
+        Map<String, List<RuleEffect>> ruleEffects = new HashMap<>();
+
+        Map<Program, List<T>> programObjects = objects.stream()
+            .collect( Collectors.groupingBy( programFunction ) );
+
+        for ( Map.Entry<Program, List<T>> entry : programObjects.entrySet() )
+        {
+            Clock clock = new Clock( log ).startClock();
+
+            RuleEngineContext context = programRuleEngine.getRuleEngineContext( entry.getKey() );
+
+            if ( context == null )
+            {
+                continue;
+            }
+
+            Map<String, Future<List<RuleEffect>>> futures = new LinkedHashMap<>();
+
+            for ( T object : entry.getValue() )
+            {
+                try
+                {
+                    futures.put( object.getUid(), executor.submit( evaluationFunction.apply( context, object ) ) );
+                }
+                catch ( Exception ex )
+                {
+                    log.error( DebugUtils.getStackTrace( ex ) );
+                }
+            }
+
+            futures.forEach( ( uid, future ) -> ruleEffects.put( uid, getRuleEffects( future ) ) );
+
+            clock.logTime( String.format( "Evaluated program rules for %d objects of program: %s",
+                entry.getValue().size(), entry.getKey().getUid() ) );
+        }
+
+        return ruleEffects;
+    }
+
+    private List<RuleEffect> getRuleEffects( Future<List<RuleEffect>> future )
+    {
+        try
+        {
+            return future.get();
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch ( ExecutionException ex )
+        {
+            log.error( DebugUtils.getStackTrace( ex.getCause() ) );
+        }
+
+        return new ArrayList<>();
+    }
+
+    /**
+     * Implements the rule effects of the given objects once the current
+     * transaction is committed, in a new transaction. Runs immediately if no
+     * transaction synchronization is active.
+     *
+     * @param ruleEffects a mapping of object identifier and rule effects.
+     * @param implementer consumer of object identifiers which implements
+     *        the rule effects.
+     */
+    private void runAfterCommit( Map<String, List<RuleEffect>> ruleEffects, Consumer<String> implementer )
+    {
+        Set<String> uids = ruleEffects.entrySet().stream()
+            .filter( e -> !e.getValue().isEmpty() )
+            .map( Map.Entry::getKey )
+            .collect( Collectors.toSet() );
+
+        if ( uids.isEmpty() )
+        {
+            return;
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate( transactionManager );
+        transactionTemplate.setPropagationBehavior( TransactionDefinition.PROPAGATION_REQUIRES_NEW );
+
+        Runnable task = () -> transactionTemplate.execute( status -> {
+            uids.forEach( implementer );
+            return null;
+        } );
+
+        if ( TransactionSynchronizationManager.isSynchronizationActive() )
+        {
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronizationAdapter()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    task.run();
+                }
+            } );
+        }
+        else
+        {
+            task.run();
+        }
+    }
+
+    private void implement( List<RuleEffect> ruleEffects, ProgramInstance programInstance )
+    {
         for ( RuleEffect effect : ruleEffects )
         {
             ruleActionImplementers.stream().filter( i -> i.accept( effect.ruleAction() ) ).forEach( i ->
             {
                 log.info( String.format( "Invoking action implementer: %s", i.getClass().getSimpleName() ) );
 
-                i.implement( effect, programStageInstance );
+                i.implement( effect, programInstance );
             } );
         }
+    }
 
-        return ruleEffects;
+    private void implement( List<RuleEffect> ruleEffects, ProgramStageInstance programStageInstance )
+    {
+        for ( RuleEffect effect : ruleEffects )
+        {
+            ruleActionImplementers.stream().filter( i -> i.accept( effect.ruleAction() ) ).forEach( i ->
+            {
+                log.info( String.format( "Invoking action implementer: %s", i.getClass().getSimpleName() ) );
+
+                i.implement( effect, programStageInstance );
+            } );
+        }
     }
 }
@@ -46,6 +46,7 @@ import org.hisp.dhis.user.UserAuthorityGroup;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -94,72 +95,110 @@ public class ProgramRuleEngine
             return new ArrayList<>();
         }
 
-        List<RuleEffect> ruleEffects = new ArrayList<>();
-        
-        List<ProgramRule> implementableProgramRules = getImplementableRules( enrollment.getProgram() );
+        RuleEngineContext context = getRuleEngineContext( enrollment.getProgram() );
 
-        if ( implementableProgramRules.isEmpty() ) // if implementation does not exist on back end side
+        if ( context == null ) // if implementation does not exist on back end side
         {
-            return ruleEffects;
+            return new ArrayList<>();
         }
 
-        List<ProgramRuleVariable> programRuleVariables = programRuleVariableService.getProgramRuleVariable( enrollment.getProgram() );
-
-        RuleEnrollment ruleEnrollment = programRuleEntityMapperService.toMappedRuleEnrollment( enrollment );
-
-        List<RuleEvent> ruleEvents = programRuleEntityMapperService.toMappedRuleEvents( enrollment.getProgramStageInstances() );
-
-        RuleEngine ruleEngine;
+        return evaluate( () -> getEnrollmentEvaluation( context, enrollment ).call() );
+    }
 
-        try
+    public List<RuleEffect> evaluateEvent( ProgramStageInstance programStageInstance )
+    {
+        if ( programStageInstance == null )
         {
-            ruleEngine = ruleEngineBuilder( implementableProgramRules, programRuleVariables ).events( ruleEvents ).build();
+            return new ArrayList<>();
+        }
 
-            ruleEffects = ruleEngine.evaluate( ruleEnrollment  ).call();
+        RuleEngineContext context = getRuleEngineContext( programStageInstance.getProgramInstance().getProgram() );
 
-            ruleEffects.stream().map( RuleEffect::ruleAction )
-                .forEach( action -> log.info( String.format( "RuleEngine triggered with result: %s", action.toString() ) ) );
-        }
-        catch ( Exception e )
+        if ( context == null )
         {
-            log.error( DebugUtils.getStackTrace( e ) );
-            log.error( DebugUtils.getStackTrace( e.getCause() ) );
+            return new ArrayList<>();
         }
 
-        return ruleEffects;
+        return evaluate( () -> getEventEvaluation( context, programStageInstance ).call() );
     }
 
-    public List<RuleEffect> evaluateEvent( ProgramStageInstance programStageInstance )
+    /**
+     * Returns the rule engine context for the given program with the program
+     * rules, rule variables and supplementary data mapped. The context is
+     * immutable and can be shared by the evaluations of many enrollments and
+     * events of the program.
+     *
+     * @param program the program.
+     * @return the rule engine context, or null if the program has no implementable
+     *         program rules.
+     */
+    public RuleEngineContext getRuleEngineContext( Program program )
     {
-        List<RuleEffect> ruleEffects = new ArrayList<>();
+        List<ProgramRule> implementableProgramRules = getImplementableRules( program );
 
-        if ( programStageInstance == null )
+        if ( implementableProgramRules.isEmpty() )
         {
-            return ruleEffects;
+            return null;
         }
 
-        ProgramInstance enrollment = programStageInstance.getProgramInstance();
+        List<ProgramRuleVariable> programRuleVariables = programRuleVariableService.getProgramRuleVariable( program );
 
-        List<ProgramRule> implementableProgramRules = getImplementableRules( enrollment.getProgram() );
+        return ruleEngineContext( implementableProgramRules, programRuleVariables );
+    }
 
-        if ( implementableProgramRules.isEmpty() )
-        {
-            return ruleEffects;
-        }
+    /**
+     * Maps the given enrollment and its events and returns the evaluation of the
+     * enrollment. The returned evaluation does not access the database and can
+     * be invoked from any thread.
+     *
+     * @param context the rule engine context of the program of the enrollment.
+     * @param enrollment the enrollment.
+     * @return the evaluation.
+     */
+    public Callable<List<RuleEffect>> getEnrollmentEvaluation( RuleEngineContext context, ProgramInstance enrollment )
+    {
+        RuleEnrollment ruleEnrollment = programRuleEntityMapperService.toMappedRuleEnrollment( enrollment );
+
+        List<RuleEvent> ruleEvents = programRuleEntityMapperService.toMappedRuleEvents( enrollment.getProgramStageInstances() );
 
-        List<ProgramRuleVariable> programRuleVariables = programRuleVariableService.getProgramRuleVariable( enrollment.getProgram() );
+        RuleEngine ruleEngine = ruleEngineBuilder( context ).events( ruleEvents ).build();
+
+        return ruleEngine.evaluate( ruleEnrollment );
+    }
+
+    /**
+     * Maps the given event, its enrollment and the other events of the enrollment
+     * and returns the evaluation of the event. The returned evaluation does not
+     * access the database and can be invoked from any thread.
+     *
+     * @param context the rule engine context of the program of the event.
+     * @param programStageInstance the event.
+     * @return the evaluation.
+     */
+    public Callable<List<RuleEffect>> getEventEvaluation( RuleEngineContext context, ProgramStageInstance programStageInstance )
+    {
+        ProgramInstance enrollment = programStageInstance.getProgramInstance();
 
         RuleEnrollment ruleEnrollment = programRuleEntityMapperService.toMappedRuleEnrollment( enrollment );
 
         List<RuleEvent> ruleEvents = programRuleEntityMapperService.toMappedRuleEvents( enrollment.getProgramStageInstances(), programStageInstance );
 
-        RuleEngine ruleEngine;
+        RuleEngine ruleEngine = ruleEngineBuilder( context ).enrollment( ruleEnrollment ).events( ruleEvents ).build();
+
+        return ruleEngine.evaluate( programRuleEntityMapperService.toMappedRuleEvent( programStageInstance ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private List<RuleEffect> evaluate( Callable<List<RuleEffect>> evaluation )
+    {
+        List<RuleEffect> ruleEffects = new ArrayList<>();
 
         try
         {
-            ruleEngine = ruleEngineBuilder( implementableProgramRules, programRuleVariables ).enrollment( ruleEnrollment ).events( ruleEvents ).build();
-
-            ruleEffects = ruleEngine.evaluate( programRuleEntityMapperService.toMappedRuleEvent( programStageInstance )  ).call();
+            ruleEffects = evaluation.call();
 
             ruleEffects.stream().map( RuleEffect::ruleAction )
                 .forEach( action -> log.info( String.format( "RuleEngine triggered with result: %s", action.toString() ) ) );
@@ -173,7 +212,12 @@ public class ProgramRuleEngine
         return ruleEffects;
     }
 
-    private RuleEngine.Builder ruleEngineBuilder( List<ProgramRule> programRules, List<ProgramRuleVariable> programRuleVariables )
+    private RuleEngine.Builder ruleEngineBuilder( RuleEngineContext context )
+    {
+        return context.toEngineBuilder().triggerEnvironment( TriggerEnvironment.SERVER );
+    }
+
+    private RuleEngineContext ruleEngineContext( List<ProgramRule> programRules, List<ProgramRuleVariable> programRuleVariables )
     {
         Map<String, List<String>> supplementaryData = new HashMap<>();
 
@@ -215,7 +259,7 @@ public class ProgramRuleEngine
             .calculatedValueMap( inMemoryMap.getVariablesMap() )
             .rules( rules )
             .ruleVariables( programRuleEntityMapperService.toMappedProgramRuleVariables( programRuleVariables ) )
-            .build().toEngineBuilder().triggerEnvironment( TriggerEnvironment.SERVER );
+            .build();
     }
 
     private List<ProgramRule> getImplementableRules( Program program )
@@ -37,7 +37,8 @@ import org.hisp.dhis.rules.models.RuleActionAssign;
 import org.hisp.dhis.rules.models.RuleEffect;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -99,11 +100,17 @@ public class RuleActionAssignValueImplementer implements RuleActionImplementer
 
         log.info( "Assigning: " + variable + " with value: " + value );
 
-        if ( !variableMap.containsKey( programInstance.getUid() ) )
+        Map<String, String> variables = variableMap.computeIfAbsent( programInstance.getUid(), uid -> new ConcurrentHashMap<>() );
+
+        // Concurrent maps do not allow null values, a null value clears the variable
+
+        if ( value != null )
         {
-            variableMap.put( programInstance.getUid(), new HashMap<>() );
+            variables.put( variable, value );
+        }
+        else
+        {
+            variables.remove( variable );
         }
-
-        variableMap.get( programInstance.getUid() ).put( variable, value );
     }
 }
@@ -31,6 +31,8 @@ package org.hisp.dhis.programrule.engine;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * @Author Zubair Asghar.
@@ -38,7 +40,7 @@ import java.util.Map;
 
 public class RuleVariableInMemoryMap
 {
-    private Map<String, Map<String, String>> variables = new HashMap<>();
+    private Map<String, Map<String, String>> variables = new ConcurrentHashMap<>();
 
     public void put( String key, Map<String, String> value )
     {
@@ -50,6 +52,11 @@ public class RuleVariableInMemoryMap
         return variables.getOrDefault( key, new HashMap<>() );
     }
 
+    public Map<String, String> computeIfAbsent( String key, Function<String, Map<String, String>> mappingFunction )
+    {
+        return variables.computeIfAbsent( key, mappingFunction );
+    }
+
     public boolean containsKey( String key )
     {
         return variables.containsKey( key );
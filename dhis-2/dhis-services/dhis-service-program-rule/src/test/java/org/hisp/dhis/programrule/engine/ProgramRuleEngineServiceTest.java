@@ -34,10 +34,12 @@ import org.hisp.dhis.program.Program;
 import org.hisp.dhis.program.ProgramInstance;
 import org.hisp.dhis.program.ProgramStage;
 import org.hisp.dhis.program.ProgramStageInstance;
+import org.hisp.dhis.program.ProgramStageInstanceService;
 import org.hisp.dhis.programrule.ProgramRule;
 import org.hisp.dhis.programrule.ProgramRuleAction;
 import org.hisp.dhis.programrule.ProgramRuleActionType;
 import org.hisp.dhis.programrule.ProgramRuleService;
+import org.hisp.dhis.rules.RuleEngineContext;
 import org.hisp.dhis.rules.models.RuleAction;
 import org.hisp.dhis.rules.models.RuleActionSendMessage;
 import org.hisp.dhis.rules.models.RuleEffect;
@@ -46,10 +48,17 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.*;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -76,6 +85,12 @@ public class ProgramRuleEngineServiceTest extends DhisConvenienceTest
     @Mock
     private ProgramRuleService programRuleService;
 
+    @Mock
+    private ProgramStageInstanceService programStageInstanceService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @Spy
     private ArrayList<RuleActionImplementer> ruleActionImplementers;
 
@@ -86,6 +101,8 @@ public class ProgramRuleEngineServiceTest extends DhisConvenienceTest
 
     private ProgramStageInstance programStageInstance;
 
+    private ProgramStageInstance programStageInstanceB;
+
     private ProgramRule programRuleA;
 
     private List<ProgramRule> programRules = new ArrayList<>();
@@ -187,10 +204,79 @@ public class ProgramRuleEngineServiceTest extends DhisConvenienceTest
         assertTrue( this.ruleEffects.get( 0 ).ruleAction() instanceof RuleActionSendMessage );
     }
 
+    @Test
+    public void testEvaluateEventsImplementsActions()
+    {
+        setUpEventEvaluation();
+
+        Map<String, List<RuleEffect>> effects = service.evaluateEvents( Lists.newArrayList( programStageInstance, programStageInstanceB ) );
+
+        assertEquals( 2, effects.size() );
+        assertEquals( 1, effects.get( programStageInstance.getUid() ).size() );
+        assertEquals( 1, effects.get( programStageInstanceB.getUid() ).size() );
+
+        verify( programRuleEngine, times( 1 ) ).getRuleEngineContext( any( Program.class ) );
+        verify( programRuleEngine, times( 2 ) ).getEventEvaluation( any(), any( ProgramStageInstance.class ) );
+        verify( ruleActionSendMessage ).implement( any( RuleEffect.class ), eq( programStageInstance ) );
+        verify( ruleActionSendMessage ).implement( any( RuleEffect.class ), eq( programStageInstanceB ) );
+
+        assertEquals( 2, this.ruleEffects.size() );
+    }
+
+    @Test
+    public void testEvaluateEventsImplementsActionsAfterCommit()
+    {
+        setUpEventEvaluation();
+
+        TransactionSynchronizationManager.initSynchronization();
+
+        try
+        {
+            Map<String, List<RuleEffect>> effects = service.evaluateEvents( Lists.newArrayList( programStageInstance, programStageInstanceB ) );
+
+            assertEquals( 2, effects.size() );
+
+            verify( ruleActionSendMessage, never() ).implement( any( RuleEffect.class ), any( ProgramStageInstance.class ) );
+            assertEquals( 0, this.ruleEffects.size() );
+
+            TransactionSynchronizationManager.getSynchronizations().forEach( TransactionSynchronization::afterCommit );
+        }
+        finally
+        {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify( programStageInstanceService ).getProgramStageInstance( programStageInstance.getUid() );
+        verify( programStageInstanceService ).getProgramStageInstance( programStageInstanceB.getUid() );
+        verify( ruleActionSendMessage ).implement( any( RuleEffect.class ), eq( programStageInstance ) );
+        verify( ruleActionSendMessage ).implement( any( RuleEffect.class ), eq( programStageInstanceB ) );
+        verify( transactionManager ).commit( any() );
+
+        assertEquals( 2, this.ruleEffects.size() );
+    }
+
     // -------------------------------------------------------------------------
     // Supportive methods
     // -------------------------------------------------------------------------
 
+    private void setUpEventEvaluation()
+    {
+        RuleEngineContext context = RuleEngineContext.builder( mock( ProgramRuleExpressionEvaluator.class ) )
+            .supplementaryData( new HashMap<>() )
+            .calculatedValueMap( new HashMap<>() )
+            .rules( new ArrayList<>() )
+            .ruleVariables( new ArrayList<>() )
+            .build();
+
+        List<RuleEffect> effects = Lists.newArrayList( RuleEffect.create( RuleActionSendMessage.create( NOTIFICATION_UID, DATA ) ) );
+
+        when( programRuleEngine.getRuleEngineContext( any( Program.class ) ) ).thenReturn( context );
+        when( programRuleEngine.getEventEvaluation( any(), any( ProgramStageInstance.class ) ) ).thenReturn( () -> effects );
+
+        when( programStageInstanceService.getProgramStageInstance( programStageInstance.getUid() ) ).thenReturn( programStageInstance );
+        when( programStageInstanceService.getProgramStageInstance( programStageInstanceB.getUid() ) ).thenReturn( programStageInstanceB );
+    }
+
     private void setUpInstances()
     {
         OrganisationUnit organisationUnitA = createOrganisationUnit( 'A' );
@@ -210,9 +296,15 @@ public class ProgramRuleEngineServiceTest extends DhisConvenienceTest
         programA.getProgramStages().add( programStageA );
 
         programStageInstance = new ProgramStageInstance();
+        programStageInstance.setUid( "PSI-UID-A" );
         programStageInstance.setProgramStage( programStageA );
         programStageInstance.setProgramInstance( programInstance );
 
+        programStageInstanceB = new ProgramStageInstance();
+        programStageInstanceB.setUid( "PSI-UID-B" );
+        programStageInstanceB.setProgramStage( programStageA );
+        programStageInstanceB.setProgramInstance( programInstance );
+
         programRules.add( programRuleA );
     }
 
@@ -34,9 +34,11 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import org.hisp.dhis.DhisSpringTest;
 import org.hisp.dhis.analytics.AggregationType;
@@ -238,6 +240,27 @@ public class ProgramRuleEngineTest extends DhisSpringTest
         assertEquals( "PNT-1", ruleActionSendMessage.notification() );
     }
 
+    @Test
+    public void testSendMessageForEventsInBatch()
+    {
+        setUpSendMessageForEnrollment();
+
+        ProgramStageInstance programStageInstance = programStageInstanceService.getProgramStageInstance( "UID-PS1" );
+
+        Map<String, List<RuleEffect>> ruleEffects = programRuleEngineService.evaluateEvents( Collections.singletonList( programStageInstance ) );
+
+        assertEquals( 1, ruleEffects.size() );
+        assertEquals( 1, ruleEffects.get( "UID-PS1" ).size() );
+
+        RuleAction ruleAction = ruleEffects.get( "UID-PS1" ).get( 0 ).ruleAction();
+
+        assertTrue( ruleAction instanceof RuleActionSendMessage );
+
+        RuleActionSendMessage ruleActionSendMessage = (RuleActionSendMessage) ruleAction;
+
+        assertEquals( "PNT-1", ruleActionSendMessage.notification() );
+    }
+
     @Test
     public void testSchedulingByProgramRule() throws Exception
     {
@@ -0,0 +1,124 @@
+package org.hisp.dhis.programrule.engine;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+
+import org.hisp.dhis.DhisConvenienceTest;
+import org.hisp.dhis.program.ProgramInstance;
+import org.hisp.dhis.program.ProgramStageInstance;
+import org.hisp.dhis.rules.models.RuleActionAssign;
+import org.hisp.dhis.rules.models.RuleEffect;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+public class RuleActionAssignValueImplementerTest extends DhisConvenienceTest
+{
+    private static final String VARIABLE = "weight";
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Spy
+    private RuleVariableInMemoryMap variableMap = new RuleVariableInMemoryMap();
+
+    @InjectMocks
+    private RuleActionAssignValueImplementer implementer;
+
+    private ProgramInstance programInstance;
+
+    private ProgramStageInstance programStageInstance;
+
+    @Before
+    public void initTest()
+    {
+        programInstance = new ProgramInstance();
+        programInstance.setUid( "PI-UID-A" );
+
+        programStageInstance = new ProgramStageInstance();
+        programStageInstance.setUid( "PSI-UID-A" );
+        programStageInstance.setProgramInstance( programInstance );
+    }
+
+    @Test
+    public void testAssignValue()
+    {
+        implementer.implement( createRuleEffect( "#{" + VARIABLE + "}", "10" ), programInstance );
+        implementer.implement( createRuleEffect( "#{height}", "120" ), programStageInstance );
+
+        Map<String, String> variables = variableMap.get( programInstance.getUid() );
+
+        assertEquals( 2, variables.size() );
+        assertEquals( "10", variables.get( VARIABLE ) );
+        assertEquals( "120", variables.get( "height" ) );
+    }
+
+    @Test
+    public void testAssignNullValueClearsVariable()
+    {
+        implementer.implement( createRuleEffect( "#{" + VARIABLE + "}", "10" ), programInstance );
+        implementer.implement( createRuleEffect( "#{" + VARIABLE + "}", null ), programStageInstance );
+
+        assertFalse( variableMap.get( programInstance.getUid() ).containsKey( VARIABLE ) );
+    }
+
+    @Test
+    public void testAssignNullValueWithoutVariables()
+    {
+        implementer.implement( createRuleEffect( "#{" + VARIABLE + "}", null ), programInstance );
+
+        assertEquals( 0, variableMap.get( programInstance.getUid() ).size() );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private RuleEffect createRuleEffect( String field, String data )
+    {
+        RuleActionAssign ruleAction = mock( RuleActionAssign.class );
+        when( ruleAction.field() ).thenReturn( field );
+
+        RuleEffect ruleEffect = mock( RuleEffect.class );
+        when( ruleEffect.ruleAction() ).thenReturn( ruleAction );
+        when( ruleEffect.data() ).thenReturn( data );
+
+        return ruleEffect;
+    }
+}
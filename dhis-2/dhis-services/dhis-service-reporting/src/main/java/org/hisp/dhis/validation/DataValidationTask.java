@@ -47,7 +47,6 @@ import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dataelement.DataElementOperand;
 import org.hisp.dhis.datavalue.DataExportParams;
 import org.hisp.dhis.datavalue.DataValueService;
-import org.hisp.dhis.datavalue.DeflatedDataValue;
 import org.hisp.dhis.expression.Expression;
 import org.hisp.dhis.expression.ExpressionService;
 import org.hisp.dhis.expression.Operator;
@@ -124,9 +123,11 @@ public class DataValidationTask
 
     private MapMapMap<Integer, String, DimensionalItemObject, Double> slidingWindowEventMap;
 
-    public void init( List<OrganisationUnit> orgUnits, ValidationRunContext context, AnalyticsService analyticsService )
+    public void init( List<OrganisationUnit> orgUnits, PeriodTypeExtended periodTypeX, ValidationRunContext context,
+        AnalyticsService analyticsService )
     {
         this.orgUnits = orgUnits;
+        this.periodTypeX = periodTypeX;
         this.context = context;
         this.analyticsService = analyticsService;
     }
@@ -153,7 +154,8 @@ public class DataValidationTask
 
     /**
      * Get the data needed for this task, then evaluate each combination
-     * of organisation unit / period / validation rule.
+     * of organisation unit / period / validation rule for the period type
+     * of this task.
      */
     private void runInternal()
     {
@@ -163,33 +165,33 @@ public class DataValidationTask
         }
 
         loop:
-        for ( PeriodTypeExtended ptx : context.getPeriodTypeXs() )
+        for ( Period p : periodTypeX.getPeriods() )
         {
-            periodTypeX = ptx;
+            period = p;
 
-            for ( Period p : periodTypeX.getPeriods() )
-            {
-                period = p;
+            getData();
 
-                getData();
+            for ( OrganisationUnit ou : orgUnits )
+            {
+                orgUnit = ou;
+                orgUnitId = ou.getId();
 
-                for ( OrganisationUnit ou : orgUnits )
+                for ( ValidationRuleExtended r : periodTypeX.getRuleXs() )
                 {
-                    orgUnit = ou;
-                    orgUnitId = ou.getId();
+                    ruleX = r;
 
-                    for ( ValidationRuleExtended r : periodTypeX.getRuleXs() )
+                    if ( context.isAnalysisComplete() )
                     {
-                        ruleX = r;
-
-                        if ( context.isAnalysisComplete() )
-                        {
-                            break loop;
-                        }
-                        validationResults = new HashSet<>();
-                        validateRule();
-                        addValidationResultsToContext();
+                        break loop;
                     }
+
+                    long start = System.nanoTime();
+
+                    validationResults = new HashSet<>();
+                    validateRule();
+                    addValidationResultsToContext();
+
+                    context.addRuleTime( ruleX.getRule(), System.nanoTime() - start );
                 }
             }
         }
@@ -494,14 +496,11 @@ public class DataValidationTask
             params.setAttributeOptionCombos( Sets.newHashSet( context.getAttributeCombo() ) );
         }
 
-        List<DeflatedDataValue> dataValues = dataValueService.getDeflatedDataValues( params );
-
         dataMap = new MapMapMap<>();
 
         MapMapMap<Integer, String, DimensionalItemObject, Long> checkForDuplicates = new MapMapMap<>();
 
-        for ( DeflatedDataValue dv : dataValues )
-        {
+        dataValueService.streamDeflatedDataValues( params, dv -> {
             DataElement dataElement = periodTypeX.getDataElementIdMap().get( dv.getDataElementId() );
             String deoIdKey = periodTypeX.getDeoIds( dv.getDataElementId(), dv.getCategoryOptionComboId() );
             DataElementOperand dataElementOperand = periodTypeX.getDataElementOperandIdMap().get( deoIdKey );
@@ -517,7 +516,7 @@ public class DataValidationTask
             }
             catch ( NumberFormatException | NullPointerException e )
             {
-                continue;
+                return;
             }
 
             if ( dataElement != null )
@@ -530,7 +529,7 @@ public class DataValidationTask
                 addValueToDataMap( orgUnitId, attributeOptionComboUid, dataElementOperand, value, p,
                     checkForDuplicates );
             }
-        }
+        } );
     }
 
     private void addValueToDataMap( int orgUnitId, String aocUid, DimensionalItemObject dimItemObject,
@@ -234,7 +234,7 @@ public class DefaultValidationService
      * @param parameters        ValidationRuleParameters for creating ValidationRuleContext
      * @return Builder with basic configuration based on input.
      */
-    private ValidationRunContext getValidationContext( ValidationAnalysisParams parameters )
+    ValidationRunContext getValidationContext( ValidationAnalysisParams parameters )
     {
         User currentUser = currentUserService.getCurrentUser();
 
@@ -268,9 +268,11 @@ public class DefaultValidationService
                     parameters.isIncludeOrgUnitDescendants(), parameters.getRules(), parameters.getPeriods()) )
             .withSendNotifications( parameters.isSendNotifications() )
             .withPersistResults( parameters.isPersistResults() )
+            .withJobConfiguration( parameters.getJobConfiguration() )
             .withAttributeCombo( parameters.getAttributeOptionCombo() )
             .withDefaultAttributeCombo( categoryService.getDefaultCategoryOptionCombo() )
-            .withMaxResults( parameters.getMaxResults() );
+            .withMaxResults( parameters.getMaxResults() )
+            .withOrgUnitsPerTask( parameters.getOrgUnitsPerTask() );
 
         if ( currentUser != null )
         {
@@ -35,6 +35,7 @@ import org.hisp.dhis.category.CategoryOptionGroup;
 import org.hisp.dhis.common.MapMapMap;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.period.Period;
+import org.hisp.dhis.scheduling.JobConfiguration;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -44,6 +45,9 @@ import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 
 /**
  * This class keeps track of a validation analysis. It contains information about the initial params of the analysis,
@@ -77,10 +81,14 @@ public class ValidationRunContext
 
     private int maxResults = 0;
 
+    private int orgUnitsPerTask = ORG_UNITS_PER_TASK;
+
     private boolean sendNotifications = false;
 
     private boolean persistResults = false;
 
+    private JobConfiguration jobConfiguration;
+
     private MapMapMap<OrganisationUnit, ValidationRule, Period, List<ValidationResult>> initialValidationResults = new MapMapMap<>();
 
     public ValidationRunContext()
@@ -98,6 +106,14 @@ public class ValidationRunContext
 
     private Map<String, CategoryOptionCombo> aocUidMap = new ConcurrentHashMap<>();
 
+    // -------------------------------------------------------------------------
+    // Progress and timing
+    // -------------------------------------------------------------------------
+
+    private AtomicLong completedOrgUnits = new AtomicLong();
+
+    private Map<ValidationRule, LongAdder> ruleTimes = new ConcurrentHashMap<>();
+
     // -------------------------------------------------------------------------
     // Getter methods
     // -------------------------------------------------------------------------
@@ -152,6 +168,21 @@ public class ValidationRunContext
         return persistResults;
     }
 
+    public JobConfiguration getJobConfiguration()
+    {
+        return jobConfiguration;
+    }
+
+    public int getOrgUnitsPerTask()
+    {
+        return orgUnitsPerTask;
+    }
+
+    public long getCompletedOrgUnits()
+    {
+        return completedOrgUnits.get();
+    }
+
     public Queue<ValidationResult> getValidationResults()
     {
         return validationResults;
@@ -200,7 +231,7 @@ public class ValidationRunContext
 
     public int getNumberOfTasks()
     {
-        return ( orgUnits.size() + ORG_UNITS_PER_TASK - 1 ) / ORG_UNITS_PER_TASK;
+        return ( orgUnits.size() + orgUnitsPerTask - 1 ) / orgUnitsPerTask;
     }
 
     public boolean isAnalysisComplete()
@@ -208,6 +239,52 @@ public class ValidationRunContext
         return validationResults.size() >= maxResults;
     }
 
+    /**
+     * Registers that the given number of organisation units have been
+     * evaluated for one period type.
+     *
+     * @param count the number of evaluated organisation units.
+     * @return the completed percentage if it reached a new multiple of ten,
+     *         otherwise -1.
+     */
+    public int addCompletedOrgUnits( int count )
+    {
+        long total = (long) orgUnits.size() * periodTypeXs.size();
+
+        if ( total == 0 )
+        {
+            return -1;
+        }
+
+        long completed = completedOrgUnits.addAndGet( count );
+
+        int before = (int) ( ( completed - count ) * 10 / total );
+        int after = (int) ( completed * 10 / total );
+
+        return after > before ? after * 10 : -1;
+    }
+
+    /**
+     * Adds time spent evaluating the given validation rule.
+     *
+     * @param rule the validation rule.
+     * @param nanos the time spent in nanoseconds.
+     */
+    public void addRuleTime( ValidationRule rule, long nanos )
+    {
+        ruleTimes.computeIfAbsent( rule, r -> new LongAdder() ).add( nanos );
+    }
+
+    /**
+     * Returns the total time spent evaluating each validation rule in
+     * nanoseconds.
+     */
+    public Map<ValidationRule, Long> getRuleTimes()
+    {
+        return ruleTimes.entrySet().stream()
+            .collect( Collectors.toMap( Map.Entry::getKey, e -> e.getValue().sum() ) );
+    }
+
     // -------------------------------------------------------------------------
     // Builder
     // -------------------------------------------------------------------------
@@ -310,6 +387,21 @@ public class ValidationRunContext
             return this;
         }
 
+        /**
+         * Sets the max number of organisation units evaluated by each task.
+         *
+         * @param orgUnitsPerTask the number of organisation units, ignored if not positive
+         */
+        public Builder withOrgUnitsPerTask( int orgUnitsPerTask )
+        {
+            if ( orgUnitsPerTask > 0 )
+            {
+                this.context.orgUnitsPerTask = orgUnitsPerTask;
+            }
+
+            return this;
+        }
+
         public Builder withSendNotifications( boolean sendNotifications )
         {
             this.context.sendNotifications = sendNotifications;
@@ -337,6 +429,17 @@ public class ValidationRunContext
             return this;
         }
 
+        /**
+         * This is an optional job configuration used to report progress.
+         *
+         * @param jobConfiguration
+         */
+        public Builder withJobConfiguration( JobConfiguration jobConfiguration )
+        {
+            this.context.jobConfiguration = jobConfiguration;
+            return this;
+        }
+
         public Builder withInitialResults( Collection<ValidationResult> results )
         {
             this.context.validationResults.addAll( results );
@@ -36,5 +36,6 @@ import java.util.List;
 public interface ValidationTask
     extends Runnable
 {
-    void init( List<OrganisationUnit> orgUnits, ValidationRunContext context, AnalyticsService analyticsService );
+    void init( List<OrganisationUnit> orgUnits, PeriodTypeExtended periodTypeX, ValidationRunContext context,
+        AnalyticsService analyticsService );
 }
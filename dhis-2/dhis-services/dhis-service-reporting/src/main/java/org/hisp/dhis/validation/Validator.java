@@ -28,18 +28,24 @@ package org.hisp.dhis.validation;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
-import com.google.common.collect.Lists;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.hisp.dhis.analytics.AnalyticsService;
 import org.hisp.dhis.category.CategoryService;
 import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.system.notification.NotificationLevel;
+import org.hisp.dhis.system.notification.Notifier;
 import org.springframework.context.ApplicationContext;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
 
 /**
  * Evaluates validation rules.
@@ -48,11 +54,23 @@ import java.util.concurrent.TimeUnit;
  */
 public class Validator
 {
+    private static final Log log = LogFactory.getLog( Validator.class );
+
+    private static final int SLOWEST_RULES_REPORTED = 5;
+
+    /**
+     * Fork-join pool shared by all validation runs. Idle threads steal work
+     * from threads busy with large chunks, so that unevenly sized subtrees
+     * do not leave threads waiting for the slowest chunk.
+     */
+    private static final ForkJoinPool POOL = new ForkJoinPool( getParallelism() );
+
     /**
      * Evaluates validation rules for a collection of organisation units. This
-     * method breaks the job down by organisation unit. It assigns the
-     * evaluation for each organisation unit to a task that can be evaluated
-     * independently in a multi-threaded environment.
+     * method breaks the job down by period type and organisation unit subtree.
+     * Each chunk is split in half until it holds at most
+     * {@link ValidationRunContext#getOrgUnitsPerTask()} organisation units, and
+     * is then evaluated independently on the shared fork-join pool.
      * <p/>
      * Return early with no results if there are no organisation units
      * or no validation rules.
@@ -64,65 +82,167 @@ public class Validator
     {
         CategoryService categoryService = (CategoryService)
             applicationContext.getBean( CategoryService.class );
-                
-        int threadPoolSize = getThreadPoolSize( context );
 
-        if ( threadPoolSize == 0 || context.getPeriodTypeXs().isEmpty() )
+        if ( context.getOrgUnits().isEmpty() || context.getPeriodTypeXs().isEmpty() )
         {
             return context.getValidationResults();
         }
 
-        ExecutorService executor = Executors.newFixedThreadPool( threadPoolSize );
+        Notifier notifier = context.getJobConfiguration() != null ?
+            applicationContext.getBean( Notifier.class ) : null;
+
+        // Sorting by path places the organisation units of each subtree next
+        // to each other, so that each split yields contiguous subtrees
 
-        List<List<OrganisationUnit>> orgUnitLists = Lists.partition( context.getOrgUnits(), ValidationRunContext.ORG_UNITS_PER_TASK );
+        List<OrganisationUnit> orgUnits = new ArrayList<>( context.getOrgUnits() );
+        orgUnits.sort( Comparator.comparing( OrganisationUnit::getPath ) );
 
-        for ( List<OrganisationUnit> orgUnits : orgUnitLists )
+        List<ValidationAction> actions = context.getPeriodTypeXs().stream()
+            .map( periodTypeX -> new ValidationAction( orgUnits, periodTypeX, context,
+                applicationContext, analyticsService, notifier ) )
+            .collect( Collectors.toList() );
+
+        POOL.invoke( new RecursiveAction()
         {
-            ValidationTask task = (ValidationTask) applicationContext.getBean( DataValidationTask.NAME );
-            task.init( orgUnits, context, analyticsService );
+            @Override
+            protected void compute()
+            {
+                invokeAll( actions );
+            }
+        } );
 
-            executor.execute( task );
-        }
+        reportSlowestRules( context, notifier );
 
-        executor.shutdown();
+        reloadAttributeOptionCombos( context.getValidationResults(), categoryService );
 
-        try
+        return context.getValidationResults();
+    }
+
+    /**
+     * Evaluates validation rules for one period type and a contiguous range
+     * of organisation units, splitting the range in half while it is larger
+     * than {@link ValidationRunContext#getOrgUnitsPerTask()}.
+     */
+    private static class ValidationAction
+        extends RecursiveAction
+    {
+        private final List<OrganisationUnit> orgUnits;
+
+        private final PeriodTypeExtended periodTypeX;
+
+        private final ValidationRunContext context;
+
+        private final ApplicationContext applicationContext;
+
+        private final AnalyticsService analyticsService;
+
+        private final Notifier notifier;
+
+        ValidationAction( List<OrganisationUnit> orgUnits, PeriodTypeExtended periodTypeX, ValidationRunContext context,
+            ApplicationContext applicationContext, AnalyticsService analyticsService, Notifier notifier )
         {
-            executor.awaitTermination( 6, TimeUnit.HOURS );
+            this.orgUnits = orgUnits;
+            this.periodTypeX = periodTypeX;
+            this.context = context;
+            this.applicationContext = applicationContext;
+            this.analyticsService = analyticsService;
+            this.notifier = notifier;
         }
-        catch ( InterruptedException e )
+
+        @Override
+        protected void compute()
         {
-            executor.shutdownNow();
-        }
+            if ( context.isAnalysisComplete() )
+            {
+                return;
+            }
 
-        reloadAttributeOptionCombos( context.getValidationResults(), categoryService );
+            if ( orgUnits.size() > context.getOrgUnitsPerTask() )
+            {
+                int middle = orgUnits.size() / 2;
 
-        return context.getValidationResults();
+                invokeAll(
+                    new ValidationAction( orgUnits.subList( 0, middle ), periodTypeX, context,
+                        applicationContext, analyticsService, notifier ),
+                    new ValidationAction( orgUnits.subList( middle, orgUnits.size() ), periodTypeX, context,
+                        applicationContext, analyticsService, notifier ) );
+
+                return;
+            }
+
+            ValidationTask task = (ValidationTask) applicationContext.getBean( DataValidationTask.NAME );
+            task.init( orgUnits, periodTypeX, context, analyticsService );
+
+            try
+            {
+                task.run();
+            }
+            catch ( RuntimeException ex )
+            {
+                // Already logged by the task, continue with the remaining chunks
+            }
+
+            int percent = context.addCompletedOrgUnits( orgUnits.size() );
+
+            if ( notifier != null && percent >= 0 )
+            {
+                synchronized ( notifier )
+                {
+                    notifier.notify( context.getJobConfiguration(), "Validation " + percent + "% done" );
+                }
+            }
+        }
     }
 
     /**
      * Determines how many threads we should use for testing validation rules.
      * 
-     * @param context validation run context
      * @return number of threads we should use for testing validation rules
      */
-    private static int getThreadPoolSize( ValidationRunContext context )
+    private static int getParallelism()
     {
-        int threadPoolSize = SystemUtils.getCpuCores();
+        int parallelism = SystemUtils.getCpuCores();
 
-        if ( threadPoolSize > 2 )
+        if ( parallelism > 2 )
         {
-            threadPoolSize--;
+            parallelism--;
         }
 
-        int numberOfTasks = context.getNumberOfTasks();
+        return parallelism;
+    }
 
-        if ( threadPoolSize > numberOfTasks )
+    /**
+     * Logs the validation rules which took the longest time to evaluate, and
+     * reports them through the notifier if the run belongs to a job.
+     *
+     * @param context validation run context
+     * @param notifier the notifier, or null if the run does not belong to a job.
+     */
+    private static void reportSlowestRules( ValidationRunContext context, Notifier notifier )
+    {
+        List<Map.Entry<ValidationRule, Long>> slowestRules = context.getRuleTimes().entrySet().stream()
+            .sorted( Map.Entry.<ValidationRule, Long>comparingByValue().reversed() )
+            .limit( SLOWEST_RULES_REPORTED )
+            .collect( Collectors.toList() );
+
+        if ( slowestRules.isEmpty() )
         {
-            threadPoolSize = numberOfTasks;
+            return;
         }
 
-        return threadPoolSize;
+        String message = "Slowest validation rules: " + slowestRules.stream()
+            .map( e -> e.getKey().getName() + " (" + ( e.getValue() / 1000000 ) + " ms)" )
+            .collect( Collectors.joining( ", " ) );
+
+        log.info( message );
+
+        if ( notifier != null )
+        {
+            synchronized ( notifier )
+            {
+                notifier.notify( context.getJobConfiguration(), NotificationLevel.INFO, message );
+            }
+        }
     }
 
     /**
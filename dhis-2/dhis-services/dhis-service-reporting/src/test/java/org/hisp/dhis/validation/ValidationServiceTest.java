@@ -30,6 +30,7 @@ package org.hisp.dhis.validation;
 
 import com.google.common.collect.Lists;
 import org.hisp.dhis.DhisTest;
+import org.hisp.dhis.analytics.AnalyticsService;
 import org.hisp.dhis.category.Category;
 import org.hisp.dhis.category.CategoryCombo;
 import org.hisp.dhis.category.CategoryOption;
@@ -51,6 +52,8 @@ import org.hisp.dhis.system.util.MathUtils;
 import org.hisp.dhis.user.CurrentUserService;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.util.AopTestUtils;
 
 import java.util.*;
 
@@ -97,6 +100,12 @@ public class ValidationServiceTest
     @Autowired
     private PeriodService periodService;
 
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
     private DataElement dataElementA;
     private DataElement dataElementB;
     private DataElement dataElementC;
@@ -648,6 +657,83 @@ public class ValidationServiceTest
         assertResultsEquals( reference, results );
     }
 
+    @Test
+    public void testValidateOrgUnitTasksMatchSequentialValidation()
+    {
+        for ( OrganisationUnit source : Lists.newArrayList( sourceA, sourceB, sourceC, sourceD, sourceE ) )
+        {
+            for ( Period period : Lists.newArrayList( periodA, periodB ) )
+            {
+                useDataValue( dataElementA, period, source, "1" );
+                useDataValue( dataElementB, period, source, "2" );
+                useDataValue( dataElementC, period, source, "3" );
+                useDataValue( dataElementD, period, source, "4" );
+            }
+        }
+
+        for ( Period period : Lists.newArrayList( periodA, periodB ) )
+        {
+            useDataValue( dataElementA, period, sourceF, "1" );
+            useDataValue( dataElementB, period, sourceF, "2" );
+            useDataValue( dataElementC, period, sourceF, "5" );
+            useDataValue( dataElementD, period, sourceF, "2" );
+        }
+
+        useDataValue( dataElementE, periodY, sourceB, "2222" );
+        useDataValue( dataElementE, periodY, sourceC, "366" );
+
+        validationRuleService.saveValidationRule( validationRuleA );
+        validationRuleService.saveValidationRule( validationRuleB );
+        validationRuleService.saveValidationRule( validationRuleQ );
+
+        List<ValidationRule> validationRules = Lists.newArrayList( validationRuleA, validationRuleB, validationRuleQ );
+        List<Period> periods = periodService.getPeriodsBetweenDates( getDate( 2000, 1, 1 ), getDate( 2000, 12, 31 ) );
+
+        DefaultValidationService defaultValidationService = AopTestUtils.getTargetObject( validationService );
+
+        // Each organisation unit is evaluated by its own task on the fork-join pool
+
+        ValidationRunContext context = defaultValidationService.getValidationContext( validationService
+            .newParamsBuilder( validationRules, null, periods ).withOrgUnitsPerTask( 1 ).build() );
+
+        Collection<ValidationResult> results = Validator.validate( context, applicationContext, analyticsService );
+
+        // All organisation units are evaluated by one task per period type on this thread
+
+        ValidationRunContext sequentialContext = defaultValidationService.getValidationContext( validationService
+            .newParamsBuilder( validationRules, null, periods ).build() );
+
+        for ( PeriodTypeExtended periodTypeX : sequentialContext.getPeriodTypeXs() )
+        {
+            ValidationTask task = (ValidationTask) applicationContext.getBean( DataValidationTask.NAME );
+            task.init( sequentialContext.getOrgUnits(), periodTypeX, sequentialContext, analyticsService );
+            task.run();
+        }
+
+        Collection<ValidationResult> reference = new HashSet<>();
+
+        for ( OrganisationUnit source : Lists.newArrayList( sourceA, sourceB, sourceC, sourceD, sourceE ) )
+        {
+            reference.add( new ValidationResult( validationRuleA, periodA, source, defaultCombo, 3.0, -1.0, dayInPeriodA ) );
+            reference.add( new ValidationResult( validationRuleA, periodB, source, defaultCombo, 3.0, -1.0, dayInPeriodB ) );
+            reference.add( new ValidationResult( validationRuleB, periodA, source, defaultCombo, -1.0, 4.0, dayInPeriodA ) );
+            reference.add( new ValidationResult( validationRuleB, periodB, source, defaultCombo, -1.0, 4.0, dayInPeriodB ) );
+        }
+
+        reference.add( new ValidationResult( validationRuleB, periodA, sourceF, defaultCombo, 3.0, 4.0, dayInPeriodA ) );
+        reference.add( new ValidationResult( validationRuleB, periodB, sourceF, defaultCombo, 3.0, 4.0, dayInPeriodB ) );
+        reference.add( new ValidationResult( validationRuleQ, periodY, sourceB, defaultCombo, 2222.0, 366.0, dayInPeriodY ) );
+
+        assertResultsEquals( reference, sequentialContext.getValidationResults() );
+        assertResultsEquals( reference, results );
+
+        assertEquals( 7, context.getOrgUnits().size() );
+        assertEquals( 2, context.getPeriodTypeXs().size() );
+        assertEquals( 14, context.getNumberOfTasks() * context.getPeriodTypeXs().size() );
+        assertEquals( 14L, context.getCompletedOrgUnits() );
+        assertEquals( sequentialContext.getRuleTimes().keySet(), context.getRuleTimes().keySet() );
+    }
+
     @Test
     public void testValidateDataSetPeriodSource()
     {
@@ -226,6 +226,8 @@ public class DefaultSchemaService
 
             updateSelf( schema );
 
+            schema.getProperties().forEach( PropertyAccessors::register );
+
             schema.getPersistedProperties();
             schema.getNonPersistedProperties();
             schema.getReadableProperties();
@@ -281,6 +283,8 @@ public class DefaultSchemaService
 
         updateSelf( schema );
 
+        schema.getProperties().forEach( PropertyAccessors::register );
+
         dynamicClassSchemaMap.put( klass, schema );
 
         return schema;
@@ -0,0 +1,348 @@
+package org.hisp.dhis.schema;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Generated accessors for the getter and setter methods of schema properties.
+ * Accessors are created once per method through {@link LambdaMetafactory}, which
+ * lets the JIT inline them like direct calls, falling back to a plain method
+ * handle and lastly to reflection if the method can not be linked.
+ * <p>
+ * Accessors follow the semantics of {@code ReflectionUtils.invokeMethod}: null
+ * targets and missing, protected or private methods give a null value and
+ * setters which do nothing, and exceptions thrown by the accessor methods are
+ * wrapped in an {@link InvocationTargetException} inside a
+ * {@link RuntimeException}.
+ */
+public final class PropertyAccessors
+{
+    private static final Log log = LogFactory.getLog( PropertyAccessors.class );
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final Function<Object, Object> NULL_GETTER = target -> null;
+
+    private static final BiConsumer<Object, Object> NULL_SETTER = ( target, value ) -> {};
+
+    private static final Map<Method, Function<Object, Object>> GETTERS = new ConcurrentHashMap<>();
+
+    private static final Map<Method, BiConsumer<Object, Object>> SETTERS = new ConcurrentHashMap<>();
+
+    private PropertyAccessors()
+    {
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Generates the getter and setter accessors of the given property and stores
+     * them on the property, so that the first invocation does not pay for linking.
+     * Accessors are shared between properties with the same methods.
+     *
+     * @param property the property.
+     */
+    public static void register( Property property )
+    {
+        if ( property.getGetterMethod() != null )
+        {
+            property.setGetter( getGetter( property.getGetterMethod() ) );
+        }
+
+        if ( property.getSetterMethod() != null )
+        {
+            property.setSetter( getSetter( property.getSetterMethod() ) );
+        }
+    }
+
+    /**
+     * Invokes the getter method of the given property on the given target.
+     *
+     * @param target   the target object.
+     * @param property the property.
+     * @return the property value, or null.
+     */
+    @SuppressWarnings( "unchecked" )
+    public static <T> T invokeGetter( Object target, Property property )
+    {
+        if ( target == null || property.getGetterMethod() == null )
+        {
+            return null;
+        }
+
+        Function<Object, Object> getter = property.getGetter();
+
+        if ( getter == null )
+        {
+            getter = getGetter( property.getGetterMethod() );
+            property.setGetter( getter );
+        }
+
+        return (T) getter.apply( target );
+    }
+
+    /**
+     * Invokes the setter method of the given property on the given target.
+     *
+     * @param target   the target object.
+     * @param property the property.
+     * @param value    the value to set.
+     */
+    public static void invokeSetter( Object target, Property property, Object value )
+    {
+        if ( target == null || property.getSetterMethod() == null )
+        {
+            return;
+        }
+
+        BiConsumer<Object, Object> setter = property.getSetter();
+
+        if ( setter == null )
+        {
+            setter = getSetter( property.getSetterMethod() );
+            property.setSetter( setter );
+        }
+
+        setter.accept( target, value );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private static Function<Object, Object> getGetter( Method method )
+    {
+        Function<Object, Object> getter = GETTERS.get( method );
+
+        return getter != null ? getter : GETTERS.computeIfAbsent( method, PropertyAccessors::createGetter );
+    }
+
+    private static BiConsumer<Object, Object> getSetter( Method method )
+    {
+        BiConsumer<Object, Object> setter = SETTERS.get( method );
+
+        return setter != null ? setter : SETTERS.computeIfAbsent( method, PropertyAccessors::createSetter );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    static Function<Object, Object> createGetter( Method method )
+    {
+        if ( !isAccessible( method ) )
+        {
+            return NULL_GETTER;
+        }
+
+        MethodHandle handle;
+
+        try
+        {
+            handle = LOOKUP.unreflect( method );
+        }
+        catch ( IllegalAccessException ex )
+        {
+            log.debug( "Using reflective getter for: " + method );
+            return target -> invokeReflective( method, target );
+        }
+
+        if ( isVisible( handle.type() ) )
+        {
+            try
+            {
+                CallSite site = LambdaMetafactory.metafactory( LOOKUP, "apply",
+                    MethodType.methodType( Function.class ), MethodType.methodType( Object.class, Object.class ),
+                    handle, handle.type().wrap() );
+
+                Function<Object, Object> getter = (Function<Object, Object>) site.getTarget().invokeExact();
+
+                return target -> {
+                    try
+                    {
+                        return getter.apply( target );
+                    }
+                    catch ( RuntimeException | Error ex )
+                    {
+                        throw accessorException( ex );
+                    }
+                };
+            }
+            catch ( Throwable ex )
+            {
+                log.debug( "Using method handle getter for: " + method );
+            }
+        }
+
+        MethodHandle genericHandle = handle.asType( MethodType.methodType( Object.class, Object.class ) );
+
+        return target -> {
+            try
+            {
+                return genericHandle.invokeExact( target );
+            }
+            catch ( Throwable ex )
+            {
+                throw accessorException( ex );
+            }
+        };
+    }
+
+    @SuppressWarnings( "unchecked" )
+    static BiConsumer<Object, Object> createSetter( Method method )
+    {
+        if ( !isAccessible( method ) || method.getParameterCount() != 1 )
+        {
+            return NULL_SETTER;
+        }
+
+        MethodHandle handle;
+
+        try
+        {
+            handle = LOOKUP.unreflect( method );
+        }
+        catch ( IllegalAccessException ex )
+        {
+            log.debug( "Using reflective setter for: " + method );
+            return ( target, value ) -> invokeReflective( method, target, value );
+        }
+
+        if ( isVisible( handle.type() ) )
+        {
+            try
+            {
+                CallSite site = LambdaMetafactory.metafactory( LOOKUP, "accept",
+                    MethodType.methodType( BiConsumer.class ), MethodType.methodType( void.class, Object.class, Object.class ),
+                    handle, handle.type().wrap().changeReturnType( void.class ) );
+
+                BiConsumer<Object, Object> setter = (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+
+                return ( target, value ) -> {
+                    try
+                    {
+                        setter.accept( target, value );
+                    }
+                    catch ( RuntimeException | Error ex )
+                    {
+                        throw accessorException( ex );
+                    }
+                };
+            }
+            catch ( Throwable ex )
+            {
+                log.debug( "Using method handle setter for: " + method );
+            }
+        }
+
+        MethodHandle genericHandle = handle.asType( MethodType.methodType( void.class, Object.class, Object.class ) );
+
+        return ( target, value ) -> {
+            try
+            {
+                genericHandle.invokeExact( target, value );
+            }
+            catch ( Throwable ex )
+            {
+                throw accessorException( ex );
+            }
+        };
+    }
+
+    private static boolean isAccessible( Method method )
+    {
+        return !Modifier.isProtected( method.getModifiers() ) && !Modifier.isPrivate( method.getModifiers() )
+            && !Modifier.isStatic( method.getModifiers() );
+    }
+
+    private static Object invokeReflective( Method method, Object target, Object... args )
+    {
+        try
+        {
+            return method.invoke( target, args );
+        }
+        catch ( InvocationTargetException | IllegalAccessException ex )
+        {
+            throw new RuntimeException( ex );
+        }
+    }
+
+    /**
+     * Wraps an exception thrown by an accessor method the way
+     * {@link Method#invoke(Object, Object...)} and {@code ReflectionUtils.invokeMethod} do.
+     */
+    private static RuntimeException accessorException( Throwable ex )
+    {
+        return new RuntimeException( new InvocationTargetException( ex ) );
+    }
+
+    /**
+     * Generated lambda classes resolve types through the class loader of this
+     * class, so types only visible to a child class loader must not be linked.
+     */
+    private static boolean isVisible( MethodType type )
+    {
+        ClassLoader classLoader = PropertyAccessors.class.getClassLoader();
+        List<Class<?>> types = new ArrayList<>( type.parameterList() );
+        types.add( type.returnType() );
+
+        for ( Class<?> klass : types )
+        {
+            try
+            {
+                if ( !klass.isPrimitive() && Class.forName( klass.getName(), false, classLoader ) != klass )
+                {
+                    return false;
+                }
+            }
+            catch ( ClassNotFoundException ex )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
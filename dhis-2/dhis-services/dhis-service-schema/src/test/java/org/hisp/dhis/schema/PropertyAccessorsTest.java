@@ -0,0 +1,197 @@
+package org.hisp.dhis.schema;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dataelement.DataElementGroup;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PropertyAccessorsTest
+{
+    private static final Log log = LogFactory.getLog( PropertyAccessorsTest.class );
+
+    private static final int BENCHMARK_CALLS = 20_000_000;
+
+    @Test
+    public void testGetterAndSetter() throws Exception
+    {
+        Property property = new Property( String.class,
+            DataElement.class.getMethod( "getName" ), DataElement.class.getMethod( "setName", String.class ) );
+
+        PropertyAccessors.register( property );
+
+        DataElement dataElement = new DataElement();
+
+        PropertyAccessors.invokeSetter( dataElement, property, "DataElementA" );
+
+        assertEquals( "DataElementA", dataElement.getName() );
+        assertEquals( "DataElementA", PropertyAccessors.invokeGetter( dataElement, property ) );
+    }
+
+    @Test
+    public void testPrimitiveGetterAndSetter() throws Exception
+    {
+        Property property = new Property( Boolean.class,
+            DataElement.class.getMethod( "isZeroIsSignificant" ), DataElement.class.getMethod( "setZeroIsSignificant", boolean.class ) );
+
+        DataElement dataElement = new DataElement();
+
+        PropertyAccessors.invokeSetter( dataElement, property, true );
+
+        assertEquals( Boolean.TRUE, PropertyAccessors.invokeGetter( dataElement, property ) );
+    }
+
+    @Test
+    public void testNullTargetAndMissingMethods() throws Exception
+    {
+        Property property = new Property( DataElementGroup.class );
+
+        assertNull( PropertyAccessors.invokeGetter( new DataElement(), property ) );
+        assertNull( PropertyAccessors.invokeGetter( null, new Property( String.class,
+            DataElement.class.getMethod( "getName" ), null ) ) );
+
+        PropertyAccessors.invokeSetter( new DataElement(), property, "Value" );
+    }
+
+    @Test
+    public void testAccessorExceptionsAreWrapped() throws Exception
+    {
+        Property property = new Property( String.class,
+            FailingAccessors.class.getMethod( "getValue" ), FailingAccessors.class.getMethod( "setValue", String.class ) );
+
+        PropertyAccessors.register( property );
+
+        try
+        {
+            PropertyAccessors.invokeGetter( new FailingAccessors(), property );
+            fail( "Expected exception from getter" );
+        }
+        catch ( RuntimeException ex )
+        {
+            assertTrue( ex.getCause() instanceof InvocationTargetException );
+            assertTrue( ex.getCause().getCause() instanceof IllegalStateException );
+        }
+
+        try
+        {
+            PropertyAccessors.invokeSetter( new FailingAccessors(), property, "Value" );
+            fail( "Expected exception from setter" );
+        }
+        catch ( RuntimeException ex )
+        {
+            assertTrue( ex.getCause() instanceof InvocationTargetException );
+            assertTrue( ex.getCause().getCause() instanceof IllegalStateException );
+        }
+    }
+
+    /**
+     * Micro-benchmark of generated getters against {@link Method#invoke}, ignored
+     * as timings depend on the machine. Run it manually to compare the two.
+     */
+    @Test
+    @Ignore
+    public void benchmarkGetterAgainstMethodInvoke() throws Exception
+    {
+        Method method = DataElement.class.getMethod( "getName" );
+        Property property = new Property( String.class, method, null );
+        PropertyAccessors.register( property );
+
+        DataElement dataElement = new DataElement();
+        dataElement.setName( "DataElementA" );
+
+        for ( int i = 0; i < 3; i++ )
+        {
+            long reflection = time( () -> {
+                int length = 0;
+
+                for ( int n = 0; n < BENCHMARK_CALLS; n++ )
+                {
+                    length += ((String) method.invoke( dataElement )).length();
+                }
+
+                return length;
+            } );
+
+            long accessor = time( () -> {
+                int length = 0;
+
+                for ( int n = 0; n < BENCHMARK_CALLS; n++ )
+                {
+                    length += PropertyAccessors.<String>invokeGetter( dataElement, property ).length();
+                }
+
+                return length;
+            } );
+
+            log.info( String.format( "Run %d, %d getter calls: Method.invoke %d ms, accessor %d ms",
+                i + 1, BENCHMARK_CALLS, reflection, accessor ) );
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private static long time( BenchmarkLoop loop ) throws Exception
+    {
+        long start = System.nanoTime();
+        assertEquals( 12L * BENCHMARK_CALLS, loop.run() );
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    @FunctionalInterface
+    private interface BenchmarkLoop
+    {
+        long run() throws Exception;
+    }
+
+    public static class FailingAccessors
+    {
+        public String getValue()
+        {
+            throw new IllegalStateException( "Getter failed" );
+        }
+
+        public void setValue( String value )
+        {
+            throw new IllegalStateException( "Setter failed" );
+        }
+    }
+}
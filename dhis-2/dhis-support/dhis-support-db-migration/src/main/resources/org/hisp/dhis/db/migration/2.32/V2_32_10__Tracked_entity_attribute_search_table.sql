@@ -0,0 +1,28 @@
+-- Searchable copy of tracked entity attribute values with lower-cased values and word tokens
+create table if not exists trackedentityattributesearch (
+  trackedentityinstanceid integer not null,
+  trackedentityattributeid integer not null,
+  value text not null,
+  tokens tsvector not null,
+  constraint trackedentityattributesearch_pkey primary key (trackedentityinstanceid, trackedentityattributeid)
+);
+
+insert into trackedentityattributesearch (trackedentityinstanceid, trackedentityattributeid, value, tokens)
+select teav.trackedentityinstanceid, teav.trackedentityattributeid, lower(teav.value), to_tsvector('simple', teav.value)
+from trackedentityattributevalue teav
+where teav.value is not null
+on conflict do nothing;
+
+-- Values are indexed by hash as long values exceed the btree index entry size limit
+create index if not exists in_trackedentityattributesearch_attribute_value on trackedentityattributesearch (trackedentityattributeid, md5(value));
+
+create index if not exists in_trackedentityattributesearch_tokens on trackedentityattributesearch using gin (tokens);
+
+-- Trigram index for contains searches, skipped if the pg_trgm extension cannot be installed
+do $$
+begin
+  create extension if not exists pg_trgm;
+  create index if not exists in_trackedentityattributesearch_value_trgm on trackedentityattributesearch using gin (value gin_trgm_ops);
+exception when others then
+  raise notice 'Extension pg_trgm not available, skipping trigram index on trackedentityattributesearch';
+end $$;
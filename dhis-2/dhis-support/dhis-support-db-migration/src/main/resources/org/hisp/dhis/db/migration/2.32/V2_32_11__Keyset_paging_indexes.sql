@@ -0,0 +1,4 @@
+-- Indexes supporting keyset paging of events and tracked entity instances on last updated and id
+create index if not exists in_programstageinstance_lastupdated_id on programstageinstance (lastupdated desc, programstageinstanceid desc);
+
+create index if not exists in_trackedentityinstance_lastupdated_id on trackedentityinstance (lastupdated desc, trackedentityinstanceid desc);
@@ -36,6 +36,7 @@ import java.io.UncheckedIOException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Properties;
@@ -75,6 +76,7 @@ public class DefaultHibernateConfigurationProvider
     private static final String PROP_EHCACHE_PEER_LISTENER_PORT = "ehcache.peer.listener.port";
     private static final String PROP_EHCACHE_PEER_LISTENER_REMOTE_OBJECT_PORT = "ehcache.peer.listener.remote.object.port";
     private static final String FILENAME_EHCACHE_REPLICATION = "/ehcache-replication.xml";
+    private static final String CLUSTER_CACHE_MODE_INVALIDATION = "invalidation";
 
     @Autowired
     private org.springframework.core.env.Environment environment;
@@ -88,6 +90,7 @@ public class DefaultHibernateConfigurationProvider
     private List<Resource> jarResources = new ArrayList<>();
     private List<Resource> dirResources = new ArrayList<>();
     private List<String> clusterHostnames = new ArrayList<>();
+    private boolean cacheInvalidationEnabled = false;
 
     // -------------------------------------------------------------------------
     // Dependencies
@@ -170,10 +173,18 @@ public class DefaultHibernateConfigurationProvider
         }
 
         // ---------------------------------------------------------------------
-        // Handle cache replication
+        // Handle cache replication or invalidation
         // ---------------------------------------------------------------------
 
-        if ( configurationProvider.isClusterEnabled() )
+        if ( configurationProvider.isClusterEnabled() && isClusterCacheInvalidationMode() )
+        {
+            clusterHostnames.addAll( getClusterMembers() );
+
+            cacheInvalidationEnabled = true;
+
+            log.info( "Clustering and cache invalidation enabled" );
+        }
+        else if ( configurationProvider.isClusterEnabled() )
         {
             config.setProperty( "net.sf.ehcache.configurationResourceName", FILENAME_EHCACHE_REPLICATION );
 
@@ -218,6 +229,12 @@ public class DefaultHibernateConfigurationProvider
         return clusterHostnames;
     }
 
+    @Override
+    public boolean isCacheInvalidationEnabled()
+    {
+        return cacheInvalidationEnabled;
+    }
+
     // -------------------------------------------------------------------------
     // Supportive methods
     // -------------------------------------------------------------------------
@@ -295,25 +312,19 @@ public class DefaultHibernateConfigurationProvider
         String instanceHost = configurationProvider.getProperty( ConfigurationKey.CLUSTER_HOSTNAME );
         String instancePort = configurationProvider.getProperty( ConfigurationKey.CLUSTER_CACHE_PORT );
         String remoteObjectPort = configurationProvider.getProperty( ConfigurationKey.CLUSTER_CACHE_REMOTE_OBJECT_PORT );
-        String clusterMembers = configurationProvider.getProperty( ConfigurationKey.CLUSTER_MEMBERS );
-
-        // Split using comma delimiter along with possible spaces in between
-
-        String clusterMemberList[] = clusterMembers.trim().split("\\s*,\\s*");
+        List<String> clusterMemberList = getClusterMembers();
 
         List<String> cacheNames = getCacheNames();
 
         final StringBuilder rmiUrlBuilder = new StringBuilder();
 
-        for ( int i = 0; i < clusterMemberList.length; i++ )
+        for ( String clusterMember : clusterMemberList )
         {
-            final String clusterUrl = "//" + clusterMemberList[i] + "/";
+            final String clusterUrl = "//" + clusterMember + "/";
 
             cacheNames.stream().forEach( name -> rmiUrlBuilder.append( clusterUrl + name + "|" ) );
 
-            clusterHostnames.add( clusterMemberList[i] );
-
-            log.info( "Found cluster instance: " + clusterMemberList[i] );
+            clusterHostnames.add( clusterMember );
         }
 
         String rmiUrls = StringUtils.removeEnd( rmiUrlBuilder.toString(), "|" );
@@ -331,6 +342,32 @@ public class DefaultHibernateConfigurationProvider
         log.info( "Ehcache config properties: " + instanceHost + ", " + instancePort + ", " + rmiUrls + ", " + remoteObjectPort  );
     }
 
+    /**
+     * Returns the host names of the cluster members.
+     */
+    private List<String> getClusterMembers()
+    {
+        String clusterMembers = configurationProvider.getProperty( ConfigurationKey.CLUSTER_MEMBERS );
+
+        // Split using comma delimiter along with possible spaces in between
+
+        List<String> clusterMemberList = Arrays.asList( clusterMembers.trim().split( "\\s*,\\s*" ) );
+
+        clusterMemberList.forEach( member -> log.info( "Found cluster instance: " + member ) );
+
+        return clusterMemberList;
+    }
+
+    /**
+     * Indicates whether the cluster cache mode is invalidation, as opposed to
+     * the default Ehcache replication.
+     */
+    private boolean isClusterCacheInvalidationMode()
+    {
+        return CLUSTER_CACHE_MODE_INVALIDATION.equalsIgnoreCase(
+            StringUtils.trimToEmpty( configurationProvider.getProperty( ConfigurationKey.CLUSTER_CACHE_MODE ) ) );
+    }
+
     /**
      * Returns a list of names of all Hibernate caches.
      */
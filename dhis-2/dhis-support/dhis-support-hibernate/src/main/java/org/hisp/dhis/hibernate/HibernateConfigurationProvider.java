@@ -49,4 +49,12 @@ public interface HibernateConfigurationProvider
     List<Resource> getDirectoryResources();
     
     List<String> getClusterHostnames();
+
+    /**
+     * Indicates whether the second-level cache is kept local to each instance
+     * in a cluster, with changes distributed as invalidation messages instead
+     * of replicated entries. Enabled through <code>cluster.cache.mode = invalidation</code>,
+     * which requires Redis to distribute the invalidations.
+     */
+    boolean isCacheInvalidationEnabled();
 }
@@ -0,0 +1,179 @@
+package org.hisp.dhis.hibernate.cache;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact message which carries the identifiers of the cached entities and
+ * collections changed by a committed transaction, to be evicted from the
+ * second-level cache of the other instances of a cluster. Changes are
+ * accumulated for the duration of a transaction and published per commit,
+ * split into chunks of bounded size.
+ */
+public class HibernateCacheInvalidation
+    implements Serializable
+{
+    /**
+     * Identifier of the instance which published the message.
+     */
+    private final String origin;
+
+    /**
+     * Entity names mapped to identifiers of changed entities.
+     */
+    private final Map<String, Set<Serializable>> entities = new HashMap<>();
+
+    /**
+     * Collection roles mapped to identifiers of owners of changed collections.
+     */
+    private final Map<String, Set<Serializable>> collections = new HashMap<>();
+
+    /**
+     * Query spaces, which are table names, whose cached query results must be
+     * invalidated.
+     */
+    private final Set<String> querySpaces = new HashSet<>();
+
+    public HibernateCacheInvalidation( String origin )
+    {
+        this.origin = origin;
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    public void addEntity( String entityName, Serializable id )
+    {
+        entities.computeIfAbsent( entityName, k -> new HashSet<>() ).add( id );
+    }
+
+    public void addCollection( String role, Serializable ownerId )
+    {
+        collections.computeIfAbsent( role, k -> new HashSet<>() ).add( ownerId );
+    }
+
+    public void addQuerySpace( String querySpace )
+    {
+        querySpaces.add( querySpace );
+    }
+
+    public boolean isEmpty()
+    {
+        return entities.isEmpty() && collections.isEmpty() && querySpaces.isEmpty();
+    }
+
+    /**
+     * Splits this invalidation into invalidations with at most the given number
+     * of entity and collection identifiers each. The query spaces are carried
+     * by the first invalidation.
+     *
+     * @param chunkSize the maximum number of identifiers per invalidation.
+     * @return a list of invalidations.
+     */
+    public List<HibernateCacheInvalidation> split( int chunkSize )
+    {
+        List<HibernateCacheInvalidation> chunks = new ArrayList<>();
+
+        HibernateCacheInvalidation chunk = new HibernateCacheInvalidation( origin );
+        chunk.querySpaces.addAll( querySpaces );
+        chunks.add( chunk );
+
+        int size = 0;
+
+        for ( Map.Entry<String, Set<Serializable>> entry : entities.entrySet() )
+        {
+            for ( Serializable id : entry.getValue() )
+            {
+                if ( size++ == chunkSize )
+                {
+                    chunk = new HibernateCacheInvalidation( origin );
+                    chunks.add( chunk );
+                    size = 1;
+                }
+
+                chunk.addEntity( entry.getKey(), id );
+            }
+        }
+
+        for ( Map.Entry<String, Set<Serializable>> entry : collections.entrySet() )
+        {
+            for ( Serializable ownerId : entry.getValue() )
+            {
+                if ( size++ == chunkSize )
+                {
+                    chunk = new HibernateCacheInvalidation( origin );
+                    chunks.add( chunk );
+                    size = 1;
+                }
+
+                chunk.addCollection( entry.getKey(), ownerId );
+            }
+        }
+
+        return chunks;
+    }
+
+    // -------------------------------------------------------------------------
+    // Get methods
+    // -------------------------------------------------------------------------
+
+    public String getOrigin()
+    {
+        return origin;
+    }
+
+    public Map<String, Set<Serializable>> getEntities()
+    {
+        return entities;
+    }
+
+    public Map<String, Set<Serializable>> getCollections()
+    {
+        return collections;
+    }
+
+    public Set<String> getQuerySpaces()
+    {
+        return querySpaces;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[Origin: " + origin + ", entities: " + entities + ", collections: " + collections + ", query spaces: " + querySpaces + "]";
+    }
+}
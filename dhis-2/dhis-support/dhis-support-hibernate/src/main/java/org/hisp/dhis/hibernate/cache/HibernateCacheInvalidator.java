@@ -0,0 +1,371 @@
+package org.hisp.dhis.hibernate.cache;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.UpdateTimestampsCache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hisp.dhis.hibernate.HibernateConfigurationProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps the second-level cache local to each instance of a cluster and
+ * distributes changes as invalidations instead of replicating entries.
+ * Changes to cached entities and collections are accumulated per transaction
+ * and published over the {@link HibernateCacheInvalidationTransport} once the
+ * transaction commits, and changes received from other instances are evicted
+ * from the local cache. Changed tables are published as query spaces, whose
+ * update timestamps are invalidated on the other instances so that only the
+ * cached queries over these tables are stale. Only tables of cached entities
+ * and collections are published, as cacheable queries are issued by the
+ * stores of cached classes. Only active when the cluster cache mode is
+ * invalidation, which requires a cluster transport such as Redis.
+ */
+public class HibernateCacheInvalidator
+{
+    private static final Log log = LogFactory.getLog( HibernateCacheInvalidator.class );
+
+    /**
+     * Maximum number of entity and collection identifiers per published
+     * invalidation.
+     */
+    private static final int CHUNK_SIZE = 1000;
+
+    /**
+     * Identifier of this instance, used to skip its own invalidations.
+     */
+    private final String origin = UUID.randomUUID().toString();
+
+    /**
+     * Query spaces which are touched by cached queries.
+     */
+    private Set<String> cachedQuerySpaces = new HashSet<>();
+
+    // -------------------------------------------------------------------------
+    // Dependencies
+    // -------------------------------------------------------------------------
+
+    private SessionFactory sessionFactory;
+
+    public void setSessionFactory( SessionFactory sessionFactory )
+    {
+        this.sessionFactory = sessionFactory;
+    }
+
+    private HibernateConfigurationProvider hibernateConfigurationProvider;
+
+    public void setHibernateConfigurationProvider( HibernateConfigurationProvider hibernateConfigurationProvider )
+    {
+        this.hibernateConfigurationProvider = hibernateConfigurationProvider;
+    }
+
+    private HibernateCacheInvalidationTransport transport;
+
+    @Autowired( required = false )
+    public void setTransport( HibernateCacheInvalidationTransport transport )
+    {
+        this.transport = transport;
+    }
+
+    // -------------------------------------------------------------------------
+    // Initialize
+    // -------------------------------------------------------------------------
+
+    @PostConstruct
+    public void init()
+    {
+        if ( !hibernateConfigurationProvider.isCacheInvalidationEnabled() )
+        {
+            return;
+        }
+
+        if ( transport == null )
+        {
+            throw new IllegalStateException( "Cluster cache mode is invalidation but no cluster transport is available, " +
+                "enable Redis or use cluster cache mode replication" );
+        }
+
+        transport.subscribe( this::onInvalidation );
+
+        SessionFactoryImplementor factory = sessionFactory.unwrap( SessionFactoryImplementor.class );
+
+        if ( factory.getSessionFactoryOptions().isQueryCacheEnabled() )
+        {
+            factory.getMetamodel().entityPersisters().values().stream()
+                .filter( persister -> persister.hasCache() )
+                .forEach( persister -> addCachedQuerySpaces( persister.getQuerySpaces() ) );
+
+            factory.getMetamodel().collectionPersisters().values().stream()
+                .filter( persister -> persister.hasCache() )
+                .forEach( persister -> addCachedQuerySpaces( persister.getCollectionSpaces() ) );
+        }
+
+        EventListenerRegistry registry = factory.getServiceRegistry().getService( EventListenerRegistry.class );
+
+        HibernateCacheInvalidationListener listener = new HibernateCacheInvalidationListener( this );
+        registry.appendListeners( EventType.POST_INSERT, listener );
+        registry.appendListeners( EventType.POST_UPDATE, listener );
+        registry.appendListeners( EventType.POST_DELETE, listener );
+        registry.appendListeners( EventType.POST_COLLECTION_RECREATE, listener );
+        registry.appendListeners( EventType.POST_COLLECTION_UPDATE, listener );
+        registry.appendListeners( EventType.POST_COLLECTION_REMOVE, listener );
+
+        log.info( String.format( "Hibernate cache invalidation enabled with transport: %s", transport.getClass().getSimpleName() ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Invalidates the cached entity with the given name and identifier on the
+     * other instances.
+     *
+     * @param entityName the entity name.
+     * @param id the entity identifier.
+     */
+    public void invalidateEntity( String entityName, Serializable id )
+    {
+        addInvalidation( invalidation -> invalidation.addEntity( entityName, id ) );
+    }
+
+    /**
+     * Invalidates the cached collection with the given role of the owner with
+     * the given identifier on the other instances.
+     *
+     * @param role the collection role.
+     * @param ownerId the identifier of the collection owner.
+     */
+    public void invalidateCollection( String role, Serializable ownerId )
+    {
+        addInvalidation( invalidation -> invalidation.addCollection( role, ownerId ) );
+    }
+
+    /**
+     * Invalidates the cached queries over the given query spaces on the other
+     * instances. Query spaces which are not touched by cached queries are
+     * ignored.
+     *
+     * @param querySpaces the query spaces, which are table names.
+     */
+    public void invalidateQuerySpaces( Serializable[] querySpaces )
+    {
+        Set<String> spaces = new HashSet<>();
+
+        for ( Serializable querySpace : querySpaces )
+        {
+            if ( cachedQuerySpaces.contains( querySpace.toString() ) )
+            {
+                spaces.add( querySpace.toString() );
+            }
+        }
+
+        if ( !spaces.isEmpty() )
+        {
+            addInvalidation( invalidation -> spaces.forEach( invalidation::addQuerySpace ) );
+        }
+    }
+
+    /**
+     * Evicts the entities, collections and queries of the given invalidation
+     * from the local cache, unless published by this instance.
+     *
+     * @param invalidation the invalidation.
+     */
+    public void onInvalidation( HibernateCacheInvalidation invalidation )
+    {
+        if ( origin.equals( invalidation.getOrigin() ) )
+        {
+            return;
+        }
+
+        try
+        {
+            Cache cache = sessionFactory.getCache();
+
+            invalidation.getEntities().forEach( ( entityName, ids ) -> ids.forEach( id -> cache.evictEntity( entityName, id ) ) );
+            invalidation.getCollections().forEach( ( role, ownerIds ) -> ownerIds.forEach( ownerId -> cache.evictCollection( role, ownerId ) ) );
+
+            if ( !invalidation.getQuerySpaces().isEmpty() )
+            {
+                invalidateTimestamps( invalidation.getQuerySpaces() );
+            }
+
+            log.debug( String.format( "Applied cache invalidation: %s", invalidation ) );
+        }
+        catch ( RuntimeException ex )
+        {
+            log.warn( String.format( "Failed to apply cache invalidation: %s, %s", invalidation, ex.getMessage() ) );
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Sets the query spaces which are touched by cached queries.
+     */
+    void setCachedQuerySpaces( Set<String> cachedQuerySpaces )
+    {
+        this.cachedQuerySpaces = cachedQuerySpaces;
+    }
+
+    private void addCachedQuerySpaces( Serializable[] querySpaces )
+    {
+        for ( Serializable querySpace : querySpaces )
+        {
+            cachedQuerySpaces.add( querySpace.toString() );
+        }
+    }
+
+    /**
+     * Invalidates the update timestamps of the given query spaces, so that
+     * cached query results over these spaces are considered stale.
+     */
+    private void invalidateTimestamps( Set<String> querySpaces )
+    {
+        SessionFactoryImplementor factory = sessionFactory.unwrap( SessionFactoryImplementor.class );
+
+        UpdateTimestampsCache timestamps = factory.getCache().getUpdateTimestampsCache();
+
+        if ( timestamps == null )
+        {
+            return;
+        }
+
+        SharedSessionContractImplementor session = (SharedSessionContractImplementor) factory.openSession();
+
+        try
+        {
+            timestamps.invalidate( querySpaces.toArray( new Serializable[0] ), session );
+        }
+        finally
+        {
+            session.close();
+        }
+    }
+
+    /**
+     * Adds a change to the invalidation of the current transaction, which is
+     * published once the transaction commits and discarded if it rolls back.
+     * Outside of a transaction the change is published immediately.
+     */
+    private void addInvalidation( Consumer<HibernateCacheInvalidation> change )
+    {
+        if ( !TransactionSynchronizationManager.isSynchronizationActive() )
+        {
+            HibernateCacheInvalidation invalidation = new HibernateCacheInvalidation( origin );
+            change.accept( invalidation );
+            publish( invalidation );
+            return;
+        }
+
+        HibernateCacheInvalidation invalidation = (HibernateCacheInvalidation) TransactionSynchronizationManager.getResource( this );
+
+        if ( invalidation == null )
+        {
+            invalidation = new HibernateCacheInvalidation( origin );
+            TransactionSynchronizationManager.bindResource( this, invalidation );
+            TransactionSynchronizationManager.registerSynchronization( new InvalidationSynchronization( invalidation ) );
+        }
+
+        change.accept( invalidation );
+    }
+
+    private void publish( HibernateCacheInvalidation invalidation )
+    {
+        for ( HibernateCacheInvalidation chunk : invalidation.split( CHUNK_SIZE ) )
+        {
+            try
+            {
+                transport.publish( chunk );
+            }
+            catch ( RuntimeException ex )
+            {
+                log.warn( String.format( "Failed to publish cache invalidation: %s, %s", chunk, ex.getMessage() ) );
+            }
+        }
+    }
+
+    /**
+     * Publishes the invalidation of a transaction on commit. The invalidation
+     * is unbound while the transaction is suspended so that changes of inner
+     * transactions are published with their own commit.
+     */
+    private class InvalidationSynchronization
+        extends TransactionSynchronizationAdapter
+    {
+        private final HibernateCacheInvalidation invalidation;
+
+        InvalidationSynchronization( HibernateCacheInvalidation invalidation )
+        {
+            this.invalidation = invalidation;
+        }
+
+        @Override
+        public void suspend()
+        {
+            TransactionSynchronizationManager.unbindResource( HibernateCacheInvalidator.this );
+        }
+
+        @Override
+        public void resume()
+        {
+            TransactionSynchronizationManager.bindResource( HibernateCacheInvalidator.this, invalidation );
+        }
+
+        @Override
+        public void afterCompletion( int status )
+        {
+            TransactionSynchronizationManager.unbindResourceIfPossible( HibernateCacheInvalidator.this );
+
+            if ( STATUS_COMMITTED == status && !invalidation.isEmpty() )
+            {
+                publish( invalidation );
+            }
+        }
+    }
+}
@@ -37,12 +37,15 @@ import java.util.Set;
 import org.hisp.dhis.eventdatavalue.EventDataValue;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 /**
  * @author David Katuscak
  */
 public class JsonEventDataValueSetBinaryType extends JsonBinaryType
 {
+    private static final ObjectWriter MAP_WRITER = MAPPER.writerFor( new TypeReference<Map<String, EventDataValue>>() {} );
+
     public JsonEventDataValueSetBinaryType()
     {
         super();
@@ -68,19 +71,24 @@ public class JsonEventDataValueSetBinaryType extends JsonBinaryType
     @SuppressWarnings( "unchecked" )
     @Override
     protected String convertObjectToJson( Object object )
+    {
+        return convertEventDataValuesSetIntoJson( object == null ? Collections.emptySet() : (Set<EventDataValue>) object );
+    }
+
+    /**
+     * Deserializes JSON content to an object.
+     *
+     * @param content the JSON content.
+     * @return an object.
+     */
+    @Override
+    public Object convertJsonToObject( String content )
     {
         try
         {
-            Set<EventDataValue> eventDataValues = object == null ? Collections.emptySet() : (Set<EventDataValue>) object;
-
-            Map<String, EventDataValue> tempMap = new HashMap<>();
-
-            for ( EventDataValue eventDataValue : eventDataValues )
-            {
-                tempMap.put( eventDataValue.getDataElement(), eventDataValue );
-            }
+            Map<String, EventDataValue> data = reader.readValue( content );
 
-            return writer.writeValueAsString( tempMap );
+            return convertEventDataValuesMapIntoSet( data );
         }
         catch ( IOException e )
         {
@@ -89,19 +97,24 @@ public class JsonEventDataValueSetBinaryType extends JsonBinaryType
     }
 
     /**
-     * Deserializes JSON content to an object.
+     * Serializes event data values to JSON in the format of the column, which
+     * is an object of event data values keyed on data element identifier.
      *
-     * @param content the JSON content.
-     * @return an object.
+     * @param eventDataValues the event data values.
+     * @return JSON content.
      */
-    @Override
-    public Object convertJsonToObject( String content )
+    public static String convertEventDataValuesSetIntoJson( Set<EventDataValue> eventDataValues )
     {
         try
         {
-            Map<String, EventDataValue> data = reader.readValue( content );
+            Map<String, EventDataValue> tempMap = new HashMap<>();
 
-            return convertEventDataValuesMapIntoSet( data );
+            for ( EventDataValue eventDataValue : eventDataValues )
+            {
+                tempMap.put( eventDataValue.getDataElement(), eventDataValue );
+            }
+
+            return MAP_WRITER.writeValueAsString( tempMap );
         }
         catch ( IOException e )
         {
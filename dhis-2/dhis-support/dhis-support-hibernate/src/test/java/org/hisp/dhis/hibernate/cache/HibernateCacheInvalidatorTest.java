@@ -0,0 +1,234 @@
+package org.hisp.dhis.hibernate.cache;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.cfg.Configuration;
+import org.hisp.dhis.hibernate.HibernateConfigurationProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.collect.Sets;
+
+public class HibernateCacheInvalidatorTest
+{
+    private HibernateCacheInvalidator invalidator;
+
+    private List<HibernateCacheInvalidation> published;
+
+    @Before
+    public void before()
+    {
+        HibernateCacheInvalidationTransport transport = new LocalHibernateCacheInvalidationTransport();
+
+        published = new ArrayList<>();
+        transport.subscribe( published::add );
+
+        invalidator = new HibernateCacheInvalidator();
+        invalidator.setTransport( transport );
+        invalidator.setCachedQuerySpaces( Sets.newHashSet( "dataelement", "dataset", "datasetsource" ) );
+    }
+
+    @After
+    public void after()
+    {
+        if ( TransactionSynchronizationManager.isSynchronizationActive() )
+        {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test( expected = IllegalStateException.class )
+    public void testInitFailsWithoutTransport()
+    {
+        HibernateCacheInvalidator unconfigured = new HibernateCacheInvalidator();
+        unconfigured.setHibernateConfigurationProvider( new InvalidationConfigurationProvider() );
+        unconfigured.init();
+    }
+
+    @Test
+    public void testInvalidateOutsideTransaction()
+    {
+        invalidator.invalidateEntity( "DataElement", 1 );
+        invalidator.invalidateEntity( "DataElement", 2 );
+
+        assertEquals( 2, published.size() );
+        assertEquals( Sets.newHashSet( 1 ), published.get( 0 ).getEntities().get( "DataElement" ) );
+    }
+
+    @Test
+    public void testInvalidateBatchedPerCommit()
+    {
+        TransactionSynchronizationManager.initSynchronization();
+
+        invalidator.invalidateEntity( "DataElement", 1 );
+        invalidator.invalidateEntity( "DataElement", 2 );
+        invalidator.invalidateEntity( "DataSet", 3 );
+        invalidator.invalidateCollection( "DataSet.sources", 3 );
+        invalidator.invalidateQuerySpaces( new String[] { "dataset" } );
+        invalidator.invalidateQuerySpaces( new String[] { "datasetsource" } );
+
+        assertTrue( published.isEmpty() );
+
+        complete( TransactionSynchronization.STATUS_COMMITTED );
+
+        assertEquals( 1, published.size() );
+
+        HibernateCacheInvalidation invalidation = published.get( 0 );
+
+        assertEquals( Sets.newHashSet( 1, 2 ), invalidation.getEntities().get( "DataElement" ) );
+        assertEquals( Sets.newHashSet( 3 ), invalidation.getEntities().get( "DataSet" ) );
+        assertEquals( Sets.newHashSet( 3 ), invalidation.getCollections().get( "DataSet.sources" ) );
+        assertEquals( Sets.newHashSet( "dataset", "datasetsource" ), invalidation.getQuerySpaces() );
+    }
+
+    @Test
+    public void testInvalidateQuerySpacesOfCachedQueriesOnly()
+    {
+        invalidator.invalidateQuerySpaces( new String[] { "datavalue", "datavalueaudit" } );
+
+        assertTrue( published.isEmpty() );
+
+        invalidator.invalidateQuerySpaces( new String[] { "datavalue", "dataelement" } );
+
+        assertEquals( 1, published.size() );
+        assertEquals( Sets.newHashSet( "dataelement" ), published.get( 0 ).getQuerySpaces() );
+    }
+
+    @Test
+    public void testInvalidateSplitIntoChunks()
+    {
+        TransactionSynchronizationManager.initSynchronization();
+
+        for ( int i = 0; i < 2500; i++ )
+        {
+            invalidator.invalidateEntity( "DataElement", i );
+        }
+
+        invalidator.invalidateCollection( "DataSet.sources", 1 );
+        invalidator.invalidateQuerySpaces( new String[] { "dataelement" } );
+
+        complete( TransactionSynchronization.STATUS_COMMITTED );
+
+        assertEquals( 3, published.size() );
+        assertEquals( 1000, published.get( 0 ).getEntities().get( "DataElement" ).size() );
+        assertEquals( 1000, published.get( 1 ).getEntities().get( "DataElement" ).size() );
+        assertEquals( 500, published.get( 2 ).getEntities().get( "DataElement" ).size() );
+        assertEquals( Sets.newHashSet( 1 ), published.get( 2 ).getCollections().get( "DataSet.sources" ) );
+        assertEquals( Sets.newHashSet( "dataelement" ), published.get( 0 ).getQuerySpaces() );
+        assertTrue( published.get( 1 ).getQuerySpaces().isEmpty() );
+    }
+
+    @Test
+    public void testInvalidateDiscardedOnRollback()
+    {
+        TransactionSynchronizationManager.initSynchronization();
+
+        invalidator.invalidateEntity( "DataElement", 1 );
+
+        complete( TransactionSynchronization.STATUS_ROLLED_BACK );
+
+        assertTrue( published.isEmpty() );
+
+        TransactionSynchronizationManager.initSynchronization();
+
+        invalidator.invalidateEntity( "DataElement", 2 );
+
+        complete( TransactionSynchronization.STATUS_COMMITTED );
+
+        assertEquals( 1, published.size() );
+        assertEquals( Sets.newHashSet( 2 ), published.get( 0 ).getEntities().get( "DataElement" ) );
+    }
+
+    @Test
+    public void testOwnInvalidationIgnored()
+    {
+        invalidator.invalidateEntity( "DataElement", 1 );
+
+        // Session factory is not set, evicting from the cache would fail
+
+        invalidator.onInvalidation( published.get( 0 ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void complete( int status )
+    {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+
+        TransactionSynchronizationManager.clearSynchronization();
+
+        synchronizations.forEach( synchronization -> synchronization.afterCompletion( status ) );
+    }
+
+    private static class InvalidationConfigurationProvider
+        implements HibernateConfigurationProvider
+    {
+        @Override
+        public Configuration getConfiguration()
+        {
+            return null;
+        }
+
+        @Override
+        public List<Resource> getJarResources()
+        {
+            return null;
+        }
+
+        @Override
+        public List<Resource> getDirectoryResources()
+        {
+            return null;
+        }
+
+        @Override
+        public List<String> getClusterHostnames()
+        {
+            return null;
+        }
+
+        @Override
+        public boolean isCacheInvalidationEnabled()
+        {
+            return true;
+        }
+    }
+}
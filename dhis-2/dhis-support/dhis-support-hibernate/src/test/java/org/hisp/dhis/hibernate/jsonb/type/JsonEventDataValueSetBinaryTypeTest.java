@@ -0,0 +1,94 @@
+package org.hisp.dhis.hibernate.jsonb.type;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.hisp.dhis.eventdatavalue.EventDataValue;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Sets;
+
+public class JsonEventDataValueSetBinaryTypeTest
+{
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testConvertEmptySetIntoJson()
+    {
+        assertEquals( "{}", JsonEventDataValueSetBinaryType.convertEventDataValuesSetIntoJson( Collections.emptySet() ) );
+    }
+
+    @Test
+    public void testConvertEventDataValuesSetIntoJson() throws Exception
+    {
+        EventDataValue valueA = new EventDataValue( "deabcdefghA", "10", "admin" );
+        EventDataValue valueB = new EventDataValue( "deabcdefghB", "Text" );
+        valueB.setProvidedElsewhere( true );
+
+        String json = JsonEventDataValueSetBinaryType.convertEventDataValuesSetIntoJson( Sets.newHashSet( valueA, valueB ) );
+
+        JsonNode node = objectMapper.readTree( json );
+
+        assertEquals( 2, node.size() );
+        assertEquals( "10", node.get( "deabcdefghA" ).get( "value" ).asText() );
+        assertEquals( "admin", node.get( "deabcdefghA" ).get( "storedBy" ).asText() );
+        assertEquals( "Text", node.get( "deabcdefghB" ).get( "value" ).asText() );
+        assertTrue( node.get( "deabcdefghB" ).get( "providedElsewhere" ).asBoolean() );
+    }
+
+    @Test
+    @SuppressWarnings( "unchecked" )
+    public void testConvertJsonIntoEventDataValuesSet()
+    {
+        EventDataValue valueA = new EventDataValue( "deabcdefghA", "10", "admin" );
+        EventDataValue valueB = new EventDataValue( "deabcdefghB", "Text" );
+
+        String json = JsonEventDataValueSetBinaryType.convertEventDataValuesSetIntoJson( Sets.newHashSet( valueA, valueB ) );
+
+        Set<EventDataValue> eventDataValues = (Set<EventDataValue>) new JsonEventDataValueSetBinaryType().convertJsonToObject( json );
+
+        Map<String, EventDataValue> valueMap = eventDataValues.stream()
+            .collect( Collectors.toMap( EventDataValue::getDataElement, Function.identity() ) );
+
+        assertEquals( Sets.newHashSet( valueA, valueB ), eventDataValues );
+        assertEquals( "10", valueMap.get( "deabcdefghA" ).getValue() );
+        assertEquals( "admin", valueMap.get( "deabcdefghA" ).getStoredBy() );
+        assertEquals( "Text", valueMap.get( "deabcdefghB" ).getValue() );
+    }
+}
@@ -0,0 +1,242 @@
+package org.hisp.dhis.jdbc.copy;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Date;
+
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+
+/**
+ * Writes rows to a database table through the PostgreSQL COPY protocol. Rows
+ * are encoded in the COPY text format and sent to the server in chunks, so
+ * that the memory use is constant regardless of the number of rows. Use
+ * {@link #isSupported(Connection)} to check whether the connection supports
+ * COPY before creating a writer.
+ * <p>
+ * Usage:
+ * <pre>
+ * try ( CopyWriter writer = new CopyWriter( connection, "_orgunitstructure" ) )
+ * {
+ *     for ( Object[] row : rows )
+ *     {
+ *         writer.write( row );
+ *     }
+ *
+ *     writer.finish();
+ * }
+ * </pre>
+ */
+public class CopyWriter
+    implements AutoCloseable
+{
+    private static final String NULL = "\\N";
+    private static final char COLUMN_SEP = '\t';
+    private static final char ROW_SEP = '\n';
+    private static final int FLUSH_SIZE = 65536;
+
+    private final CopyIn copyIn;
+
+    private final StringBuilder buffer = new StringBuilder( FLUSH_SIZE + 1024 );
+
+    private long rows = 0;
+
+    /**
+     * Starts a COPY operation for the given table.
+     *
+     * @param connection the database connection.
+     * @param tableName the table name.
+     * @throws SQLException if the COPY operation could not be started.
+     */
+    public CopyWriter( Connection connection, String tableName )
+        throws SQLException
+    {
+        CopyManager copyManager = new CopyManager( connection.unwrap( BaseConnection.class ) );
+
+        this.copyIn = copyManager.copyIn( "copy " + tableName + " from stdin" );
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Indicates whether the given connection supports the COPY protocol, which
+     * is the case for PostgreSQL connections.
+     *
+     * @param connection the database connection.
+     * @return true if COPY is supported.
+     */
+    public static boolean isSupported( Connection connection )
+    {
+        try
+        {
+            return connection.isWrapperFor( BaseConnection.class );
+        }
+        catch ( SQLException ex )
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Writes a row. The values must be in the order of the table columns.
+     *
+     * @param row the row values.
+     * @throws SQLException if the row could not be sent to the server.
+     */
+    public void write( Object[] row )
+        throws SQLException
+    {
+        for ( int i = 0; i < row.length; i++ )
+        {
+            if ( i > 0 )
+            {
+                buffer.append( COLUMN_SEP );
+            }
+
+            appendValue( buffer, row[i] );
+        }
+
+        buffer.append( ROW_SEP );
+
+        rows++;
+
+        if ( buffer.length() >= FLUSH_SIZE )
+        {
+            flush();
+        }
+    }
+
+    /**
+     * Sends the remaining rows and completes the COPY operation.
+     *
+     * @return the number of rows written.
+     * @throws SQLException if the COPY operation failed.
+     */
+    public long finish()
+        throws SQLException
+    {
+        flush();
+
+        return copyIn.endCopy();
+    }
+
+    /**
+     * Returns the number of rows written so far.
+     */
+    public long getRows()
+    {
+        return rows;
+    }
+
+    /**
+     * Cancels the COPY operation if it was not completed through
+     * {@link #finish()}, in which case no rows are written to the table.
+     */
+    @Override
+    public void close()
+        throws SQLException
+    {
+        if ( copyIn.isActive() )
+        {
+            copyIn.cancelCopy();
+        }
+    }
+
+    /**
+     * Encodes the given value in the COPY text format.
+     *
+     * @param value the value.
+     * @return the encoded value.
+     */
+    public static String encodeValue( Object value )
+    {
+        StringBuilder builder = new StringBuilder();
+        appendValue( builder, value );
+        return builder.toString();
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void flush()
+        throws SQLException
+    {
+        if ( buffer.length() > 0 )
+        {
+            byte[] bytes = buffer.toString().getBytes( StandardCharsets.UTF_8 );
+
+            copyIn.writeToCopy( bytes, 0, bytes.length );
+
+            buffer.setLength( 0 );
+        }
+    }
+
+    private static void appendValue( StringBuilder builder, Object value )
+    {
+        if ( value == null )
+        {
+            builder.append( NULL );
+            return;
+        }
+
+        String string = value instanceof Date && !( value instanceof java.sql.Date || value instanceof Timestamp ) ?
+            new Timestamp( ( (Date) value ).getTime() ).toString() : value.toString();
+
+        for ( int i = 0; i < string.length(); i++ )
+        {
+            char c = string.charAt( i );
+
+            switch ( c )
+            {
+                case '\\':
+                    builder.append( "\\\\" );
+                    break;
+                case '\n':
+                    builder.append( "\\n" );
+                    break;
+                case '\r':
+                    builder.append( "\\r" );
+                    break;
+                case '\t':
+                    builder.append( "\\t" );
+                    break;
+                default:
+                    builder.append( c );
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.hisp.dhis.jdbc.copy;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+import org.junit.Test;
+
+public class CopyWriterTest
+{
+    @Test
+    public void testEncodeNull()
+    {
+        assertEquals( "\\N", CopyWriter.encodeValue( null ) );
+    }
+
+    @Test
+    public void testEncodePlainValues()
+    {
+        assertEquals( "abc", CopyWriter.encodeValue( "abc" ) );
+        assertEquals( "42", CopyWriter.encodeValue( 42 ) );
+        assertEquals( "", CopyWriter.encodeValue( "" ) );
+    }
+
+    @Test
+    public void testEncodeTab()
+    {
+        assertEquals( "a\\tb", CopyWriter.encodeValue( "a\tb" ) );
+    }
+
+    @Test
+    public void testEncodeNewline()
+    {
+        assertEquals( "a\\nb", CopyWriter.encodeValue( "a\nb" ) );
+        assertEquals( "a\\r\\nb", CopyWriter.encodeValue( "a\r\nb" ) );
+    }
+
+    @Test
+    public void testEncodeBackslash()
+    {
+        assertEquals( "a\\\\b", CopyWriter.encodeValue( "a\\b" ) );
+        assertEquals( "\\\\N", CopyWriter.encodeValue( "\\N" ) );
+    }
+
+    @Test
+    public void testEncodeDate()
+    {
+        Date date = new Date( 1500000000000L );
+
+        assertEquals( new Timestamp( date.getTime() ).toString(), CopyWriter.encodeValue( date ) );
+    }
+}
@@ -29,7 +29,9 @@ package org.hisp.dhis.cache;
  */
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 
 public interface Cache<V>
@@ -82,6 +84,21 @@ public interface Cache<V>
      */
     Collection<V> getAll();
 
+    /**
+     * Returns the values mapped to the given {@code keys} in this cache
+     * instance. The keys which are not present in the cache are passed in a
+     * single call to the {@code bulkLoader}, and the loaded values are inserted
+     * into this cache. Keys for which no value could be obtained are not
+     * included in the returned map. Note: The default value is not returned
+     * for absent keys.
+     *
+     * @param keys the keys for retrieving the values.
+     * @param bulkLoader the function to compute the values of the missing keys.
+     * @return a map of keys and current (existing or computed) values.
+     * @throws IllegalArgumentException if the specified bulkLoader is null
+     */
+    Map<String, V> getAll( Collection<String> keys, Function<Set<String>, Map<String, V>> bulkLoader );
+
     /**
      * Associates the {@code value} with the {@code key} in this cache. If the
      * cache previously contained a value associated with the {@code key}, the
@@ -95,6 +112,16 @@ public interface Cache<V>
      */
     void put( String key, V value );
 
+    /**
+     * Associates all the entries of the given {@code map} with this cache. This
+     * is equivalent to calling {@link #put(String, Object)} for each entry, but
+     * may be performed in fewer round trips by the underlying cache.
+     *
+     * @param map the keys and values to be stored.
+     * @throws IllegalArgumentException if any of the values are null
+     */
+    void putAll( Map<String, V> map );
+
     /**
      * Discards any cached value for the {@code key}. The behavior of this
      * operation is undefined for an entry that is being loaded and is otherwise
@@ -105,8 +132,26 @@ public interface Cache<V>
     void invalidate( String key );
 
     /**
-     * Discards all entries in this cache instance. If a shared cache is used,
-     * this method does not clear anything.
+     * Discards all entries in this cache instance, including the entries of a
+     * shared cache.
      */
     void invalidateAll();
+
+    /**
+     * Discards the entries held by this server instance only, without clearing
+     * a shared cache or notifying other server instances. Used to apply an
+     * invalidation which was already performed by another server instance.
+     */
+    default void invalidateLocal()
+    {
+        invalidateAll();
+    }
+
+    /**
+     * Returns a snapshot of the statistics of this cache instance. Cache
+     * implementations which do not record statistics return empty statistics.
+     *
+     * @return the cache statistics.
+     */
+    CacheStatistics getStatistics();
 }
@@ -29,6 +29,7 @@ package org.hisp.dhis.cache;
  */
 
 import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -64,10 +65,34 @@ public class CacheBuilder<V>
     
     private boolean expiryEnabled;
 
+    private CacheInvalidationBus invalidationBus;
+
+    private boolean nearCacheEnabled;
+
+    private CacheRegistry cacheRegistry;
+
+    private boolean invalidateOnMetadataChange;
+
+    private ToIntFunction<V> weigher;
+
     public CacheBuilder( RedisTemplate<String, ?> redisTemplate, DhisConfigurationProvider configurationProvider )
+    {
+        this( redisTemplate, configurationProvider, null );
+    }
+
+    public CacheBuilder( RedisTemplate<String, ?> redisTemplate, DhisConfigurationProvider configurationProvider,
+        CacheInvalidationBus invalidationBus )
+    {
+        this( redisTemplate, configurationProvider, invalidationBus, null );
+    }
+
+    public CacheBuilder( RedisTemplate<String, ?> redisTemplate, DhisConfigurationProvider configurationProvider,
+        CacheInvalidationBus invalidationBus, CacheRegistry cacheRegistry )
     {
         this.configurationProvider = configurationProvider;
         this.redisTemplate = redisTemplate;
+        this.invalidationBus = invalidationBus;
+        this.cacheRegistry = cacheRegistry;
         //Applying sensible defaults
         this.maximumSize = -1;
         this.region = "default";
@@ -75,6 +100,8 @@ public class CacheBuilder<V>
         this.expiryInSeconds = 0;
         this.defaultValue = null;
         this.expiryEnabled = false;
+        this.nearCacheEnabled = false;
+        this.invalidateOnMetadataChange = false;
     }
 
     /**
@@ -96,6 +123,26 @@ public class CacheBuilder<V>
         return this;
     }
 
+    /**
+     * Set the weigher for the cache instance to be built. When set, the
+     * maximum size is the maximum total weight of the values held by the
+     * local cache rather than the maximum number of entries. Has no effect
+     * on the Redis cache, which is bounded by the Redis memory policy.
+     * 
+     * @param weigher the function returning the weight of a value.
+     * @return The builder instance.
+     * @throws IllegalArgumentException if specified weigher is null.
+     */
+    public CacheBuilder<V> withWeigher( ToIntFunction<V> weigher )
+    {
+        if ( weigher == null )
+        {
+            throw new IllegalArgumentException( "Weigher cannot be null" );
+        }
+        this.weigher = weigher;
+        return this;
+    }
+
     /**
      * Set the cacheRegion for the cache instance to be built. If not specified
      * default is "default" region.
@@ -168,6 +215,31 @@ public class CacheBuilder<V>
         return this;
     }
 
+    /**
+     * Configure the cache instance to keep a bounded local cache in front of
+     * the Redis cache, see {@link NearCache}. Has no effect if Redis is not
+     * enabled.
+     * 
+     * @return The builder instance.
+     */
+    public CacheBuilder<V> withNearCache()
+    {
+        this.nearCacheEnabled = true;
+        return this;
+    }
+
+    /**
+     * Configures the cache to be invalidated on all server instances when
+     * metadata changes, see {@link CacheRegistry}.
+     * 
+     * @return The builder instance.
+     */
+    public CacheBuilder<V> invalidateOnMetadataChange()
+    {
+        this.invalidateOnMetadataChange = true;
+        return this;
+    }
+
     /**
      * Creates and returns a cacheInstance based on the system configuration and
      * the cache builder parameters. If {@code maximumSize} is 0 then a
@@ -179,19 +251,45 @@ public class CacheBuilder<V>
      * implementation {@link LocalCache} will be returned. For Local cache,
      * every instance created using this method will be logically separate and
      * will not share any state. However, when using Redis Cache, every instance
-     * created using this method will use the same redis store.
+     * created using this method will use the same redis store. If the near
+     * cache is enabled, the Redis cache is wrapped in a {@link NearCache}.
+     * The maximum size configured for the region in dhis.conf takes precedence
+     * unless caching is disabled, and the cache is registered with the
+     * {@link CacheRegistry}.
      * 
      * @return A cache instance based on the system configuration and input
-     *         parameters. Returns one of {@link RedisCache}, {@link LocalCache}
-     *         or {@link NoOpCache}
+     *         parameters. Returns one of {@link NearCache}, {@link RedisCache},
+     *         {@link LocalCache} or {@link NoOpCache}
      */
     public Cache<V> build()
+    {
+        if ( cacheRegistry != null && maximumSize != 0 )
+        {
+            maximumSize = cacheRegistry.getMaximumSize( region, maximumSize );
+        }
+
+        Cache<V> cache = buildCache();
+
+        if ( cacheRegistry != null )
+        {
+            cacheRegistry.register( region, cache, invalidateOnMetadataChange );
+        }
+
+        return cache;
+    }
+
+    private Cache<V> buildCache()
     {
         if ( maximumSize == 0 )
         {
             log.info( String.format( "NoOp Cache instance created for region:'%s'", region ) );
             return new NoOpCache<V>( this );
         }
+        else if ( configurationProvider.getProperty( ConfigurationKey.REDIS_ENABLED ).equalsIgnoreCase( "true" ) && nearCacheEnabled )
+        {
+            log.info( String.format( "Near Cache instance created for region:'%s'", region ) );
+            return new NearCache<V>( this, new RedisCache<V>( this ) );
+        }
         else if ( configurationProvider.getProperty( ConfigurationKey.REDIS_ENABLED ).equalsIgnoreCase( "true" ) )
         {
             log.info( String.format( "Redis Cache instance created for region:'%s'", region ) );
@@ -238,4 +336,19 @@ public class CacheBuilder<V>
     {
         return redisTemplate;
     }
+
+    public CacheInvalidationBus getInvalidationBus()
+    {
+        return invalidationBus;
+    }
+
+    public boolean isNearCacheEnabled()
+    {
+        return nearCacheEnabled;
+    }
+
+    public ToIntFunction<V> getWeigher()
+    {
+        return weigher;
+    }
 }
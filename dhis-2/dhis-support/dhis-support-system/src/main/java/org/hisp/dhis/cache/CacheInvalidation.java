@@ -0,0 +1,168 @@
+package org.hisp.dhis.cache;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Message which signals that an entry, a set of entries, or all entries if
+ * neither key nor keys are given, of a cache region has changed and must be
+ * evicted from near caches.
+ */
+public class CacheInvalidation
+{
+    /**
+     * Identifier of the cache instance which published the message.
+     */
+    private String origin;
+
+    private String region;
+
+    private String key;
+
+    private Set<String> keys;
+
+    public CacheInvalidation()
+    {
+    }
+
+    public CacheInvalidation( String origin, String region, String key )
+    {
+        this.origin = origin;
+        this.region = region;
+        this.key = key;
+    }
+
+    /**
+     * Creates a single message for the given keys of a cache region.
+     *
+     * @param origin the identifier of the publishing cache instance.
+     * @param region the cache region.
+     * @param keys the keys of the changed entries.
+     */
+    public static CacheInvalidation forKeys( String origin, String region, Collection<String> keys )
+    {
+        CacheInvalidation invalidation = new CacheInvalidation( origin, region, null );
+        invalidation.setKeys( new HashSet<>( keys ) );
+        return invalidation;
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    @JsonIgnore
+    public boolean isAll()
+    {
+        return key == null && keys == null;
+    }
+
+    /**
+     * Returns the keys of the changed entries, or an empty set if all entries
+     * have changed.
+     */
+    @JsonIgnore
+    public Set<String> getAffectedKeys()
+    {
+        Set<String> affected = new HashSet<>();
+
+        if ( key != null )
+        {
+            affected.add( key );
+        }
+
+        if ( keys != null )
+        {
+            affected.addAll( keys );
+        }
+
+        return affected;
+    }
+
+    // -------------------------------------------------------------------------
+    // Get and set
+    // -------------------------------------------------------------------------
+
+    @JsonProperty
+    public String getOrigin()
+    {
+        return origin;
+    }
+
+    public void setOrigin( String origin )
+    {
+        this.origin = origin;
+    }
+
+    @JsonProperty
+    public String getRegion()
+    {
+        return region;
+    }
+
+    public void setRegion( String region )
+    {
+        this.region = region;
+    }
+
+    @JsonProperty
+    public String getKey()
+    {
+        return key;
+    }
+
+    public void setKey( String key )
+    {
+        this.key = key;
+    }
+
+    @JsonProperty
+    @JsonInclude( JsonInclude.Include.NON_NULL )
+    public Set<String> getKeys()
+    {
+        return keys;
+    }
+
+    public void setKeys( Set<String> keys )
+    {
+        this.keys = keys;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[Origin: " + origin + ", region: " + region + ", key: " + key + ", keys: " + keys + "]";
+    }
+}
@@ -0,0 +1,186 @@
+package org.hisp.dhis.cache;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit, miss and latency statistics of a cache region. Counters are safe for
+ * concurrent updates.
+ */
+public class CacheMetrics
+{
+    private final String region;
+
+    private final LongAdder nearHits = new LongAdder();
+
+    private final LongAdder remoteHits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder remoteCalls = new LongAdder();
+
+    private final LongAdder remoteNanos = new LongAdder();
+
+    private final LongAdder loads = new LongAdder();
+
+    private final LongAdder loadNanos = new LongAdder();
+
+    private final LongAdder invalidations = new LongAdder();
+
+    public CacheMetrics( String region )
+    {
+        this.region = region;
+    }
+
+    // -------------------------------------------------------------------------
+    // Record
+    // -------------------------------------------------------------------------
+
+    public void recordNearHit()
+    {
+        nearHits.increment();
+    }
+
+    public void recordRemoteHit()
+    {
+        remoteHits.increment();
+    }
+
+    public void recordMiss()
+    {
+        misses.increment();
+    }
+
+    public void recordRemoteCall( long nanos )
+    {
+        remoteCalls.increment();
+        remoteNanos.add( nanos );
+    }
+
+    public void recordLoad( long nanos )
+    {
+        loads.increment();
+        loadNanos.add( nanos );
+    }
+
+    public void recordInvalidation()
+    {
+        invalidations.increment();
+    }
+
+    // -------------------------------------------------------------------------
+    // Get
+    // -------------------------------------------------------------------------
+
+    public String getRegion()
+    {
+        return region;
+    }
+
+    public long getNearHits()
+    {
+        return nearHits.sum();
+    }
+
+    public long getRemoteHits()
+    {
+        return remoteHits.sum();
+    }
+
+    public long getMisses()
+    {
+        return misses.sum();
+    }
+
+    public long getRemoteCalls()
+    {
+        return remoteCalls.sum();
+    }
+
+    public long getLoads()
+    {
+        return loads.sum();
+    }
+
+    public long getInvalidations()
+    {
+        return invalidations.sum();
+    }
+
+    /**
+     * Returns the ratio of lookups served by the near or the remote cache.
+     */
+    public double getHitRatio()
+    {
+        long hits = getNearHits() + getRemoteHits();
+        long total = hits + getMisses();
+
+        return total > 0 ? (double) hits / total : 0d;
+    }
+
+    /**
+     * Returns the ratio of lookups served by the near cache.
+     */
+    public double getNearHitRatio()
+    {
+        long total = getNearHits() + getRemoteHits() + getMisses();
+
+        return total > 0 ? (double) getNearHits() / total : 0d;
+    }
+
+    public double getAverageRemoteMillis()
+    {
+        return average( remoteNanos.sum(), getRemoteCalls() );
+    }
+
+    public double getAverageLoadMillis()
+    {
+        return average( loadNanos.sum(), getLoads() );
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "[Region: %s, near hits: %d, remote hits: %d, misses: %d, hit ratio: %.3f, " +
+            "avg remote: %.3f ms, loads: %d, avg load: %.3f ms, invalidations: %d]",
+            region, getNearHits(), getRemoteHits(), getMisses(), getHitRatio(),
+            getAverageRemoteMillis(), getLoads(), getAverageLoadMillis(), getInvalidations() );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private double average( long nanos, long count )
+    {
+        return count > 0 ? (double) nanos / count / TimeUnit.MILLISECONDS.toNanos( 1 ) : 0d;
+    }
+}
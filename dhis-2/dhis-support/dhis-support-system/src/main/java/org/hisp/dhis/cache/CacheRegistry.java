@@ -0,0 +1,102 @@
+package org.hisp.dhis.cache;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.List;
+
+/**
+ * Registry of the caches of the application. Caches built through the
+ * {@link CacheProvider} are registered automatically, while caches held in
+ * static fields are registered explicitly. The registry provides the
+ * configured size of each cache region, statistics for all caches, and
+ * invalidation of caches across all server instances.
+ *
+ * The maximum size of a cache region can be configured in dhis.conf with the
+ * {@code cache.<region>.max_size} property.
+ */
+public interface CacheRegistry
+{
+    /**
+     * Registers a cache with the given region.
+     *
+     * @param region the cache region.
+     * @param cache the cache.
+     * @param invalidateOnMetadataChange whether the cache should be invalidated
+     *        when metadata changes.
+     */
+    void register( String region, Cache<?> cache, boolean invalidateOnMetadataChange );
+
+    /**
+     * Registers a Caffeine cache which is not built through the
+     * {@link CacheProvider}, typically held in a static field. The configured
+     * maximum size of the region is applied to the cache if the cache is
+     * bounded by size. The cache should record statistics.
+     *
+     * @param region the cache region.
+     * @param cache the Caffeine cache.
+     * @param invalidateOnMetadataChange whether the cache should be invalidated
+     *        when metadata changes.
+     */
+    void register( String region, com.github.benmanes.caffeine.cache.Cache<?, ?> cache, boolean invalidateOnMetadataChange );
+
+    /**
+     * Returns the maximum size configured for the given region, or the given
+     * default maximum size if not configured.
+     *
+     * @param region the cache region.
+     * @param defaultMaximumSize the default maximum size.
+     * @return the maximum size.
+     */
+    long getMaximumSize( String region, long defaultMaximumSize );
+
+    /**
+     * Returns statistics for all registered caches, sorted by region.
+     *
+     * @return a list of cache statistics.
+     */
+    List<CacheStatistics> getStatistics();
+
+    /**
+     * Invalidates the cache of the given region on all server instances.
+     *
+     * @param region the cache region.
+     * @return true if a cache with the given region is registered.
+     */
+    boolean invalidate( String region );
+
+    /**
+     * Invalidates all caches which depend on metadata on all server instances.
+     */
+    void invalidateMetadataCaches();
+
+    /**
+     * Invalidates all registered caches on all server instances.
+     */
+    void invalidateAll();
+}
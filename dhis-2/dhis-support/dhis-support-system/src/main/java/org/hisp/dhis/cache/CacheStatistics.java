@@ -0,0 +1,204 @@
+package org.hisp.dhis.cache;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Immutable snapshot of the statistics of a cache region, as reported by the
+ * {@link CacheRegistry}.
+ */
+public class CacheStatistics
+{
+    private final String region;
+
+    private final String type;
+
+    private final long size;
+
+    private final long maximumSize;
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final long loadCount;
+
+    private final long evictionCount;
+
+    private final double averageLoadMillis;
+
+    private final boolean invalidateOnMetadataChange;
+
+    public CacheStatistics( String region, String type, long size, long maximumSize, long hitCount, long missCount,
+        long loadCount, long evictionCount, double averageLoadMillis, boolean invalidateOnMetadataChange )
+    {
+        this.region = region;
+        this.type = type;
+        this.size = size;
+        this.maximumSize = maximumSize;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadCount = loadCount;
+        this.evictionCount = evictionCount;
+        this.averageLoadMillis = averageLoadMillis;
+        this.invalidateOnMetadataChange = invalidateOnMetadataChange;
+    }
+
+    /**
+     * Creates statistics for a cache which does not record any.
+     *
+     * @param region the cache region.
+     * @param type the cache type.
+     * @return cache statistics.
+     */
+    public static CacheStatistics empty( String region, String type )
+    {
+        return new CacheStatistics( region, type, -1, -1, 0, 0, 0, 0, 0d, false );
+    }
+
+    /**
+     * Creates statistics based on the statistics of a Caffeine cache.
+     *
+     * @param region the cache region.
+     * @param type the cache type.
+     * @param stats the Caffeine statistics.
+     * @param size the estimated size of the cache.
+     * @param maximumSize the maximum size of the cache, -1 if unbounded.
+     * @return cache statistics.
+     */
+    public static CacheStatistics of( String region, String type, CacheStats stats, long size, long maximumSize )
+    {
+        return new CacheStatistics( region, type, size, maximumSize, stats.hitCount(), stats.missCount(),
+            stats.loadCount(), stats.evictionCount(), stats.averageLoadPenalty() / TimeUnit.MILLISECONDS.toNanos( 1 ), false );
+    }
+
+    /**
+     * Returns a copy of these statistics with the given metadata invalidation
+     * flag.
+     *
+     * @param invalidateOnMetadataChange whether the cache is invalidated when
+     *        metadata changes.
+     * @return cache statistics.
+     */
+    public CacheStatistics withInvalidateOnMetadataChange( boolean invalidateOnMetadataChange )
+    {
+        return new CacheStatistics( region, type, size, maximumSize, hitCount, missCount, loadCount, evictionCount,
+            averageLoadMillis, invalidateOnMetadataChange );
+    }
+
+    // -------------------------------------------------------------------------
+    // Getters
+    // -------------------------------------------------------------------------
+
+    @JsonProperty
+    public String getRegion()
+    {
+        return region;
+    }
+
+    @JsonProperty
+    public String getType()
+    {
+        return type;
+    }
+
+    /**
+     * Returns the estimated number of entries, or -1 if not known.
+     */
+    @JsonProperty
+    public long getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the maximum number of entries, or -1 if unbounded or not known.
+     */
+    @JsonProperty
+    public long getMaximumSize()
+    {
+        return maximumSize;
+    }
+
+    @JsonProperty
+    public long getHitCount()
+    {
+        return hitCount;
+    }
+
+    @JsonProperty
+    public long getMissCount()
+    {
+        return missCount;
+    }
+
+    @JsonProperty
+    public long getLoadCount()
+    {
+        return loadCount;
+    }
+
+    @JsonProperty
+    public long getEvictionCount()
+    {
+        return evictionCount;
+    }
+
+    @JsonProperty
+    public double getAverageLoadMillis()
+    {
+        return averageLoadMillis;
+    }
+
+    @JsonProperty
+    public double getHitRatio()
+    {
+        long total = hitCount + missCount;
+
+        return total > 0 ? (double) hitCount / total : 0d;
+    }
+
+    @JsonProperty
+    public boolean isInvalidateOnMetadataChange()
+    {
+        return invalidateOnMetadataChange;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "[Region: %s, type: %s, size: %d, hits: %d, misses: %d, hit ratio: %.3f, " +
+            "loads: %d, avg load: %.3f ms, evictions: %d]", region, type, size, hitCount, missCount,
+            getHitRatio(), loadCount, averageLoadMillis, evictionCount );
+    }
+}
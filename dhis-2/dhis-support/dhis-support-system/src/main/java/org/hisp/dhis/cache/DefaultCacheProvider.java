@@ -43,6 +43,10 @@ public class DefaultCacheProvider implements CacheProvider
 
     private RedisTemplate<String, ?> redisTemplate;
 
+    private CacheInvalidationBus invalidationBus;
+
+    private CacheRegistry cacheRegistry;
+
     /**
      * Creates a new {@link CacheBuilder} that can be used to build a cache that
      * stores the valueType specified.
@@ -54,7 +58,7 @@ public class DefaultCacheProvider implements CacheProvider
      */
     public <V> CacheBuilder<V> newCacheBuilder( Class<V> valueType )
     {
-        return new CacheBuilder<V>( redisTemplate, configurationProvider );
+        return new CacheBuilder<V>( redisTemplate, configurationProvider, invalidationBus, cacheRegistry );
     }
 
     @Autowired
@@ -69,4 +73,16 @@ public class DefaultCacheProvider implements CacheProvider
         this.redisTemplate = redisTemplate;
     }
 
+    @Autowired( required = false )
+    public void setInvalidationBus( CacheInvalidationBus invalidationBus )
+    {
+        this.invalidationBus = invalidationBus;
+    }
+
+    @Autowired( required = false )
+    public void setCacheRegistry( CacheRegistry cacheRegistry )
+    {
+        this.cacheRegistry = cacheRegistry;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,281 @@
+package org.hisp.dhis.cache;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.period.PeriodType;
+import org.hisp.dhis.system.util.MathUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Default implementation of {@link CacheRegistry}. Invalidations are applied
+ * to the local caches and published on the {@link CacheInvalidationBus} under
+ * the {@link #REGISTRY_REGION} region, so that the registries of other server
+ * instances apply them to their local caches.
+ */
+public class DefaultCacheRegistry
+    implements CacheRegistry
+{
+    private static final Log log = LogFactory.getLog( DefaultCacheRegistry.class );
+
+    public static final String REGISTRY_REGION = "cacheRegistry";
+
+    private static final String MAXIMUM_SIZE_KEY = "cache.%s.max_size";
+
+    private static final String METADATA_KEY = "#metadata";
+
+    private final Map<String, List<RegisteredCache>> caches = new ConcurrentHashMap<>();
+
+    /**
+     * Identifier of this instance, used to ignore invalidations published by itself.
+     */
+    private final String id = UUID.randomUUID().toString();
+
+    // -------------------------------------------------------------------------
+    // Dependencies
+    // -------------------------------------------------------------------------
+
+    private DhisConfigurationProvider configurationProvider;
+
+    private CacheInvalidationBus invalidationBus;
+
+    @Autowired
+    public void setConfigurationProvider( DhisConfigurationProvider configurationProvider )
+    {
+        this.configurationProvider = configurationProvider;
+    }
+
+    @Autowired( required = false )
+    public void setInvalidationBus( CacheInvalidationBus invalidationBus )
+    {
+        this.invalidationBus = invalidationBus;
+    }
+
+    /**
+     * Subscribes to registry invalidations and registers the static caches of
+     * the modules which cannot depend on the registry.
+     */
+    @PostConstruct
+    public void init()
+    {
+        if ( invalidationBus == null )
+        {
+            invalidationBus = new LocalCacheInvalidationBus();
+        }
+
+        invalidationBus.subscribe( REGISTRY_REGION, this::onInvalidation );
+
+        register( "periodTypePeriods", PeriodType.getPeriodCache(), false );
+        register( "expressionEvaluation", MathUtils.getExpressionCache(), false );
+    }
+
+    // -------------------------------------------------------------------------
+    // CacheRegistry implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void register( String region, Cache<?> cache, boolean invalidateOnMetadataChange )
+    {
+        add( new RegisteredCache( region, cache::getStatistics, cache::invalidateAll, cache::invalidateLocal, invalidateOnMetadataChange ) );
+    }
+
+    @Override
+    public void register( String region, com.github.benmanes.caffeine.cache.Cache<?, ?> cache, boolean invalidateOnMetadataChange )
+    {
+        cache.policy().eviction().ifPresent( eviction -> {
+            long maximumSize = getMaximumSize( region, eviction.getMaximum() );
+
+            if ( maximumSize != eviction.getMaximum() )
+            {
+                eviction.setMaximum( maximumSize );
+
+                log.info( String.format( "Maximum size of cache region '%s' set to: %d", region, maximumSize ) );
+            }
+        } );
+
+        Supplier<CacheStatistics> statistics = () -> CacheStatistics.of( region, "static", cache.stats(), cache.estimatedSize(),
+            cache.policy().eviction().map( eviction -> eviction.getMaximum() ).orElse( -1L ) );
+
+        add( new RegisteredCache( region, statistics, cache::invalidateAll, cache::invalidateAll, invalidateOnMetadataChange ) );
+    }
+
+    @Override
+    public long getMaximumSize( String region, long defaultMaximumSize )
+    {
+        String key = String.format( MAXIMUM_SIZE_KEY, region );
+        String value = configurationProvider.getProperties().getProperty( key );
+
+        if ( value == null || value.trim().isEmpty() )
+        {
+            return defaultMaximumSize;
+        }
+
+        long maximumSize = NumberUtils.toLong( value.trim(), -1 );
+
+        if ( maximumSize < 0 )
+        {
+            log.warn( String.format( "Invalid value for configuration property '%s': %s", key, value ) );
+
+            return defaultMaximumSize;
+        }
+
+        return maximumSize;
+    }
+
+    @Override
+    public List<CacheStatistics> getStatistics()
+    {
+        List<CacheStatistics> statistics = new ArrayList<>();
+
+        caches.values().forEach( list -> list.forEach( cache -> statistics.add(
+            cache.statistics.get().withInvalidateOnMetadataChange( cache.invalidateOnMetadataChange ) ) ) );
+
+        statistics.sort( Comparator.comparing( CacheStatistics::getRegion ) );
+
+        return statistics;
+    }
+
+    @Override
+    public boolean invalidate( String region )
+    {
+        if ( !caches.containsKey( region ) )
+        {
+            return false;
+        }
+
+        invalidate( cache -> cache.region.equals( region ) );
+        invalidationBus.publish( new CacheInvalidation( id, REGISTRY_REGION, region ) );
+
+        return true;
+    }
+
+    @Override
+    public void invalidateMetadataCaches()
+    {
+        invalidate( cache -> cache.invalidateOnMetadataChange );
+        invalidationBus.publish( new CacheInvalidation( id, REGISTRY_REGION, METADATA_KEY ) );
+    }
+
+    @Override
+    public void invalidateAll()
+    {
+        invalidate( cache -> true );
+        invalidationBus.publish( new CacheInvalidation( id, REGISTRY_REGION, null ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void add( RegisteredCache cache )
+    {
+        caches.computeIfAbsent( cache.region, region -> new CopyOnWriteArrayList<>() ).add( cache );
+
+        log.debug( String.format( "Registered cache region: '%s'", cache.region ) );
+    }
+
+    /**
+     * Applies an invalidation published by another server instance. Shared
+     * caches were already cleared by the publishing instance, so only the
+     * entries held by this instance are discarded, without notifying other
+     * instances again.
+     */
+    private void onInvalidation( CacheInvalidation invalidation )
+    {
+        if ( id.equals( invalidation.getOrigin() ) )
+        {
+            return;
+        }
+
+        if ( invalidation.isAll() )
+        {
+            invalidateLocal( cache -> true );
+        }
+        else if ( METADATA_KEY.equals( invalidation.getKey() ) )
+        {
+            invalidateLocal( cache -> cache.invalidateOnMetadataChange );
+        }
+        else
+        {
+            invalidateLocal( cache -> cache.region.equals( invalidation.getKey() ) );
+        }
+    }
+
+    private void invalidate( Predicate<RegisteredCache> filter )
+    {
+        caches.values().forEach( list -> list.stream()
+            .filter( filter )
+            .forEach( cache -> cache.invalidator.run() ) );
+    }
+
+    private void invalidateLocal( Predicate<RegisteredCache> filter )
+    {
+        caches.values().forEach( list -> list.stream()
+            .filter( filter )
+            .forEach( cache -> cache.localInvalidator.run() ) );
+    }
+
+    private static class RegisteredCache
+    {
+        private final String region;
+
+        private final Supplier<CacheStatistics> statistics;
+
+        private final Runnable invalidator;
+
+        private final Runnable localInvalidator;
+
+        private final boolean invalidateOnMetadataChange;
+
+        RegisteredCache( String region, Supplier<CacheStatistics> statistics, Runnable invalidator, Runnable localInvalidator,
+            boolean invalidateOnMetadataChange )
+        {
+            this.region = region;
+            this.statistics = statistics;
+            this.invalidator = invalidator;
+            this.localInvalidator = localInvalidator;
+            this.invalidateOnMetadataChange = invalidateOnMetadataChange;
+        }
+    }
+}
@@ -31,9 +31,15 @@ import java.util.ArrayList;
  */
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+
 import com.github.benmanes.caffeine.cache.Caffeine;
 
 /**
@@ -48,6 +54,10 @@ public class LocalCache<V> implements Cache<V>
 
     private V defaultValue;
 
+    private String region;
+
+    private long maximumSize;
+
     /**
      * Constructor to instantiate LocalCache object.
      *
@@ -56,7 +66,7 @@ public class LocalCache<V> implements Cache<V>
      */
     public LocalCache( final CacheBuilder<V> cacheBuilder )
     {
-        Caffeine<Object, Object> builder = Caffeine.newBuilder();
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
 
         if ( cacheBuilder.isExpiryEnabled() )
         {
@@ -69,13 +79,20 @@ public class LocalCache<V> implements Cache<V>
                 builder.expireAfterWrite( cacheBuilder.getExpiryInSeconds(), TimeUnit.SECONDS );
             }
         }
-        if ( cacheBuilder.getMaximumSize() > 0 )
+        if ( cacheBuilder.getMaximumSize() > 0 && cacheBuilder.getWeigher() != null )
+        {
+            builder.maximumWeight( cacheBuilder.getMaximumSize() )
+                .weigher( ( String key, V value ) -> cacheBuilder.getWeigher().applyAsInt( value ) );
+        }
+        else if ( cacheBuilder.getMaximumSize() > 0 )
         {
             builder.maximumSize( cacheBuilder.getMaximumSize() );
         }
 
         this.caffeineCache = builder.build();
         this.defaultValue = cacheBuilder.getDefaultValue();
+        this.region = cacheBuilder.getRegion();
+        this.maximumSize = cacheBuilder.getMaximumSize() > 0 ? cacheBuilder.getMaximumSize() : -1;
     }
 
     @Override
@@ -107,6 +124,38 @@ public class LocalCache<V> implements Cache<V>
         return new ArrayList<V>( caffeineCache.asMap().values() );
     }
 
+    @Override
+    public Map<String, V> getAll( Collection<String> keys, Function<Set<String>, Map<String, V>> bulkLoader )
+    {
+        if ( null == bulkLoader )
+        {
+            throw new IllegalArgumentException( "BulkLoader cannot be null" );
+        }
+
+        Map<String, V> values = new HashMap<>( caffeineCache.getAllPresent( keys ) );
+
+        Set<String> missingKeys = keys.stream()
+            .filter( key -> !values.containsKey( key ) )
+            .collect( Collectors.toSet() );
+
+        if ( !missingKeys.isEmpty() )
+        {
+            Map<String, V> loaded = new HashMap<>();
+
+            bulkLoader.apply( missingKeys ).forEach( ( key, value ) -> {
+                if ( value != null && missingKeys.contains( key ) )
+                {
+                    loaded.put( key, value );
+                }
+            } );
+
+            caffeineCache.putAll( loaded );
+            values.putAll( loaded );
+        }
+
+        return values;
+    }
+
     @Override
     public void put( String key, V value )
     {
@@ -117,7 +166,15 @@ public class LocalCache<V> implements Cache<V>
         caffeineCache.put( key, value );
     }
 
-
+    @Override
+    public void putAll( Map<String, V> map )
+    {
+        if ( map.values().stream().anyMatch( Objects::isNull ) )
+        {
+            throw new IllegalArgumentException( "Value cannot be null" );
+        }
+        caffeineCache.putAll( map );
+    }
 
     @Override
     public void invalidate( String key )
@@ -130,4 +187,10 @@ public class LocalCache<V> implements Cache<V>
     {
         caffeineCache.invalidateAll();
     }
+
+    @Override
+    public CacheStatistics getStatistics()
+    {
+        return CacheStatistics.of( region, "local", caffeineCache.stats(), caffeineCache.estimatedSize(), maximumSize );
+    }
 }
@@ -0,0 +1,378 @@
+package org.hisp.dhis.cache;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier implementation of {@link Cache} which keeps a bounded local
+ * Caffeine cache in front of a remote, shared cache such as {@link RedisCache}.
+ * Lookups are served from the local cache when possible. Puts and
+ * invalidations are written to the remote cache and published on a
+ * {@link CacheInvalidationBus} so that the local caches of other server
+ * instances evict the entry.
+ *
+ * Local entries expire after at most {@link #MAX_NEAR_EXPIRY_SECONDS}, which
+ * bounds the staleness caused by lost invalidation messages. Lookups served
+ * by the local cache do not refresh the expiry of the remote entry.
+ */
+public class NearCache<V> implements Cache<V>
+{
+    public static final long MAX_NEAR_EXPIRY_SECONDS = 60;
+
+    public static final long DEFAULT_NEAR_MAXIMUM_SIZE = 10000;
+
+    private final com.github.benmanes.caffeine.cache.Cache<String, V> nearCache;
+
+    private final Cache<V> remoteCache;
+
+    private final CacheInvalidationBus invalidationBus;
+
+    private final CacheMetrics metrics;
+
+    private final String region;
+
+    private final V defaultValue;
+
+    private final long maximumSize;
+
+    /**
+     * Identifier of this instance, used to ignore invalidations published by itself.
+     */
+    private final String id = UUID.randomUUID().toString();
+
+    /**
+     * Constructor for instantiating NearCache.
+     *
+     * @param cacheBuilder the cache builder instance.
+     * @param remoteCache the remote cache.
+     */
+    public NearCache( CacheBuilder<V> cacheBuilder, Cache<V> remoteCache )
+    {
+        long expiry = cacheBuilder.isExpiryEnabled() ?
+            Math.min( cacheBuilder.getExpiryInSeconds(), MAX_NEAR_EXPIRY_SECONDS ) : MAX_NEAR_EXPIRY_SECONDS;
+
+        this.maximumSize = cacheBuilder.getMaximumSize() > 0 ? cacheBuilder.getMaximumSize() : DEFAULT_NEAR_MAXIMUM_SIZE;
+
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+            .expireAfterWrite( expiry, TimeUnit.SECONDS )
+            .recordStats();
+
+        if ( cacheBuilder.getWeigher() != null )
+        {
+            builder.maximumWeight( maximumSize )
+                .weigher( ( String key, V value ) -> cacheBuilder.getWeigher().applyAsInt( value ) );
+        }
+        else
+        {
+            builder.maximumSize( maximumSize );
+        }
+
+        this.nearCache = builder.build();
+
+        this.remoteCache = remoteCache;
+        this.invalidationBus = cacheBuilder.getInvalidationBus() != null ? cacheBuilder.getInvalidationBus() : new LocalCacheInvalidationBus();
+        this.region = cacheBuilder.getRegion();
+        this.defaultValue = cacheBuilder.getDefaultValue();
+        this.metrics = new CacheMetrics( region );
+
+        this.invalidationBus.subscribe( region, this::onInvalidation );
+    }
+
+    // -------------------------------------------------------------------------
+    // Cache implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public Optional<V> getIfPresent( String key )
+    {
+        V value = nearCache.getIfPresent( key );
+
+        if ( value != null )
+        {
+            metrics.recordNearHit();
+            return Optional.of( value );
+        }
+
+        value = remote( () -> remoteCache.getIfPresent( key ) ).orElse( null );
+
+        if ( value != null )
+        {
+            metrics.recordRemoteHit();
+            nearCache.put( key, value );
+        }
+        else
+        {
+            metrics.recordMiss();
+        }
+
+        return Optional.ofNullable( value );
+    }
+
+    @Override
+    public Optional<V> get( String key )
+    {
+        return Optional.ofNullable( getIfPresent( key ).orElse( defaultValue ) );
+    }
+
+    @Override
+    public Optional<V> get( String key, Function<String, V> mappingFunction )
+    {
+        if ( null == mappingFunction )
+        {
+            throw new IllegalArgumentException( "MappingFunction cannot be null" );
+        }
+
+        V value = getIfPresent( key ).orElse( null );
+
+        if ( value == null )
+        {
+            long start = System.nanoTime();
+
+            value = mappingFunction.apply( key );
+
+            metrics.recordLoad( System.nanoTime() - start );
+
+            if ( value != null )
+            {
+                final V loaded = value;
+
+                remote( () -> {
+                    remoteCache.put( key, loaded );
+                    return null;
+                } );
+
+                nearCache.put( key, value );
+            }
+        }
+
+        return Optional.ofNullable( Optional.ofNullable( value ).orElse( defaultValue ) );
+    }
+
+    @Override
+    public Collection<V> getAll()
+    {
+        return remote( remoteCache::getAll );
+    }
+
+    @Override
+    public Map<String, V> getAll( Collection<String> keys, Function<Set<String>, Map<String, V>> bulkLoader )
+    {
+        if ( null == bulkLoader )
+        {
+            throw new IllegalArgumentException( "BulkLoader cannot be null" );
+        }
+
+        Map<String, V> values = new HashMap<>( nearCache.getAllPresent( keys ) );
+        values.keySet().forEach( key -> metrics.recordNearHit() );
+
+        Set<String> missingKeys = new HashSet<>( keys );
+        missingKeys.removeAll( values.keySet() );
+
+        if ( missingKeys.isEmpty() )
+        {
+            return values;
+        }
+
+        Map<String, V> remoteValues = remote( () -> remoteCache.getAll( missingKeys, k -> Collections.emptyMap() ) );
+        remoteValues.keySet().forEach( key -> metrics.recordRemoteHit() );
+
+        nearCache.putAll( remoteValues );
+        values.putAll( remoteValues );
+        missingKeys.removeAll( remoteValues.keySet() );
+
+        if ( missingKeys.isEmpty() )
+        {
+            return values;
+        }
+
+        missingKeys.forEach( key -> metrics.recordMiss() );
+
+        long start = System.nanoTime();
+
+        Map<String, V> loaded = new HashMap<>();
+
+        bulkLoader.apply( missingKeys ).forEach( ( key, value ) -> {
+            if ( value != null && missingKeys.contains( key ) )
+            {
+                loaded.put( key, value );
+            }
+        } );
+
+        metrics.recordLoad( System.nanoTime() - start );
+
+        if ( !loaded.isEmpty() )
+        {
+            remote( () -> {
+                remoteCache.putAll( loaded );
+                return null;
+            } );
+
+            nearCache.putAll( loaded );
+            values.putAll( loaded );
+        }
+
+        return values;
+    }
+
+    @Override
+    public void put( String key, V value )
+    {
+        if ( null == value )
+        {
+            throw new IllegalArgumentException( "Value cannot be null" );
+        }
+
+        remote( () -> {
+            remoteCache.put( key, value );
+            return null;
+        } );
+
+        nearCache.put( key, value );
+        invalidationBus.publish( new CacheInvalidation( id, region, key ) );
+    }
+
+    @Override
+    public void putAll( Map<String, V> map )
+    {
+        if ( map.values().stream().anyMatch( Objects::isNull ) )
+        {
+            throw new IllegalArgumentException( "Value cannot be null" );
+        }
+
+        remote( () -> {
+            remoteCache.putAll( map );
+            return null;
+        } );
+
+        nearCache.putAll( map );
+
+        if ( !map.isEmpty() )
+        {
+            invalidationBus.publish( CacheInvalidation.forKeys( id, region, map.keySet() ) );
+        }
+    }
+
+    @Override
+    public void invalidate( String key )
+    {
+        remote( () -> {
+            remoteCache.invalidate( key );
+            return null;
+        } );
+
+        nearCache.invalidate( key );
+        invalidationBus.publish( new CacheInvalidation( id, region, key ) );
+    }
+
+    @Override
+    public void invalidateAll()
+    {
+        remote( () -> {
+            remoteCache.invalidateAll();
+            return null;
+        } );
+
+        nearCache.invalidateAll();
+        invalidationBus.publish( new CacheInvalidation( id, region, null ) );
+    }
+
+    @Override
+    public void invalidateLocal()
+    {
+        nearCache.invalidateAll();
+    }
+
+    /**
+     * Returns statistics where hits include lookups served by either the near
+     * or the remote cache, and the size and evictions refer to the near cache.
+     */
+    @Override
+    public CacheStatistics getStatistics()
+    {
+        return new CacheStatistics( region, "near", nearCache.estimatedSize(), maximumSize,
+            metrics.getNearHits() + metrics.getRemoteHits(), metrics.getMisses(), metrics.getLoads(),
+            nearCache.stats().evictionCount(), metrics.getAverageLoadMillis(), false );
+    }
+
+    public CacheMetrics getMetrics()
+    {
+        return metrics;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void onInvalidation( CacheInvalidation invalidation )
+    {
+        if ( id.equals( invalidation.getOrigin() ) )
+        {
+            return;
+        }
+
+        metrics.recordInvalidation();
+
+        if ( invalidation.isAll() )
+        {
+            nearCache.invalidateAll();
+        }
+        else
+        {
+            nearCache.invalidateAll( invalidation.getAffectedKeys() );
+        }
+    }
+
+    private <T> T remote( Supplier<T> call )
+    {
+        long start = System.nanoTime();
+
+        try
+        {
+            return call.get();
+        }
+        finally
+        {
+            metrics.recordRemoteCall( System.nanoTime() - start );
+        }
+    }
+}
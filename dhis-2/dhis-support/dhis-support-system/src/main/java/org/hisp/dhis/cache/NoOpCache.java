@@ -29,7 +29,12 @@ package org.hisp.dhis.cache;
  */
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 
 import com.google.common.collect.Sets;
@@ -45,9 +50,12 @@ public class NoOpCache<V> implements Cache<V>
 {
     private V defaultValue;
 
+    private String region;
+
     public NoOpCache( CacheBuilder<V> cacheBuilder )
     {
         this.defaultValue = cacheBuilder.getDefaultValue();
+        this.region = cacheBuilder.getRegion();
     }
 
     @Override
@@ -78,6 +86,29 @@ public class NoOpCache<V> implements Cache<V>
         return Sets.newHashSet();
     }
 
+    @Override
+    public Map<String, V> getAll( Collection<String> keys, Function<Set<String>, Map<String, V>> bulkLoader )
+    {
+        if ( null == bulkLoader )
+        {
+            throw new IllegalArgumentException( "BulkLoader cannot be null" );
+        }
+
+        Map<String, V> values = new HashMap<>();
+
+        if ( !keys.isEmpty() )
+        {
+            bulkLoader.apply( new HashSet<>( keys ) ).forEach( ( key, value ) -> {
+                if ( value != null )
+                {
+                    values.put( key, value );
+                }
+            } );
+        }
+
+        return values;
+    }
+
     @Override
     public void put( String key, V value )
     {
@@ -88,6 +119,16 @@ public class NoOpCache<V> implements Cache<V>
         // No operation
     }
 
+    @Override
+    public void putAll( Map<String, V> map )
+    {
+        if ( map.values().stream().anyMatch( Objects::isNull ) )
+        {
+            throw new IllegalArgumentException( "Value cannot be null" );
+        }
+        // No operation
+    }
+
     @Override
     public void invalidate( String key )
     {
@@ -99,4 +140,10 @@ public class NoOpCache<V> implements Cache<V>
     {
         // No operation
     }
+
+    @Override
+    public CacheStatistics getStatistics()
+    {
+        return CacheStatistics.empty( region, "none" );
+    }
 }
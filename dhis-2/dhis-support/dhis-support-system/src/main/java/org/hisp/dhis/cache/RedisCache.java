@@ -28,12 +28,27 @@ package org.hisp.dhis.cache;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+
+import com.google.common.collect.Lists;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 /**
  * A redis backed implementation of {@link Cache}. This implementation uses a
@@ -43,6 +58,12 @@ import org.springframework.data.redis.core.RedisTemplate;
  */
 public class RedisCache<V> implements Cache<V>
 {
+    private static final int SCAN_COUNT = 1000;
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final StringRedisSerializer STRING_SERIALIZER = new StringRedisSerializer();
+
     private RedisTemplate<String, V> redisTemplate;
 
     private boolean refreshExpriryOnAccess;
@@ -130,11 +151,89 @@ public class RedisCache<V> implements Cache<V>
         return Optional.ofNullable( Optional.ofNullable( value ).orElse( defaultValue ) );
     }
 
+    /**
+     * Iterates the keys of the region with SCAN rather than KEYS, which would
+     * block the Redis server while traversing the entire key space.
+     */
     @Override
     public Collection<V> getAll()
     {
-        Set<String> keySet = redisTemplate.keys( cacheRegion + "*" );
-        return redisTemplate.opsForValue().multiGet( keySet );
+        List<String> keys = scanRegionKeys();
+
+        List<V> values = new ArrayList<>();
+
+        for ( List<String> partition : Lists.partition( keys, BATCH_SIZE ) )
+        {
+            redisTemplate.opsForValue().multiGet( partition ).stream()
+                .filter( Objects::nonNull )
+                .forEach( values::add );
+        }
+
+        return values;
+    }
+
+    /**
+     * Retrieves the present values with MGET in batches of {@link #BATCH_SIZE}
+     * keys, and stores the values returned by the bulk loader in a single
+     * pipeline.
+     */
+    @Override
+    public Map<String, V> getAll( Collection<String> keys, Function<Set<String>, Map<String, V>> bulkLoader )
+    {
+        if ( null == bulkLoader )
+        {
+            throw new IllegalArgumentException( "BulkLoader cannot be null" );
+        }
+
+        List<String> distinctKeys = new ArrayList<>( new HashSet<>( keys ) );
+
+        Map<String, V> values = new HashMap<>();
+
+        for ( List<String> partition : Lists.partition( distinctKeys, BATCH_SIZE ) )
+        {
+            List<String> redisKeys = new ArrayList<>( partition.size() );
+            partition.forEach( key -> redisKeys.add( generateActualKey( key ) ) );
+
+            List<V> partitionValues = redisTemplate.opsForValue().multiGet( redisKeys );
+
+            for ( int i = 0; i < partition.size(); i++ )
+            {
+                if ( partitionValues.get( i ) != null )
+                {
+                    values.put( partition.get( i ), partitionValues.get( i ) );
+                }
+            }
+        }
+
+        if ( expiryEnabled && refreshExpriryOnAccess && !values.isEmpty() )
+        {
+            RedisSerializer<String> keySerializer = getKeySerializer();
+
+            redisTemplate.executePipelined( (RedisCallback<Object>) connection -> {
+                values.keySet().forEach( key -> connection.expire( keySerializer.serialize( generateActualKey( key ) ), expiryInSeconds ) );
+                return null;
+            } );
+        }
+
+        Set<String> missingKeys = new HashSet<>( distinctKeys );
+        missingKeys.removeAll( values.keySet() );
+
+        if ( !missingKeys.isEmpty() )
+        {
+            Map<String, V> loaded = new HashMap<>();
+
+            bulkLoader.apply( missingKeys ).forEach( ( key, value ) -> {
+                if ( value != null && missingKeys.contains( key ) )
+                {
+                    loaded.put( key, value );
+                }
+            } );
+
+            putAll( loaded );
+            values.putAll( loaded );
+        }
+
+        return values;
     }
 
     @Override
@@ -157,6 +256,46 @@ public class RedisCache<V> implements Cache<V>
         }
     }
 
+    /**
+     * Stores the entries with SET, or SETEX when expiry is enabled, in a single
+     * pipeline.
+     */
+    @Override
+    public void putAll( Map<String, V> map )
+    {
+        if ( map.values().stream().anyMatch( Objects::isNull ) )
+        {
+            throw new IllegalArgumentException( "Value cannot be null" );
+        }
+
+        if ( map.isEmpty() )
+        {
+            return;
+        }
+
+        RedisSerializer<String> keySerializer = getKeySerializer();
+        RedisSerializer<V> valueSerializer = getValueSerializer();
+
+        redisTemplate.executePipelined( (RedisCallback<Object>) connection -> {
+            for ( Map.Entry<String, V> entry : map.entrySet() )
+            {
+                byte[] redisKey = keySerializer.serialize( generateActualKey( entry.getKey() ) );
+                byte[] redisValue = valueSerializer.serialize( entry.getValue() );
+
+                if ( expiryEnabled )
+                {
+                    connection.setEx( redisKey, expiryInSeconds, redisValue );
+                }
+                else
+                {
+                    connection.set( redisKey, redisValue );
+                }
+            }
+
+            return null;
+        } );
+    }
+
     @Override
     public void invalidate( String key )
     {
@@ -168,9 +307,63 @@ public class RedisCache<V> implements Cache<V>
         return cacheRegion.concat( ":" ).concat( key );
     }
 
+    /**
+     * Deletes the keys of the region found with SCAN in batches of
+     * {@link #BATCH_SIZE} keys.
+     */
     @Override
     public void invalidateAll()
+    {
+        for ( List<String> partition : Lists.partition( scanRegionKeys(), BATCH_SIZE ) )
+        {
+            redisTemplate.delete( partition );
+        }
+    }
+
+    /**
+     * The shared cache holds no entries local to this server instance.
+     */
+    @Override
+    public void invalidateLocal()
     {
         // No operation
     }
+
+    @Override
+    public CacheStatistics getStatistics()
+    {
+        return CacheStatistics.empty( cacheRegion, "redis" );
+    }
+
+    private List<String> scanRegionKeys()
+    {
+        return redisTemplate.execute( (RedisCallback<List<String>>) connection -> {
+            List<String> regionKeys = new ArrayList<>();
+
+            ScanOptions options = ScanOptions.scanOptions().match( generateActualKey( "*" ) ).count( SCAN_COUNT ).build();
+
+            try ( Cursor<byte[]> cursor = connection.scan( options ) )
+            {
+                cursor.forEachRemaining( key -> regionKeys.add( STRING_SERIALIZER.deserialize( key ) ) );
+            }
+            catch ( IOException ex )
+            {
+                throw new UncheckedIOException( ex );
+            }
+
+            return regionKeys;
+        } );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private RedisSerializer<String> getKeySerializer()
+    {
+        return (RedisSerializer<String>) redisTemplate.getKeySerializer();
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private RedisSerializer<V> getValueSerializer()
+    {
+        return (RedisSerializer<V>) redisTemplate.getValueSerializer();
+    }
 }
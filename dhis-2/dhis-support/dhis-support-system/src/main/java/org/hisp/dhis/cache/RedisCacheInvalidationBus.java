@@ -0,0 +1,106 @@
+package org.hisp.dhis.cache;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Redis pub/sub implementation of {@link CacheInvalidationBus}. Invalidations
+ * are published to a channel which all server instances subscribe to, and
+ * dispatched to the local subscribers of the region on receipt.
+ */
+public class RedisCacheInvalidationBus
+    implements CacheInvalidationBus, MessageListener
+{
+    public static final String INVALIDATION_CHANNEL = "cache:invalidations";
+
+    private static final Log log = LogFactory.getLog( RedisCacheInvalidationBus.class );
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final LocalCacheInvalidationBus localBus = new LocalCacheInvalidationBus();
+
+    public RedisCacheInvalidationBus( RedisTemplate<String, String> redisTemplate )
+    {
+        this.redisTemplate = redisTemplate;
+    }
+
+    // -------------------------------------------------------------------------
+    // CacheInvalidationBus implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void publish( CacheInvalidation invalidation )
+    {
+        try
+        {
+            redisTemplate.convertAndSend( INVALIDATION_CHANNEL, objectMapper.writeValueAsString( invalidation ) );
+        }
+        catch ( JsonProcessingException | RuntimeException ex )
+        {
+            log.warn( String.format( "Failed to publish cache invalidation: %s, %s", invalidation, ex.getMessage() ) );
+        }
+    }
+
+    @Override
+    public void subscribe( String region, Consumer<CacheInvalidation> listener )
+    {
+        localBus.subscribe( region, listener );
+    }
+
+    // -------------------------------------------------------------------------
+    // MessageListener implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void onMessage( Message message, byte[] pattern )
+    {
+        try
+        {
+            String value = (String) redisTemplate.getValueSerializer().deserialize( message.getBody() );
+
+            localBus.publish( objectMapper.readValue( value, CacheInvalidation.class ) );
+        }
+        catch ( IOException | RuntimeException ex )
+        {
+            log.warn( String.format( "Failed to process cache invalidation: %s", ex.getMessage() ) );
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.hisp.dhis.cache;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.hibernate.cache.HibernateCacheInvalidation;
+import org.hisp.dhis.hibernate.cache.HibernateCacheInvalidationTransport;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Redis pub/sub implementation of {@link HibernateCacheInvalidationTransport}.
+ * Invalidations are serialized with the value serializer of the template and
+ * published to a channel which all server instances subscribe to.
+ */
+public class RedisHibernateCacheInvalidationTransport
+    implements HibernateCacheInvalidationTransport, MessageListener
+{
+    public static final String INVALIDATION_CHANNEL = "hibernate:invalidations";
+
+    private static final Log log = LogFactory.getLog( RedisHibernateCacheInvalidationTransport.class );
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final List<Consumer<HibernateCacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    public RedisHibernateCacheInvalidationTransport( RedisTemplate<String, Object> redisTemplate )
+    {
+        this.redisTemplate = redisTemplate;
+    }
+
+    // -------------------------------------------------------------------------
+    // HibernateCacheInvalidationTransport implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void publish( HibernateCacheInvalidation invalidation )
+    {
+        redisTemplate.convertAndSend( INVALIDATION_CHANNEL, invalidation );
+    }
+
+    @Override
+    public void subscribe( Consumer<HibernateCacheInvalidation> listener )
+    {
+        listeners.add( listener );
+    }
+
+    // -------------------------------------------------------------------------
+    // MessageListener implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void onMessage( Message message, byte[] pattern )
+    {
+        try
+        {
+            HibernateCacheInvalidation invalidation = (HibernateCacheInvalidation) redisTemplate.getValueSerializer().deserialize( message.getBody() );
+
+            listeners.forEach( listener -> listener.accept( invalidation ) );
+        }
+        catch ( RuntimeException ex )
+        {
+            log.warn( String.format( "Failed to process Hibernate cache invalidation: %s", ex.getMessage() ) );
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.hisp.dhis.configuration;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.hisp.dhis.cache.CacheInvalidationBus;
+import org.hisp.dhis.cache.RedisCacheInvalidationBus;
+import org.hisp.dhis.cache.RedisHibernateCacheInvalidationTransport;
+import org.hisp.dhis.condition.RedisEnabledCondition;
+import org.hisp.dhis.hibernate.cache.HibernateCacheInvalidationTransport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * This class deals with configuring the cache invalidation bus which keeps
+ * the near caches of all instances consistent when redis is enabled, and the
+ * transport of Hibernate second-level cache invalidations.
+ */
+@Configuration
+public class CacheConfiguration
+{
+    @Autowired( required = false )
+    private RedisTemplate<?, ?> redisTemplate;
+
+    @SuppressWarnings( "unchecked" )
+    @Bean
+    @Conditional( RedisEnabledCondition.class )
+    public CacheInvalidationBus redisCacheInvalidationBus()
+    {
+        return new RedisCacheInvalidationBus( (RedisTemplate<String, String>) redisTemplate );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Bean
+    @Conditional( RedisEnabledCondition.class )
+    public HibernateCacheInvalidationTransport redisHibernateCacheInvalidationTransport()
+    {
+        return new RedisHibernateCacheInvalidationTransport( (RedisTemplate<String, Object>) redisTemplate );
+    }
+
+    /**
+     * Subscribes the cache invalidation bus and the Hibernate cache
+     * invalidation transport to their invalidation channels, so that caches
+     * receive the invalidations of all instances.
+     */
+    @Bean
+    @Conditional( RedisEnabledCondition.class )
+    public RedisMessageListenerContainer redisCacheInvalidationListenerContainer()
+    {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory( redisTemplate.getConnectionFactory() );
+        container.addMessageListener( (RedisCacheInvalidationBus) redisCacheInvalidationBus(), new ChannelTopic( RedisCacheInvalidationBus.INVALIDATION_CHANNEL ) );
+        container.addMessageListener( (RedisHibernateCacheInvalidationTransport) redisHibernateCacheInvalidationTransport(),
+            new ChannelTopic( RedisHibernateCacheInvalidationTransport.INVALIDATION_CHANNEL ) );
+        return container;
+    }
+}
@@ -39,6 +39,8 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 
 /**
  * This class deals with the configuring an appropriate notifier depending on
@@ -62,6 +64,20 @@ public class NotifierConfiguration
         return new RedisNotifier( (RedisTemplate<String, String>) redisTemplate );
     }
 
+    /**
+     * Subscribes the redis notifier to the notification channel, so that
+     * notification listeners receive the notifications of all instances.
+     */
+    @Bean
+    @Conditional( RedisEnabledCondition.class )
+    public RedisMessageListenerContainer redisNotifierListenerContainer()
+    {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory( redisTemplate.getConnectionFactory() );
+        container.addMessageListener( (RedisNotifier) redisNotifier(), new ChannelTopic( RedisNotifier.NOTIFICATION_CHANNEL ) );
+        return container;
+    }
+
     @Bean
     @Qualifier( "notifier" )
     @Conditional( RedisDisabledCondition.class )
@@ -0,0 +1,145 @@
+package org.hisp.dhis.system.grid;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.GridRowSink;
+import org.hisp.dhis.system.util.JacksonUtils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * {@link GridRowSink} which writes rows as JSON directly to an output stream
+ * as they are received. The output has the same properties as a serialized
+ * {@link ListGrid}, where the width is given by the headers and the height is
+ * written after the rows as it is not known up front. Only the current row is
+ * held in memory.
+ */
+public class JsonGridWriter
+    implements GridRowSink
+{
+    private final JsonGenerator generator;
+
+    private int height = 0;
+
+    public JsonGridWriter( OutputStream out )
+    {
+        try
+        {
+            this.generator = JacksonUtils.createJsonGenerator( out );
+        }
+        catch ( IOException ex )
+        {
+            throw new UncheckedIOException( ex );
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // GridRowSink implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void start( Grid grid )
+    {
+        try
+        {
+            generator.writeStartObject();
+
+            if ( grid.getTitle() != null )
+            {
+                generator.writeStringField( "title", grid.getTitle() );
+            }
+
+            generator.writeArrayFieldStart( "headers" );
+
+            for ( GridHeader header : grid.getHeaders() )
+            {
+                generator.writeObject( header );
+            }
+
+            generator.writeEndArray();
+
+            if ( grid.getMetaData() != null )
+            {
+                generator.writeObjectField( "metaData", grid.getMetaData() );
+            }
+
+            generator.writeNumberField( "width", grid.getHeaders().size() );
+            generator.writeArrayFieldStart( "rows" );
+        }
+        catch ( IOException ex )
+        {
+            throw new UncheckedIOException( ex );
+        }
+    }
+
+    @Override
+    public void addRow( List<Object> row )
+    {
+        try
+        {
+            generator.writeStartArray();
+
+            for ( Object value : row )
+            {
+                generator.writeObject( value );
+            }
+
+            generator.writeEndArray();
+
+            height++;
+        }
+        catch ( IOException ex )
+        {
+            throw new UncheckedIOException( ex );
+        }
+    }
+
+    @Override
+    public void finish()
+    {
+        try
+        {
+            generator.writeEndArray();
+            generator.writeNumberField( "height", height );
+            generator.writeEndObject();
+            generator.flush();
+        }
+        catch ( IOException ex )
+        {
+            throw new UncheckedIOException( ex );
+        }
+    }
+}
@@ -39,6 +39,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.math3.stat.regression.SimpleRegression;
 import org.apache.commons.math3.util.Precision;
+import org.hisp.dhis.common.DimensionKey;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.GridHeader;
 import org.hisp.dhis.common.adapter.JacksonRowDataSerializer;
@@ -57,6 +58,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -927,6 +929,32 @@ public class ListGrid
         return map;
     }
 
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public <T> Map<DimensionKey, T> getAsKeyMap( int valueIndex )
+    {
+        Map<DimensionKey, T> map = new HashMap<>();
+
+        for ( List<Object> row : grid )
+        {
+            String[] items = new String[row.size() - 1];
+
+            for ( int i = 0, j = 0; i < row.size(); i++ )
+            {
+                if ( i != valueIndex )
+                {
+                    items[j++] = Objects.toString( row.get( i ), null );
+                }
+            }
+
+            T value = (T) row.get( valueIndex );
+
+            map.put( DimensionKey.of( items ), value );
+        }
+
+        return map;
+    }
+
     // -------------------------------------------------------------------------
     // JRDataSource implementation
     // -------------------------------------------------------------------------
@@ -33,7 +33,6 @@ import org.apache.commons.logging.LogFactory;
 import org.hisp.dhis.scheduling.JobConfiguration;
 import org.hisp.dhis.scheduling.JobType;
 
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
@@ -49,6 +48,8 @@ public class InMemoryNotifier implements Notifier
 
     private NotificationMap notificationMap = new NotificationMap();
 
+    private NotificationPublisher publisher = new NotificationPublisher();
+
     // -------------------------------------------------------------------------
     // Notifier implementation
     // -------------------------------------------------------------------------
@@ -74,6 +75,8 @@ public class InMemoryNotifier implements Notifier
 
             notificationMap.add( id, notification );
 
+            publisher.publishNotification( id.getUid(), notification );
+
             log.info( notification );
         }
 
@@ -106,19 +109,7 @@ public class InMemoryNotifier implements Notifier
     @Override
     public List<Notification> getLastNotificationsByJobType( JobType jobType, String lastId )
     {
-        List<Notification> list = new ArrayList<>();
-
-        for ( Notification notification : notificationMap.getLastNotificationsByJobType( jobType ) )
-        {
-            if ( lastId != null && lastId.equals( notification.getUid() ) )
-            {
-                break;
-            }
-
-            list.add( notification );
-        }
-
-        return list;
+        return notificationMap.getLastNotificationsByJobType( jobType, lastId );
     }
 
     @Override
@@ -163,6 +154,8 @@ public class InMemoryNotifier implements Notifier
         if ( id != null && !(level != null && level.isOff()) )
         {
             notificationMap.addSummary( id, jobSummary );
+
+            publisher.publishJobSummary( id.getJobType(), id.getUid(), jobSummary );
         }
 
         return this;
@@ -185,4 +178,16 @@ public class InMemoryNotifier implements Notifier
     {
         return notificationMap.getSummary( jobType, jobId );
     }
+
+    @Override
+    public void addListener( NotificationListener listener )
+    {
+        publisher.addListener( listener );
+    }
+
+    @Override
+    public void removeListener( NotificationListener listener )
+    {
+        publisher.removeListener( listener );
+    }
 }
@@ -31,142 +31,201 @@ package org.hisp.dhis.system.notification;
 import org.hisp.dhis.scheduling.JobConfiguration;
 import org.hisp.dhis.scheduling.JobType;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
 /**
+ * Thread-safe store of notifications and summaries. Notifications of each job
+ * are kept in a ring buffer with the newest notification first, holding at
+ * most {@link #MAX_NOTIFICATIONS_PER_JOB} notifications, and at most
+ * {@link #MAX_POOL_TYPE_SIZE} jobs are kept per job type. Getters return
+ * snapshots which are safe to iterate while jobs keep notifying.
+ *
  * @author Henning Håkonsen
  */
 public class NotificationMap
 {
     private final static int MAX_POOL_TYPE_SIZE = 100;
 
-    private Map<JobType, LinkedHashMap<String, LinkedList<Notification>>> notificationsWithType;
+    private final static int MAX_NOTIFICATIONS_PER_JOB = 1000;
+
+    private final Map<JobType, LinkedHashMap<String, Deque<Notification>>> notificationsWithType = new EnumMap<>( JobType.class );
 
-    private Map<JobType, LinkedHashMap<String, Object>> summariesWithType;
+    private final Map<JobType, LinkedHashMap<String, Object>> summariesWithType = new EnumMap<>( JobType.class );
 
     NotificationMap()
     {
-        notificationsWithType = new HashMap<>();
-        Arrays.stream( JobType.values() )
-            .forEach( jobType -> notificationsWithType.put( jobType, new LinkedHashMap<>() ) );
+        for ( JobType jobType : JobType.values() )
+        {
+            notificationsWithType.put( jobType, new LinkedHashMap<>() );
+            summariesWithType.put( jobType, new LinkedHashMap<>() );
+        }
+    }
 
-        summariesWithType = new HashMap<>();
-        Arrays.stream( JobType.values() )
-            .forEach( jobType -> summariesWithType.put( jobType, new LinkedHashMap<>() ) );
+    public synchronized List<Notification> getLastNotificationsByJobType( JobType jobType )
+    {
+        return getLastNotificationsByJobType( jobType, null );
     }
 
-    public List<Notification> getLastNotificationsByJobType( JobType jobType )
+    /**
+     * Returns the notifications of the last job of the given type which are newer
+     * than the notification with the given identifier, newest first. Only the new
+     * notifications are copied.
+     *
+     * @param jobType the job type.
+     * @param lastId  the identifier of the last notification seen, can be null.
+     * @return a list of notifications.
+     */
+    public synchronized List<Notification> getLastNotificationsByJobType( JobType jobType, String lastId )
     {
-        LinkedHashMap<String, LinkedList<Notification>> jobTypeNotifications = notificationsWithType.get( jobType );
+        LinkedHashMap<String, Deque<Notification>> jobTypeNotifications = notificationsWithType.get( jobType );
 
-        if ( jobTypeNotifications.size() == 0 )
+        List<Notification> list = new ArrayList<>();
+
+        if ( jobTypeNotifications.isEmpty() )
         {
-            return new ArrayList<>();
+            return list;
         }
 
-        String key = (String) jobTypeNotifications.keySet().toArray()[jobTypeNotifications.size() - 1];
+        Deque<Notification> notifications = getLast( jobTypeNotifications );
+
+        for ( Notification notification : notifications )
+        {
+            if ( lastId != null && lastId.equals( notification.getUid() ) )
+            {
+                break;
+            }
+
+            list.add( notification );
+        }
 
-        return jobTypeNotifications.get( key );
+        return list;
     }
 
-    public Map<JobType, LinkedHashMap<String, LinkedList<Notification>>> getNotifications()
+    public synchronized Map<JobType, LinkedHashMap<String, LinkedList<Notification>>> getNotifications()
     {
-        return notificationsWithType;
+        Map<JobType, LinkedHashMap<String, LinkedList<Notification>>> notifications = new EnumMap<>( JobType.class );
+
+        notificationsWithType.forEach( ( jobType, jobNotifications ) -> notifications.put( jobType, copy( jobNotifications ) ) );
+
+        return notifications;
     }
 
-    public LinkedList<Notification> getNotificationsByJobId( JobType jobType, String jobId )
+    public synchronized LinkedList<Notification> getNotificationsByJobId( JobType jobType, String jobId )
     {
-        if ( notificationsWithType.get( jobType ).containsKey( jobId ) )
-        {
-            return notificationsWithType.get( jobType ).get( jobId );
-        }
-        else
-        {
-            return new LinkedList<>();
-        }
+        Deque<Notification> notifications = notificationsWithType.get( jobType ).get( jobId );
+
+        return notifications != null ? new LinkedList<>( notifications ) : new LinkedList<>();
     }
 
-    public Map<String, LinkedList<Notification>> getNotificationsWithType( JobType jobType )
+    public synchronized Map<String, LinkedList<Notification>> getNotificationsWithType( JobType jobType )
     {
-        return notificationsWithType.get( jobType );
+        return copy( notificationsWithType.get( jobType ) );
     }
 
-    public void add( JobConfiguration jobConfiguration, Notification notification )
+    public synchronized void add( JobConfiguration jobConfiguration, Notification notification )
     {
         String uid = jobConfiguration.getUid();
 
-        LinkedHashMap<String, LinkedList<Notification>> uidNotifications = notificationsWithType
+        LinkedHashMap<String, Deque<Notification>> uidNotifications = notificationsWithType
             .get( jobConfiguration.getJobType() );
 
-        LinkedList<Notification> notifications;
-        if ( uidNotifications.containsKey( uid ) )
-        {
-            notifications = uidNotifications.get( uid );
-        }
-        else
+        Deque<Notification> notifications = uidNotifications.get( uid );
+
+        if ( notifications == null )
         {
-            notifications = new LinkedList<>();
+            if ( uidNotifications.size() >= MAX_POOL_TYPE_SIZE )
+            {
+                removeFirst( uidNotifications );
+            }
+
+            notifications = new ArrayDeque<>();
+            uidNotifications.put( uid, notifications );
         }
 
         notifications.addFirst( notification );
 
-        if ( uidNotifications.size() >= MAX_POOL_TYPE_SIZE )
+        if ( notifications.size() > MAX_NOTIFICATIONS_PER_JOB )
         {
-            String key = (String) uidNotifications.keySet().toArray()[0];
-            uidNotifications.remove( key );
+            notifications.removeLast();
         }
-
-        uidNotifications.put( uid, notifications );
-
-        notificationsWithType.put( jobConfiguration.getJobType(), uidNotifications );
     }
 
-    public void addSummary( JobConfiguration jobConfiguration, Object summary )
+    public synchronized void addSummary( JobConfiguration jobConfiguration, Object summary )
     {
         LinkedHashMap<String, Object> summaries = summariesWithType.get( jobConfiguration.getJobType() );
 
-        if ( summaries.size() >= MAX_POOL_TYPE_SIZE )
+        if ( summaries.size() >= MAX_POOL_TYPE_SIZE && !summaries.containsKey( jobConfiguration.getUid() ) )
         {
-            String key = (String) summaries.keySet().toArray()[0];
-            summaries.remove( key );
+            removeFirst( summaries );
         }
 
         summaries.put( jobConfiguration.getUid(), summary );
     }
 
-    public Object getSummary( JobType jobType )
+    public synchronized Object getSummary( JobType jobType )
     {
         LinkedHashMap<String, Object> summariesForJobType = summariesWithType.get( jobType );
 
-        if ( summariesForJobType.size() == 0 )
-        {
-            return null;
-        }
-        else
-        {
-            return summariesForJobType.values().toArray()[summariesForJobType.size() - 1];
-        }
+        return summariesForJobType.isEmpty() ? null : getLast( summariesForJobType );
     }
 
-    public Object getSummary( JobType jobType, String jobId )
+    public synchronized Object getSummary( JobType jobType, String jobId )
     {
         return summariesWithType.get( jobType ).get( jobId );
     }
 
-    public Object getJobSummariesForJobType( JobType jobType )
+    public synchronized Object getJobSummariesForJobType( JobType jobType )
     {
-        return summariesWithType.get( jobType );
+        return new LinkedHashMap<>( summariesWithType.get( jobType ) );
     }
 
-    public void clear( JobConfiguration jobConfiguration )
+    public synchronized void clear( JobConfiguration jobConfiguration )
     {
         notificationsWithType.get( jobConfiguration.getJobType() ).remove( jobConfiguration.getUid() );
         summariesWithType.get( jobConfiguration.getJobType() ).remove( jobConfiguration.getUid() );
     }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private static <V> V getLast( LinkedHashMap<String, V> map )
+    {
+        V last = null;
+
+        for ( V value : map.values() )
+        {
+            last = value;
+        }
+
+        return last;
+    }
+
+    private static void removeFirst( LinkedHashMap<String, ?> map )
+    {
+        Iterator<String> iterator = map.keySet().iterator();
+
+        if ( iterator.hasNext() )
+        {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static LinkedHashMap<String, LinkedList<Notification>> copy( LinkedHashMap<String, Deque<Notification>> notifications )
+    {
+        LinkedHashMap<String, LinkedList<Notification>> copy = new LinkedHashMap<>();
+
+        notifications.forEach( ( uid, jobNotifications ) -> copy.put( uid, new LinkedList<>( jobNotifications ) ) );
+
+        return copy;
+    }
 }
@@ -0,0 +1,93 @@
+package org.hisp.dhis.system.notification;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.scheduling.JobType;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Thread-safe registry of {@link NotificationListener}s which publishes
+ * notifications and job summaries to all registered listeners. Failing
+ * listeners are logged and do not affect the job or other listeners.
+ */
+public class NotificationPublisher
+{
+    private static final Log log = LogFactory.getLog( NotificationPublisher.class );
+
+    private final Set<NotificationListener> listeners = new CopyOnWriteArraySet<>();
+
+    public void addListener( NotificationListener listener )
+    {
+        listeners.add( listener );
+    }
+
+    public void removeListener( NotificationListener listener )
+    {
+        listeners.remove( listener );
+    }
+
+    public boolean hasListeners()
+    {
+        return !listeners.isEmpty();
+    }
+
+    public void publishNotification( String jobId, Notification notification )
+    {
+        for ( NotificationListener listener : listeners )
+        {
+            try
+            {
+                listener.notification( jobId, notification );
+            }
+            catch ( RuntimeException ex )
+            {
+                log.warn( "Notification listener failed: " + ex.getMessage() );
+            }
+        }
+    }
+
+    public void publishJobSummary( JobType jobType, String jobId, Object jobSummary )
+    {
+        for ( NotificationListener listener : listeners )
+        {
+            try
+            {
+                listener.jobSummary( jobType, jobId, jobSummary );
+            }
+            catch ( RuntimeException ex )
+            {
+                log.warn( "Job summary listener failed: " + ex.getMessage() );
+            }
+        }
+    }
+}
@@ -72,4 +72,20 @@ public interface Notifier
     Object getJobSummary( JobType jobType );
 
     Object getJobSummaryByJobId( JobType jobType, String jobId );
+
+    /**
+     * Registers a listener which is called for every new notification and job
+     * summary. In clustered setups listeners receive the notifications of all
+     * instances.
+     *
+     * @param listener the listener.
+     */
+    void addListener( NotificationListener listener );
+
+    /**
+     * Removes a registered listener.
+     *
+     * @param listener the listener.
+     */
+    void removeListener( NotificationListener listener );
 }
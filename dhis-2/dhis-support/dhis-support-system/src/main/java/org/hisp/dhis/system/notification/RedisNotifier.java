@@ -32,12 +32,16 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.hisp.dhis.scheduling.JobConfiguration;
 import org.hisp.dhis.scheduling.JobType;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.data.redis.core.RedisTemplate;
 
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -55,12 +59,18 @@ import java.util.Set;
  * are important, (to limit the maximum number of objects held), we use a
  * combination of "Sorted Sets" , "HashMaps" and "Values" (data structures in
  * redis) to have a similar behaviour as InMemoryNotifier.
- * 
- * 
+ * <p>
+ * New notifications and summaries are also published on a Redis channel, and
+ * the messages received on that channel are passed on to the registered
+ * listeners, so that listeners on every instance see the events of all
+ * instances.
+ *
  * @author Ameen Mohamed
  */
-public class RedisNotifier implements Notifier
+public class RedisNotifier implements Notifier, MessageListener
 {
+    public static final String NOTIFICATION_CHANNEL = "notifications:events";
+
     private static final String NOTIFIER_ERROR = "Redis Notifier error:%s";
 
     private static final Log log = LogFactory.getLog( RedisNotifier.class );
@@ -83,6 +93,8 @@ public class RedisNotifier implements Notifier
 
     private ObjectMapper objectMapper;
 
+    private NotificationPublisher publisher = new NotificationPublisher();
+
     public RedisNotifier( RedisTemplate<String, String> redisTemplate )
     {
         this.redisTemplate = redisTemplate;
@@ -128,6 +140,10 @@ public class RedisNotifier implements Notifier
                 redisTemplate.boundZSetOps( notificationKey ).add( objectMapper.writeValueAsString( notification ),
                     now.getTime() );
                 redisTemplate.boundZSetOps( notificationOrderKey ).add( id.getUid(), now.getTime() );
+
+                ObjectNode event = createEvent( id );
+                event.set( "notification", objectMapper.valueToTree( notification ) );
+                redisTemplate.convertAndSend( NOTIFICATION_CHANNEL, objectMapper.writeValueAsString( event ) );
             }
             catch ( JsonProcessingException ex )
             {
@@ -285,6 +301,10 @@ public class RedisNotifier implements Notifier
 
                 redisTemplate.boundZSetOps( summaryOrderKey ).add( id.getUid(), now.getTime() );
 
+                ObjectNode event = createEvent( id );
+                event.put( "summaryType", jobSummaryType.getName() );
+                event.set( "summary", objectMapper.valueToTree( jobSummary ) );
+                redisTemplate.convertAndSend( NOTIFICATION_CHANNEL, objectMapper.writeValueAsString( event ) );
             }
             catch ( JsonProcessingException | ClassNotFoundException ex )
             {
@@ -383,6 +403,62 @@ public class RedisNotifier implements Notifier
         return null;
     }
 
+    @Override
+    public void addListener( NotificationListener listener )
+    {
+        publisher.addListener( listener );
+    }
+
+    @Override
+    public void removeListener( NotificationListener listener )
+    {
+        publisher.removeListener( listener );
+    }
+
+    // -------------------------------------------------------------------------
+    // MessageListener implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void onMessage( Message message, byte[] pattern )
+    {
+        if ( !publisher.hasListeners() )
+        {
+            return;
+        }
+
+        try
+        {
+            String value = (String) redisTemplate.getValueSerializer().deserialize( message.getBody() );
+            JsonNode event = objectMapper.readTree( value );
+
+            JobType jobType = JobType.valueOf( event.get( "jobType" ).asText() );
+            String jobId = event.get( "jobId" ).asText();
+
+            if ( event.has( "notification" ) )
+            {
+                publisher.publishNotification( jobId, objectMapper.treeToValue( event.get( "notification" ), Notification.class ) );
+            }
+            else if ( event.has( "summary" ) )
+            {
+                Class<?> summaryType = Class.forName( event.get( "summaryType" ).asText() );
+                publisher.publishJobSummary( jobType, jobId, objectMapper.treeToValue( event.get( "summary" ), summaryType ) );
+            }
+        }
+        catch ( IOException | ClassNotFoundException | RuntimeException ex )
+        {
+            log.warn( String.format( NOTIFIER_ERROR, ex.getMessage() ) );
+        }
+    }
+
+    private ObjectNode createEvent( JobConfiguration id )
+    {
+        ObjectNode event = objectMapper.createObjectNode();
+        event.put( "jobType", id.getJobType().name() );
+        event.put( "jobId", id.getUid() );
+        return event;
+    }
+
     private static String generateNotificationKey( JobType jobType, String jobUid )
     {
         return new StringBuilder()
@@ -29,6 +29,7 @@ package org.hisp.dhis.system.util;
  */
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -36,6 +37,7 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.UncheckedIOException;
 import java.util.HashMap;
@@ -91,6 +93,19 @@ public class JacksonUtils
         }
     }
 
+    /**
+     * Creates a JSON generator for the given output stream which is configured
+     * in the same way as the object mapper used by this class.
+     *
+     * @param out the output stream.
+     * @return a {@link JsonGenerator}.
+     */
+    public static JsonGenerator createJsonGenerator( OutputStream out )
+        throws IOException
+    {
+        return jsonMapper.getFactory().createGenerator( out );
+    }
+
     public static <T, U> Map<T, U> fromJsonToMap( String object )
         throws IOException
     {
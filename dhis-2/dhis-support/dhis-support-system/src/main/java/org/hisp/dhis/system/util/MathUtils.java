@@ -55,6 +55,7 @@ public class MathUtils
         .expireAfterAccess( 1, TimeUnit.HOURS )
         .initialCapacity( 200 )
         .maximumSize( 5000 )
+        .recordStats()
         .build();
 
     public static final Double ZERO = new Double( 0 );
@@ -78,6 +79,15 @@ public class MathUtils
     private static final Pattern NEGATIVE_INT_PATTERN = Pattern.compile( "^-[1-9]\\d*$" );
     private static final Pattern ZERO_PATTERN = Pattern.compile( "^0(\\.0*)?$" );
 
+    /**
+     * Returns the expression evaluation cache, for registration with the cache
+     * registry.
+     */
+    public static Cache<String, Double> getExpressionCache()
+    {
+        return EXPR_EVAL_CACHE;
+    }
+
     /**
      * Evaluates whether an expression is true or false.
      *
@@ -0,0 +1,226 @@
+package org.hisp.dhis.cache;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.hisp.dhis.H2DhisConfigurationProvider;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DefaultCacheRegistryTest
+{
+    private DhisConfigurationProvider config;
+
+    private CacheInvalidationBus bus;
+
+    private DefaultCacheRegistry registryA;
+
+    private DefaultCacheRegistry registryB;
+
+    /**
+     * Two registries sharing an invalidation bus, which represent two server
+     * instances.
+     */
+    @Before
+    public void before()
+    {
+        config = new H2DhisConfigurationProvider();
+        bus = new LocalCacheInvalidationBus();
+
+        registryA = createRegistry();
+        registryB = createRegistry();
+    }
+
+    @Test
+    public void testGetMaximumSize()
+    {
+        config.getProperties().setProperty( "cache.regionA.max_size", "5" );
+        config.getProperties().setProperty( "cache.regionB.max_size", "five" );
+
+        assertEquals( 5, registryA.getMaximumSize( "regionA", 100 ) );
+        assertEquals( 100, registryA.getMaximumSize( "regionB", 100 ) );
+        assertEquals( 100, registryA.getMaximumSize( "regionC", 100 ) );
+    }
+
+    @Test
+    public void testRegisterCaffeineCache()
+    {
+        config.getProperties().setProperty( "cache.regionA.max_size", "10" );
+
+        com.github.benmanes.caffeine.cache.Cache<String, String> cache = Caffeine.newBuilder()
+            .maximumSize( 100 ).recordStats().build();
+
+        registryA.register( "regionA", cache, false );
+
+        assertEquals( 10, cache.policy().eviction().get().getMaximum() );
+
+        cache.get( "k1", k -> "v1" );
+        cache.get( "k1", k -> "v1" );
+
+        CacheStatistics statistics = getStatistics( registryA, "regionA" );
+
+        assertNotNull( statistics );
+        assertEquals( 1, statistics.getHitCount() );
+        assertEquals( 1, statistics.getMissCount() );
+        assertEquals( 1, statistics.getSize() );
+        assertEquals( 10, statistics.getMaximumSize() );
+    }
+
+    @Test
+    public void testBuildRegistersCache()
+    {
+        Cache<String> cache = new CacheBuilder<String>( null, config, bus, registryA )
+            .forRegion( "regionA" ).withMaximumSize( 100 ).invalidateOnMetadataChange().build();
+
+        cache.put( "k1", "v1" );
+        cache.get( "k1" );
+
+        CacheStatistics statistics = getStatistics( registryA, "regionA" );
+
+        assertNotNull( statistics );
+        assertEquals( 1, statistics.getHitCount() );
+        assertTrue( statistics.isInvalidateOnMetadataChange() );
+    }
+
+    @Test
+    public void testInvalidateMetadataCaches()
+    {
+        Cache<String> metadataCacheA = buildCache( registryA, "metadata", true );
+        Cache<String> metadataCacheB = buildCache( registryB, "metadata", true );
+        Cache<String> dataCacheA = buildCache( registryA, "data", false );
+
+        metadataCacheA.put( "k1", "v1" );
+        metadataCacheB.put( "k1", "v1" );
+        dataCacheA.put( "k1", "v1" );
+
+        registryA.invalidateMetadataCaches();
+
+        assertFalse( metadataCacheA.getIfPresent( "k1" ).isPresent() );
+        assertFalse( metadataCacheB.getIfPresent( "k1" ).isPresent() );
+        assertTrue( dataCacheA.getIfPresent( "k1" ).isPresent() );
+    }
+
+    @Test
+    public void testInvalidateRegion()
+    {
+        Cache<String> cacheA = buildCache( registryA, "data", false );
+        Cache<String> cacheB = buildCache( registryB, "data", false );
+
+        cacheA.put( "k1", "v1" );
+        cacheB.put( "k1", "v1" );
+
+        assertTrue( registryA.invalidate( "data" ) );
+        assertFalse( registryA.invalidate( "unknown" ) );
+
+        assertFalse( cacheA.getIfPresent( "k1" ).isPresent() );
+        assertFalse( cacheB.getIfPresent( "k1" ).isPresent() );
+    }
+
+    @Test
+    public void testInvalidateAll()
+    {
+        Cache<String> metadataCache = buildCache( registryB, "metadata", true );
+        Cache<String> dataCache = buildCache( registryB, "data", false );
+
+        metadataCache.put( "k1", "v1" );
+        dataCache.put( "k1", "v1" );
+
+        registryA.invalidateAll();
+
+        assertFalse( metadataCache.getIfPresent( "k1" ).isPresent() );
+        assertFalse( dataCache.getIfPresent( "k1" ).isPresent() );
+    }
+
+    @Test
+    public void testRemoteInvalidationClearsLocalTierOnly()
+    {
+        CacheBuilder<String> builder = new CacheBuilder<String>( null, config, bus )
+            .forRegion( "near" ).withMaximumSize( 100 ).withNearCache();
+
+        LocalCache<String> remoteCache = new LocalCache<>( builder );
+        NearCache<String> nearCacheA = new NearCache<>( builder, remoteCache );
+        NearCache<String> nearCacheB = new NearCache<>( builder, remoteCache );
+
+        registryA.register( "near", nearCacheA, false );
+        registryB.register( "near", nearCacheB, false );
+
+        List<CacheInvalidation> invalidations = new ArrayList<>();
+        bus.subscribe( "near", invalidations::add );
+
+        nearCacheA.put( "k1", "v1" );
+        assertEquals( "v1", nearCacheB.get( "k1" ).get() );
+
+        invalidations.clear();
+
+        assertTrue( registryA.invalidate( "near" ) );
+
+        assertFalse( remoteCache.getIfPresent( "k1" ).isPresent() );
+        assertFalse( nearCacheA.getIfPresent( "k1" ).isPresent() );
+        assertFalse( nearCacheB.getIfPresent( "k1" ).isPresent() );
+
+        // Only the invalidating instance publishes on the cache region
+
+        assertEquals( 1, invalidations.size() );
+        assertTrue( invalidations.get( 0 ).isAll() );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private DefaultCacheRegistry createRegistry()
+    {
+        DefaultCacheRegistry registry = new DefaultCacheRegistry();
+        registry.setConfigurationProvider( config );
+        registry.setInvalidationBus( bus );
+        registry.init();
+        return registry;
+    }
+
+    private Cache<String> buildCache( CacheRegistry registry, String region, boolean invalidateOnMetadataChange )
+    {
+        CacheBuilder<String> builder = new CacheBuilder<String>( null, config, bus, registry )
+            .forRegion( region ).withMaximumSize( 100 );
+
+        return invalidateOnMetadataChange ? builder.invalidateOnMetadataChange().build() : builder.build();
+    }
+
+    private CacheStatistics getStatistics( CacheRegistry registry, String region )
+    {
+        List<CacheStatistics> statistics = registry.getStatistics();
+
+        return statistics.stream().filter( s -> s.getRegion().equals( region ) ).findFirst().orElse( null );
+    }
+}
@@ -0,0 +1,214 @@
+package org.hisp.dhis.cache;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class NearCacheTest
+{
+    private LocalCache<String> remoteCache;
+
+    private NearCache<String> cacheA;
+
+    private NearCache<String> cacheB;
+
+    /**
+     * Two near caches sharing a remote cache and an invalidation bus, which
+     * represent the same cache region on two server instances.
+     */
+    @Before
+    public void before()
+    {
+        CacheInvalidationBus bus = new LocalCacheInvalidationBus();
+
+        CacheBuilder<String> builder = new CacheBuilder<String>( null, null, bus )
+            .forRegion( "test" ).expireAfterWrite( 1, TimeUnit.HOURS ).withMaximumSize( 100 ).withNearCache();
+
+        remoteCache = new LocalCache<>( builder );
+        cacheA = new NearCache<>( builder, remoteCache );
+        cacheB = new NearCache<>( builder, remoteCache );
+    }
+
+    @Test
+    public void testGetFromNearCache()
+    {
+        cacheA.put( "k1", "v1" );
+
+        assertEquals( "v1", cacheA.get( "k1" ).get() );
+        assertEquals( "v1", cacheB.get( "k1" ).get() );
+        assertEquals( "v1", cacheB.get( "k1" ).get() );
+
+        assertEquals( 1, cacheA.getMetrics().getNearHits() );
+        assertEquals( 1, cacheB.getMetrics().getRemoteHits() );
+        assertEquals( 1, cacheB.getMetrics().getNearHits() );
+        assertEquals( 0, cacheB.getMetrics().getMisses() );
+    }
+
+    @Test
+    public void testPutInvalidatesOtherNearCaches()
+    {
+        cacheA.put( "k1", "v1" );
+
+        assertEquals( "v1", cacheB.get( "k1" ).get() );
+
+        cacheA.put( "k1", "v2" );
+
+        assertEquals( "v2", cacheB.get( "k1" ).get() );
+        assertEquals( 2, cacheB.getMetrics().getInvalidations() );
+        assertEquals( 0, cacheA.getMetrics().getInvalidations() );
+    }
+
+    @Test
+    public void testInvalidate()
+    {
+        cacheA.put( "k1", "v1" );
+
+        assertTrue( cacheB.getIfPresent( "k1" ).isPresent() );
+
+        cacheA.invalidate( "k1" );
+
+        assertFalse( cacheA.getIfPresent( "k1" ).isPresent() );
+        assertFalse( cacheB.getIfPresent( "k1" ).isPresent() );
+        assertFalse( remoteCache.getIfPresent( "k1" ).isPresent() );
+    }
+
+    @Test
+    public void testGetWithMappingFunction()
+    {
+        assertEquals( "v1", cacheA.get( "k1", k -> "v1" ).get() );
+        assertEquals( "v1", cacheB.get( "k1", k -> "other" ).get() );
+        assertEquals( "v1", remoteCache.get( "k1" ).get() );
+
+        assertEquals( 1, cacheA.getMetrics().getLoads() );
+        assertEquals( 1, cacheA.getMetrics().getMisses() );
+        assertEquals( 0, cacheB.getMetrics().getLoads() );
+    }
+
+    @Test
+    public void testGetAll()
+    {
+        cacheA.put( "k1", "v1" );
+        cacheB.put( "k2", "v2" );
+
+        assertEquals( 2, cacheA.getAll().size() );
+        assertEquals( 2, cacheB.getAll().size() );
+    }
+
+    @Test
+    public void testGetAllWithBulkLoader()
+    {
+        cacheA.put( "k1", "v1" );
+        cacheB.put( "k2", "v2" );
+
+        assertEquals( "v1", cacheA.get( "k1" ).get() );
+
+        Map<String, Set<String>> requested = new HashMap<>();
+
+        Map<String, String> values = cacheA.getAll( Lists.newArrayList( "k1", "k2", "k3", "k4" ), keys -> {
+            requested.put( "keys", keys );
+            return ImmutableMap.of( "k3", "v3" );
+        } );
+
+        assertEquals( ImmutableMap.of( "k1", "v1", "k2", "v2", "k3", "v3" ), values );
+        assertEquals( 2, requested.get( "keys" ).size() );
+        assertTrue( requested.get( "keys" ).containsAll( Lists.newArrayList( "k3", "k4" ) ) );
+        assertEquals( "v3", remoteCache.get( "k3" ).get() );
+
+        assertEquals( 2, cacheA.getMetrics().getNearHits() );
+        assertEquals( 1, cacheA.getMetrics().getRemoteHits() );
+        assertEquals( 2, cacheA.getMetrics().getMisses() );
+        assertEquals( 1, cacheA.getMetrics().getLoads() );
+    }
+
+    @Test
+    public void testPutAll()
+    {
+        cacheA.put( "k1", "v1" );
+
+        assertEquals( "v1", cacheB.get( "k1" ).get() );
+
+        cacheA.putAll( ImmutableMap.of( "k1", "v2", "k2", "v3" ) );
+
+        assertEquals( "v2", cacheB.get( "k1" ).get() );
+        assertEquals( "v3", cacheB.get( "k2" ).get() );
+        assertEquals( "v3", remoteCache.get( "k2" ).get() );
+
+        // One invalidation for the put and a single one for all keys of the putAll
+
+        assertEquals( 2, cacheB.getMetrics().getInvalidations() );
+    }
+
+    @Test
+    public void testInvalidateAll()
+    {
+        cacheA.put( "k1", "v1" );
+
+        assertEquals( "v1", cacheB.get( "k1" ).get() );
+
+        long remoteCalls = cacheA.getMetrics().getRemoteCalls();
+
+        cacheA.invalidateAll();
+
+        assertEquals( remoteCalls + 1, cacheA.getMetrics().getRemoteCalls() );
+        assertFalse( cacheB.getIfPresent( "k1" ).isPresent() );
+        assertFalse( remoteCache.getIfPresent( "k1" ).isPresent() );
+    }
+
+    @Test
+    public void testInvalidationSerialization()
+        throws Exception
+    {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        CacheInvalidation keys = objectMapper.readValue( objectMapper.writeValueAsString(
+            CacheInvalidation.forKeys( "origin", "test", Lists.newArrayList( "k1", "k2" ) ) ), CacheInvalidation.class );
+
+        assertFalse( keys.isAll() );
+        assertEquals( Sets.newHashSet( "k1", "k2" ), keys.getAffectedKeys() );
+
+        CacheInvalidation all = objectMapper.readValue( objectMapper.writeValueAsString(
+            new CacheInvalidation( "origin", "test", null ) ), CacheInvalidation.class );
+
+        assertTrue( all.isAll() );
+        assertEquals( "origin", all.getOrigin() );
+    }
+}
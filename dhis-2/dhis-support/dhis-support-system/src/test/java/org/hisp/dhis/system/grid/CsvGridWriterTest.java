@@ -0,0 +1,65 @@
+package org.hisp.dhis.system.grid;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringWriter;
+
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridHeader;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class CsvGridWriterTest
+{
+    @Test
+    public void testWriteRows()
+    {
+        Grid grid = new ListGrid();
+        grid.addHeader( new GridHeader( "colA", "Col A" ) );
+        grid.addHeader( new GridHeader( "colB", "Col B" ) );
+
+        StringWriter writer = new StringWriter();
+
+        CsvGridWriter csvWriter = new CsvGridWriter( writer );
+        csvWriter.start( grid );
+        csvWriter.addRow( Lists.newArrayList( "a1", 1d ) );
+        csvWriter.addRow( Lists.newArrayList( "a2", null ) );
+        csvWriter.finish();
+
+        String[] lines = writer.toString().split( "\\r?\\n" );
+
+        assertEquals( 3, lines.length );
+        assertEquals( "Col A,Col B", lines[0] );
+        assertEquals( "a1,1.0", lines[1] );
+        assertEquals( "a2,", lines[2] );
+    }
+}
@@ -41,6 +41,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.hisp.dhis.common.DimensionKey;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.GridHeader;
 import org.hisp.dhis.common.ValueType;
@@ -843,6 +844,18 @@ public class GridTest
         assertEquals( Integer.valueOf( 43 ), map.get( "41-42" ) );
     }
     
+    @Test
+    public void testGetAsKeyMap()
+    {
+        Map<DimensionKey, Integer> map = gridA.getAsKeyMap( 2 );
+        
+        assertEquals( 4, map.size() );
+        assertEquals( Integer.valueOf( 13 ), map.get( DimensionKey.of( "11", "12" ) ) );
+        assertEquals( Integer.valueOf( 23 ), map.get( DimensionKey.of( "21", "22" ) ) );
+        assertEquals( Integer.valueOf( 33 ), map.get( DimensionKey.of( "31", "32" ) ) );
+        assertEquals( Integer.valueOf( 43 ), map.get( DimensionKey.of( "41", "42" ) ) );
+    }
+    
     @Test
     public void testJRDataSource() throws Exception
     {
@@ -0,0 +1,76 @@
+package org.hisp.dhis.system.grid;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.system.util.JacksonUtils;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class JsonGridWriterTest
+{
+    @Test
+    @SuppressWarnings( "unchecked" )
+    public void testWriteRows()
+        throws Exception
+    {
+        Grid grid = new ListGrid();
+        grid.addHeader( new GridHeader( "colA", "Col A" ) );
+        grid.addHeader( new GridHeader( "colB", "Col B" ) );
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        JsonGridWriter jsonWriter = new JsonGridWriter( out );
+        jsonWriter.start( grid );
+        jsonWriter.addRow( Lists.newArrayList( "a1", 1d ) );
+        jsonWriter.addRow( Lists.newArrayList( "a2", 2d ) );
+        jsonWriter.finish();
+
+        Map<String, Object> map = JacksonUtils.fromJsonToMap( new String( out.toByteArray(), StandardCharsets.UTF_8 ) );
+
+        assertEquals( 2, ((List<?>) map.get( "headers" )).size() );
+        assertEquals( 2, map.get( "width" ) );
+        assertEquals( 2, map.get( "height" ) );
+
+        List<List<Object>> rows = (List<List<Object>>) map.get( "rows" );
+
+        assertEquals( 2, rows.size() );
+        assertEquals( Lists.newArrayList( "a1", 1d ), rows.get( 0 ) );
+        assertEquals( Lists.newArrayList( "a2", 2d ), rows.get( 1 ) );
+    }
+}
@@ -35,6 +35,7 @@ import org.hisp.dhis.user.User;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -197,4 +198,60 @@ public class NotifierTest extends DhisSpringTest
         assertEquals( 4, jobSummariesForAnalyticsType.size() );
     }
 
+    @Test
+    public void testNotificationsPerJobAreBounded()
+    {
+        for ( int i = 0; i < 1200; i++ )
+        {
+            notifier.notify( metadataImportJobConfig, "Step " + i );
+        }
+
+        List<Notification> notifications = notifier.getNotificationsByJobId( METADATA_IMPORT, metadataImportJobConfig.getUid() );
+
+        assertEquals( 1000, notifications.size() );
+        assertEquals( "Step 1199", notifications.get( 0 ).getMessage() );
+        assertEquals( "Step 200", notifications.get( 999 ).getMessage() );
+
+        notifier.clear( metadataImportJobConfig );
+    }
+
+    @Test
+    public void testListener()
+    {
+        List<Notification> notifications = new ArrayList<>();
+        List<Object> summaries = new ArrayList<>();
+
+        NotificationListener listener = new NotificationListener()
+        {
+            @Override
+            public void notification( String jobId, Notification notification )
+            {
+                notifications.add( notification );
+            }
+
+            @Override
+            public void jobSummary( JobType jobType, String jobId, Object jobSummary )
+            {
+                summaries.add( jobSummary );
+            }
+        };
+
+        notifier.addListener( listener );
+
+        notifier.notify( analyticsTableJobConfig, "Process started" );
+        notifier.notify( analyticsTableJobConfig, "Process done" );
+        notifier.addJobSummary( analyticsTableJobConfig, "summary", String.class );
+
+        notifier.removeListener( listener );
+
+        notifier.notify( analyticsTableJobConfig, "Process restarted" );
+
+        assertEquals( 2, notifications.size() );
+        assertEquals( "Process started", notifications.get( 0 ).getMessage() );
+        assertEquals( "Process done", notifications.get( 1 ).getMessage() );
+        assertEquals( 1, summaries.size() );
+        assertEquals( "summary", summaries.get( 0 ) );
+
+        notifier.clear( analyticsTableJobConfig );
+    }
 }
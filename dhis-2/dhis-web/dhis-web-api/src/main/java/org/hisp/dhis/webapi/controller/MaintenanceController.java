@@ -30,9 +30,13 @@ import org.hisp.dhis.analytics.AnalyticsTableGenerator;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import org.hisp.dhis.analytics.AnalyticsQueryScheduler;
+import org.hisp.dhis.analytics.AnalyticsQueryStats;
 import org.hisp.dhis.analytics.AnalyticsTableService;
 import org.hisp.dhis.analytics.partition.PartitionManager;
 import org.hisp.dhis.appmanager.AppManager;
+import org.hisp.dhis.cache.CacheRegistry;
+import org.hisp.dhis.cache.CacheStatistics;
 import org.hisp.dhis.cache.HibernateCacheManager;
 import org.hisp.dhis.category.CategoryCombo;
 import org.hisp.dhis.category.CategoryManager;
@@ -59,12 +63,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author Lars Helge Overland
@@ -85,9 +91,15 @@ public class MaintenanceController
     @Autowired
     private HibernateCacheManager cacheManager;
 
+    @Autowired
+    private CacheRegistry cacheRegistry;
+
     @Autowired
     private PartitionManager partitionManager;
 
+    @Autowired
+    private AnalyticsQueryScheduler analyticsQueryScheduler;
+
     @Autowired
     private RenderService renderService;
 
@@ -245,9 +257,38 @@ public class MaintenanceController
     public void clearCache()
     {
         cacheManager.clearCache();
+        cacheRegistry.invalidateAll();
         partitionManager.clearCaches();
     }
 
+    @RequestMapping( value = "/cache", method = RequestMethod.GET, produces = { "application/json" } )
+    @PreAuthorize( "hasRole('ALL') or hasRole('F_PERFORM_MAINTENANCE')" )
+    public @ResponseBody List<CacheStatistics> getCacheStatistics()
+    {
+        return cacheRegistry.getStatistics();
+    }
+
+    @RequestMapping( value = "/analyticsQueryStatistics", method = RequestMethod.GET, produces = { "application/json" } )
+    @PreAuthorize( "hasRole('ALL') or hasRole('F_PERFORM_MAINTENANCE')" )
+    public @ResponseBody Map<String, AnalyticsQueryStats> getAnalyticsQueryStatistics()
+    {
+        return analyticsQueryScheduler.getStatistics();
+    }
+
+    @RequestMapping( value = "/cache/{region}", method = { RequestMethod.PUT, RequestMethod.POST } )
+    @PreAuthorize( "hasRole('ALL') or hasRole('F_PERFORM_MAINTENANCE')" )
+    public void clearCacheRegion( @PathVariable String region, HttpServletResponse response )
+        throws Exception
+    {
+        if ( !cacheRegistry.invalidate( region ) )
+        {
+            webMessageService.sendJson( WebMessageUtils.notFound( "Cache region does not exist: " + region ), response );
+            return;
+        }
+
+        webMessageService.sendJson( WebMessageUtils.ok( "Cache region was cleared: " + region ), response );
+    }
+
     @RequestMapping( value = "/dataPruning/organisationUnits/{uid}", method = { RequestMethod.PUT, RequestMethod.POST } )
     @PreAuthorize( "hasRole('ALL')" )
     @ResponseStatus( HttpStatus.NO_CONTENT )
@@ -65,6 +65,7 @@ import org.hisp.dhis.system.notification.Notification;
 import org.hisp.dhis.system.notification.Notifier;
 import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.webapi.mvc.annotation.ApiVersion;
+import org.hisp.dhis.webapi.service.NotificationStreamService;
 import org.hisp.dhis.webapi.utils.ContextUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
@@ -75,6 +76,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.fasterxml.jackson.dataformat.csv.CsvFactory;
 import com.fasterxml.jackson.dataformat.csv.CsvGenerator;
@@ -109,6 +111,9 @@ public class SystemController
     @Autowired
     private RenderService renderService;
 
+    @Autowired
+    private NotificationStreamService notificationStreamService;
+
     @Autowired
     private I18nManager i18nManager;
 
@@ -231,6 +236,15 @@ public class SystemController
         renderService.toJson( response.getOutputStream(), notifications );
     }
 
+    @RequestMapping( value = "/tasks/{jobType}/stream", method = RequestMethod.GET, produces = "text/event-stream" )
+    public SseEmitter getTaskStream( @PathVariable( "jobType" ) String jobType, @RequestParam( required = false ) String jobId,
+        HttpServletResponse response )
+    {
+        setNoStore( response );
+
+        return notificationStreamService.subscribe( JobType.valueOf( jobType.toUpperCase() ), jobId );
+    }
+
     @RequestMapping( value = "/tasks/{jobType}/{jobId}", method = RequestMethod.GET, produces = { "*/*", "application/json" } )
     public void getTaskJsonByUid( @PathVariable( "jobType" ) String jobType, @PathVariable( "jobId" ) String jobId,
         HttpServletResponse response )
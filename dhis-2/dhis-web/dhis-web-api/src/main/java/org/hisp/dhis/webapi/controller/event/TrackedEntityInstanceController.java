@@ -55,6 +55,7 @@ import org.hisp.dhis.common.DxfNamespaces;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.IdSchemes;
 import org.hisp.dhis.common.OrganisationUnitSelectionMode;
+import org.hisp.dhis.common.PageToken;
 import org.hisp.dhis.common.Pager;
 import org.hisp.dhis.common.PagerUtils;
 import org.hisp.dhis.common.ValueType;
@@ -202,6 +203,8 @@ public class TrackedEntityInstanceController
         @RequestParam( required = false ) boolean totalPages,
         @RequestParam( required = false ) Boolean skipPaging,
         @RequestParam( required = false ) Boolean paging,
+        @RequestParam( required = false ) boolean keysetPaging,
+        @RequestParam( required = false ) String pageToken,
         @RequestParam( required = false ) boolean includeDeleted,
         @RequestParam( required = false ) boolean includeAllAttributes,
         @RequestParam( required = false ) String order ) throws Exception
@@ -228,6 +231,9 @@ public class TrackedEntityInstanceController
             eventStatus, eventStartDate, eventEndDate, skipMeta, page, pageSize, totalPages, skipPaging, includeDeleted, includeAllAttributes,
             getOrderParams( order ) );
 
+        queryParams.setKeysetPaging( keysetPaging );
+        queryParams.setPageToken( pageToken != null ? PageToken.decode( pageToken ) : null );
+
         if ( trackedEntityInstance == null )
         {
             trackedEntityInstances = trackedEntityInstanceService.getTrackedEntityInstances( queryParams,
@@ -242,7 +248,22 @@ public class TrackedEntityInstanceController
                 .collect( Collectors.toList() ) : null;
         }
 
-        if ( queryParams.isPaging() && queryParams.isTotalPages() )
+        if ( queryParams.isPaging() && queryParams.isKeysetPaging() )
+        {
+            // The total is only counted for the first page
+
+            int count = queryParams.isTotalPages() && !queryParams.hasPageToken() ?
+                trackedEntityInstanceService.getTrackedEntityInstanceCount( queryParams, true, false ) : 0;
+            Pager pager = new Pager( 1, count, queryParams.getPageSizeWithDefault() );
+
+            if ( queryParams.hasNextPageToken() )
+            {
+                pager.setNextPageToken( queryParams.getNextPageToken().encode() );
+            }
+
+            rootNode.addChild( NodeUtils.createPager( pager ) );
+        }
+        else if ( queryParams.isPaging() && queryParams.isTotalPages() )
         {
             int count = trackedEntityInstanceService.getTrackedEntityInstanceCount( queryParams, true, false );
             Pager pager = new Pager( queryParams.getPageWithDefault(), count, queryParams.getPageSizeWithDefault() );
@@ -0,0 +1,302 @@
+package org.hisp.dhis.webapi.service;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import com.google.common.base.Suppliers;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.render.RenderService;
+import org.hisp.dhis.scheduling.JobType;
+import org.hisp.dhis.system.notification.Notification;
+import org.hisp.dhis.system.notification.NotificationListener;
+import org.hisp.dhis.system.notification.Notifier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Pushes job notifications and job summaries to clients as server-sent events,
+ * replacing polling of the tasks and task summaries endpoints. Clients first
+ * receive the current notifications and summary, then every new notification
+ * and summary of the job type, or of a single job if a job identifier is given.
+ * Each client has a bounded queue of pending events which is written by a
+ * small pool of threads, so that slow clients never hold up the job which
+ * notifies nor other clients. Clients which fall behind by more than
+ * {@link #MAX_PENDING_EVENTS} events are disconnected, and receive the current
+ * state again when reconnecting.
+ */
+@Service
+public class NotificationStreamService
+    implements NotificationListener
+{
+    private static final Log log = LogFactory.getLog( NotificationStreamService.class );
+
+    private static final long EMITTER_TIMEOUT = TimeUnit.MINUTES.toMillis( 30 );
+
+    private static final int MAX_PENDING_EVENTS = 100;
+
+    private static final int SEND_THREADS = 4;
+
+    private static final String EVENT_NOTIFICATIONS = "notifications";
+
+    private static final String EVENT_NOTIFICATION = "notification";
+
+    private static final String EVENT_SUMMARY = "summary";
+
+    @Autowired
+    private Notifier notifier;
+
+    @Autowired
+    private RenderService renderService;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool( SEND_THREADS,
+        new CustomizableThreadFactory( "notification-stream-" ) );
+
+    @PostConstruct
+    public void init()
+    {
+        notifier.addListener( this );
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        notifier.removeListener( this );
+        subscriptions.forEach( subscription -> subscription.emitter.complete() );
+        executor.shutdownNow();
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Creates an event stream for the given job type, and optionally a single job.
+     *
+     * @param jobType the job type.
+     * @param jobId   the job identifier, can be null.
+     * @return an emitter of server-sent events.
+     */
+    public SseEmitter subscribe( JobType jobType, String jobId )
+    {
+        SseEmitter emitter = new SseEmitter( EMITTER_TIMEOUT );
+        Subscription subscription = new Subscription( emitter, jobType, jobId );
+
+        emitter.onCompletion( () -> remove( subscription ) );
+        emitter.onTimeout( () -> remove( subscription ) );
+
+        // the current state is queued first and read when sent, after subscribing, so that no event is lost,
+        // clients skip duplicates by id
+
+        subscription.events.offer( () -> {
+            List<Notification> notifications = jobId != null ?
+                notifier.getNotificationsByJobId( jobType, jobId ) : notifier.getLastNotificationsByJobType( jobType, null );
+
+            return SseEmitter.event().name( EVENT_NOTIFICATIONS )
+                .data( renderService.toJsonAsString( notifications ), MediaType.APPLICATION_JSON );
+        } );
+
+        subscription.events.offer( () -> {
+            Object summary = jobId != null ? notifier.getJobSummaryByJobId( jobType, jobId ) : notifier.getJobSummary( jobType );
+
+            return summary != null ? SseEmitter.event().name( EVENT_SUMMARY )
+                .data( renderService.toJsonAsString( summary ), MediaType.APPLICATION_JSON ) : null;
+        } );
+
+        subscriptions.add( subscription );
+
+        schedule( subscription );
+
+        return emitter;
+    }
+
+    // -------------------------------------------------------------------------
+    // NotificationListener implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void notification( String jobId, Notification notification )
+    {
+        if ( subscriptions.isEmpty() )
+        {
+            return;
+        }
+
+        Supplier<String> data = Suppliers.memoize( () -> renderService.toJsonAsString( notification ) );
+
+        publish( notification.getCategory(), jobId, () -> SseEmitter.event().name( EVENT_NOTIFICATION )
+            .id( notification.getUid() ).data( data.get(), MediaType.APPLICATION_JSON ) );
+    }
+
+    @Override
+    public void jobSummary( JobType jobType, String jobId, Object jobSummary )
+    {
+        if ( subscriptions.isEmpty() )
+        {
+            return;
+        }
+
+        Supplier<String> data = Suppliers.memoize( () -> renderService.toJsonAsString( jobSummary ) );
+
+        publish( jobType, jobId, () -> SseEmitter.event().name( EVENT_SUMMARY ).data( data.get(), MediaType.APPLICATION_JSON ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Queues an event for the matching subscriptions and schedules sending for
+     * subscriptions which are not already being sent to. Event builders can
+     * only be built once, so a new builder is created for each subscription.
+     * Subscriptions with a full queue are closed.
+     */
+    private void publish( JobType jobType, String jobId, Supplier<SseEmitter.SseEventBuilder> event )
+    {
+        for ( Subscription subscription : subscriptions )
+        {
+            if ( subscription.matches( jobType, jobId ) )
+            {
+                if ( !subscription.events.offer( event ) )
+                {
+                    log.debug( "Closing notification stream which fell behind" );
+                    remove( subscription );
+                    subscription.events.clear();
+                }
+
+                schedule( subscription );
+            }
+        }
+    }
+
+    /**
+     * Schedules sending for the given subscription unless it is already being
+     * sent to.
+     */
+    private void schedule( Subscription subscription )
+    {
+        if ( subscription.sending.compareAndSet( false, true ) )
+        {
+            executor.execute( () -> send( subscription ) );
+        }
+    }
+
+    /**
+     * Sends the queued events of the given subscription until the queue is
+     * empty, and completes the emitter if the subscription is closed. Only one
+     * thread sends to a subscription at a time, which keeps events in order.
+     * Events which build to null, such as a missing summary, are skipped.
+     */
+    private void send( Subscription subscription )
+    {
+        do
+        {
+            Supplier<SseEmitter.SseEventBuilder> event;
+
+            while ( !subscription.closed && (event = subscription.events.poll()) != null )
+            {
+                try
+                {
+                    SseEmitter.SseEventBuilder builder = event.get();
+
+                    if ( builder != null )
+                    {
+                        subscription.emitter.send( builder );
+                    }
+                }
+                catch ( IOException | IllegalStateException ex )
+                {
+                    log.debug( "Closing notification stream: " + ex.getMessage() );
+                    remove( subscription );
+                    subscription.emitter.completeWithError( ex );
+                    return;
+                }
+            }
+
+            if ( subscription.closed )
+            {
+                subscription.emitter.complete();
+                return;
+            }
+
+            subscription.sending.set( false );
+        }
+        while ( (subscription.closed || !subscription.events.isEmpty()) && subscription.sending.compareAndSet( false, true ) );
+    }
+
+    private void remove( Subscription subscription )
+    {
+        subscription.closed = true;
+        subscriptions.remove( subscription );
+    }
+
+    private static class Subscription
+    {
+        private final SseEmitter emitter;
+
+        private final JobType jobType;
+
+        private final String jobId;
+
+        private final Queue<Supplier<SseEmitter.SseEventBuilder>> events = new ArrayBlockingQueue<>( MAX_PENDING_EVENTS );
+
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private volatile boolean closed;
+
+        Subscription( SseEmitter emitter, JobType jobType, String jobId )
+        {
+            this.emitter = emitter;
+            this.jobType = jobType;
+            this.jobId = jobId;
+        }
+
+        boolean matches( JobType jobType, String jobId )
+        {
+            return this.jobType == jobType && (this.jobId == null || this.jobId.equals( jobId ));
+        }
+    }
+}